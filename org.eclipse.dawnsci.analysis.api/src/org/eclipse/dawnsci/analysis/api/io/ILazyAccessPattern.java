@@ -0,0 +1,27 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.analysis.api.io;
+
+import org.eclipse.dawnsci.analysis.api.dataset.SliceND;
+
+/**
+ * Used by lazy loaders that can make use of a declared pattern of access, e.g. to read ahead
+ */
+public interface ILazyAccessPattern {
+
+	/**
+	 * Declare that frames of the given region will be read in order. Each frame spans the region in
+	 * the given axes and has one item in the other axes, which are iterated over with the last axis
+	 * changing fastest
+	 * @param region (can be null to clear pattern)
+	 * @param axes frame axes
+	 */
+	public void setAccessPattern(SliceND region, int... axes);
+}
@@ -0,0 +1,22 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.analysis.api.io;
+
+/**
+ * Used by lazy writeable datasets to write slices to a file some time after they are set
+ */
+public interface ILazyAsyncSaver extends ILazySaver {
+
+	/**
+	 * Wait until all slices set so far have been written
+	 * @throws Exception if any slice could not be written
+	 */
+	public void flush() throws Exception;
+}
@@ -24,7 +24,6 @@ import java.util.Map;
 
 import org.apache.commons.math3.complex.Complex;
 import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
-import org.apache.commons.math3.stat.descriptive.moment.Variance;
 import org.eclipse.dawnsci.analysis.api.dataset.IDataset;
 import org.eclipse.dawnsci.analysis.api.dataset.ILazyDataset;
 import org.eclipse.dawnsci.analysis.api.dataset.Slice;
@@ -2694,51 +2693,8 @@ public abstract class AbstractDataset extends LazyDatasetBase implements Dataset
 	 * @param ignoreInfs if true, ignore infinities
 	 */
 	protected void calculateMaxMin(final boolean ignoreNaNs, final boolean ignoreInfs) {
-		IndexIterator iter = getIterator();
-		double amax = Double.NEGATIVE_INFINITY;
-		double amin = Double.POSITIVE_INFINITY;
-		double pmax = Double.MIN_VALUE;
-		double pmin = Double.POSITIVE_INFINITY;
-		double hash = 0;
-		boolean hasNaNs = false;
-
-		while (iter.hasNext()) {
-			final double val = getElementDoubleAbs(iter.index);
-			if (Double.isNaN(val)) {
-				hash = (hash * 19) % Integer.MAX_VALUE;
-				if (ignoreNaNs)
-					continue;
-				hasNaNs = true;
-			} else if (Double.isInfinite(val)) {
-				hash = (hash * 19) % Integer.MAX_VALUE;
-				if (ignoreInfs)
-					continue;
-			} else {
-				hash = (hash * 19 + val) % Integer.MAX_VALUE;
-			}
-
-			if (val > amax) {
-				amax = val;
-			}
-			if (val < amin) {
-				amin = val;
-			}
-			if (val > 0) {
-				if (val < pmin) {
-					pmin = val;
-				}
-				if (val > pmax) {
-					pmax = val;
-				}
-			}
-		}
-
-		int ihash = ((int) hash) * 19 + getDtype() * 17 + getElementsPerItem();
-		setStoredValue(storeName(ignoreNaNs, ignoreInfs, STORE_SHAPELESS_HASH), ihash);
-		storedValues.put(storeName(ignoreNaNs, ignoreInfs, STORE_MAX), hasNaNs ? Double.NaN : fromDoubleToNumber(amax));
-		storedValues.put(storeName(ignoreNaNs, ignoreInfs, STORE_MIN), hasNaNs ? Double.NaN : fromDoubleToNumber(amin));
-		storedValues.put(storeName(ignoreNaNs, ignoreInfs, STORE_POS_MAX), hasNaNs ? Double.NaN : fromDoubleToNumber(pmax));
-		storedValues.put(storeName(ignoreNaNs, ignoreInfs, STORE_POS_MIN), hasNaNs ? Double.NaN : fromDoubleToNumber(pmin));
+		storeSummaryStats(SummaryStats.calculate(this, ignoreNaNs, ignoreInfs), ignoreNaNs, ignoreInfs,
+				storeName(ignoreNaNs, ignoreInfs, STORE_STATS));
 	}
 
 	/**
@@ -2748,64 +2704,18 @@ public abstract class AbstractDataset extends LazyDatasetBase implements Dataset
 	 * @param name
 	 */
 	protected void calculateSummaryStats(final boolean ignoreNaNs, final boolean ignoreInfs, final String name) {
-		final IndexIterator iter = getIterator();
-		final SummaryStatistics stats = new SummaryStatistics();
-		//sum of logs is slow and we dont use it, so blocking its calculation here
-		stats.setSumLogImpl(new NullStorelessUnivariateStatistic());
-
-		if (storedValues == null || !storedValues.containsKey(STORE_HASH)) {
-			boolean hasNaNs = false;
-			double hash = 0;
-			double pmax = Double.MIN_VALUE;
-			double pmin = Double.POSITIVE_INFINITY;
-
-			while (iter.hasNext()) {
-				final double val = getElementDoubleAbs(iter.index);
-				if (Double.isNaN(val)) {
-					hash = (hash * 19) % Integer.MAX_VALUE;
-					if (ignoreNaNs)
-						continue;
-					hasNaNs = true;
-				} else if (Double.isInfinite(val)) {
-					hash = (hash * 19) % Integer.MAX_VALUE;
-					if (ignoreInfs)
-						continue;
-				} else {
-					hash = (hash * 19 + val) % Integer.MAX_VALUE;
-				}
-				if (val > 0) {
-					if (val < pmin) {
-						pmin = val;
-					}
-					if (val > pmax) {
-						pmax = val;
-					}
-				}
-				stats.addValue(val);
-			}
-
-			int ihash = ((int) hash) * 19 + getDtype() * 17 + getElementsPerItem();
-			setStoredValue(storeName(ignoreNaNs, ignoreInfs, STORE_SHAPELESS_HASH), ihash);
-			storedValues.put(storeName(ignoreNaNs, ignoreInfs, STORE_MAX), hasNaNs ? Double.NaN : fromDoubleToNumber(stats.getMax()));
-			storedValues.put(storeName(ignoreNaNs, ignoreInfs, STORE_MIN), hasNaNs ? Double.NaN : fromDoubleToNumber(stats.getMin()));
-			storedValues.put(storeName(ignoreNaNs, ignoreInfs, STORE_POS_MAX), hasNaNs ? Double.NaN : fromDoubleToNumber(pmax));
-			storedValues.put(storeName(ignoreNaNs, ignoreInfs, STORE_POS_MIN), hasNaNs ? Double.NaN : fromDoubleToNumber(pmin));
-			storedValues.put(name, stats);
-		} else {
-			while (iter.hasNext()) {
-				final double val = getElementDoubleAbs(iter.index);
-				if (ignoreNaNs && Double.isNaN(val)) {
-					continue;
-				}
-				if (ignoreInfs && Double.isInfinite(val)) {
-					continue;
-				}
-
-				stats.addValue(val);
-			}
+		storeSummaryStats(SummaryStats.calculate(this, ignoreNaNs, ignoreInfs), ignoreNaNs, ignoreInfs, name);
+	}
 
-			storedValues.put(name, stats);
-		}
+	private void storeSummaryStats(final SummaryStats stats, final boolean ignoreNaNs, final boolean ignoreInfs, final String name) {
+		final boolean nans = stats.hasNaNs();
+		int ihash = ((int) stats.getHash()) * 19 + getDtype() * 17 + getElementsPerItem();
+		setStoredValue(storeName(ignoreNaNs, ignoreInfs, STORE_SHAPELESS_HASH), ihash);
+		storedValues.put(storeName(ignoreNaNs, ignoreInfs, STORE_MAX), nans ? Double.NaN : fromDoubleToNumber(stats.getMax()));
+		storedValues.put(storeName(ignoreNaNs, ignoreInfs, STORE_MIN), nans ? Double.NaN : fromDoubleToNumber(stats.getMin()));
+		storedValues.put(storeName(ignoreNaNs, ignoreInfs, STORE_POS_MAX), nans ? Double.NaN : fromDoubleToNumber(stats.getPositiveMax()));
+		storedValues.put(storeName(ignoreNaNs, ignoreInfs, STORE_POS_MIN), nans ? Double.NaN : fromDoubleToNumber(stats.getPositiveMin()));
+		storedValues.put(name, stats);
 	}
 
 	/**
@@ -3004,17 +2914,17 @@ public abstract class AbstractDataset extends LazyDatasetBase implements Dataset
 		return null;
 	}
 
-	private SummaryStatistics getStatistics(boolean ignoreNaNs) {
+	private SummaryStats getStatistics(boolean ignoreNaNs) {
 		boolean ignoreInfs = false; // TODO
 		if (!hasFloatingPointElements()) {
 			ignoreNaNs = false;
 		}
 
 		String n = storeName(ignoreNaNs, ignoreInfs, STORE_STATS);
-		SummaryStatistics stats = (SummaryStatistics) getStoredValue(n);
+		SummaryStats stats = (SummaryStats) getStoredValue(n);
 		if (stats == null) {
 			calculateSummaryStats(ignoreNaNs, ignoreInfs, n);
-			stats = (SummaryStatistics) getStoredValue(n);
+			stats = (SummaryStats) getStoredValue(n);
 		}
 
 		return stats;
@@ -3286,14 +3196,7 @@ public abstract class AbstractDataset extends LazyDatasetBase implements Dataset
 
 	@Override
 	public Number variance(boolean isDatasetWholePopulation) {
-		SummaryStatistics stats = getStatistics(false);
-
-		if (isDatasetWholePopulation) {
-			Variance newVar = (Variance) stats.getVarianceImpl().copy();
-			newVar.setBiasCorrected(false);
-			return newVar.getResult();
-		}
-		return stats.getVariance();
+		return getStatistics(false).getVariance(isDatasetWholePopulation);
 	}
 
 	@Override
@@ -3319,7 +3222,7 @@ public abstract class AbstractDataset extends LazyDatasetBase implements Dataset
 
 	@Override
 	public Number rootMeanSquare() {
-		final SummaryStatistics stats = getStatistics(false);
+		final SummaryStats stats = getStatistics(false);
 		final double mean = stats.getMean();
 		return Math.sqrt(stats.getVariance() + mean * mean);
 	}
@@ -15,6 +15,16 @@ package org.eclipse.dawnsci.analysis.dataset.impl;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.eclipse.dawnsci.analysis.api.dataset.ILazyDataset;
 import org.eclipse.dawnsci.analysis.api.dataset.Slice;
@@ -24,6 +34,10 @@ import org.eclipse.dawnsci.analysis.api.monitor.IMonitor;
 /**
  * Class to aggregate a set of lazy datasets and present them as a single lazy dataset where
  * the first position value accesses the aggregation
+ * <p>
+ * A slice that spans several datasets is read piece by piece straight into its place in the
+ * output. The pieces are read concurrently by the calling thread and a shared, bounded pool of
+ * reader threads.
  */
 public class AggregateDataset extends LazyDatasetBase implements ILazyDataset {
 
@@ -42,6 +56,58 @@ public class AggregateDataset extends LazyDatasetBase implements ILazyDataset {
 	private int[] sliceStart = null;
 	private int[] sliceStep  = null;
 
+	/**
+	 * Default maximum number of threads used to read a slice
+	 */
+	public static final int DEFAULT_READ_THREADS = Math.max(1, Math.min(8, Runtime.getRuntime().availableProcessors()));
+
+	private static int readThreads = DEFAULT_READ_THREADS;
+
+	private static ExecutorService readPool;
+
+	/**
+	 * @return maximum number of threads used to read a slice
+	 */
+	public static synchronized int getReadThreads() {
+		return readThreads;
+	}
+
+	/**
+	 * Set maximum number of threads, including the calling thread, used to read a slice that
+	 * spans several datasets. One means datasets are read in turn by the calling thread
+	 * @param threads
+	 */
+	public static synchronized void setReadThreads(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("Number of threads must be positive");
+		}
+		if (threads != readThreads && readPool != null) {
+			readPool.shutdown();
+			readPool = null;
+		}
+		readThreads = threads;
+	}
+
+	private static synchronized ExecutorService getReadPool() {
+		if (readPool == null) {
+			final int n = readThreads - 1;
+			ThreadPoolExecutor pool = new ThreadPoolExecutor(n, n, 30, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+						private final AtomicInteger count = new AtomicInteger();
+
+						@Override
+						public Thread newThread(Runnable r) {
+							Thread t = new Thread(r, "Aggregate dataset reader " + count.incrementAndGet());
+							t.setDaemon(true);
+							return t;
+						}
+					});
+			pool.allowCoreThreadTimeOut(true);
+			readPool = pool;
+		}
+		return readPool;
+	}
+
 	/**
 	 * Calculate (possibly extended) shapes from given datasets
 	 * @param extend if true, extend rank by one
@@ -249,36 +315,132 @@ public class AggregateDataset extends LazyDatasetBase implements ILazyDataset {
 		int fe = stop[0];
 		int fs = step[0];
 
-		List<Dataset> sliced = new ArrayList<Dataset>();
+		final List<int[]> pieces = new ArrayList<int[]>(); // dataset index, start, stop and output position
 		int op = fb;
 		int p = op;
-		ILazyDataset od = data[map[op]];
-		ILazyDataset nd; 
+		int n = 0;
+		int o = 0;
 		while (p < fe) {
-			
-			if (monitor!=null && monitor.isCancelled()) throw new Exception("Slice cancelled");
-			nd = data[map[p]];
-			if (nd != od) {
-				start[0] = op - offset[map[op]];
-				stop[0] = p - offset[map[op]];
-				Dataset a = DatasetUtils.convertToDataset(od.getSlice(monitor, start, stop, step));
-				sliced.add(a.cast(dtype));
-
-				od = nd;
+			if (map[p] != map[op]) {
+				pieces.add(new int[] {map[op], op - offset[map[op]], p - offset[map[op]], o});
+				o += n;
+				n = 0;
 				op = p;
 			}
+			n++;
 			p += fs;
 		}
-		start[0] = op - offset[map[op]];
-		stop[0] = p - offset[map[op]];
-		Dataset a = DatasetUtils.convertToDataset(od.getSlice(monitor, start, stop, step));
-		sliced.add(a.cast(dtype));
+		pieces.add(new int[] {map[op], op - offset[map[op]], p - offset[map[op]], o});
+
+		if (pieces.size() == 1) {
+			if (monitor != null && monitor.isCancelled()) throw new Exception("Slice cancelled");
+			start[0] = pieces.get(0)[1];
+			stop[0] = pieces.get(0)[2];
+			Dataset d = DatasetUtils.convertToDataset(data[map[op]].getSlice(monitor, start, stop, step)).cast(dtype);
+			d.setName(name);
+			return d;
+		}
 
-		Dataset d = DatasetUtils.concatenate(sliced.toArray(new Dataset[0]), 0);
+		final Dataset d = DatasetFactory.zeros(isize, slice.getShape(), dtype);
+		readPieces(monitor, pieces, start, stop, step, d);
 		d.setName(name);
 		return d;
 	}
 
+	/**
+	 * Read pieces of slice from stored datasets into output
+	 * @param monitor
+	 * @param pieces list of dataset index, start and stop in first dimension and position in output
+	 * @param start
+	 * @param stop
+	 * @param step
+	 * @param out
+	 * @throws Exception
+	 */
+	private void readPieces(final IMonitor monitor, final List<int[]> pieces, final int[] start, final int[] stop, final int[] step,
+			final Dataset out) throws Exception {
+		final AtomicInteger next = new AtomicInteger();
+		final AtomicInteger reading = new AtomicInteger(); // number of pieces claimed and not finished
+		final AtomicReference<Exception> error = new AtomicReference<Exception>();
+		final int[] oShape = out.getShapeRef();
+		Callable<Void> reader = new Callable<Void>() {
+			@Override
+			public Void call() throws Exception {
+				final int[] lstart = start.clone();
+				final int[] lstop = stop.clone();
+				final int[] ostart = new int[oShape.length];
+				final int[] ostop = oShape.clone();
+				while (true) {
+					reading.incrementAndGet(); // before claiming so caller cannot miss a piece being read
+					try {
+						int i = next.getAndIncrement();
+						if (i >= pieces.size()) {
+							return null;
+						}
+						if (monitor != null && monitor.isCancelled()) throw new Exception("Slice cancelled");
+						int[] piece = pieces.get(i);
+						lstart[0] = piece[1];
+						lstop[0] = piece[2];
+						Dataset a = DatasetUtils.convertToDataset(data[piece[0]].getSlice(monitor, lstart, lstop, step));
+						ostart[0] = piece[3];
+						ostop[0] = piece[3] + a.getShapeRef()[0];
+						out.setSlice(a, new SliceND(oShape, ostart, ostop, null));
+					} catch (Exception e) {
+						error.compareAndSet(null, e);
+						next.set(pieces.size()); // stop other readers
+						throw e;
+					} finally {
+						if (reading.decrementAndGet() == 0) {
+							synchronized (reading) {
+								reading.notifyAll();
+							}
+						}
+					}
+				}
+			}
+		};
+
+		final int threads = Math.min(getReadThreads(), pieces.size());
+		if (threads == 1) {
+			reader.call();
+			return;
+		}
+
+		// The calling thread reads until all pieces are claimed then waits only for pieces
+		// being read. It never waits for a helper to start as, when this is a nested aggregate
+		// read on a pool thread, the helper may be queued behind the very thread waiting for it
+		ExecutorService pool = getReadPool();
+		List<Future<Void>> helpers = new ArrayList<Future<Void>>();
+		try {
+			for (int t = 1; t < threads; t++) {
+				try {
+					helpers.add(pool.submit(reader));
+				} catch (RejectedExecutionException e) {
+					break; // pool was replaced so read the rest here
+				}
+			}
+			try {
+				reader.call();
+			} catch (Exception e) {
+				// rethrown below after other readers stop
+			}
+			synchronized (reading) {
+				while (reading.get() > 0) {
+					reading.wait();
+				}
+			}
+		} finally {
+			next.set(pieces.size());
+			for (Future<Void> f : helpers) {
+				f.cancel(false); // those yet to start have nothing to read
+			}
+		}
+		Exception e = error.get();
+		if (e != null) {
+			throw e;
+		}
+	}
+
 	@Override
 	public Dataset getSlice(Slice... slice) {
 		try {
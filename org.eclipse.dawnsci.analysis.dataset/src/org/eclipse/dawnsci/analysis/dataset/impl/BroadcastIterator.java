@@ -25,14 +25,35 @@ public abstract class BroadcastIterator extends BroadcastIteratorBase {
 	}
 
 	public static BroadcastIterator createIterator(Dataset a, Dataset b, Dataset o, boolean createIfNull) {
-		if (Arrays.equals(a.getShapeRef(), b.getShapeRef()) && a.getStrides() == null && b.getStrides() == null) {
-			if (o == null || (o.getStrides() == null && Arrays.equals(a.getShapeRef(), o.getShapeRef()))) {
+		if (Arrays.equals(a.getShapeRef(), b.getShapeRef()) && isContiguous(a) && isContiguous(b)) {
+			if (o == null || (isContiguous(o) && Arrays.equals(a.getShapeRef(), o.getShapeRef()))) {
 				return new ContiguousPairIterator(a, b, o, createIfNull);
 			}
 		}
 		return new BroadcastPairIterator(a, b, o, createIfNull);
 	}
 
+	/**
+	 * @param a
+	 * @return true if items of dataset are contiguous in its buffer (possibly after an offset)
+	 */
+	static boolean isContiguous(Dataset a) {
+		final int[] stride = a.getStrides();
+		if (stride == null) {
+			return true;
+		}
+
+		final int[] shape = a.getShapeRef();
+		int s = a.getElementsPerItem();
+		for (int j = shape.length - 1; j >= 0; j--) {
+			if (shape[j] > 1 && stride[j] != s) {
+				return false;
+			}
+			s *= shape[j];
+		}
+		return true;
+	}
+
 	/**
 	 * Index in output dataset
 	 */
@@ -45,6 +66,22 @@ public abstract class BroadcastIterator extends BroadcastIteratorBase {
 	 * Current value in first dataset
 	 */
 	public long aLong;
+	/**
+	 * Number of items in current run
+	 */
+	public int runLength;
+	/**
+	 * Step between items of current run in first dataset
+	 */
+	public int aRunStep;
+	/**
+	 * Step between items of current run in second dataset
+	 */
+	public int bRunStep;
+	/**
+	 * Step between items of current run in output dataset
+	 */
+	public int oRunStep;
 	/**
 	 * Output dataset
 	 */
@@ -70,6 +107,47 @@ public abstract class BroadcastIterator extends BroadcastIteratorBase {
 		return oDataset;
 	}
 
+	/**
+	 * @return first dataset (as broadcasted)
+	 */
+	public Dataset getFirstDataset() {
+		return aDataset;
+	}
+
+	/**
+	 * @return second dataset (as broadcasted)
+	 */
+	public Dataset getSecondDataset() {
+		return bDataset;
+	}
+
+	/**
+	 * @param dtype
+	 * @return true if both datasets are of given dataset type
+	 */
+	public boolean hasInputDtype(int dtype) {
+		return aDataset.getDtype() == dtype && bDataset.getDtype() == dtype;
+	}
+
+	/**
+	 * Move to next run of items that are equally spaced in the buffers of the datasets. The
+	 * start of the run is given by aIndex, bIndex and oIndex, its length by runLength and the
+	 * steps by aRunStep, bRunStep and oRunStep. This allows a loop to index the primitive arrays
+	 * directly rather than calling {@link #hasNext()} for each item.
+	 * <p>
+	 * Note, values are not read and this must not be mixed with calls to {@link #hasNext()}
+	 * without a {@link #reset()}. This implementation returns runs of single items
+	 * @return true if there is another run
+	 */
+	public boolean nextRun() {
+		if (hasNext()) {
+			runLength = 1;
+			return true;
+		}
+		runLength = 0;
+		return false;
+	}
+
 	@Override
 	protected void storeCurrentValues() {
 		if (aIndex >= 0) {
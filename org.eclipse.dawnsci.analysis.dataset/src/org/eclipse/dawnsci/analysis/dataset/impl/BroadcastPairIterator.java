@@ -33,6 +33,8 @@ public class BroadcastPairIterator extends BroadcastIterator {
 	private final int aStep, bStep, oStep;
 	private int aMax, bMax;
 	private int aStart, bStart, oStart;
+	private final int runAxis; // first axis of a run
+	private final int runSize; // number of items in a run
 
 	/**
 	 * 
@@ -115,6 +117,21 @@ public class BroadcastPairIterator extends BroadcastIterator {
 		bStart = bDataset.getOffset();
 		bMax += bStart;
 		oStart = oDelta == null ? 0 : oDataset.getOffset();
+
+		// merge trailing axes over which all strides are uniform
+		int axis = endrank;
+		int size = endrank < 0 ? 1 : maxShape[endrank];
+		while (axis > 0) {
+			final int j = axis - 1;
+			if (aStride[j] != aStride[endrank] * size || bStride[j] != bStride[endrank] * size ||
+					(oDelta != null && oStride[j] != oStride[endrank] * size)) {
+				break;
+			}
+			axis = j;
+			size *= maxShape[j];
+		}
+		runAxis = axis;
+		runSize = size;
 		reset();
 	}
 
@@ -156,7 +173,7 @@ public class BroadcastPairIterator extends BroadcastIterator {
 			oIndex = bIndex;
 		}
 
-		if (aIndex == aMax || bIndex == bMax)
+		if (endrank < 0 && (aIndex == aMax || bIndex == bMax)) // zero-ranked datasets
 			return false;
 
 		if (read) {
@@ -179,6 +196,77 @@ public class BroadcastPairIterator extends BroadcastIterator {
 		return true;
 	}
 
+	/**
+	 * Runs are along the last axis (or the last axes if the items are equally spaced over them)
+	 */
+	@Override
+	public boolean nextRun() {
+		if (endrank < 0) { // zero-ranked datasets
+			if (aIndex >= aStart) {
+				runLength = 0;
+				return false;
+			}
+			aIndex = aStart;
+			bIndex = bStart;
+			oIndex = outputA ? aIndex : (outputB ? bIndex : oStart);
+			aRunStep = 0;
+			bRunStep = 0;
+			oRunStep = 0;
+			runLength = 1;
+			return true;
+		}
+
+		if (pos[endrank] >= maxShape[endrank]) { // no more runs
+			runLength = 0;
+			return false;
+		}
+		if (pos[endrank] < 0) { // first run
+			pos[endrank] = 0;
+			aIndex = aStart;
+			bIndex = bStart;
+			oIndex = oStart;
+		} else {
+			int j = runAxis - 1;
+			for (; j >= 0; j--) {
+				pos[j]++;
+				aIndex += aStride[j];
+				bIndex += bStride[j];
+				if (oDelta != null)
+					oIndex += oStride[j];
+				if (pos[j] >= maxShape[j]) {
+					pos[j] = 0;
+					aIndex -= aDelta[j]; // reset these dimensions
+					bIndex -= bDelta[j];
+					if (oDelta != null)
+						oIndex -= oDelta[j];
+				} else {
+					break;
+				}
+			}
+			if (j < 0) {
+				pos[endrank] = maxShape[endrank];
+				aIndex = aMax;
+				bIndex = bMax;
+				runLength = 0;
+				return false;
+			}
+		}
+
+		aRunStep = aStride[endrank];
+		bRunStep = bStride[endrank];
+		if (outputA) {
+			oIndex = aIndex;
+			oRunStep = aRunStep;
+		} else if (outputB) {
+			oIndex = bIndex;
+			oRunStep = bRunStep;
+		} else {
+			oRunStep = oDelta == null ? 0 : oStride[endrank];
+		}
+		runLength = runSize;
+		return true;
+	}
+
 	/**
 	 * @return shape of first broadcasted dataset
 	 */
@@ -37,12 +37,15 @@ public class CollectionStats {
 	 */
 	public static Dataset mean(final List<IDataset> sets) throws Exception {
 		
-		return process(sets, new StatFunction() {
-			@Override
-			public double evaluate(Dataset set) {
-				return (Double)set.mean();
-			}
-		});
+		assertShapes(sets);
+		final RunningAverage av = new RunningAverage(sets.get(0));
+		av.update(sets.subList(1, sets.size()).toArray(new IDataset[sets.size() - 1]));
+
+		// Copy without the name and errors of the first set
+		final Dataset mean = new DoubleDataset(av.getCurrentAverage());
+		mean.setName("");
+		mean.setErrorBuffer(null);
+		return mean;
 	}
 	
 	/**
@@ -320,7 +320,20 @@ public class Comparisons {
 					r.setAbs(it.oIndex, rb);
 				}
 			} else {
-				if (as == 1) {
+				if (as == 1 && it.hasInputDtype(Dataset.FLOAT64)) {
+					final double[] adata = ((DoubleDataset) it.getFirstDataset()).data;
+					final double[] bdata = ((DoubleDataset) it.getSecondDataset()).data;
+					final boolean[] rdata = r.data;
+					while (it.nextRun()) {
+						final int n = it.runLength;
+						final int sa = it.aRunStep;
+						final int sb = it.bRunStep;
+						final int so = it.oRunStep;
+						for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += sa, ib += sb, io += so) {
+							rdata[io] = adata[ia] > bdata[ib];
+						}
+					}
+				} else if (as == 1) {
 					while (it.hasNext()) {
 						r.setAbs(it.oIndex, it.aDouble > it.bDouble);
 					}
@@ -430,7 +443,20 @@ public class Comparisons {
 					r.setAbs(it.oIndex, rb);
 				}
 			} else {
-				if (as == 1) {
+				if (as == 1 && it.hasInputDtype(Dataset.FLOAT64)) {
+					final double[] adata = ((DoubleDataset) it.getFirstDataset()).data;
+					final double[] bdata = ((DoubleDataset) it.getSecondDataset()).data;
+					final boolean[] rdata = r.data;
+					while (it.nextRun()) {
+						final int n = it.runLength;
+						final int sa = it.aRunStep;
+						final int sb = it.bRunStep;
+						final int so = it.oRunStep;
+						for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += sa, ib += sb, io += so) {
+							rdata[io] = adata[ia] >= bdata[ib];
+						}
+					}
+				} else if (as == 1) {
 					while (it.hasNext()) {
 						r.setAbs(it.oIndex, it.aDouble >= it.bDouble);
 					}
@@ -541,7 +567,20 @@ public class Comparisons {
 					r.setAbs(it.oIndex, rb);
 				}
 			} else {
-				if (as == 1) {
+				if (as == 1 && it.hasInputDtype(Dataset.FLOAT64)) {
+					final double[] adata = ((DoubleDataset) it.getFirstDataset()).data;
+					final double[] bdata = ((DoubleDataset) it.getSecondDataset()).data;
+					final boolean[] rdata = r.data;
+					while (it.nextRun()) {
+						final int n = it.runLength;
+						final int sa = it.aRunStep;
+						final int sb = it.bRunStep;
+						final int so = it.oRunStep;
+						for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += sa, ib += sb, io += so) {
+							rdata[io] = adata[ia] < bdata[ib];
+						}
+					}
+				} else if (as == 1) {
 					while (it.hasNext()) {
 						r.setAbs(it.oIndex, it.aDouble < it.bDouble);
 					}
@@ -652,7 +691,20 @@ public class Comparisons {
 					r.setAbs(it.oIndex, rb);
 				}
 			} else {
-				if (as == 1) {
+				if (as == 1 && it.hasInputDtype(Dataset.FLOAT64)) {
+					final double[] adata = ((DoubleDataset) it.getFirstDataset()).data;
+					final double[] bdata = ((DoubleDataset) it.getSecondDataset()).data;
+					final boolean[] rdata = r.data;
+					while (it.nextRun()) {
+						final int n = it.runLength;
+						final int sa = it.aRunStep;
+						final int sb = it.bRunStep;
+						final int so = it.oRunStep;
+						for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += sa, ib += sb, io += so) {
+							rdata[io] = adata[ia] <= bdata[ib];
+						}
+					}
+				} else if (as == 1) {
 					while (it.hasNext()) {
 						r.setAbs(it.oIndex, it.aDouble <= it.bDouble);
 					}
@@ -13,7 +13,7 @@
 package org.eclipse.dawnsci.analysis.dataset.impl;
 
 /**
- * Class to run over a pair of contiguous datasets
+ * Class to run over a pair of contiguous datasets (which can be views that start at an offset)
  */
 public class ContiguousPairIterator extends BroadcastIterator {
 	private final int aMax; // maximum index in array
@@ -21,19 +21,24 @@ public class ContiguousPairIterator extends BroadcastIterator {
 	private final int bMax; // maximum index in array
 	private final int bStep;
 	private final int oStep;
+	private final int aStart, bStart;
+	private int oStart;
 
 	public ContiguousPairIterator(Dataset a, Dataset b, Dataset o, boolean createIfNull) {
 		super(a, b, o);
 		aStep = a.getElementsPerItem();
-		aMax = a.getSize() * aStep;
+		aStart = getStart(a);
+		aMax = aStart + a.getSize() * aStep;
 		bStep = b.getElementsPerItem();
-		bMax = b.getSize() * bStep;
+		bStart = getStart(b);
+		bMax = bStart + b.getSize() * bStep;
 		if (outputA) {
 			oStep = aStep;
 		} else if (outputB) {
 			oStep = bStep;
 		} else if (o != null) {
 			oStep = o.getElementsPerItem();
+			oStart = getStart(o);
 		} else if (createIfNull) {
 			oDataset = BroadcastUtils.createDataset(a, b, a.getShapeRef());
 			oStep = oDataset.getElementsPerItem();
@@ -44,6 +49,10 @@ public class ContiguousPairIterator extends BroadcastIterator {
 		reset();
 	}
 
+	private static int getStart(Dataset d) {
+		return d.getStrides() == null ? 0 : d.getOffset();
+	}
+
 	@Override
 	public boolean hasNext() {
 		aIndex += aStep;
@@ -72,6 +81,36 @@ public class ContiguousPairIterator extends BroadcastIterator {
 		return true;
 	}
 
+	/**
+	 * There is only one run over all items
+	 */
+	@Override
+	public boolean nextRun() {
+		if (aIndex >= aStart) {
+			aIndex = aMax;
+			bIndex = bMax;
+			runLength = 0;
+			return false;
+		}
+
+		aIndex = aStart;
+		bIndex = bStart;
+		aRunStep = aStep;
+		bRunStep = bStep;
+		if (outputA) {
+			oIndex = aIndex;
+			oRunStep = aStep;
+		} else if (outputB) {
+			oIndex = bIndex;
+			oRunStep = bStep;
+		} else {
+			oIndex = oStart;
+			oRunStep = oStep;
+		}
+		runLength = (aMax - aStart) / aStep;
+		return runLength > 0;
+	}
+
 	@Override
 	public int[] getPos() {
 		return null;
@@ -79,9 +118,9 @@ public class ContiguousPairIterator extends BroadcastIterator {
 
 	@Override
 	public void reset() {
-		aIndex = -aStep;
-		bIndex = -bStep;
-		oIndex = -oStep;
+		aIndex = aStart - aStep;
+		bIndex = bStart - bStep;
+		oIndex = oStart - oStep;
 		if (read) {
 			storeCurrentValues();
 		}
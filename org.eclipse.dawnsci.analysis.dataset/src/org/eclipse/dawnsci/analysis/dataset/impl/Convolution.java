@@ -0,0 +1,394 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.analysis.dataset.impl;
+
+/**
+ * Kernel filtering of flat arrays of values as used by {@link Image#convolutionFilter(Dataset, Dataset)}.
+ * <p>
+ * The kernel is applied without flipping and is centred so that its element at index
+ * {@code kShape/2} lies over the output position. Values beyond the edges are taken as zero.
+ * Depending on the sizes of the data and kernel, this is done directly, as a sequence of 1D
+ * passes for separable kernels or with Fourier transforms via {@link Signal#convolveToSameShape(Dataset, Dataset, int[])}.
+ * Fourier transforms are not used when the data or kernel hold NaNs or infinities, as these would
+ * spread to every output value rather than only to those whose windows contain them
+ */
+final class Convolution {
+
+	enum Method {
+		DIRECT, SEPARABLE, FFT
+	}
+
+	/**
+	 * Estimated cost of the FFT method per element of padded data and per factor of two in size
+	 * relative to one multiply-add of the direct method
+	 */
+	static final double FFT_COST = 32;
+
+	/**
+	 * Relative tolerance used to decide whether a kernel is separable
+	 */
+	private static final double SEPARABLE_TOLERANCE = 1e-12;
+
+	private Convolution() {
+	}
+
+	/**
+	 * Filter data with kernel using the quickest method
+	 * @param data
+	 * @param shape
+	 * @param kernel
+	 * @param kShape
+	 * @param allowFFT if false, do not use the FFT method as it is subject to rounding errors
+	 * @return filtered values
+	 */
+	static double[] filter(final double[] data, final int[] shape, final double[] kernel, final int[] kShape, final boolean allowFFT) {
+		final double[][] vectors = shape.length > 1 ? separate(kernel, kShape) : null;
+		if (vectors != null) {
+			return filterSeparable(data, shape, vectors, allowFFT, false);
+		}
+		if (chooseMethod(shape, kShape, false, allowFFT && isFinite(data) && isFinite(kernel)) == Method.FFT) {
+			return correlateFFT(data, shape, kernel, kShape);
+		}
+		return correlate(data, shape, kernel, kShape);
+	}
+
+	/**
+	 * Filter data with separable kernel using the quickest method
+	 * @param data
+	 * @param shape
+	 * @param vectors kernel for each axis
+	 * @param allowFFT if false, do not use the FFT method as it is subject to rounding errors
+	 * @param normalise if true, divide by sum of kernel values that lie within data
+	 * @return filtered values
+	 */
+	static double[] filterSeparable(final double[] data, final int[] shape, final double[][] vectors, final boolean allowFFT, final boolean normalise) {
+		final int rank = shape.length;
+		final int[] kShape = new int[rank];
+		for (int i = 0; i < rank; i++) {
+			kShape[i] = vectors[i].length;
+		}
+
+		boolean finite = allowFFT && isFinite(data);
+		for (int i = 0; finite && i < rank; i++) {
+			finite = isFinite(vectors[i]);
+		}
+
+		final double[] out;
+		if (chooseMethod(shape, kShape, true, finite) == Method.FFT) {
+			out = correlateFFT(data, shape, outerProduct(vectors, kShape), kShape);
+		} else {
+			double[] in = data;
+			for (int i = 0; i < rank; i++) {
+				final int[] vShape = new int[rank];
+				for (int j = 0; j < rank; j++) {
+					vShape[j] = j == i ? kShape[i] : 1;
+				}
+				in = correlate(in, shape, vectors[i], vShape);
+			}
+			out = in;
+		}
+
+		if (normalise) {
+			normalise(out, shape, vectors);
+		}
+		return out;
+	}
+
+	/**
+	 * @param values
+	 * @return true if no value is NaN or infinite
+	 */
+	static boolean isFinite(final double[] values) {
+		for (double v : values) {
+			if (Double.isNaN(v) || Double.isInfinite(v)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param shape
+	 * @param kShape
+	 * @param separable
+	 * @param allowFFT
+	 * @return method with lowest estimated cost
+	 */
+	static Method chooseMethod(final int[] shape, final int[] kShape, final boolean separable, final boolean allowFFT) {
+		final int rank = shape.length;
+		double size = 1;
+		double kSize = 1;
+		double kSum = 0;
+		double padded = 1;
+		boolean fits = true;
+		for (int i = 0; i < rank; i++) {
+			final int k = kShape[i] | 1;
+			size *= shape[i];
+			kSize *= kShape[i];
+			kSum += kShape[i];
+			padded *= shape[i] + k - 1;
+			if (k > shape[i]) {
+				fits = false;
+			}
+		}
+
+		final double direct = size * (separable ? kSum : kSize);
+		if (allowFFT && fits && FFT_COST * padded * Math.log(padded) / Math.log(2) < direct) {
+			return Method.FFT;
+		}
+		return separable ? Method.SEPARABLE : Method.DIRECT;
+	}
+
+	/**
+	 * @param kernel
+	 * @param kShape
+	 * @return kernel for each axis whose outer product is the given kernel or null if it is not separable
+	 */
+	static double[][] separate(final double[] kernel, final int[] kShape) {
+		final int rank = kShape.length;
+		int p = 0;
+		for (int i = 1; i < kernel.length; i++) {
+			if (Math.abs(kernel[i]) > Math.abs(kernel[p])) {
+				p = i;
+			}
+		}
+		final double kMax = kernel[p];
+		if (kMax == 0 || Double.isNaN(kMax) || Double.isInfinite(kMax)) {
+			return null;
+		}
+
+		final int[] strides = getStrides(kShape);
+		final int[] pivot = new int[rank];
+		for (int i = 0, r = p; i < rank; i++) {
+			pivot[i] = r / strides[i];
+			r -= pivot[i] * strides[i];
+		}
+
+		// take lines through pivot
+		final double[][] vectors = new double[rank][];
+		final int base = p;
+		for (int i = 0; i < rank; i++) {
+			final double[] v = new double[kShape[i]];
+			final int start = base - pivot[i] * strides[i];
+			for (int j = 0; j < v.length; j++) {
+				v[j] = kernel[start + j * strides[i]];
+				if (i > 0) {
+					v[j] /= kMax;
+				}
+			}
+			vectors[i] = v;
+		}
+
+		final double[] product = outerProduct(vectors, kShape);
+		final double tol = SEPARABLE_TOLERANCE * Math.abs(kMax);
+		for (int i = 0; i < kernel.length; i++) {
+			if (!(Math.abs(kernel[i] - product[i]) <= tol)) {
+				return null;
+			}
+		}
+		return vectors;
+	}
+
+	private static int[] getStrides(final int[] shape) {
+		final int rank = shape.length;
+		final int[] strides = new int[rank];
+		for (int i = rank - 1, s = 1; i >= 0; i--) {
+			strides[i] = s;
+			s *= shape[i];
+		}
+		return strides;
+	}
+
+	private static double[] outerProduct(final double[][] vectors, final int[] kShape) {
+		final int rank = kShape.length;
+		int size = 1;
+		for (int k : kShape) {
+			size *= k;
+		}
+		final double[] product = new double[size];
+		final int[] pos = new int[rank];
+		for (int i = 0; i < size; i++) {
+			double v = 1;
+			for (int j = 0; j < rank; j++) {
+				v *= vectors[j][pos[j]];
+			}
+			product[i] = v;
+			for (int j = rank - 1; j >= 0; j--) {
+				if (++pos[j] < kShape[j]) {
+					break;
+				}
+				pos[j] = 0;
+			}
+		}
+		return product;
+	}
+
+	/**
+	 * Direct method that adds each shifted copy of the data multiplied by its kernel value
+	 * @param data
+	 * @param shape
+	 * @param kernel
+	 * @param kShape
+	 * @return filtered values
+	 */
+	static double[] correlate(final double[] data, final int[] shape, final double[] kernel, final int[] kShape) {
+		final int rank = shape.length;
+		final double[] out = new double[data.length];
+		if (data.length == 0) {
+			return out;
+		}
+		if (rank == 0) {
+			out[0] = kernel[0] * data[0];
+			return out;
+		}
+
+		final int[] strides = getStrides(shape);
+		final int[] kPos = new int[rank];
+		final int[] lo = new int[rank];
+		final int[] hi = new int[rank];
+		final int[] pos = new int[rank];
+		final int last = rank - 1;
+		for (int k = 0; k < kernel.length; k++) {
+			final double w = kernel[k];
+			int shift = 0;
+			boolean empty = false;
+			for (int i = 0; i < rank; i++) {
+				final int s = kPos[i] - kShape[i] / 2;
+				lo[i] = Math.max(0, -s);
+				hi[i] = Math.min(shape[i], shape[i] - s);
+				if (lo[i] >= hi[i]) {
+					empty = true;
+				}
+				shift += s * strides[i];
+			}
+
+			if (!empty) {
+				System.arraycopy(lo, 0, pos, 0, rank);
+				while (true) {
+					int base = 0;
+					for (int i = 0; i < last; i++) {
+						base += pos[i] * strides[i];
+					}
+					final int end = base + hi[last];
+					for (int j = base + lo[last]; j < end; j++) {
+						out[j] += w * data[j + shift];
+					}
+
+					int i = last - 1;
+					for (; i >= 0; i--) {
+						if (++pos[i] < hi[i]) {
+							break;
+						}
+						pos[i] = lo[i];
+					}
+					if (i < 0) {
+						break;
+					}
+				}
+			}
+
+			for (int i = last; i >= 0; i--) {
+				if (++kPos[i] < kShape[i]) {
+					break;
+				}
+				kPos[i] = 0;
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * FFT method. The kernel is padded to odd lengths and flipped so its convolution matches the
+	 * direct method
+	 * @param data
+	 * @param shape
+	 * @param kernel
+	 * @param kShape
+	 * @return filtered values
+	 */
+	static double[] correlateFFT(final double[] data, final int[] shape, final double[] kernel, final int[] kShape) {
+		final int rank = kShape.length;
+		final int[] pShape = new int[rank];
+		for (int i = 0; i < rank; i++) {
+			pShape[i] = kShape[i] | 1;
+		}
+
+		final int[] kStrides = getStrides(kShape);
+		final DoubleDataset g = new DoubleDataset(pShape);
+		final double[] gData = g.getData();
+		final int[] pos = new int[rank];
+		for (int i = 0; i < gData.length; i++) {
+			int k = 0;
+			boolean inside = true;
+			for (int j = 0; j < rank; j++) {
+				final int p = pShape[j] - 1 - pos[j];
+				if (p >= kShape[j]) {
+					inside = false;
+					break;
+				}
+				k += p * kStrides[j];
+			}
+			if (inside) {
+				gData[i] = kernel[k];
+			}
+			for (int j = rank - 1; j >= 0; j--) {
+				if (++pos[j] < pShape[j]) {
+					break;
+				}
+				pos[j] = 0;
+			}
+		}
+
+		final Dataset c = Signal.convolveToSameShape(new DoubleDataset(data, shape), g, null);
+		if (c.getDtype() == Dataset.FLOAT64 && c.getStrides() == null) {
+			return ((DoubleDataset) c).getData();
+		}
+		return new DoubleDataset(c).getData();
+	}
+
+	/**
+	 * Divide values by sum of separable kernel values that lie within data
+	 * @param out
+	 * @param shape
+	 * @param vectors
+	 */
+	private static void normalise(final double[] out, final int[] shape, final double[][] vectors) {
+		final int rank = shape.length;
+		final double[][] sums = new double[rank][];
+		for (int i = 0; i < rank; i++) {
+			final double[] v = vectors[i];
+			final int h = v.length / 2;
+			final double[] s = new double[shape[i]];
+			for (int p = 0; p < s.length; p++) {
+				double t = 0;
+				for (int j = Math.max(0, h - p); j < v.length && p + j - h < s.length; j++) {
+					t += v[j];
+				}
+				s[p] = t;
+			}
+			sums[i] = s;
+		}
+
+		final int[] pos = new int[rank];
+		for (int i = 0; i < out.length; i++) {
+			double t = 1;
+			for (int j = 0; j < rank; j++) {
+				t *= sums[j][pos[j]];
+			}
+			out[i] /= t;
+			for (int j = rank - 1; j >= 0; j--) {
+				if (++pos[j] < shape[j]) {
+					break;
+				}
+				pos[j] = 0;
+			}
+		}
+	}
+}
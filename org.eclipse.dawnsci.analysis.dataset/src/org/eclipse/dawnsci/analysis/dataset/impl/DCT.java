@@ -60,7 +60,7 @@ public class DCT {
 		}
 		axis = a.checkAxis(axis);
 
-		return dct1d(a, n, axis);
+		return transform(a, new int[] {n}, new int[] {axis}, false);
 	}
 
 	/**
@@ -104,7 +104,6 @@ public class DCT {
 	public static Dataset dctn(final Dataset a, int[] s, int[] axes) {
 		int[] shape = a.getShape();
 		int rank = shape.length;
-		Dataset result = null;
 
 		if (s == null) {
 			if (axes == null) {
@@ -151,19 +150,7 @@ public class DCT {
 			axes[i] = a.checkAxis(axes[i]);
 		}
 
-		switch (s.length) {
-		case 1:
-			result = dct1d(a, s[0], axes[0]);
-			break;
-		case 2:
-			result = dct2d(a, s, axes);
-			break;
-		case 3:
-			result = dct3d(a, s, axes);
-			break;
-		}
-
-		return result;
+		return transform(a, s, axes, false);
 	}
 
 	private static int[] newShape(final int[] shape, final int[] s, final int[] axes) {
@@ -175,156 +162,129 @@ public class DCT {
 		return nshape;
 	}
 
-	private static Dataset dct1d(final Dataset a, final int n, final int axis) {
-		Dataset result = null;
-		Dataset dest = null;
-
-		int[] shape;
-		PositionIterator pi;
-		int[] pos;
-		boolean[] hit;
-
+	/**
+	 * Transform dataset with a plan which is taken from the cache and put back when finished
+	 * @param a dataset
+	 * @param s shape of transform
+	 * @param axes of transform
+	 * @param inverse
+	 * @return new dataset holding transform (or null if the dataset is not floating point)
+	 */
+	private static Dataset transform(final Dataset a, final int[] s, final int[] axes, final boolean inverse) {
+		final boolean isFloat;
 		switch (a.getDtype()) {
 		case Dataset.FLOAT32:
-			FloatDCT_1D ffft = new FloatDCT_1D(n);
-			shape = a.getShape().clone();
-			shape[axis] = n;
-			result = new FloatDataset(shape);
-			dest = new FloatDataset(new int[] {n});
-			float[] fdata = (float[]) dest.getBuffer();
-			pi = a.getPositionIterator(axis);
-			pos = pi.getPos();
-			hit = pi.getOmit();
-			while (pi.hasNext()) {
-				Arrays.fill(fdata, 0.f);
-				a.copyItemsFromAxes(pos, hit, dest);
-				ffft.forward(fdata, true);
-				result.setItemsOnAxes(pos, hit, fdata);
-			}
+			isFloat = true;
 			break;
 		case Dataset.FLOAT64:
-			DoubleDCT_1D dfft = new DoubleDCT_1D(n);
-			shape = a.getShape().clone();
-			shape[axis] = n;
-			result = new DoubleDataset(shape);
-			dest = new DoubleDataset(new int[] {n});
-			double[] ddata = (double[]) dest.getBuffer();
-			pi = a.getPositionIterator(axis);
-			pos = pi.getPos();
-			hit = pi.getOmit();
-			while (pi.hasNext()) {
-				Arrays.fill(ddata, 0.);
-				a.copyItemsFromAxes(pos, hit, dest);
-				dfft.forward(ddata, true);
-				result.setItemsOnAxes(pos, hit, ddata);
-			}
+			isFloat = false;
 			break;
 		default:
 			logger.warn("Non-float dataset not yet supported");
-			break;
+			return null;
 		}
 
-		return result;
+		final Object plan = takePlan(isFloat, s);
+		try {
+			final int[] shape = newShape(a.getShapeRef(), s, axes);
+			final Dataset result = isFloat ? new FloatDataset(shape) : new DoubleDataset(shape);
+			final Dataset dest = isFloat ? new FloatDataset(s) : new DoubleDataset(s);
+			final float[] fdata = isFloat ? (float[]) dest.getBuffer() : null;
+			final double[] ddata = isFloat ? null : (double[]) dest.getBuffer();
+			final PositionIterator pi = a.getPositionIterator(axes);
+			final int[] pos = pi.getPos();
+			final boolean[] hit = pi.getOmit();
+			while (pi.hasNext()) {
+				if (isFloat) {
+					Arrays.fill(fdata, 0.f);
+					a.copyItemsFromAxes(pos, hit, dest);
+					execute(plan, fdata, inverse);
+					result.setItemsOnAxes(pos, hit, fdata);
+				} else {
+					Arrays.fill(ddata, 0.);
+					a.copyItemsFromAxes(pos, hit, dest);
+					execute(plan, ddata, inverse);
+					result.setItemsOnAxes(pos, hit, ddata);
+				}
+			}
+			return result;
+		} finally {
+			PlanCache.release(plan, s);
+		}
 	}
 
-	private static Dataset dct2d(final Dataset a, final int[] s, final int[] axes) {
-		Dataset result = null;
-		Dataset dest = null;
-
-		PositionIterator pi;
-		int[] pos;
-		boolean[] hit;
-
-		switch (a.getDtype()) {
-		case Dataset.FLOAT32:
-			FloatDCT_2D ffft = new FloatDCT_2D(s[0], s[1]);
-			float[] fdata = null;
-			result = new FloatDataset(newShape(a.getShapeRef(), s, axes));
-			dest = new FloatDataset(s);
-			fdata = (float[]) dest.getBuffer();
-			pi = a.getPositionIterator(axes);
-			pos = pi.getPos();
-			hit = pi.getOmit();
-			while (pi.hasNext()) {
-				Arrays.fill(fdata, 0.f);
-				a.copyItemsFromAxes(pos, hit, dest);
-				ffft.forward(fdata, true);
-				result.setItemsOnAxes(pos, hit, fdata);
+	/**
+	 * @param isFloat
+	 * @param s shape of transform
+	 * @return cached plan or new one if none is cached
+	 */
+	private static Object takePlan(final boolean isFloat, final int[] s) {
+		Object plan = null;
+		switch (s.length) {
+		case 1:
+			plan = isFloat ? PlanCache.take(FloatDCT_1D.class, s) : PlanCache.take(DoubleDCT_1D.class, s);
+			if (plan == null) {
+				plan = isFloat ? new FloatDCT_1D(s[0]) : new DoubleDCT_1D(s[0]);
 			}
 			break;
-		case Dataset.FLOAT64:
-			DoubleDCT_2D dfft = new DoubleDCT_2D(s[0], s[1]);
-			double[] ddata = null;
-			result = new DoubleDataset(newShape(a.getShapeRef(), s, axes));
-			dest = new DoubleDataset(s);
-			ddata = (double[]) dest.getBuffer();
-			pi = a.getPositionIterator(axes);
-			pos = pi.getPos();
-			hit = pi.getOmit();
-			while (pi.hasNext()) {
-				Arrays.fill(ddata, 0.);
-				a.copyItemsFromAxes(pos, hit, dest);
-				dfft.forward(ddata, true);
-				result.setItemsOnAxes(pos, hit, ddata);
+		case 2:
+			plan = isFloat ? PlanCache.take(FloatDCT_2D.class, s) : PlanCache.take(DoubleDCT_2D.class, s);
+			if (plan == null) {
+				plan = isFloat ? new FloatDCT_2D(s[0], s[1]) : new DoubleDCT_2D(s[0], s[1]);
 			}
 			break;
-		default:
-			logger.warn("Non-float dataset not yet supported");
+		case 3:
+			plan = isFloat ? PlanCache.take(FloatDCT_3D.class, s) : PlanCache.take(DoubleDCT_3D.class, s);
+			if (plan == null) {
+				plan = isFloat ? new FloatDCT_3D(s[0], s[1], s[2]) : new DoubleDCT_3D(s[0], s[1], s[2]);
+			}
 			break;
 		}
-
-		return result;
+		return plan;
 	}
 
-	private static Dataset dct3d(final Dataset a, final int[] s, final int[] axes) {
-		Dataset result = null;
-		Dataset dest = null;
-
-		PositionIterator pi;
-		int[] pos;
-		boolean[] hit;
-
-		switch (a.getDtype()) {
-		case Dataset.FLOAT32:
-			FloatDCT_3D ffft = new FloatDCT_3D(s[0], s[1], s[2]);
-
-			float[] fdata = null;
-			result = new FloatDataset(newShape(a.getShapeRef(), s, axes));
-			dest = new FloatDataset(s);
-			fdata = (float[]) dest.getBuffer();
-			pi = a.getPositionIterator(axes);
-			pos = pi.getPos();
-			hit = pi.getOmit();
-			while (pi.hasNext()) {
-				Arrays.fill(fdata, 0.f);
-				a.copyItemsFromAxes(pos, hit, dest);
-				ffft.forward(fdata, true);
-				result.setItemsOnAxes(pos, hit, fdata);
+	private static void execute(final Object plan, final float[] data, final boolean inverse) {
+		if (plan instanceof FloatDCT_1D) {
+			if (inverse) {
+				((FloatDCT_1D) plan).inverse(data, true);
+			} else {
+				((FloatDCT_1D) plan).forward(data, true);
 			}
-			break;
-		case Dataset.FLOAT64:
-			DoubleDCT_3D dfft = new DoubleDCT_3D(s[0], s[1], s[2]);
-
-			double[] ddata = null;
-			result = new DoubleDataset(newShape(a.getShapeRef(), s, axes));
-			dest = new DoubleDataset(s);
-			ddata = (double[]) dest.getBuffer();
-			pi = a.getPositionIterator(axes);
-			pos = pi.getPos();
-			hit = pi.getOmit();
-			while (pi.hasNext()) {
-				Arrays.fill(ddata, 0.);
-				a.copyItemsFromAxes(pos, hit, dest);
-				dfft.forward(ddata, true);
-				result.setItemsOnAxes(pos, hit, ddata);
+		} else if (plan instanceof FloatDCT_2D) {
+			if (inverse) {
+				((FloatDCT_2D) plan).inverse(data, true);
+			} else {
+				((FloatDCT_2D) plan).forward(data, true);
+			}
+		} else {
+			if (inverse) {
+				((FloatDCT_3D) plan).inverse(data, true);
+			} else {
+				((FloatDCT_3D) plan).forward(data, true);
 			}
-			break;
-		default:
-			logger.warn("Non-float dataset not yet supported");
-			break;
 		}
+	}
 
-		return result;
+	private static void execute(final Object plan, final double[] data, final boolean inverse) {
+		if (plan instanceof DoubleDCT_1D) {
+			if (inverse) {
+				((DoubleDCT_1D) plan).inverse(data, true);
+			} else {
+				((DoubleDCT_1D) plan).forward(data, true);
+			}
+		} else if (plan instanceof DoubleDCT_2D) {
+			if (inverse) {
+				((DoubleDCT_2D) plan).inverse(data, true);
+			} else {
+				((DoubleDCT_2D) plan).forward(data, true);
+			}
+		} else {
+			if (inverse) {
+				((DoubleDCT_3D) plan).inverse(data, true);
+			} else {
+				((DoubleDCT_3D) plan).forward(data, true);
+			}
+		}
 	}
 
 	/**
@@ -350,7 +310,7 @@ public class DCT {
 		}
 		axis = a.checkAxis(axis);
 
-		return idct1d(a, n, axis);
+		return transform(a, new int[] {n}, new int[] {axis}, true);
 	}
 
 	/**
@@ -394,7 +354,6 @@ public class DCT {
 	public static Dataset idctn(final Dataset a, int[] s, int[] axes) {
 		int[] shape = a.getShape();
 		int rank = shape.length;
-		Dataset result = null;
 
 		if (s == null) {
 			if (axes == null) {
@@ -440,171 +399,7 @@ public class DCT {
 			axes[i] = a.checkAxis(axes[i]);
 		}
 
-		switch (s.length) {
-		case 1:
-			result = idct1d(a, s[0], axes[0]);
-			break;
-		case 2:
-			result = idct2d(a, s, axes);
-			break;
-		case 3:
-			result = idct3d(a, s, axes);
-			break;
-		}
-
-		return result;
-	}
-
-	private static Dataset idct1d(final Dataset a, final int n, final int axis) {
-		Dataset result = null;
-		Dataset dest = null;
-
-		int[] shape;
-		PositionIterator pi;
-		int[] pos;
-		boolean[] hit;
-
-		switch (a.getDtype()) {
-		case Dataset.FLOAT32:
-			FloatDCT_1D ffft = new FloatDCT_1D(n);
-			float[] fdata = null;
-			shape = a.getShape();
-			shape[axis] = n;
-			result = new FloatDataset(shape);
-			dest = new FloatDataset(new int[] {n});
-			fdata = (float[]) dest.getBuffer();
-			pi = a.getPositionIterator(axis);
-			pos = pi.getPos();
-			hit = pi.getOmit();
-			while (pi.hasNext()) {
-				Arrays.fill(fdata, 0.f);
-				a.copyItemsFromAxes(pos, hit, dest);
-				ffft.inverse(fdata, true);
-				result.setItemsOnAxes(pos, hit, fdata);
-			}
-			break;
-		case Dataset.FLOAT64:
-			DoubleDCT_1D dfft = new DoubleDCT_1D(n);
-			double[] ddata = null;
-			shape = a.getShape();
-			shape[axis] = n;
-			result = new DoubleDataset(shape);
-			dest = new DoubleDataset(new int[] {n});
-			ddata = (double[]) dest.getBuffer();
-			pi = a.getPositionIterator(axis);
-			pos = pi.getPos();
-			hit = pi.getOmit();
-			while (pi.hasNext()) {
-				Arrays.fill(ddata, 0.);
-				a.copyItemsFromAxes(pos, hit, dest);
-				dfft.inverse(ddata, true);
-				result.setItemsOnAxes(pos, hit, ddata);
-			}
-			break;
-		default:
-			logger.warn("Non-complex dataset not yet supported");
-			break;
-		}
-
-		return result;
-	}
-
-	private static Dataset idct2d(final Dataset a, final int[] s, final int[] axes) {
-		Dataset result = null;
-		Dataset dest = null;
-
-		PositionIterator pi;
-		int[] pos;
-		boolean[] hit;
-
-		switch (a.getDtype()) {
-		case Dataset.FLOAT32:
-			FloatDCT_2D ffft = new FloatDCT_2D(s[0], s[1]);
-			float[] fdata = null;
-			result = new FloatDataset(newShape(a.getShapeRef(), s, axes));
-			dest = new FloatDataset(s);
-			fdata = (float[]) dest.getBuffer();
-			pi = a.getPositionIterator(axes);
-			pos = pi.getPos();
-			hit = pi.getOmit();
-			while (pi.hasNext()) {
-				Arrays.fill(fdata, 0.f);
-				a.copyItemsFromAxes(pos, hit, dest);
-				ffft.inverse(fdata, true);
-				result.setItemsOnAxes(pos, hit, fdata);
-			}
-			break;
-		case Dataset.FLOAT64:
-			DoubleDCT_2D dfft = new DoubleDCT_2D(s[0], s[1]);
-			double[] ddata = null;
-			result = new DoubleDataset(newShape(a.getShapeRef(), s, axes));
-			dest = new DoubleDataset(s);
-			ddata = (double[]) dest.getBuffer();
-			pi = a.getPositionIterator(axes);
-			pos = pi.getPos();
-			hit = pi.getOmit();
-			while (pi.hasNext()) {
-				Arrays.fill(ddata, 0.);
-				a.copyItemsFromAxes(pos, hit, dest);
-				dfft.inverse(ddata, true);
-				result.setItemsOnAxes(pos, hit, ddata);
-			}
-			break;
-		default:
-			logger.warn("Non-complex dataset not yet supported");
-			break;
-		}
-
-		return result;
-	}
-
-	private static Dataset idct3d(final Dataset a, final int[] s, final int[] axes) {
-		Dataset result = null;
-		Dataset dest = null;
-
-		PositionIterator pi;
-		int[] pos;
-		boolean[] hit;
-
-		switch (a.getDtype()) {
-		case Dataset.FLOAT32:
-			FloatDCT_3D ffft = new FloatDCT_3D(s[0], s[1], s[2]);
-			float[] fdata = null;
-			result = new FloatDataset(newShape(a.getShapeRef(), s, axes));
-			dest = new FloatDataset(s);
-			fdata = (float[]) dest.getBuffer();
-			pi = a.getPositionIterator(axes);
-			pos = pi.getPos();
-			hit = pi.getOmit();
-			while (pi.hasNext()) {
-				Arrays.fill(fdata, 0.f);
-				a.copyItemsFromAxes(pos, hit, dest);
-				ffft.inverse(fdata, true);
-				result.setItemsOnAxes(pos, hit, fdata);
-			}
-			break;
-		case Dataset.FLOAT64:
-				DoubleDCT_3D dfft = new DoubleDCT_3D(s[0], s[1], s[2]);
-				double[] ddata = null;
-				result = new DoubleDataset(newShape(a.getShapeRef(), s, axes));
-				dest = new DoubleDataset(s);
-				ddata = (double[]) dest.getBuffer();
-				pi = a.getPositionIterator(axes);
-				pos = pi.getPos();
-				hit = pi.getOmit();
-				while (pi.hasNext()) {
-					Arrays.fill(ddata, 0.);
-					a.copyItemsFromAxes(pos, hit, dest);
-					dfft.inverse(ddata, true);
-					result.setItemsOnAxes(pos, hit, ddata);
-				}
-				break;
-		default:
-			logger.warn("Non-complex dataset not yet supported");
-			break;
-		}
-
-		return result;
+		return transform(a, s, axes, true);
 	}
 
 	/**
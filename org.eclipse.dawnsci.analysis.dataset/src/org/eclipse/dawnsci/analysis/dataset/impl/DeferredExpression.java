@@ -0,0 +1,656 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.analysis.dataset.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Element-wise expression on datasets whose evaluation is deferred so that a chain of
+ * operations is fused into a single pass over its inputs. For example,
+ * <pre>
+ * Dataset r = DeferredExpression.of(data).subtract(dark).divide(flat).evaluate();
+ * </pre>
+ * creates one output dataset and iterates once, whereas chaining calls to {@link Maths}
+ * creates a temporary dataset for each step.
+ * <p>
+ * Expressions are immutable so can be re-used. Inputs are broadcast against each other as
+ * in {@link Maths}. Values are calculated in double precision and, unless an output is given,
+ * the result is a floating point dataset of the widest input type. Only datasets with
+ * single-element items are supported.
+ */
+public abstract class DeferredExpression {
+
+	/**
+	 * Number of items evaluated at a time
+	 */
+	private static final int BLOCK = 1024;
+
+	DeferredExpression() {
+	}
+
+	/**
+	 * @param a dataset, number, array or expression
+	 * @return expression that represents given object
+	 */
+	public static DeferredExpression of(final Object a) {
+		if (a instanceof DeferredExpression) {
+			return (DeferredExpression) a;
+		}
+		if (a instanceof Number) {
+			return new Constant(((Number) a).doubleValue());
+		}
+		if (a instanceof Boolean) {
+			return new Constant(((Boolean) a) ? 1 : 0);
+		}
+		final Dataset d = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
+		if (d.getElementsPerItem() != 1) {
+			throw new IllegalArgumentException("Deferred expressions support datasets with single-element items only");
+		}
+		return new Input(d);
+	}
+
+	/**
+	 * @param b
+	 * @param op
+	 * @return expression of this op b
+	 */
+	public DeferredExpression operate(final Object b, final BinaryOperation op) {
+		return new Binary(this, of(b), op);
+	}
+
+	/**
+	 * @param b
+	 * @return expression of this + b
+	 */
+	public DeferredExpression add(final Object b) {
+		return operate(b, new BinaryOperation.Addition());
+	}
+
+	/**
+	 * @param b
+	 * @return expression of this - b
+	 */
+	public DeferredExpression subtract(final Object b) {
+		return operate(b, new BinaryOperation.Subtraction());
+	}
+
+	/**
+	 * @param b
+	 * @return expression of this * b
+	 */
+	public DeferredExpression multiply(final Object b) {
+		return operate(b, new BinaryOperation.Multiplication());
+	}
+
+	/**
+	 * @param b
+	 * @return expression of this / b
+	 */
+	public DeferredExpression divide(final Object b) {
+		return operate(b, new BinaryOperation.Division());
+	}
+
+	/**
+	 * @param b
+	 * @return expression of this / b which is zero where b is zero
+	 */
+	public DeferredExpression dividez(final Object b) {
+		return operate(b, new BinaryOperation.DivisionWithZero());
+	}
+
+	/**
+	 * @param b
+	 * @return expression of this ** b
+	 */
+	public DeferredExpression power(final Object b) {
+		return operate(b, new BinaryOperation.Exponentiation());
+	}
+
+	/**
+	 * @return expression of -this
+	 */
+	public DeferredExpression negative() {
+		return new Unary(this, Unary.NEGATIVE);
+	}
+
+	/**
+	 * @return expression of absolute value of this
+	 */
+	public DeferredExpression abs() {
+		return new Unary(this, Unary.ABS);
+	}
+
+	/**
+	 * @return expression of square root of this
+	 */
+	public DeferredExpression sqrt() {
+		return new Unary(this, Unary.SQRT);
+	}
+
+	/**
+	 * @return expression of exponential of this
+	 */
+	public DeferredExpression exp() {
+		return new Unary(this, Unary.EXP);
+	}
+
+	/**
+	 * @return expression of natural logarithm of this
+	 */
+	public DeferredExpression log() {
+		return new Unary(this, Unary.LOG);
+	}
+
+	/**
+	 * @param min
+	 * @param max
+	 * @return expression of this clipped to given limits
+	 */
+	public DeferredExpression clip(final double min, final double max) {
+		return new Clip(this, min, max);
+	}
+
+	/**
+	 * Evaluate expression (in parallel if {@link Maths#isParallel()} is true)
+	 * @return dataset
+	 */
+	public Dataset evaluate() {
+		return evaluate(null, Maths.isParallel());
+	}
+
+	/**
+	 * Evaluate expression
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @return dataset
+	 */
+	public Dataset evaluate(final Dataset o) {
+		return evaluate(o, Maths.isParallel());
+	}
+
+	/**
+	 * Evaluate expression
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return dataset
+	 */
+	public Dataset evaluate(final Dataset o, final boolean parallel) {
+		final Program p = new Program();
+		p.result = compile(p);
+		final int n = p.inputs.size();
+		final Dataset[] inputs = p.inputs.toArray(new Dataset[n]);
+
+		int[][] shapes = new int[n + 1][];
+		for (int i = 0; i < n; i++) {
+			shapes[i] = inputs[i].getShapeRef();
+		}
+		shapes[n] = o == null ? null : o.getShapeRef();
+		final int[] shape = n == 0 && o == null ? new int[0] : BroadcastUtils.broadcastShapes(shapes).get(0);
+
+		final Dataset result;
+		if (o == null) {
+			int dtype = Dataset.FLOAT32;
+			for (Dataset d : inputs) {
+				dtype = AbstractDataset.getBestDType(dtype, AbstractDataset.getBestFloatDType(d.getDtype()));
+			}
+			result = DatasetFactory.zeros(shape, dtype);
+		} else {
+			if (!Arrays.equals(shape, o.getShapeRef())) {
+				throw new IllegalArgumentException("Output does not match broadcasted shape");
+			}
+			if (o.getElementsPerItem() != 1) {
+				throw new IllegalArgumentException("Deferred expressions support datasets with single-element items only");
+			}
+			result = o;
+		}
+
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					p.run(in, out);
+				}
+			}, inputs);
+		} else {
+			p.run(inputs, result);
+		}
+
+		result.setName(toString());
+		return result;
+	}
+
+	/**
+	 * Add steps to program
+	 * @param p
+	 * @return index of buffer that holds values of this expression
+	 */
+	abstract int compile(Program p);
+
+	private static StringBuilder bracketIfNecessary(final DeferredExpression e) {
+		StringBuilder name = new StringBuilder(e.toString());
+		if (e instanceof Binary) {
+			name.insert(0, '(');
+			name.append(')');
+		}
+		return name;
+	}
+
+	/**
+	 * Sequence of steps which calculate values of an expression for a block of items
+	 */
+	static class Program {
+		final List<Dataset> inputs = new ArrayList<Dataset>();
+		final List<Integer> slots = new ArrayList<Integer>();
+		final List<double[]> constants = new ArrayList<double[]>();
+		final List<Step> steps = new ArrayList<Step>();
+		int buffers = 0;
+		int result;
+
+		/**
+		 * @param d
+		 * @return index of buffer for dataset (which is shared by repeated inputs)
+		 */
+		int addInput(Dataset d) {
+			for (int i = 0; i < inputs.size(); i++) {
+				if (inputs.get(i) == d) {
+					return slots.get(i);
+				}
+			}
+			inputs.add(d);
+			slots.add(buffers);
+			return buffers++;
+		}
+
+		int addConstant(double v) {
+			double[] c = new double[BLOCK];
+			Arrays.fill(c, v);
+			constants.add(c);
+			return -constants.size();
+		}
+
+		int addStep(Step s) {
+			steps.add(s);
+			return s.out;
+		}
+
+		int newBuffer() {
+			return buffers++;
+		}
+
+		/**
+		 * Run program over all items of output
+		 * @param in inputs (which may be views of the original inputs)
+		 * @param out output
+		 */
+		void run(final Dataset[] in, final Dataset out) {
+			final int n = in.length;
+			final int[] shape = out.getShapeRef();
+			final int rank = shape.length;
+			final int[] slot = new int[n];
+			for (int i = 0; i < n; i++) {
+				slot[i] = slots.get(i);
+			}
+			final double[][] bufs = new double[buffers][];
+			for (int i = 0; i < buffers; i++) {
+				bufs[i] = new double[BLOCK];
+			}
+
+			// indexes and strides of inputs and output are held in last place
+			final Dataset[] ds = Arrays.copyOf(in, n + 1);
+			ds[n] = out;
+			final int[][] strides = new int[n + 1][];
+			final int[] index = new int[n + 1];
+			for (int i = 0; i <= n; i++) {
+				Dataset v = i < n ? ds[i].getBroadcastView(shape) : out;
+				int[] s = v.getStrides();
+				if (s == null) {
+					s = BroadcastUtils.createBroadcastStrides(v, shape);
+					index[i] = 0;
+				} else {
+					index[i] = v.getOffset();
+				}
+				strides[i] = s;
+			}
+
+			final int last = rank - 1;
+			final int length = rank == 0 ? 1 : shape[last];
+			final int[] step = new int[n + 1];
+			if (rank > 0) {
+				for (int i = 0; i <= n; i++) {
+					step[i] = strides[i][last];
+				}
+			}
+			if (out.getSize() == 0) {
+				return;
+			}
+
+			final int[] pos = new int[Math.max(last, 0)];
+			final int[] start = new int[n + 1];
+			do {
+				for (int k = 0; k < length; k += BLOCK) {
+					final int m = Math.min(BLOCK, length - k);
+					for (int i = 0; i <= n; i++) {
+						start[i] = index[i] + k * step[i];
+					}
+					for (int i = 0; i < n; i++) {
+						read(ds[i], start[i], step[i], bufs[slot[i]], m);
+					}
+					for (Step s : steps) {
+						s.run(bufs, constants, m);
+					}
+					write(out, start[n], step[n], result < 0 ? constants.get(-result - 1) : bufs[result], m);
+				}
+			} while (next(shape, pos, strides, index));
+		}
+
+		/**
+		 * Move to next row
+		 * @return false if there are no more rows
+		 */
+		private static boolean next(final int[] shape, final int[] pos, final int[][] strides, final int[] index) {
+			for (int j = pos.length - 1; j >= 0; j--) {
+				pos[j]++;
+				if (pos[j] < shape[j]) {
+					for (int i = 0; i < index.length; i++) {
+						index[i] += strides[i][j];
+					}
+					return true;
+				}
+				pos[j] = 0;
+				for (int i = 0; i < index.length; i++) {
+					index[i] -= strides[i][j] * (shape[j] - 1);
+				}
+			}
+			return false;
+		}
+
+		private static void read(final Dataset d, int index, final int step, final double[] buf, final int m) {
+			switch (d.getDtype()) {
+			case Dataset.FLOAT64:
+				final double[] f64 = ((DoubleDataset) d).data;
+				for (int j = 0; j < m; j++, index += step) {
+					buf[j] = f64[index];
+				}
+				break;
+			case Dataset.FLOAT32:
+				final float[] f32 = ((FloatDataset) d).data;
+				for (int j = 0; j < m; j++, index += step) {
+					buf[j] = f32[index];
+				}
+				break;
+			case Dataset.INT32:
+				final int[] i32 = ((IntegerDataset) d).data;
+				for (int j = 0; j < m; j++, index += step) {
+					buf[j] = i32[index];
+				}
+				break;
+			case Dataset.INT16:
+				final short[] i16 = ((ShortDataset) d).data;
+				for (int j = 0; j < m; j++, index += step) {
+					buf[j] = i16[index];
+				}
+				break;
+			default:
+				for (int j = 0; j < m; j++, index += step) {
+					buf[j] = d.getElementDoubleAbs(index);
+				}
+				break;
+			}
+		}
+
+		private static void write(final Dataset d, int index, final int step, final double[] buf, final int m) {
+			switch (d.getDtype()) {
+			case Dataset.FLOAT64:
+				final double[] f64 = ((DoubleDataset) d).data;
+				for (int j = 0; j < m; j++, index += step) {
+					f64[index] = buf[j];
+				}
+				break;
+			case Dataset.FLOAT32:
+				final float[] f32 = ((FloatDataset) d).data;
+				for (int j = 0; j < m; j++, index += step) {
+					f32[index] = (float) buf[j];
+				}
+				break;
+			default:
+				for (int j = 0; j < m; j++, index += step) {
+					d.setObjectAbs(index, buf[j]);
+				}
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Step in program that fills an output buffer
+	 */
+	abstract static class Step {
+		final int out;
+
+		Step(int out) {
+			this.out = out;
+		}
+
+		static double[] get(final double[][] bufs, final List<double[]> constants, final int i) {
+			return i < 0 ? constants.get(-i - 1) : bufs[i];
+		}
+
+		abstract void run(double[][] bufs, List<double[]> constants, int m);
+	}
+
+	private static class Input extends DeferredExpression {
+		private final Dataset d;
+
+		Input(Dataset d) {
+			this.d = d;
+		}
+
+		@Override
+		int compile(Program p) {
+			return p.addInput(d);
+		}
+
+		@Override
+		public String toString() {
+			String n = d.getName();
+			return n == null ? "" : n.trim();
+		}
+	}
+
+	private static class Constant extends DeferredExpression {
+		private final double v;
+
+		Constant(double v) {
+			this.v = v;
+		}
+
+		@Override
+		int compile(Program p) {
+			return p.addConstant(v);
+		}
+
+		@Override
+		public String toString() {
+			return Double.toString(v);
+		}
+	}
+
+	private static class Binary extends DeferredExpression {
+		private static final int GENERIC = 0;
+		private static final int ADD = 1;
+		private static final int SUBTRACT = 2;
+		private static final int MULTIPLY = 3;
+		private static final int DIVIDE = 4;
+
+		private final DeferredExpression a;
+		private final DeferredExpression b;
+		private final BinaryOperation op;
+		private final int code;
+
+		Binary(DeferredExpression a, DeferredExpression b, BinaryOperation op) {
+			this.a = a;
+			this.b = b;
+			this.op = op;
+			Class<?> c = op.getClass();
+			if (c == BinaryOperation.Addition.class) {
+				code = ADD;
+			} else if (c == BinaryOperation.Subtraction.class) {
+				code = SUBTRACT;
+			} else if (c == BinaryOperation.Multiplication.class) {
+				code = MULTIPLY;
+			} else if (c == BinaryOperation.Division.class) {
+				code = DIVIDE;
+			} else {
+				code = GENERIC;
+			}
+		}
+
+		@Override
+		int compile(Program p) {
+			final int ia = a.compile(p);
+			final int ib = b.compile(p);
+			return p.addStep(new Step(p.newBuffer()) {
+				@Override
+				void run(double[][] bufs, List<double[]> constants, int m) {
+					final double[] x = get(bufs, constants, ia);
+					final double[] y = get(bufs, constants, ib);
+					final double[] z = bufs[out];
+					switch (code) {
+					case ADD:
+						for (int j = 0; j < m; j++) {
+							z[j] = x[j] + y[j];
+						}
+						break;
+					case SUBTRACT:
+						for (int j = 0; j < m; j++) {
+							z[j] = x[j] - y[j];
+						}
+						break;
+					case MULTIPLY:
+						for (int j = 0; j < m; j++) {
+							z[j] = x[j] * y[j];
+						}
+						break;
+					case DIVIDE:
+						for (int j = 0; j < m; j++) {
+							z[j] = x[j] / y[j];
+						}
+						break;
+					default:
+						for (int j = 0; j < m; j++) {
+							z[j] = op.doubleOperate(x[j], y[j]);
+						}
+						break;
+					}
+				}
+			});
+		}
+
+		@Override
+		public String toString() {
+			return bracketIfNecessary(a).append(op.toString()).append(bracketIfNecessary(b)).toString();
+		}
+	}
+
+	private static class Unary extends DeferredExpression {
+		private static final int NEGATIVE = 0;
+		private static final int ABS = 1;
+		private static final int SQRT = 2;
+		private static final int EXP = 3;
+		private static final int LOG = 4;
+		private static final String[] NAMES = {"negative", "abs", "sqrt", "exp", "log"};
+
+		private final DeferredExpression a;
+		private final int code;
+
+		Unary(DeferredExpression a, int code) {
+			this.a = a;
+			this.code = code;
+		}
+
+		@Override
+		int compile(Program p) {
+			final int ia = a.compile(p);
+			return p.addStep(new Step(p.newBuffer()) {
+				@Override
+				void run(double[][] bufs, List<double[]> constants, int m) {
+					final double[] x = get(bufs, constants, ia);
+					final double[] z = bufs[out];
+					switch (code) {
+					case NEGATIVE:
+						for (int j = 0; j < m; j++) {
+							z[j] = -x[j];
+						}
+						break;
+					case ABS:
+						for (int j = 0; j < m; j++) {
+							z[j] = Math.abs(x[j]);
+						}
+						break;
+					case SQRT:
+						for (int j = 0; j < m; j++) {
+							z[j] = Math.sqrt(x[j]);
+						}
+						break;
+					case EXP:
+						for (int j = 0; j < m; j++) {
+							z[j] = Math.exp(x[j]);
+						}
+						break;
+					case LOG:
+						for (int j = 0; j < m; j++) {
+							z[j] = Math.log(x[j]);
+						}
+						break;
+					}
+				}
+			});
+		}
+
+		@Override
+		public String toString() {
+			return NAMES[code] + "(" + a + ")";
+		}
+	}
+
+	private static class Clip extends DeferredExpression {
+		private final DeferredExpression a;
+		private final double min;
+		private final double max;
+
+		Clip(DeferredExpression a, double min, double max) {
+			this.a = a;
+			this.min = min;
+			this.max = max;
+		}
+
+		@Override
+		int compile(Program p) {
+			final int ia = a.compile(p);
+			return p.addStep(new Step(p.newBuffer()) {
+				@Override
+				void run(double[][] bufs, List<double[]> constants, int m) {
+					final double[] x = get(bufs, constants, ia);
+					final double[] z = bufs[out];
+					for (int j = 0; j < m; j++) {
+						final double v = x[j];
+						z[j] = Double.isNaN(v) ? (min + max) / 2. : (v < min ? min : (v > max ? max : v));
+					}
+				}
+			});
+		}
+
+		@Override
+		public String toString() {
+			return "clip(" + a + ")";
+		}
+	}
+}
@@ -12,7 +12,10 @@
 
 package org.eclipse.dawnsci.analysis.dataset.impl;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import org.jtransforms.fft.DoubleFFT_1D;
 import org.jtransforms.fft.DoubleFFT_2D;
@@ -20,6 +23,7 @@ import org.jtransforms.fft.DoubleFFT_3D;
 import org.jtransforms.fft.FloatFFT_1D;
 import org.jtransforms.fft.FloatFFT_2D;
 import org.jtransforms.fft.FloatFFT_3D;
+import org.jtransforms.utils.ConcurrencyUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,6 +42,70 @@ public class FFT {
 	 */
 	protected static final Logger logger = LoggerFactory.getLogger(FFT.class);
 
+	/**
+	 * Set maximum number of transform plans that are cached for reuse. Plans are held for each
+	 * type and shape of transform and the cache is shared with {@link DCT}
+	 * @param size (zero disables caching)
+	 */
+	public static void setPlanCacheSize(int size) {
+		PlanCache.setMaximumSize(size);
+	}
+
+	/**
+	 * @return maximum number of transform plans that are cached
+	 */
+	public static int getPlanCacheSize() {
+		return PlanCache.getMaximumSize();
+	}
+
+	/**
+	 * @return number of transform plans currently cached
+	 */
+	public static int getPlanCacheCount() {
+		return PlanCache.size();
+	}
+
+	/**
+	 * @return number of transforms that reused a cached plan
+	 */
+	public static long getPlanCacheHitCount() {
+		return PlanCache.getHitCount();
+	}
+
+	/**
+	 * @return number of transforms that created a plan
+	 */
+	public static long getPlanCacheMissCount() {
+		return PlanCache.getMissCount();
+	}
+
+	/**
+	 * Remove all cached transform plans and reset hit and miss counts
+	 */
+	public static void clearPlanCache() {
+		PlanCache.clear();
+	}
+
+	/**
+	 * Set number of threads used within each transform. Note this is a global setting of the
+	 * underlying library so it also affects {@link DCT}
+	 * @param threads
+	 */
+	public static void setNumberOfThreads(int threads) {
+		if (threads < 1) {
+			logger.error("number of threads should be greater than zero");
+			throw new IllegalArgumentException("number of threads should be greater than zero");
+		}
+		ConcurrencyUtils.setNumberOfThreads(threads);
+	}
+
+	/**
+	 * @return number of threads used within each transform
+	 */
+	public static int getNumberOfThreads() {
+		return ConcurrencyUtils.getNumberOfThreads();
+	}
+
 	/**
 	 * forward 1D fast Fourier transform
 	 * @param a dataset
@@ -61,7 +129,7 @@ public class FFT {
 		}
 		axis = a.checkAxis(axis);
 
-		return fft1d(a, n, axis);
+		return transform(a, new int[] {n}, new int[] {axis}, false);
 	}
 
 	/**
@@ -106,9 +174,48 @@ public class FFT {
 	 * @return new dataset holding transform
 	 */
 	public static Dataset fftn(final Dataset a, int[] s, int[] axes) {
+		int[][] sa = checkShapeAndAxes(a, s, axes);
+		return transform(a, sa[0], sa[1], false);
+	}
+
+	/**
+	 * forward nD fast Fourier transform of each frame in a stack. All frames must have the same
+	 * shape and type so the same (cached) transform plan is used for each
+	 * @param frames datasets
+	 * @param s shape of FFT dataset (if null, use whole dataset)
+	 * @param axes for FFT (if null, default as [..., -1])
+	 * @return list of new datasets holding transforms
+	 */
+	public static List<Dataset> fftn(final List<? extends Dataset> frames, int[] s, int[] axes) {
+		checkFrames(frames);
+		int[][] sa = checkShapeAndAxes(frames.get(0), s == null ? null : s.clone(), axes == null ? null : axes.clone());
+		return transform(frames, sa[0], sa[1], false);
+	}
+
+	private static void checkFrames(final List<? extends Dataset> frames) {
+		if (frames == null || frames.isEmpty()) {
+			logger.error("stack should contain at least one frame");
+			throw new IllegalArgumentException("stack should contain at least one frame");
+		}
+		Dataset first = frames.get(0);
+		for (Dataset f : frames) {
+			if (f.getDtype() != first.getDtype() || !Arrays.equals(f.getShapeRef(), first.getShapeRef())) {
+				logger.error("frames should have same shape and type");
+				throw new IllegalArgumentException("frames should have same shape and type");
+			}
+		}
+	}
+
+	/**
+	 * Check shape and axes of transform and fill in defaults
+	 * @param a dataset
+	 * @param s shape of FFT dataset (if null, use whole dataset)
+	 * @param axes for FFT (if null, default as [..., -1])
+	 * @return shape and axes
+	 */
+	private static int[][] checkShapeAndAxes(final Dataset a, int[] s, int[] axes) {
 		int[] shape = a.getShape();
 		int rank = shape.length;
-		Dataset result = null;
 
 		if (s == null) {
 			if (axes == null) {
@@ -155,19 +262,7 @@ public class FFT {
 			axes[i] = a.checkAxis(axes[i]);
 		}
 
-		switch (s.length) {
-		case 1:
-			result = fft1d(a, s[0], axes[0]);
-			break;
-		case 2:
-			result = fft2d(a, s, axes);
-			break;
-		case 3:
-			result = fft3d(a, s, axes);
-			break;
-		}
-
-		return result;
+		return new int[][] {s, axes};
 	}
 
 	private static int[] newShape(final int[] shape, final int[] s, final int[] axes) {
@@ -179,164 +274,155 @@ public class FFT {
 		return nshape;
 	}
 
-	private static Dataset fft1d(final Dataset a, final int n, final int axis) {
-		Dataset result = null;
-		Dataset dest = null;
-
-		int[] shape;
-		PositionIterator pi;
-		int[] pos;
-		boolean[] hit;
+	/**
+	 * Transform dataset with a plan from the cache
+	 * @param a dataset
+	 * @param s shape of transform
+	 * @param axes of transform
+	 * @param inverse
+	 * @return new dataset holding transform (or null if the dataset is not floating point)
+	 */
+	private static Dataset transform(final Dataset a, final int[] s, final int[] axes, final boolean inverse) {
+		return transform(Collections.singletonList(a), s, axes, inverse).get(0);
+	}
 
-		switch (a.getDtype()) {
+	/**
+	 * Transform frames with one plan which is taken from the cache and put back when finished
+	 * @param frames datasets of same shape and type
+	 * @param s shape of transform
+	 * @param axes of transform
+	 * @param inverse
+	 * @return list of new datasets holding transforms (or nulls if the frames are not floating point)
+	 */
+	private static List<Dataset> transform(final List<? extends Dataset> frames, final int[] s, final int[] axes, final boolean inverse) {
+		List<Dataset> results = new ArrayList<Dataset>(frames.size());
+		final boolean isFloat;
+		switch (frames.get(0).getDtype()) {
 		case Dataset.FLOAT32:
 		case Dataset.COMPLEX64:
-			FloatFFT_1D ffft = new FloatFFT_1D(n);
-			shape = a.getShape();
-			shape[axis] = n;
-			result = new ComplexFloatDataset(shape);
-			dest = new ComplexFloatDataset(new int[] {2*n});
-			float[] fdata = (float[]) dest.getBuffer();
-			pi = a.getPositionIterator(axis);
-			pos = pi.getPos();
-			hit = pi.getOmit();
-			while (pi.hasNext()) {
-				Arrays.fill(fdata, 0.f);
-				a.copyItemsFromAxes(pos, hit, dest);
-				ffft.complexForward(fdata);
-				result.setItemsOnAxes(pos, hit, fdata);
-			}
+			isFloat = true;
 			break;
 		case Dataset.FLOAT64:
 		case Dataset.COMPLEX128:
-			DoubleFFT_1D dfft = new DoubleFFT_1D(n);
-			shape = a.getShape();
-			shape[axis] = n;
-			result = new ComplexDoubleDataset(shape);
-			dest = new ComplexDoubleDataset(new int[] {2*n});
-			double[] ddata = (double[]) dest.getBuffer();
-			pi = a.getPositionIterator(axis);
-			pos = pi.getPos();
-			hit = pi.getOmit();
-			while (pi.hasNext()) {
-				Arrays.fill(ddata, 0.);
-				a.copyItemsFromAxes(pos, hit, dest);
-				dfft.complexForward(ddata);
-				result.setItemsOnAxes(pos, hit, ddata);
-			}
+			isFloat = false;
 			break;
 		default:
 			logger.warn("Non-float dataset not yet supported");
-			break;
+			results.addAll(Collections.<Dataset>nCopies(frames.size(), null));
+			return results;
 		}
 
-		return result;
+		final Object plan = takePlan(isFloat, s);
+		try {
+			for (Dataset a : frames) {
+				results.add(transform(a, s, axes, inverse, isFloat, plan));
+			}
+		} finally {
+			PlanCache.release(plan, s);
+		}
+		return results;
 	}
 
-	private static Dataset fft2d(final Dataset a, final int[] s, final int[] axes) {
-		Dataset result = null;
-		Dataset dest = null;
-
-		PositionIterator pi;
-		int[] pos;
-		boolean[] hit;
-
-		switch (a.getDtype()) {
-		case Dataset.FLOAT32:
-		case Dataset.COMPLEX64:
-			FloatFFT_2D ffft = new FloatFFT_2D(s[0], s[1]);
-			float[] fdata = null;
-			result = new ComplexFloatDataset(newShape(a.getShapeRef(), s, axes));
-			dest = new ComplexFloatDataset(s);
-			fdata = (float[]) dest.getBuffer();
-			pi = a.getPositionIterator(axes);
-			pos = pi.getPos();
-			hit = pi.getOmit();
-			while (pi.hasNext()) {
-				Arrays.fill(fdata, 0.f);
-				a.copyItemsFromAxes(pos, hit, dest);
-				ffft.complexForward(fdata);
-				result.setItemsOnAxes(pos, hit, fdata);
+	/**
+	 * @param isFloat
+	 * @param s shape of transform
+	 * @return cached plan or new one if none is cached
+	 */
+	private static Object takePlan(final boolean isFloat, final int[] s) {
+		Object plan = null;
+		switch (s.length) {
+		case 1:
+			plan = isFloat ? PlanCache.take(FloatFFT_1D.class, s) : PlanCache.take(DoubleFFT_1D.class, s);
+			if (plan == null) {
+				plan = isFloat ? new FloatFFT_1D(s[0]) : new DoubleFFT_1D(s[0]);
 			}
 			break;
-		case Dataset.FLOAT64:
-		case Dataset.COMPLEX128:
-			DoubleFFT_2D dfft = new DoubleFFT_2D(s[0], s[1]);
-			double[] ddata = null;
-			result = new ComplexDoubleDataset(newShape(a.getShapeRef(), s, axes));
-			dest = new ComplexDoubleDataset(s);
-			ddata = (double[]) dest.getBuffer();
-			pi = a.getPositionIterator(axes);
-			pos = pi.getPos();
-			hit = pi.getOmit();
-			while (pi.hasNext()) {
-				Arrays.fill(ddata, 0.);
-				a.copyItemsFromAxes(pos, hit, dest);
-				dfft.complexForward(ddata);
-				result.setItemsOnAxes(pos, hit, ddata);
+		case 2:
+			plan = isFloat ? PlanCache.take(FloatFFT_2D.class, s) : PlanCache.take(DoubleFFT_2D.class, s);
+			if (plan == null) {
+				plan = isFloat ? new FloatFFT_2D(s[0], s[1]) : new DoubleFFT_2D(s[0], s[1]);
 			}
 			break;
-		default:
-			logger.warn("Non-float dataset not yet supported");
+		case 3:
+			plan = isFloat ? PlanCache.take(FloatFFT_3D.class, s) : PlanCache.take(DoubleFFT_3D.class, s);
+			if (plan == null) {
+				plan = isFloat ? new FloatFFT_3D(s[0], s[1], s[2]) : new DoubleFFT_3D(s[0], s[1], s[2]);
+			}
 			break;
 		}
-
-		return result;
+		return plan;
 	}
 
-	private static Dataset fft3d(final Dataset a, final int[] s, final int[] axes) {
-		Dataset result = null;
-		Dataset dest = null;
-
-		PositionIterator pi;
-		int[] pos;
-		boolean[] hit;
-
-		switch (a.getDtype()) {
-		case Dataset.FLOAT32:
-		case Dataset.COMPLEX64:
-			FloatFFT_3D ffft = new FloatFFT_3D(s[0], s[1], s[2]);
-
-			float[] fdata = null;
-			result = new ComplexFloatDataset(newShape(a.getShapeRef(), s, axes));
-			dest = new ComplexFloatDataset(s);
-			fdata = (float[]) dest.getBuffer();
-			pi = a.getPositionIterator(axes);
-			pos = pi.getPos();
-			hit = pi.getOmit();
-			while (pi.hasNext()) {
+	private static Dataset transform(final Dataset a, final int[] s, final int[] axes, final boolean inverse,
+			final boolean isFloat, final Object plan) {
+		final int[] shape = newShape(a.getShapeRef(), s, axes);
+		final Dataset result = isFloat ? new ComplexFloatDataset(shape) : new ComplexDoubleDataset(shape);
+		final Dataset dest = isFloat ? new ComplexFloatDataset(s) : new ComplexDoubleDataset(s);
+		final float[] fdata = isFloat ? (float[]) dest.getBuffer() : null;
+		final double[] ddata = isFloat ? null : (double[]) dest.getBuffer();
+		final PositionIterator pi = a.getPositionIterator(axes);
+		final int[] pos = pi.getPos();
+		final boolean[] hit = pi.getOmit();
+		while (pi.hasNext()) {
+			if (isFloat) {
 				Arrays.fill(fdata, 0.f);
 				a.copyItemsFromAxes(pos, hit, dest);
-				ffft.complexForward(fdata);
+				execute(plan, fdata, inverse);
 				result.setItemsOnAxes(pos, hit, fdata);
-			}
-			break;
-		case Dataset.FLOAT64:
-		case Dataset.COMPLEX128:
-			DoubleFFT_3D dfft = new DoubleFFT_3D(s[0], s[1], s[2]);
-
-			double[] ddata = null;
-			result = new ComplexDoubleDataset(newShape(a.getShapeRef(), s, axes));
-			dest = new ComplexDoubleDataset(s);
-			ddata = (double[]) dest.getBuffer();
-			pi = a.getPositionIterator(axes);
-			pos = pi.getPos();
-			hit = pi.getOmit();
-			while (pi.hasNext()) {
+			} else {
 				Arrays.fill(ddata, 0.);
 				a.copyItemsFromAxes(pos, hit, dest);
-				dfft.complexForward(ddata);
+				execute(plan, ddata, inverse);
 				result.setItemsOnAxes(pos, hit, ddata);
 			}
-			break;
-		default:
-			logger.warn("Non-float dataset not yet supported");
-			break;
 		}
-
 		return result;
 	}
 
+	private static void execute(final Object plan, final float[] data, final boolean inverse) {
+		if (plan instanceof FloatFFT_1D) {
+			if (inverse) {
+				((FloatFFT_1D) plan).complexInverse(data, true);
+			} else {
+				((FloatFFT_1D) plan).complexForward(data);
+			}
+		} else if (plan instanceof FloatFFT_2D) {
+			if (inverse) {
+				((FloatFFT_2D) plan).complexInverse(data, true);
+			} else {
+				((FloatFFT_2D) plan).complexForward(data);
+			}
+		} else {
+			if (inverse) {
+				((FloatFFT_3D) plan).complexInverse(data, true);
+			} else {
+				((FloatFFT_3D) plan).complexForward(data);
+			}
+		}
+	}
+
+	private static void execute(final Object plan, final double[] data, final boolean inverse) {
+		if (plan instanceof DoubleFFT_1D) {
+			if (inverse) {
+				((DoubleFFT_1D) plan).complexInverse(data, true);
+			} else {
+				((DoubleFFT_1D) plan).complexForward(data);
+			}
+		} else if (plan instanceof DoubleFFT_2D) {
+			if (inverse) {
+				((DoubleFFT_2D) plan).complexInverse(data, true);
+			} else {
+				((DoubleFFT_2D) plan).complexForward(data);
+			}
+		} else {
+			if (inverse) {
+				((DoubleFFT_3D) plan).complexInverse(data, true);
+			} else {
+				((DoubleFFT_3D) plan).complexForward(data);
+			}
+		}
+	}
+
 	/**
 	 * inverse 1D fast Fourier transform
 	 * @param a dataset
@@ -360,7 +446,7 @@ public class FFT {
 		}
 		axis = a.checkAxis(axis);
 
-		return ifft1d(a, n, axis);
+		return transform(a, new int[] {n}, new int[] {axis}, true);
 	}
 
 	/**
@@ -404,225 +490,22 @@ public class FFT {
 	 * @return new dataset holding transform
 	 */
 	public static Dataset ifftn(final Dataset a, int[] s, int[] axes) {
-		int[] shape = a.getShape();
-		int rank = shape.length;
-		Dataset result = null;
-
-		if (s == null) {
-			if (axes == null) {
-				s = shape;
-				axes = new int[rank];
-				for (int i = 0; i < rank; i++)
-					axes[i] = i;
-			} else {
-				s = new int[axes.length];
-				Arrays.sort(axes);
-				for (int i = 0; i < axes.length; i++) {
-					axes[i] = a.checkAxis(axes[i]);
-					s[i] = shape[axes[i]];
-				}
-			}
-		} else {
-			if (s.length > rank) {
-				logger.error("shape of FFT should not have more dimensions than dataset");
-				throw new IllegalArgumentException("shape of FFT should not have more dimensions than dataset");
-			}
-			if (axes == null) {
-				axes = new int[s.length];
-				for (int i = 0; i < s.length; i++)
-					axes[i] = rank - s.length + i;
-			} else {
-				if (s.length != axes.length) {
-					logger.error("shape of FFT should have same rank as axes");
-					throw new IllegalArgumentException("shape of FFT should have same rank as axes");
-				}
-			}
-		}
-
-		if (s.length > 3) {
-			logger.error("Fourier transform across more than 3 dimensions are not supported");
-			throw new IllegalArgumentException("Fourier transform across more than 3 dimensions are not supported");
-		}
-
-		for (int i = 0; i < axes.length; i++) {
-			if (s[i] <= 0) {
-				logger.error("dimensions should be greater than zero");
-				throw new IllegalArgumentException("dimensions should be greater than zero");
-			}
-			axes[i] = a.checkAxis(axes[i]);
-		}
-
-		switch (s.length) {
-		case 1:
-			result = ifft1d(a, s[0], axes[0]);
-			break;
-		case 2:
-			result = ifft2d(a, s, axes);
-			break;
-		case 3:
-			result = ifft3d(a, s, axes);
-			break;
-		}
-
-		return result;
-	}
-
-	private static Dataset ifft1d(final Dataset a, final int n, final int axis) {
-		Dataset result = null;
-		Dataset dest = null;
-
-		int[] shape;
-		PositionIterator pi;
-		int[] pos;
-		boolean[] hit;
-
-		switch (a.getDtype()) {
-		case Dataset.FLOAT32:
-		case Dataset.COMPLEX64:
-			FloatFFT_1D ffft = new FloatFFT_1D(n);
-			float[] fdata = null;
-			shape = a.getShape();
-			shape[axis] = n;
-			result = new ComplexFloatDataset(shape);
-			dest = new ComplexFloatDataset(new int[] {n});
-			fdata = (float[]) dest.getBuffer();
-			pi = a.getPositionIterator(axis);
-			pos = pi.getPos();
-			hit = pi.getOmit();
-			while (pi.hasNext()) {
-				Arrays.fill(fdata, 0.f);
-				a.copyItemsFromAxes(pos, hit, dest);
-				ffft.complexInverse(fdata, true);
-				result.setItemsOnAxes(pos, hit, fdata);
-			}
-			break;
-		case Dataset.FLOAT64:
-		case Dataset.COMPLEX128:
-			DoubleFFT_1D dfft = new DoubleFFT_1D(n);
-			double[] ddata = null;
-			shape = a.getShape();
-			shape[axis] = n;
-			result = new ComplexDoubleDataset(shape);
-			dest = new ComplexDoubleDataset(new int[] {n});
-			ddata = (double[]) dest.getBuffer();
-			pi = a.getPositionIterator(axis);
-			pos = pi.getPos();
-			hit = pi.getOmit();
-			while (pi.hasNext()) {
-				Arrays.fill(ddata, 0.);
-				a.copyItemsFromAxes(pos, hit, dest);
-				dfft.complexInverse(ddata, true);
-				result.setItemsOnAxes(pos, hit, ddata);
-			}
-			break;
-		default:
-			logger.warn("Non-float dataset not yet supported");
-			break;
-		}
-
-		return result;
-	}
-
-	private static Dataset ifft2d(final Dataset a, final int[] s, final int[] axes) {
-		Dataset result = null;
-		Dataset dest = null;
-
-		PositionIterator pi;
-		int[] pos;
-		boolean[] hit;
-
-		switch (a.getDtype()) {
-		case Dataset.FLOAT32:
-		case Dataset.COMPLEX64:
-			FloatFFT_2D ffft = new FloatFFT_2D(s[0], s[1]);
-			float[] fdata = null;
-			result = new ComplexFloatDataset(newShape(a.getShapeRef(), s, axes));
-			dest = new ComplexFloatDataset(s);
-			fdata = (float[]) dest.getBuffer();
-			pi = a.getPositionIterator(axes);
-			pos = pi.getPos();
-			hit = pi.getOmit();
-			while (pi.hasNext()) {
-				Arrays.fill(fdata, 0.f);
-				a.copyItemsFromAxes(pos, hit, dest);
-				ffft.complexInverse(fdata, true);
-				result.setItemsOnAxes(pos, hit, fdata);
-			}
-			break;
-		case Dataset.FLOAT64:
-		case Dataset.COMPLEX128:
-			DoubleFFT_2D dfft = new DoubleFFT_2D(s[0], s[1]);
-			double[] ddata = null;
-			result = new ComplexDoubleDataset(newShape(a.getShapeRef(), s, axes));
-			dest = new ComplexDoubleDataset(s);
-			ddata = (double[]) dest.getBuffer();
-			pi = a.getPositionIterator(axes);
-			pos = pi.getPos();
-			hit = pi.getOmit();
-			while (pi.hasNext()) {
-				Arrays.fill(ddata, 0.);
-				a.copyItemsFromAxes(pos, hit, dest);
-				dfft.complexInverse(ddata, true);
-				result.setItemsOnAxes(pos, hit, ddata);
-			}
-			break;
-		default:
-			logger.warn("Non-float dataset not yet supported");
-			break;
-		}
-
-		return result;
+		int[][] sa = checkShapeAndAxes(a, s, axes);
+		return transform(a, sa[0], sa[1], true);
 	}
 
-	private static Dataset ifft3d(final Dataset a, final int[] s, final int[] axes) {
-		Dataset result = null;
-		Dataset dest = null;
-
-		PositionIterator pi;
-		int[] pos;
-		boolean[] hit;
-
-		switch (a.getDtype()) {
-		case Dataset.FLOAT32:
-		case Dataset.COMPLEX64:
-			FloatFFT_3D ffft = new FloatFFT_3D(s[0], s[1], s[2]);
-			float[] fdata = null;
-			result = new ComplexFloatDataset(newShape(a.getShapeRef(), s, axes));
-			dest = new ComplexFloatDataset(s);
-			fdata = (float[]) dest.getBuffer();
-			pi = a.getPositionIterator(axes);
-			pos = pi.getPos();
-			hit = pi.getOmit();
-			while (pi.hasNext()) {
-				Arrays.fill(fdata, 0.f);
-				a.copyItemsFromAxes(pos, hit, dest);
-				ffft.complexInverse(fdata, true);
-				result.setItemsOnAxes(pos, hit, fdata);
-			}
-			break;
-		case Dataset.FLOAT64:
-		case Dataset.COMPLEX128:
-				DoubleFFT_3D dfft = new DoubleFFT_3D(s[0], s[1], s[2]);
-				double[] ddata = null;
-				result = new ComplexDoubleDataset(newShape(a.getShapeRef(), s, axes));
-				dest = new ComplexDoubleDataset(s);
-				ddata = (double[]) dest.getBuffer();
-				pi = a.getPositionIterator(axes);
-				pos = pi.getPos();
-				hit = pi.getOmit();
-				while (pi.hasNext()) {
-					Arrays.fill(ddata, 0.);
-					a.copyItemsFromAxes(pos, hit, dest);
-					dfft.complexInverse(ddata, true);
-					result.setItemsOnAxes(pos, hit, ddata);
-				}
-				break;
-		default:
-			logger.warn("Non-float dataset not yet supported");
-			break;
-		}
-
-		return result;
+	/**
+	 * inverse nD fast Fourier transform of each frame in a stack. All frames must have the same
+	 * shape and type so the same (cached) transform plan is used for each
+	 * @param frames datasets
+	 * @param s shape of FFT dataset (if null, use whole dataset)
+	 * @param axes for FFT (if null, default as [..., -1])
+	 * @return list of new datasets holding transforms
+	 */
+	public static List<Dataset> ifftn(final List<? extends Dataset> frames, int[] s, int[] axes) {
+		checkFrames(frames);
+		int[][] sa = checkShapeAndAxes(frames.get(0), s == null ? null : s.clone(), axes == null ? null : axes.clone());
+		return transform(frames, sa[0], sa[1], true);
 	}
 
 	/**
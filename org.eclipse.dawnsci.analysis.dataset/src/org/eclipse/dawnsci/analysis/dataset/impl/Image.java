@@ -16,6 +16,7 @@ import java.util.List;
 
 import org.eclipse.dawnsci.analysis.api.dataset.IDataset;
 import org.eclipse.dawnsci.analysis.api.dataset.Slice;
+import org.eclipse.dawnsci.analysis.api.dataset.SliceND;
 import org.eclipse.dawnsci.analysis.api.image.IImageFilterService;
 import org.eclipse.dawnsci.analysis.api.image.IImageTransform;
 import org.eclipse.dawnsci.analysis.api.monitor.IMonitor;
@@ -199,7 +200,7 @@ public class Image {
 	}
 
 	/**
-	 * Applies a minimum filter (slower)
+	 * Applies a minimum filter
 	 * 
 	 * @param input
 	 * @param kernel
@@ -210,7 +211,7 @@ public class Image {
 	}
 
 	/**
-	 * Applies a maximum filter (slower)
+	 * Applies a maximum filter
 	 * 
 	 * @param input
 	 * @param kernel
@@ -221,7 +222,7 @@ public class Image {
 	}
 
 	/**
-	 * Applies a median filter (slower)
+	 * Applies a median filter
 	 * 
 	 * @param input
 	 * @param kernel
@@ -232,7 +233,7 @@ public class Image {
 	}
 
 	/**
-	 * Applies a mean Filter (slower)
+	 * Applies a mean filter
 	 * 
 	 * @param input
 	 * @param kernel
@@ -299,7 +300,61 @@ public class Image {
 	 * @return gaussian blurred image
 	 */
 	public static Dataset gaussianBlurFilter(Dataset input, int radius) {
-		return filter(input, radius, FilterType.GAUSSIAN_BLUR);
+		return gaussianBlurFilter(input, 0, radius);
+	}
+
+	/**
+	 * Applies a gaussian blur filter along every axis. Near the edges, values are normalised by
+	 * the portion of the Gaussian that lies within the image
+	 * 
+	 * @param input
+	 * @param sigma Gaussian distribution's sigma. If <= 0 then will be (2 * radius + 1) / 5
+	 * @param radius Radius of the Gaussian blur function. If <= 0 then will be 3 * sigma (rounded up)
+	 * @return gaussian blurred image
+	 */
+	public static Dataset gaussianBlurFilter(Dataset input, double sigma, int radius) {
+		if (sigma <= 0 && radius <= 0) {
+			throw new IllegalArgumentException("Either sigma or radius must be positive");
+		}
+		if (sigma <= 0) {
+			sigma = (2 * radius + 1) / 5.;
+		} else if (radius <= 0) {
+			radius = (int) Math.ceil(3 * sigma);
+		}
+
+		double[] gaussian = new double[2 * radius + 1];
+		double sum = 0;
+		for (int i = 0; i < gaussian.length; i++) {
+			double x = (i - radius) / sigma;
+			gaussian[i] = Math.exp(-0.5 * x * x);
+			sum += gaussian[i];
+		}
+		for (int i = 0; i < gaussian.length; i++) {
+			gaussian[i] /= sum;
+		}
+
+		input.squeeze();
+		int[] shape = input.getShape();
+		double[][] vectors = new double[shape.length][];
+		for (int i = 0; i < shape.length; i++) {
+			vectors[i] = gaussian;
+		}
+
+		Dataset result = input.clone();
+		boolean allowFFT = input.hasFloatingPointElements();
+		final int is = input.getElementsPerItem();
+		if (is == 1) {
+			double[] data = Convolution.filterSeparable(new DoubleDataset(input).getData(), shape, vectors, allowFFT, true);
+			result.setSlice(new DoubleDataset(data, shape), new SliceND(shape));
+			return result;
+		}
+
+		for (int j = 0; j < is; j++) {
+			double[] data = new DoubleDataset(((CompoundDataset) input).getElements(j)).getData();
+			data = Convolution.filterSeparable(data, shape, vectors, allowFFT, true);
+			((CompoundDataset) result).setElements(new DoubleDataset(data, shape), j);
+		}
+		return result;
 	}
 
 	private static Dataset filter(Dataset input, int radius, FilterType type) {
@@ -311,8 +366,6 @@ public class Image {
 			return DatasetUtils.convertToDataset(filterService.filterMax(input, radius));
 		} else if (type == FilterType.MEAN) {
 			return DatasetUtils.convertToDataset(filterService.filterMean(input, radius));
-		} else if (type == FilterType.GAUSSIAN_BLUR) {
-			return DatasetUtils.convertToDataset(filterService.filterGaussianBlur(input, 0, radius));
 		}
 		return null;
 	}
@@ -324,36 +377,22 @@ public class Image {
 		if (kernel.length != shape.length)
 			throw new IllegalArgumentException("Kernel shape must be the same shape as the input dataset");
 
+		if (type != FilterType.MEDIAN && type != FilterType.MIN && type != FilterType.MAX && type != FilterType.MEAN) {
+			throw new IllegalArgumentException("Filter type not supported with a kernel shape: " + type);
+		}
+
 		Dataset result = input.clone();
-		int[] offset = kernel.clone();
-		for (int i = 0; i < offset.length; i++) {
-			offset[i] = -kernel[i] / 2;
+		final int is = input.getElementsPerItem();
+		if (is == 1) {
+			double[] data = SlidingWindowFilter.filter(new DoubleDataset(input).getData(), shape, kernel, type);
+			result.setSlice(new DoubleDataset(data, shape), new SliceND(shape));
+			return result;
 		}
-		IndexIterator iter = input.getIterator(true);
-		int[] pos = iter.getPos();
-		int[] start = new int[pos.length];
-		int[] stop = new int[pos.length];
-		while (iter.hasNext()) {
-			for (int i = 0; i < pos.length; i++) {
-				start[i] = pos[i] + offset[i];
-				stop[i] = start[i] + kernel[i];
-				if (start[i] < 0)
-					start[i] = 0;
-				if (stop[i] >= shape[i])
-					stop[i] = shape[i];
-			}
-			Dataset slice = input.getSlice(start, stop, null);
-			if (type == FilterType.MEDIAN) {
-				result.set(Stats.median(slice), pos);
-			} else if (type == FilterType.MIN) {
-				result.set(slice.min(), pos);
-			} else if (type == FilterType.MAX) {
-				result.set(slice.max(), pos);
-			} else if (type == FilterType.MEAN) {
-				result.set(slice.mean(), pos);
-			} else if (type == FilterType.GAUSSIAN_BLUR) {
-				logger.error("Filter not implemented:", new Exception("Filter not available"));
-			}
+
+		for (int j = 0; j < is; j++) {
+			Dataset data = new DoubleDataset(((CompoundDataset) input).getElements(j));
+			data = new DoubleDataset(SlidingWindowFilter.filter(((DoubleDataset) data).getData(), shape, kernel, type), shape);
+			((CompoundDataset) result).setElements(data, j);
 		}
 		return result;
 	}
@@ -404,6 +443,15 @@ public class Image {
 		return backgroundFiltered;
 	}
 
+	/**
+	 * Applies a kernel filter (convolution with the kernel flipped in every axis). Depending on
+	 * the sizes of the input and kernel, this is done directly, as a sequence of 1D filters for
+	 * separable kernels or by multiplying Fourier transforms of floating point inputs
+	 * 
+	 * @param input
+	 * @param kernel with same rank as input and centred at half its shape
+	 * @return filtered image
+	 */
 	public static Dataset convolutionFilter(Dataset input, Dataset kernel) {
 		input.squeeze();
 		// check to see if the kernel shape in the correct dimensionality.
@@ -412,6 +460,29 @@ public class Image {
 		if (kShape.length != shape.length)
 			throw new IllegalArgumentException("Kernel shape must be the same shape as the input dataset");
 
+		if (kernel.getElementsPerItem() != 1) {
+			return directConvolutionFilter(input, kernel, shape, kShape);
+		}
+
+		Dataset result = input.clone();
+		double[] k = new DoubleDataset(kernel).getData();
+		boolean allowFFT = input.hasFloatingPointElements();
+		final int is = input.getElementsPerItem();
+		if (is == 1) {
+			double[] data = Convolution.filter(new DoubleDataset(input).getData(), shape, k, kShape, allowFFT);
+			result.setSlice(new DoubleDataset(data, shape), new SliceND(shape));
+			return result;
+		}
+
+		for (int j = 0; j < is; j++) {
+			double[] data = new DoubleDataset(((CompoundDataset) input).getElements(j)).getData();
+			data = Convolution.filter(data, shape, k, kShape, allowFFT);
+			((CompoundDataset) result).setElements(new DoubleDataset(data, shape), j);
+		}
+		return result;
+	}
+
+	private static Dataset directConvolutionFilter(Dataset input, Dataset kernel, int[] shape, int[] kShape) {
 		Dataset result = input.clone();
 		int[] offset = kShape.clone();
 		for (int i = 0; i < offset.length; i++) {
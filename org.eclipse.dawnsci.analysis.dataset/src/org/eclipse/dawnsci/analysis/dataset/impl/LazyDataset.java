@@ -25,6 +25,7 @@ import org.eclipse.dawnsci.analysis.api.dataset.IDataset;
 import org.eclipse.dawnsci.analysis.api.dataset.ILazyDataset;
 import org.eclipse.dawnsci.analysis.api.dataset.Slice;
 import org.eclipse.dawnsci.analysis.api.dataset.SliceND;
+import org.eclipse.dawnsci.analysis.api.io.ILazyAccessPattern;
 import org.eclipse.dawnsci.analysis.api.io.ILazyLoader;
 import org.eclipse.dawnsci.analysis.api.metadata.MetadataType;
 import org.eclipse.dawnsci.analysis.api.metadata.Reshapeable;
@@ -207,6 +208,67 @@ public class LazyDataset extends LazyDatasetBase implements Serializable, Clonea
 		return ret;
 	}
 
+	/**
+	 * Set whether to read ahead slices in a background thread when slices are read in order.
+	 * This affects this dataset and views subsequently created from it
+	 * @param ahead maximum number of slices to read ahead (zero to stop reading ahead)
+	 * @param budget maximum number of bytes to hold in slices read ahead
+	 * @see PrefetchingLazyLoader
+	 */
+	public void setPrefetching(int ahead, long budget) {
+		if (base != null) {
+			base = base.clone();
+			base.setPrefetching(ahead, budget);
+			return;
+		}
+		if (loader instanceof PrefetchingLazyLoader) {
+			((PrefetchingLazyLoader) loader).clear();
+			loader = ((PrefetchingLazyLoader) loader).getLoader();
+		}
+		if (loader != null && ahead > 0) {
+			loader = PrefetchingLazyLoader.create(loader, ahead, budget);
+		}
+	}
+
+	/**
+	 * Declare that frames of the given region will be read in order so that the loader can read them
+	 * ahead if it supports this
+	 * @param region (can be null to clear pattern)
+	 * @param axes frame axes
+	 * @see ILazyAccessPattern#setAccessPattern(SliceND, int...)
+	 */
+	public void setAccessPattern(SliceND region, int... axes) {
+		SliceND nregion = null;
+		int[] naxes = null;
+		if (region != null) {
+			nregion = calcTrueSlice(region);
+			int r = nregion.getShape().length;
+			int rank = shape.length;
+			List<Integer> l = new ArrayList<Integer>();
+			if (axes != null) {
+				for (int a : axes) {
+					if (a < 0) {
+						a += rank;
+					}
+					a -= prepShape;
+					if (a >= 0 && a < r) {
+						l.add(map == null ? a : map[a]);
+					}
+				}
+			}
+			naxes = new int[l.size()];
+			for (int i = 0; i < naxes.length; i++) {
+				naxes[i] = l.get(i);
+			}
+		}
+
+		if (base != null) {
+			base.setAccessPattern(nregion, naxes);
+		} else if (loader instanceof ILazyAccessPattern) {
+			((ILazyAccessPattern) loader).setAccessPattern(nregion, naxes);
+		}
+	}
+
 	@Override
 	public void setShape(int... shape) {
 		setShapeInternal(shape);
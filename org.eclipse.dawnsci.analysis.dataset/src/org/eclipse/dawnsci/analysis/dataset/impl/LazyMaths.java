@@ -34,8 +34,13 @@ public final class LazyMaths {
 	 * @return sum along axis in lazy dataset
 	 */
 	public static Dataset sum(final ILazyDataset data, int axis) {
+		if (data.getElementsPerItem() == 1) {
+			return new LazyStatistics(data, axis).calculate().getSum();
+		}
+
 		int[][] sliceInfo = new int[3][];
 		int[] shape = data.getShape();
+		axis = checkAxis(axis, shape.length);
 		final Dataset result = prepareDataset(axis, shape, sliceInfo);
 
 		final int[] start = sliceInfo[0];
@@ -59,8 +64,13 @@ public final class LazyMaths {
 	 * @return product along axis in lazy dataset
 	 */
 	public static Dataset product(final ILazyDataset data, int axis) {
+		if (data.getElementsPerItem() == 1) {
+			return new LazyStatistics(data, axis).calculate().getProduct();
+		}
+
 		int[][] sliceInfo = new int[3][];
 		int[] shape = data.getShape();
+		axis = checkAxis(axis, shape.length);
 		final Dataset result = prepareDataset(axis, shape, sliceInfo);
 		result.fill(1);
 
@@ -115,19 +125,46 @@ public final class LazyMaths {
 		return  av != null ? av.getCurrentAverage().squeeze() : null;
 	}
 	
+	/**
+	 * @param data
+	 * @param ignoreAxes
+	 * @return mean when given axes are ignored in lazy dataset
+	 */
 	public static Dataset mean(ILazyDataset data, int... ignoreAxes) {
-		return mean(0, Integer.MAX_VALUE -1 , data, ignoreAxes);
+		if (data.getElementsPerItem() != 1 || data.getError() != null || data.getSize() == 0) {
+			return mean(0, Integer.MAX_VALUE -1 , data, ignoreAxes);
+		}
+
+		int rank = data.getRank();
+		boolean[] ignore = new boolean[rank];
+		for (int a : ignoreAxes) {
+			ignore[checkAxis(a, rank)] = true;
+		}
+		int[] axes = new int[rank];
+		int n = 0;
+		for (int i = 0; i < rank; i++) {
+			if (!ignore[i]) {
+				axes[n++] = i;
+			}
+		}
+		if (n == 0) {
+			return DatasetUtils.cast(DatasetUtils.convertToDataset(data.getSlice()), Dataset.FLOAT64).squeeze();
+		}
+		return new LazyStatistics(data, Arrays.copyOf(axes, n)).calculate().getMean().squeeze();
 	}
 
-	private static Dataset prepareDataset(int axis, int[] shape, int[][] sliceInfo) {
-		int rank = shape.length;
+	private static int checkAxis(int axis, int rank) {
 		if (axis < 0)
 			axis += rank;
 		if (axis < 0 || axis >= rank) {
 			logger.error("Axis argument is outside allowed range");
 			throw new IllegalArgumentException("Axis argument is outside allowed range");
 		}
+		return axis;
+	}
 
+	private static Dataset prepareDataset(int axis, int[] shape, int[][] sliceInfo) {
+		int rank = shape.length;
 		sliceInfo[0] = new int[rank];
 		sliceInfo[1] = shape.clone();
 		sliceInfo[2] = new int[rank];
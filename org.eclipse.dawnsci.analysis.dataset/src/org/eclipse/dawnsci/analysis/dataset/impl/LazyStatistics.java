@@ -0,0 +1,440 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.analysis.dataset.impl;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.dawnsci.analysis.api.dataset.ILazyDataset;
+import org.eclipse.dawnsci.analysis.api.dataset.ILazyWriteableDataset;
+import org.eclipse.dawnsci.analysis.api.metadata.DimensionMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Streaming reductions of a lazy dataset over a set of axes. The count, sum, product, mean,
+ * variance, minimum and maximum are all found in a single pass over the dataset.
+ * <p>
+ * The dataset is read in blocks that are aligned to its chunking (from {@link DimensionMetadata}
+ * or {@link ILazyWriteableDataset#getChunking()}) and grown from the last dimension to fill a
+ * memory budget. Blocks can be read ahead by a pool of threads; they are always accumulated in
+ * order so the results do not depend on the number of threads.
+ * <p>
+ * Only datasets with single-element items are supported. For example, to find the mean frame of
+ * a stack of images:
+ * <pre>
+ * LazyStatistics s = new LazyStatistics(lazy, 0);
+ * s.calculate();
+ * Dataset mean = s.getMean();
+ * </pre>
+ */
+public class LazyStatistics {
+	/**
+	 * Setup the logging facilities
+	 */
+	protected static final Logger logger = LoggerFactory.getLogger(LazyStatistics.class);
+
+	/**
+	 * Default memory budget for blocks in bytes
+	 */
+	public static final long DEFAULT_BUDGET = 64L * 1024 * 1024;
+
+	private final ILazyDataset data;
+	private final int[] shape;
+	private final boolean[] reduced;
+	private final int[] outShape;
+	private final int outSize;
+
+	private long budget = DEFAULT_BUDGET;
+	private int threads = 1;
+	private boolean ignoreNaNs = false;
+
+	private long[] count;
+	private double[] sum;
+	private double[] product;
+	private double[] mean;
+	private double[] m2; // sum of squared deviations from mean
+	private double[] min;
+	private double[] max;
+
+	/**
+	 * @param data lazy dataset with single-element items
+	 * @param axes axes to reduce over (can be negative). If none are given then reduce over all axes
+	 */
+	public LazyStatistics(final ILazyDataset data, final int... axes) {
+		if (data.getElementsPerItem() != 1) {
+			logger.error("Only datasets with single-element items are supported");
+			throw new IllegalArgumentException("Only datasets with single-element items are supported");
+		}
+		this.data = data;
+		shape = data.getShape();
+		final int rank = shape.length;
+		reduced = new boolean[rank];
+		if (axes == null || axes.length == 0) {
+			Arrays.fill(reduced, true);
+		} else {
+			for (int a : axes) {
+				if (a < 0) {
+					a += rank;
+				}
+				if (a < 0 || a >= rank) {
+					logger.error("Axis argument is outside allowed range");
+					throw new IllegalArgumentException("Axis argument is outside allowed range");
+				}
+				reduced[a] = true;
+			}
+		}
+
+		int kept = 0;
+		for (boolean r : reduced) {
+			if (!r) {
+				kept++;
+			}
+		}
+		outShape = new int[kept];
+		int size = 1;
+		for (int i = 0, j = 0; i < rank; i++) {
+			if (!reduced[i]) {
+				outShape[j++] = shape[i];
+				size *= shape[i];
+			}
+		}
+		outSize = size;
+	}
+
+	/**
+	 * Set memory budget for blocks that are read from the dataset. When reading in parallel, this
+	 * is shared between the blocks that are in flight
+	 * @param bytes
+	 */
+	public void setMemoryBudget(long bytes) {
+		if (bytes <= 0) {
+			throw new IllegalArgumentException("Memory budget must be positive");
+		}
+		budget = bytes;
+	}
+
+	/**
+	 * Set number of threads used to read blocks ahead. One (the default) means all blocks are read
+	 * by the calling thread
+	 * @param threads
+	 */
+	public void setThreads(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("Number of threads must be positive");
+		}
+		this.threads = threads;
+	}
+
+	/**
+	 * @param ignoreNaNs if true, ignore NaNs
+	 */
+	public void setIgnoreNaNs(boolean ignoreNaNs) {
+		this.ignoreNaNs = ignoreNaNs;
+	}
+
+	/**
+	 * Read the dataset and calculate all statistics
+	 * @return this
+	 */
+	public LazyStatistics calculate() {
+		count = new long[outSize];
+		sum = new double[outSize];
+		product = new double[outSize];
+		mean = new double[outSize];
+		m2 = new double[outSize];
+		min = new double[outSize];
+		max = new double[outSize];
+		Arrays.fill(product, 1);
+		Arrays.fill(min, Double.POSITIVE_INFINITY);
+		Arrays.fill(max, Double.NEGATIVE_INFINITY);
+
+		final int rank = shape.length;
+		for (int s : shape) {
+			if (s == 0) {
+				return this;
+			}
+		}
+
+		final int[] block = getBlockShape(threads > 1 ? budget / (threads + 1) : budget);
+		final int[] outStrides = new int[rank];
+		for (int i = rank - 1, s = 1; i >= 0; i--) {
+			if (!reduced[i]) {
+				outStrides[i] = s;
+				s *= shape[i];
+			}
+		}
+
+		final int[] start = new int[rank];
+		if (threads == 1) {
+			do {
+				final int[] stop = getStop(start, block);
+				accumulate(readBlock(start, stop), start, stop, outStrides);
+			} while (nextBlock(start, block));
+			return this;
+		}
+
+		final ExecutorService pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<Runnable>());
+		final ArrayDeque<Future<double[]>> pending = new ArrayDeque<Future<double[]>>();
+		final ArrayDeque<int[]> starts = new ArrayDeque<int[]>();
+		try {
+			boolean more = true;
+			while (more || !pending.isEmpty()) {
+				while (more && pending.size() < threads) {
+					final int[] bstart = start.clone();
+					final int[] bstop = getStop(bstart, block);
+					pending.add(pool.submit(new Callable<double[]>() {
+						@Override
+						public double[] call() throws Exception {
+							return readBlock(bstart, bstop);
+						}
+					}));
+					starts.add(bstart);
+					more = nextBlock(start, block);
+				}
+				final int[] bstart = starts.remove();
+				accumulate(pending.remove().get(), bstart, getStop(bstart, block), outStrides);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted whilst reading lazy dataset", e);
+		} catch (ExecutionException e) {
+			logger.error("Problem reading lazy dataset", e.getCause());
+			throw new RuntimeException("Problem reading lazy dataset", e.getCause());
+		} finally {
+			for (Future<double[]> f : pending) {
+				f.cancel(true);
+			}
+			pool.shutdownNow();
+		}
+		return this;
+	}
+
+	/**
+	 * @param maxBytes
+	 * @return shape of blocks that are aligned to chunks and fit in given number of bytes
+	 */
+	int[] getBlockShape(long maxBytes) {
+		final int rank = shape.length;
+		final int[] chunk = getChunkShape();
+		final long maxItems = Math.max(1, maxBytes / 8);
+
+		// shrink chunk from first dimension if it is too big
+		long items = 1;
+		for (int c : chunk) {
+			items *= c;
+		}
+		for (int i = 0; i < rank && items > maxItems; i++) {
+			items /= chunk[i];
+			chunk[i] = (int) Math.max(1, Math.min(chunk[i], maxItems / items));
+			items *= chunk[i];
+		}
+
+		// grow in multiples of chunk from last dimension
+		final int[] block = chunk.clone();
+		for (int i = rank - 1; i >= 0; i--) {
+			final long others = items / block[i];
+			final long n = (shape[i] + chunk[i] - 1) / chunk[i];
+			final long m = Math.min(n, maxItems / (others * chunk[i]));
+			if (m > 1) {
+				block[i] = (int) Math.min(shape[i], m * chunk[i]);
+				items = others * block[i];
+			}
+			if (m < n) {
+				break;
+			}
+		}
+		return block;
+	}
+
+	private int[] getChunkShape() {
+		int[] chunk = null;
+		final DimensionMetadata dmd = data.getFirstMetadata(DimensionMetadata.class);
+		if (dmd != null) {
+			chunk = dmd.getDataChunkDimensions();
+		}
+		if (chunk == null && data instanceof ILazyWriteableDataset) {
+			chunk = ((ILazyWriteableDataset) data).getChunking();
+		}
+
+		final int rank = shape.length;
+		final int[] c = new int[rank];
+		Arrays.fill(c, 1);
+		if (chunk != null && chunk.length == rank) {
+			for (int i = 0; i < rank; i++) {
+				c[i] = Math.max(1, Math.min(chunk[i], shape[i]));
+			}
+		}
+		return c;
+	}
+
+	private int[] getStop(final int[] start, final int[] block) {
+		final int[] stop = new int[start.length];
+		for (int i = 0; i < start.length; i++) {
+			stop[i] = Math.min(start[i] + block[i], shape[i]);
+		}
+		return stop;
+	}
+
+	private boolean nextBlock(final int[] start, final int[] block) {
+		for (int i = start.length - 1; i >= 0; i--) {
+			start[i] += block[i];
+			if (start[i] < shape[i]) {
+				return true;
+			}
+			start[i] = 0;
+		}
+		return false;
+	}
+
+	private double[] readBlock(final int[] start, final int[] stop) {
+		Dataset d = DatasetUtils.convertToDataset(data.getSlice(start, stop, null));
+		d = DatasetUtils.cast(d, Dataset.FLOAT64);
+		if (d.getStrides() != null) {
+			d = new DoubleDataset((DoubleDataset) d);
+		}
+		return ((DoubleDataset) d).getData();
+	}
+
+	/**
+	 * Accumulate contiguous block of values
+	 */
+	private void accumulate(final double[] values, final int[] start, final int[] stop, final int[] outStrides) {
+		final int rank = start.length;
+		final int[] pos = new int[rank]; // position within block
+		final int inner = rank == 0 ? 1 : stop[rank - 1] - start[rank - 1];
+		final int istride = rank == 0 ? 0 : outStrides[rank - 1];
+
+		int base = 0;
+		for (int i = 0; i < rank; i++) {
+			base += start[i] * outStrides[i];
+		}
+
+		final long[] lcount = count;
+		final double[] lsum = sum;
+		final double[] lproduct = product;
+		final double[] lmean = mean;
+		final double[] lm2 = m2;
+		final double[] lmin = min;
+		final double[] lmax = max;
+		final boolean nans = ignoreNaNs;
+
+		int j = 0;
+		while (j < values.length) {
+			int o = base;
+			for (int k = 0; k < inner; k++, j++, o += istride) {
+				final double v = values[j];
+				if (nans && Double.isNaN(v)) {
+					continue;
+				}
+				final long c = ++lcount[o];
+				lsum[o] += v;
+				lproduct[o] *= v;
+				final double delta = v - lmean[o];
+				lmean[o] += delta / c;
+				lm2[o] += delta * (v - lmean[o]);
+				lmin[o] = Math.min(lmin[o], v);
+				lmax[o] = Math.max(lmax[o], v);
+			}
+
+			// move to next run within block
+			for (int i = rank - 2; i >= 0; i--) {
+				base += outStrides[i];
+				if (++pos[i] < stop[i] - start[i]) {
+					break;
+				}
+				base -= pos[i] * outStrides[i];
+				pos[i] = 0;
+			}
+		}
+	}
+
+	private void checkCalculated() {
+		if (count == null) {
+			throw new IllegalStateException("Statistics have not been calculated");
+		}
+	}
+
+	/**
+	 * @return shape of results
+	 */
+	public int[] getResultShape() {
+		return outShape.clone();
+	}
+
+	/**
+	 * @return number of values which were not ignored
+	 */
+	public Dataset getCount() {
+		checkCalculated();
+		return new LongDataset(count.clone(), outShape);
+	}
+
+	public Dataset getSum() {
+		checkCalculated();
+		return new DoubleDataset(sum.clone(), outShape);
+	}
+
+	public Dataset getProduct() {
+		checkCalculated();
+		return new DoubleDataset(product.clone(), outShape);
+	}
+
+	/**
+	 * @return mean (NaN where there are no values)
+	 */
+	public Dataset getMean() {
+		checkCalculated();
+		final double[] r = new double[outSize];
+		for (int i = 0; i < outSize; i++) {
+			r[i] = count[i] == 0 ? Double.NaN : mean[i];
+		}
+		return new DoubleDataset(r, outShape);
+	}
+
+	/**
+	 * @return bias-corrected (sample) variance
+	 */
+	public Dataset getVariance() {
+		return getVariance(false);
+	}
+
+	/**
+	 * @param isWholePopulation if false, use bias-corrected (sample) variance
+	 * @return variance (NaN where there are no values)
+	 */
+	public Dataset getVariance(boolean isWholePopulation) {
+		checkCalculated();
+		final double[] r = new double[outSize];
+		for (int i = 0; i < outSize; i++) {
+			final long n = count[i];
+			r[i] = n == 0 ? Double.NaN : (n == 1 ? 0 : m2[i] / (isWholePopulation ? n : n - 1));
+		}
+		return new DoubleDataset(r, outShape);
+	}
+
+	public Dataset getMin() {
+		checkCalculated();
+		return new DoubleDataset(min.clone(), outShape);
+	}
+
+	public Dataset getMax() {
+		checkCalculated();
+		return new DoubleDataset(max.clone(), outShape);
+	}
+}
@@ -73,6 +73,25 @@ public class Maths {
 		return (long) d;
 	}
 
+	private static volatile boolean parallel = false;
+
+	/**
+	 * @return true if element-wise operations are evaluated in parallel by default
+	 */
+	public static boolean isParallel() {
+		return parallel;
+	}
+
+	/**
+	 * Set whether element-wise operations are evaluated in parallel by default. Only
+	 * datasets that have at least {@link ParallelUtils#getThreshold()} items are split
+	 * into chunks; smaller datasets are evaluated on the calling thread
+	 * @param parallel
+	 */
+	public static void setParallel(boolean parallel) {
+		Maths.parallel = parallel;
+	}
+
 	/**
 	 * Unwrap result from mathematical methods if necessary
 	 * @param o
@@ -3327,9 +3346,38 @@ public class Maths {
 	 * @return a + b, addition of a and b
 	 */
 	public static Dataset add(final Object a, final Object b, final Dataset o) {
+		return add(a, b, o, isParallel());
+	}
+
+	/**
+	 * add operator
+	 * @param a
+	 * @param b
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return a + b, addition of a and b
+	 */
+	public static Dataset add(final Object a, final Object b, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final Dataset db = b instanceof Dataset ? (Dataset) b : DatasetFactory.createFromObject(b);
 		final BroadcastIterator it = BroadcastIterator.createIterator(da, db, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					addLoop(in[0], in[1], BroadcastIterator.createIterator(in[0], in[1], out));
+				}
+			}, da, db);
+		} else {
+			addLoop(da, db, it);
+		}
+
+		addBinaryOperatorName(da, db, result, "+");
+		return result;
+	}
+
+	private static void addLoop(final Dataset da, final Dataset db, final BroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -3337,7 +3385,23 @@ public class Maths {
 		switch(dt) {
 		case Dataset.INT8:
 			final byte[] oi8data = ((ByteDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final byte[] iadata = ((ByteDataset) it.getFirstDataset()).data;
+				final byte[] ibdata = ((ByteDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						byte ox;
+						ox = (byte) (iax + ibx);
+						oi8data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -3357,7 +3421,23 @@ public class Maths {
 			break;
 		case Dataset.INT16:
 			final short[] oi16data = ((ShortDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final short[] iadata = ((ShortDataset) it.getFirstDataset()).data;
+				final short[] ibdata = ((ShortDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						short ox;
+						ox = (short) (iax + ibx);
+						oi16data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -3377,7 +3457,23 @@ public class Maths {
 			break;
 		case Dataset.INT64:
 			final long[] oi64data = ((LongDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final long[] iadata = ((LongDataset) it.getFirstDataset()).data;
+				final long[] ibdata = ((LongDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						long ox;
+						ox = (iax + ibx);
+						oi64data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -3397,7 +3493,23 @@ public class Maths {
 			break;
 		case Dataset.INT32:
 			final int[] oi32data = ((IntegerDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final int[] iadata = ((IntegerDataset) it.getFirstDataset()).data;
+				final int[] ibdata = ((IntegerDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						int ox;
+						ox = (int) (iax + ibx);
+						oi32data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -3849,7 +3961,23 @@ public class Maths {
 			break;
 		case Dataset.FLOAT32:
 			final float[] of32data = ((FloatDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final float[] iadata = ((FloatDataset) it.getFirstDataset()).data;
+				final float[] ibdata = ((FloatDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final double iax = iadata[ia];
+						final double ibx = ibdata[ib];
+						float ox;
+						ox = (float) (iax + ibx);
+						of32data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -3869,7 +3997,23 @@ public class Maths {
 			break;
 		case Dataset.FLOAT64:
 			final double[] of64data = ((DoubleDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final double[] iadata = ((DoubleDataset) it.getFirstDataset()).data;
+				final double[] ibdata = ((DoubleDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final double iax = iadata[ia];
+						final double ibx = ibdata[ib];
+						double ox;
+						ox = (iax + ibx);
+						of64data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -4192,9 +4336,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("add supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addBinaryOperatorName(da, db, result, "+");
-		return result;
 	}
 
 	/**
@@ -4215,9 +4356,38 @@ public class Maths {
 	 * @return a - b, subtraction of a by b
 	 */
 	public static Dataset subtract(final Object a, final Object b, final Dataset o) {
+		return subtract(a, b, o, isParallel());
+	}
+
+	/**
+	 * subtract operator
+	 * @param a
+	 * @param b
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return a - b, subtraction of a by b
+	 */
+	public static Dataset subtract(final Object a, final Object b, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final Dataset db = b instanceof Dataset ? (Dataset) b : DatasetFactory.createFromObject(b);
 		final BroadcastIterator it = BroadcastIterator.createIterator(da, db, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					subtractLoop(in[0], in[1], BroadcastIterator.createIterator(in[0], in[1], out));
+				}
+			}, da, db);
+		} else {
+			subtractLoop(da, db, it);
+		}
+
+		addBinaryOperatorName(da, db, result, "-");
+		return result;
+	}
+
+	private static void subtractLoop(final Dataset da, final Dataset db, final BroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -4225,7 +4395,23 @@ public class Maths {
 		switch(dt) {
 		case Dataset.INT8:
 			final byte[] oi8data = ((ByteDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final byte[] iadata = ((ByteDataset) it.getFirstDataset()).data;
+				final byte[] ibdata = ((ByteDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						byte ox;
+						ox = (byte) (iax - ibx);
+						oi8data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -4245,7 +4431,23 @@ public class Maths {
 			break;
 		case Dataset.INT16:
 			final short[] oi16data = ((ShortDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final short[] iadata = ((ShortDataset) it.getFirstDataset()).data;
+				final short[] ibdata = ((ShortDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						short ox;
+						ox = (short) (iax - ibx);
+						oi16data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -4265,7 +4467,23 @@ public class Maths {
 			break;
 		case Dataset.INT64:
 			final long[] oi64data = ((LongDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final long[] iadata = ((LongDataset) it.getFirstDataset()).data;
+				final long[] ibdata = ((LongDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						long ox;
+						ox = (iax - ibx);
+						oi64data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -4285,7 +4503,23 @@ public class Maths {
 			break;
 		case Dataset.INT32:
 			final int[] oi32data = ((IntegerDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final int[] iadata = ((IntegerDataset) it.getFirstDataset()).data;
+				final int[] ibdata = ((IntegerDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						int ox;
+						ox = (int) (iax - ibx);
+						oi32data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -4737,7 +4971,23 @@ public class Maths {
 			break;
 		case Dataset.FLOAT32:
 			final float[] of32data = ((FloatDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final float[] iadata = ((FloatDataset) it.getFirstDataset()).data;
+				final float[] ibdata = ((FloatDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final double iax = iadata[ia];
+						final double ibx = ibdata[ib];
+						float ox;
+						ox = (float) (iax - ibx);
+						of32data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -4757,7 +5007,23 @@ public class Maths {
 			break;
 		case Dataset.FLOAT64:
 			final double[] of64data = ((DoubleDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final double[] iadata = ((DoubleDataset) it.getFirstDataset()).data;
+				final double[] ibdata = ((DoubleDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final double iax = iadata[ia];
+						final double ibx = ibdata[ib];
+						double ox;
+						ox = (iax - ibx);
+						of64data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -5080,9 +5346,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("subtract supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addBinaryOperatorName(da, db, result, "-");
-		return result;
 	}
 
 	/**
@@ -5103,9 +5366,38 @@ public class Maths {
 	 * @return a * b, product of a and b
 	 */
 	public static Dataset multiply(final Object a, final Object b, final Dataset o) {
+		return multiply(a, b, o, isParallel());
+	}
+
+	/**
+	 * multiply operator
+	 * @param a
+	 * @param b
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return a * b, product of a and b
+	 */
+	public static Dataset multiply(final Object a, final Object b, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final Dataset db = b instanceof Dataset ? (Dataset) b : DatasetFactory.createFromObject(b);
 		final BroadcastIterator it = BroadcastIterator.createIterator(da, db, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					multiplyLoop(in[0], in[1], BroadcastIterator.createIterator(in[0], in[1], out));
+				}
+			}, da, db);
+		} else {
+			multiplyLoop(da, db, it);
+		}
+
+		addBinaryOperatorName(da, db, result, "*");
+		return result;
+	}
+
+	private static void multiplyLoop(final Dataset da, final Dataset db, final BroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -5113,7 +5405,23 @@ public class Maths {
 		switch(dt) {
 		case Dataset.INT8:
 			final byte[] oi8data = ((ByteDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final byte[] iadata = ((ByteDataset) it.getFirstDataset()).data;
+				final byte[] ibdata = ((ByteDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						byte ox;
+						ox = (byte) (iax * ibx);
+						oi8data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -5133,7 +5441,23 @@ public class Maths {
 			break;
 		case Dataset.INT16:
 			final short[] oi16data = ((ShortDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final short[] iadata = ((ShortDataset) it.getFirstDataset()).data;
+				final short[] ibdata = ((ShortDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						short ox;
+						ox = (short) (iax * ibx);
+						oi16data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -5153,7 +5477,23 @@ public class Maths {
 			break;
 		case Dataset.INT64:
 			final long[] oi64data = ((LongDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final long[] iadata = ((LongDataset) it.getFirstDataset()).data;
+				final long[] ibdata = ((LongDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						long ox;
+						ox = (iax * ibx);
+						oi64data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -5173,7 +5513,23 @@ public class Maths {
 			break;
 		case Dataset.INT32:
 			final int[] oi32data = ((IntegerDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final int[] iadata = ((IntegerDataset) it.getFirstDataset()).data;
+				final int[] ibdata = ((IntegerDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						int ox;
+						ox = (int) (iax * ibx);
+						oi32data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -5625,7 +5981,23 @@ public class Maths {
 			break;
 		case Dataset.FLOAT32:
 			final float[] of32data = ((FloatDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final float[] iadata = ((FloatDataset) it.getFirstDataset()).data;
+				final float[] ibdata = ((FloatDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final double iax = iadata[ia];
+						final double ibx = ibdata[ib];
+						float ox;
+						ox = (float) (iax * ibx);
+						of32data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -5645,7 +6017,23 @@ public class Maths {
 			break;
 		case Dataset.FLOAT64:
 			final double[] of64data = ((DoubleDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final double[] iadata = ((DoubleDataset) it.getFirstDataset()).data;
+				final double[] ibdata = ((DoubleDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final double iax = iadata[ia];
+						final double ibx = ibdata[ib];
+						double ox;
+						ox = (iax * ibx);
+						of64data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -5968,9 +6356,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("multiply supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addBinaryOperatorName(da, db, result, "*");
-		return result;
 	}
 
 	/**
@@ -5991,9 +6376,38 @@ public class Maths {
 	 * @return a / b, division of a by b
 	 */
 	public static Dataset divide(final Object a, final Object b, final Dataset o) {
+		return divide(a, b, o, isParallel());
+	}
+
+	/**
+	 * divide operator
+	 * @param a
+	 * @param b
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return a / b, division of a by b
+	 */
+	public static Dataset divide(final Object a, final Object b, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final Dataset db = b instanceof Dataset ? (Dataset) b : DatasetFactory.createFromObject(b);
 		final BroadcastIterator it = BroadcastIterator.createIterator(da, db, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					divideLoop(in[0], in[1], BroadcastIterator.createIterator(in[0], in[1], out));
+				}
+			}, da, db);
+		} else {
+			divideLoop(da, db, it);
+		}
+
+		addBinaryOperatorName(da, db, result, "/");
+		return result;
+	}
+
+	private static void divideLoop(final Dataset da, final Dataset db, final BroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -6001,7 +6415,23 @@ public class Maths {
 		switch(dt) {
 		case Dataset.INT8:
 			final byte[] oi8data = ((ByteDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final byte[] iadata = ((ByteDataset) it.getFirstDataset()).data;
+				final byte[] ibdata = ((ByteDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						byte ox;
+						ox = (byte) (ibx == 0 ? 0 : iax / ibx);
+						oi8data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -6021,7 +6451,23 @@ public class Maths {
 			break;
 		case Dataset.INT16:
 			final short[] oi16data = ((ShortDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final short[] iadata = ((ShortDataset) it.getFirstDataset()).data;
+				final short[] ibdata = ((ShortDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						short ox;
+						ox = (short) (ibx == 0 ? 0 : iax / ibx);
+						oi16data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -6041,7 +6487,23 @@ public class Maths {
 			break;
 		case Dataset.INT64:
 			final long[] oi64data = ((LongDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final long[] iadata = ((LongDataset) it.getFirstDataset()).data;
+				final long[] ibdata = ((LongDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						long ox;
+						ox = (ibx == 0 ? 0 : iax / ibx);
+						oi64data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -6061,7 +6523,23 @@ public class Maths {
 			break;
 		case Dataset.INT32:
 			final int[] oi32data = ((IntegerDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final int[] iadata = ((IntegerDataset) it.getFirstDataset()).data;
+				final int[] ibdata = ((IntegerDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						int ox;
+						ox = (int) (ibx == 0 ? 0 : iax / ibx);
+						oi32data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -6513,7 +6991,23 @@ public class Maths {
 			break;
 		case Dataset.FLOAT32:
 			final float[] of32data = ((FloatDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final float[] iadata = ((FloatDataset) it.getFirstDataset()).data;
+				final float[] ibdata = ((FloatDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final double iax = iadata[ia];
+						final double ibx = ibdata[ib];
+						float ox;
+						ox = (float) (iax / ibx);
+						of32data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -6533,7 +7027,23 @@ public class Maths {
 			break;
 		case Dataset.FLOAT64:
 			final double[] of64data = ((DoubleDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final double[] iadata = ((DoubleDataset) it.getFirstDataset()).data;
+				final double[] ibdata = ((DoubleDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final double iax = iadata[ia];
+						final double ibx = ibdata[ib];
+						double ox;
+						ox = (iax / ibx);
+						of64data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -6922,9 +7432,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("divide supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addBinaryOperatorName(da, db, result, "/");
-		return result;
 	}
 
 	/**
@@ -6945,9 +7452,38 @@ public class Maths {
 	 * @return a / b, division of a by b
 	 */
 	public static Dataset dividez(final Object a, final Object b, final Dataset o) {
+		return dividez(a, b, o, isParallel());
+	}
+
+	/**
+	 * dividez operator
+	 * @param a
+	 * @param b
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return a / b, division of a by b
+	 */
+	public static Dataset dividez(final Object a, final Object b, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final Dataset db = b instanceof Dataset ? (Dataset) b : DatasetFactory.createFromObject(b);
 		final BroadcastIterator it = BroadcastIterator.createIterator(da, db, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					dividezLoop(in[0], in[1], BroadcastIterator.createIterator(in[0], in[1], out));
+				}
+			}, da, db);
+		} else {
+			dividezLoop(da, db, it);
+		}
+
+		addBinaryOperatorName(da, db, result, "/");
+		return result;
+	}
+
+	private static void dividezLoop(final Dataset da, final Dataset db, final BroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -6955,7 +7491,23 @@ public class Maths {
 		switch(dt) {
 		case Dataset.INT8:
 			final byte[] oi8data = ((ByteDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final byte[] iadata = ((ByteDataset) it.getFirstDataset()).data;
+				final byte[] ibdata = ((ByteDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						byte ox;
+						ox = (byte) (ibx == 0 ? 0 : iax / ibx);
+						oi8data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -6975,7 +7527,23 @@ public class Maths {
 			break;
 		case Dataset.INT16:
 			final short[] oi16data = ((ShortDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final short[] iadata = ((ShortDataset) it.getFirstDataset()).data;
+				final short[] ibdata = ((ShortDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						short ox;
+						ox = (short) (ibx == 0 ? 0 : iax / ibx);
+						oi16data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -6995,7 +7563,23 @@ public class Maths {
 			break;
 		case Dataset.INT64:
 			final long[] oi64data = ((LongDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final long[] iadata = ((LongDataset) it.getFirstDataset()).data;
+				final long[] ibdata = ((LongDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						long ox;
+						ox = (ibx == 0 ? 0 : iax / ibx);
+						oi64data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -7015,7 +7599,23 @@ public class Maths {
 			break;
 		case Dataset.INT32:
 			final int[] oi32data = ((IntegerDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final int[] iadata = ((IntegerDataset) it.getFirstDataset()).data;
+				final int[] ibdata = ((IntegerDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						int ox;
+						ox = (int) (ibx == 0 ? 0 : iax / ibx);
+						oi32data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -7467,7 +8067,23 @@ public class Maths {
 			break;
 		case Dataset.FLOAT32:
 			final float[] of32data = ((FloatDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final float[] iadata = ((FloatDataset) it.getFirstDataset()).data;
+				final float[] ibdata = ((FloatDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final double iax = iadata[ia];
+						final double ibx = ibdata[ib];
+						float ox;
+						ox = (float) (ibx == 0 ? 0 : iax / ibx);
+						of32data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -7487,7 +8103,23 @@ public class Maths {
 			break;
 		case Dataset.FLOAT64:
 			final double[] of64data = ((DoubleDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final double[] iadata = ((DoubleDataset) it.getFirstDataset()).data;
+				final double[] ibdata = ((DoubleDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final double iax = iadata[ia];
+						final double ibx = ibdata[ib];
+						double ox;
+						ox = (ibx == 0 ? 0 : iax / ibx);
+						of64data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -7733,14 +8365,9 @@ public class Maths {
 					float oy;
 					float q;
 					float den;
-					if (ibx == 0 && iby == 0) {
+					if (ibx == 0) {
 						ox = 0;
 						oy = 0;
-					} else if (Math.abs(ibx) < Math.abs(iby)) {
-						q = (float) (ibx / iby);
-						den = (float) (ibx * q + iby);
-						ox = (float) ((iax * q + iay) / den);
-						oy = (float) ((iay * q - ibx) / den);
 					} else {
 						q = (float) (iby / ibx);
 						den = (float) (iby * q + ibx);
@@ -7760,9 +8387,14 @@ public class Maths {
 					float oy;
 					float q;
 					float den;
-					if (ibx == 0) {
+					if (ibx == 0 && iby == 0) {
 						ox = 0;
 						oy = 0;
+					} else if (Math.abs(ibx) < Math.abs(iby)) {
+						q = (float) (ibx / iby);
+						den = (float) (ibx * q + iby);
+						ox = (float) ((iax * q + iay) / den);
+						oy = (float) ((iay * q - ibx) / den);
 					} else {
 						q = (float) (iby / ibx);
 						den = (float) (iby * q + ibx);
@@ -7813,14 +8445,9 @@ public class Maths {
 					double oy;
 					double q;
 					double den;
-					if (ibx == 0 && iby == 0) {
+					if (ibx == 0) {
 						ox = 0;
 						oy = 0;
-					} else if (Math.abs(ibx) < Math.abs(iby)) {
-						q = (ibx / iby);
-						den = (ibx * q + iby);
-						ox = ((iax * q + iay) / den);
-						oy = ((iay * q - ibx) / den);
 					} else {
 						q = (iby / ibx);
 						den = (iby * q + ibx);
@@ -7840,9 +8467,14 @@ public class Maths {
 					double oy;
 					double q;
 					double den;
-					if (ibx == 0) {
+					if (ibx == 0 && iby == 0) {
 						ox = 0;
 						oy = 0;
+					} else if (Math.abs(ibx) < Math.abs(iby)) {
+						q = (ibx / iby);
+						den = (ibx * q + iby);
+						ox = ((iax * q + iay) / den);
+						oy = ((iay * q - ibx) / den);
 					} else {
 						q = (iby / ibx);
 						den = (iby * q + ibx);
@@ -7884,9 +8516,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("dividez supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addBinaryOperatorName(da, db, result, "/");
-		return result;
 	}
 
 	/**
@@ -7907,9 +8536,38 @@ public class Maths {
 	 * @return a / b, division of a by b but rounded towards negative infinity
 	 */
 	public static Dataset divideTowardsFloor(final Object a, final Object b, final Dataset o) {
+		return divideTowardsFloor(a, b, o, isParallel());
+	}
+
+	/**
+	 * divideTowardsFloor operator
+	 * @param a
+	 * @param b
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return a / b, division of a by b but rounded towards negative infinity
+	 */
+	public static Dataset divideTowardsFloor(final Object a, final Object b, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final Dataset db = b instanceof Dataset ? (Dataset) b : DatasetFactory.createFromObject(b);
 		final BroadcastIterator it = BroadcastIterator.createIterator(da, db, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					divideTowardsFloorLoop(in[0], in[1], BroadcastIterator.createIterator(in[0], in[1], out));
+				}
+			}, da, db);
+		} else {
+			divideTowardsFloorLoop(da, db, it);
+		}
+
+		addBinaryOperatorName(da, db, result, "/");
+		return result;
+	}
+
+	private static void divideTowardsFloorLoop(final Dataset da, final Dataset db, final BroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -7917,7 +8575,30 @@ public class Maths {
 		switch(dt) {
 		case Dataset.INT8:
 			final byte[] oi8data = ((ByteDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final byte[] iadata = ((ByteDataset) it.getFirstDataset()).data;
+				final byte[] ibdata = ((ByteDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						byte ox;
+						if (ibx == 0) {
+							ox = 0;
+						} else {
+							ox = (byte) (iax / ibx);
+							if (iax != ox * ibx && ((iax < 0) ^ (ibx < 0))) {
+								ox--;
+							}
+						}
+						oi8data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -7951,7 +8632,30 @@ public class Maths {
 			break;
 		case Dataset.INT16:
 			final short[] oi16data = ((ShortDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final short[] iadata = ((ShortDataset) it.getFirstDataset()).data;
+				final short[] ibdata = ((ShortDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						short ox;
+						if (ibx == 0) {
+							ox = 0;
+						} else {
+							ox = (short) (iax / ibx);
+							if (iax != ox * ibx && ((iax < 0) ^ (ibx < 0))) {
+								ox--;
+							}
+						}
+						oi16data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -7985,7 +8689,30 @@ public class Maths {
 			break;
 		case Dataset.INT64:
 			final long[] oi64data = ((LongDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final long[] iadata = ((LongDataset) it.getFirstDataset()).data;
+				final long[] ibdata = ((LongDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						long ox;
+						if (ibx == 0) {
+							ox = 0;
+						} else {
+							ox = (iax / ibx);
+							if (iax != ox * ibx && ((iax < 0) ^ (ibx < 0))) {
+								ox--;
+							}
+						}
+						oi64data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -8019,7 +8746,30 @@ public class Maths {
 			break;
 		case Dataset.INT32:
 			final int[] oi32data = ((IntegerDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final int[] iadata = ((IntegerDataset) it.getFirstDataset()).data;
+				final int[] ibdata = ((IntegerDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						int ox;
+						if (ibx == 0) {
+							ox = 0;
+						} else {
+							ox = (int) (iax / ibx);
+							if (iax != ox * ibx && ((iax < 0) ^ (ibx < 0))) {
+								ox--;
+							}
+						}
+						oi32data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -8877,7 +9627,23 @@ public class Maths {
 			break;
 		case Dataset.FLOAT32:
 			final float[] of32data = ((FloatDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final float[] iadata = ((FloatDataset) it.getFirstDataset()).data;
+				final float[] ibdata = ((FloatDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final double iax = iadata[ia];
+						final double ibx = ibdata[ib];
+						float ox;
+						ox = (float) (iax / ibx);
+						of32data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -8897,7 +9663,23 @@ public class Maths {
 			break;
 		case Dataset.FLOAT64:
 			final double[] of64data = ((DoubleDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final double[] iadata = ((DoubleDataset) it.getFirstDataset()).data;
+				final double[] ibdata = ((DoubleDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final double iax = iadata[ia];
+						final double ibx = ibdata[ib];
+						double ox;
+						ox = (iax / ibx);
+						of64data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -9286,9 +10068,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("divideTowardsFloor supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addBinaryOperatorName(da, db, result, "/");
-		return result;
 	}
 
 	/**
@@ -9309,9 +10088,38 @@ public class Maths {
 	 * @return a ** b, raise a to power of b
 	 */
 	public static Dataset power(final Object a, final Object b, final Dataset o) {
+		return power(a, b, o, isParallel());
+	}
+
+	/**
+	 * power operator
+	 * @param a
+	 * @param b
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return a ** b, raise a to power of b
+	 */
+	public static Dataset power(final Object a, final Object b, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final Dataset db = b instanceof Dataset ? (Dataset) b : DatasetFactory.createFromObject(b);
 		final BroadcastIterator it = BroadcastIterator.createIterator(da, db, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					powerLoop(in[0], in[1], BroadcastIterator.createIterator(in[0], in[1], out));
+				}
+			}, da, db);
+		} else {
+			powerLoop(da, db, it);
+		}
+
+		addBinaryOperatorName(da, db, result, "**");
+		return result;
+	}
+
+	private static void powerLoop(final Dataset da, final Dataset db, final BroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -9319,7 +10127,23 @@ public class Maths {
 		switch(dt) {
 		case Dataset.INT8:
 			final byte[] oi8data = ((ByteDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final byte[] iadata = ((ByteDataset) it.getFirstDataset()).data;
+				final byte[] ibdata = ((ByteDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						byte ox;
+						ox = (byte) toLong(Math.pow(iax, ibx));
+						oi8data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -9339,7 +10163,23 @@ public class Maths {
 			break;
 		case Dataset.INT16:
 			final short[] oi16data = ((ShortDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final short[] iadata = ((ShortDataset) it.getFirstDataset()).data;
+				final short[] ibdata = ((ShortDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						short ox;
+						ox = (short) toLong(Math.pow(iax, ibx));
+						oi16data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -9359,7 +10199,23 @@ public class Maths {
 			break;
 		case Dataset.INT64:
 			final long[] oi64data = ((LongDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final long[] iadata = ((LongDataset) it.getFirstDataset()).data;
+				final long[] ibdata = ((LongDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						long ox;
+						ox = toLong(Math.pow(iax, ibx));
+						oi64data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -9379,7 +10235,23 @@ public class Maths {
 			break;
 		case Dataset.INT32:
 			final int[] oi32data = ((IntegerDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final int[] iadata = ((IntegerDataset) it.getFirstDataset()).data;
+				final int[] ibdata = ((IntegerDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						int ox;
+						ox = (int) toLong(Math.pow(iax, ibx));
+						oi32data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -9831,7 +10703,23 @@ public class Maths {
 			break;
 		case Dataset.FLOAT32:
 			final float[] of32data = ((FloatDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final float[] iadata = ((FloatDataset) it.getFirstDataset()).data;
+				final float[] ibdata = ((FloatDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final double iax = iadata[ia];
+						final double ibx = ibdata[ib];
+						float ox;
+						ox = (float) (Math.pow(iax, ibx));
+						of32data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -9851,7 +10739,23 @@ public class Maths {
 			break;
 		case Dataset.FLOAT64:
 			final double[] of64data = ((DoubleDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final double[] iadata = ((DoubleDataset) it.getFirstDataset()).data;
+				final double[] ibdata = ((DoubleDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final double iax = iadata[ia];
+						final double ibx = ibdata[ib];
+						double ox;
+						ox = (Math.pow(iax, ibx));
+						of64data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -10186,9 +11090,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("power supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addBinaryOperatorName(da, db, result, "**");
-		return result;
 	}
 
 	/**
@@ -10209,9 +11110,38 @@ public class Maths {
 	 * @return a % b, remainder of division of a by b
 	 */
 	public static Dataset remainder(final Object a, final Object b, final Dataset o) {
+		return remainder(a, b, o, isParallel());
+	}
+
+	/**
+	 * remainder operator
+	 * @param a
+	 * @param b
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return a % b, remainder of division of a by b
+	 */
+	public static Dataset remainder(final Object a, final Object b, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final Dataset db = b instanceof Dataset ? (Dataset) b : DatasetFactory.createFromObject(b);
 		final BroadcastIterator it = BroadcastIterator.createIterator(da, db, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					remainderLoop(in[0], in[1], BroadcastIterator.createIterator(in[0], in[1], out));
+				}
+			}, da, db);
+		} else {
+			remainderLoop(da, db, it);
+		}
+
+		addBinaryOperatorName(da, db, result, "%");
+		return result;
+	}
+
+	private static void remainderLoop(final Dataset da, final Dataset db, final BroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -10219,7 +11149,23 @@ public class Maths {
 		switch(dt) {
 		case Dataset.INT8:
 			final byte[] oi8data = ((ByteDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final byte[] iadata = ((ByteDataset) it.getFirstDataset()).data;
+				final byte[] ibdata = ((ByteDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						byte ox;
+						ox = (byte) (ibx == 0 ? 0 : iax % ibx);
+						oi8data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -10239,7 +11185,23 @@ public class Maths {
 			break;
 		case Dataset.INT16:
 			final short[] oi16data = ((ShortDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final short[] iadata = ((ShortDataset) it.getFirstDataset()).data;
+				final short[] ibdata = ((ShortDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						short ox;
+						ox = (short) (ibx == 0 ? 0 : iax % ibx);
+						oi16data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -10259,7 +11221,23 @@ public class Maths {
 			break;
 		case Dataset.INT64:
 			final long[] oi64data = ((LongDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final long[] iadata = ((LongDataset) it.getFirstDataset()).data;
+				final long[] ibdata = ((LongDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						long ox;
+						ox = (ibx == 0 ? 0 : iax % ibx);
+						oi64data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -10279,7 +11257,23 @@ public class Maths {
 			break;
 		case Dataset.INT32:
 			final int[] oi32data = ((IntegerDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final int[] iadata = ((IntegerDataset) it.getFirstDataset()).data;
+				final int[] ibdata = ((IntegerDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						int ox;
+						ox = (int) (ibx == 0 ? 0 : iax % ibx);
+						oi32data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -10731,7 +11725,23 @@ public class Maths {
 			break;
 		case Dataset.FLOAT32:
 			final float[] of32data = ((FloatDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final float[] iadata = ((FloatDataset) it.getFirstDataset()).data;
+				final float[] ibdata = ((FloatDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final double iax = iadata[ia];
+						final double ibx = ibdata[ib];
+						float ox;
+						ox = (float) (iax % ibx);
+						of32data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -10751,7 +11761,23 @@ public class Maths {
 			break;
 		case Dataset.FLOAT64:
 			final double[] of64data = ((DoubleDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final double[] iadata = ((DoubleDataset) it.getFirstDataset()).data;
+				final double[] ibdata = ((DoubleDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final double iax = iadata[ia];
+						final double ibx = ibdata[ib];
+						double ox;
+						ox = (iax % ibx);
+						of64data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -10988,9 +12014,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("remainder supports integer, compound integer, real, compound real datasets only");
 		}
-
-		addBinaryOperatorName(da, db, result, "%");
-		return result;
 	}
 
 	/**
@@ -11011,9 +12034,38 @@ public class Maths {
 	 * @return return maximum of a and b
 	 */
 	public static Dataset maximum(final Object a, final Object b, final Dataset o) {
+		return maximum(a, b, o, isParallel());
+	}
+
+	/**
+	 * maximum operator
+	 * @param a
+	 * @param b
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return return maximum of a and b
+	 */
+	public static Dataset maximum(final Object a, final Object b, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final Dataset db = b instanceof Dataset ? (Dataset) b : DatasetFactory.createFromObject(b);
 		final BroadcastIterator it = BroadcastIterator.createIterator(da, db, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					maximumLoop(in[0], in[1], BroadcastIterator.createIterator(in[0], in[1], out));
+				}
+			}, da, db);
+		} else {
+			maximumLoop(da, db, it);
+		}
+
+		addBinaryOperatorName(da, db, result, "maximum");
+		return result;
+	}
+
+	private static void maximumLoop(final Dataset da, final Dataset db, final BroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -11021,7 +12073,23 @@ public class Maths {
 		switch(dt) {
 		case Dataset.INT8:
 			final byte[] oi8data = ((ByteDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final byte[] iadata = ((ByteDataset) it.getFirstDataset()).data;
+				final byte[] ibdata = ((ByteDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						byte ox;
+						ox = (byte) toLong(Math.max(iax, ibx));
+						oi8data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -11041,7 +12109,23 @@ public class Maths {
 			break;
 		case Dataset.INT16:
 			final short[] oi16data = ((ShortDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final short[] iadata = ((ShortDataset) it.getFirstDataset()).data;
+				final short[] ibdata = ((ShortDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						short ox;
+						ox = (short) toLong(Math.max(iax, ibx));
+						oi16data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -11061,7 +12145,23 @@ public class Maths {
 			break;
 		case Dataset.INT64:
 			final long[] oi64data = ((LongDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final long[] iadata = ((LongDataset) it.getFirstDataset()).data;
+				final long[] ibdata = ((LongDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						long ox;
+						ox = toLong(Math.max(iax, ibx));
+						oi64data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -11081,7 +12181,23 @@ public class Maths {
 			break;
 		case Dataset.INT32:
 			final int[] oi32data = ((IntegerDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final int[] iadata = ((IntegerDataset) it.getFirstDataset()).data;
+				final int[] ibdata = ((IntegerDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						int ox;
+						ox = (int) toLong(Math.max(iax, ibx));
+						oi32data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -11533,7 +12649,23 @@ public class Maths {
 			break;
 		case Dataset.FLOAT32:
 			final float[] of32data = ((FloatDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final float[] iadata = ((FloatDataset) it.getFirstDataset()).data;
+				final float[] ibdata = ((FloatDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final double iax = iadata[ia];
+						final double ibx = ibdata[ib];
+						float ox;
+						ox = (float) (Math.max(iax, ibx));
+						of32data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -11553,7 +12685,23 @@ public class Maths {
 			break;
 		case Dataset.FLOAT64:
 			final double[] of64data = ((DoubleDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final double[] iadata = ((DoubleDataset) it.getFirstDataset()).data;
+				final double[] ibdata = ((DoubleDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final double iax = iadata[ia];
+						final double ibx = ibdata[ib];
+						double ox;
+						ox = (Math.max(iax, ibx));
+						of64data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -11921,9 +13069,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("maximum supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addBinaryOperatorName(da, db, result, "maximum");
-		return result;
 	}
 
 	/**
@@ -11944,9 +13089,38 @@ public class Maths {
 	 * @return return minimum of a and b
 	 */
 	public static Dataset minimum(final Object a, final Object b, final Dataset o) {
+		return minimum(a, b, o, isParallel());
+	}
+
+	/**
+	 * minimum operator
+	 * @param a
+	 * @param b
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return return minimum of a and b
+	 */
+	public static Dataset minimum(final Object a, final Object b, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final Dataset db = b instanceof Dataset ? (Dataset) b : DatasetFactory.createFromObject(b);
 		final BroadcastIterator it = BroadcastIterator.createIterator(da, db, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					minimumLoop(in[0], in[1], BroadcastIterator.createIterator(in[0], in[1], out));
+				}
+			}, da, db);
+		} else {
+			minimumLoop(da, db, it);
+		}
+
+		addBinaryOperatorName(da, db, result, "minimum");
+		return result;
+	}
+
+	private static void minimumLoop(final Dataset da, final Dataset db, final BroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -11954,7 +13128,23 @@ public class Maths {
 		switch(dt) {
 		case Dataset.INT8:
 			final byte[] oi8data = ((ByteDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final byte[] iadata = ((ByteDataset) it.getFirstDataset()).data;
+				final byte[] ibdata = ((ByteDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						byte ox;
+						ox = (byte) toLong(Math.min(iax, ibx));
+						oi8data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -11974,7 +13164,23 @@ public class Maths {
 			break;
 		case Dataset.INT16:
 			final short[] oi16data = ((ShortDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final short[] iadata = ((ShortDataset) it.getFirstDataset()).data;
+				final short[] ibdata = ((ShortDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						short ox;
+						ox = (short) toLong(Math.min(iax, ibx));
+						oi16data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -11994,7 +13200,23 @@ public class Maths {
 			break;
 		case Dataset.INT64:
 			final long[] oi64data = ((LongDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final long[] iadata = ((LongDataset) it.getFirstDataset()).data;
+				final long[] ibdata = ((LongDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						long ox;
+						ox = toLong(Math.min(iax, ibx));
+						oi64data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -12014,7 +13236,23 @@ public class Maths {
 			break;
 		case Dataset.INT32:
 			final int[] oi32data = ((IntegerDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final int[] iadata = ((IntegerDataset) it.getFirstDataset()).data;
+				final int[] ibdata = ((IntegerDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						int ox;
+						ox = (int) toLong(Math.min(iax, ibx));
+						oi32data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -12466,7 +13704,23 @@ public class Maths {
 			break;
 		case Dataset.FLOAT32:
 			final float[] of32data = ((FloatDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final float[] iadata = ((FloatDataset) it.getFirstDataset()).data;
+				final float[] ibdata = ((FloatDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final double iax = iadata[ia];
+						final double ibx = ibdata[ib];
+						float ox;
+						ox = (float) (Math.min(iax, ibx));
+						of32data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -12486,7 +13740,23 @@ public class Maths {
 			break;
 		case Dataset.FLOAT64:
 			final double[] of64data = ((DoubleDataset) result).data;
-			if (it.isOutputDouble()) {
+			if (it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final double[] iadata = ((DoubleDataset) it.getFirstDataset()).data;
+				final double[] ibdata = ((DoubleDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final double iax = iadata[ia];
+						final double ibx = ibdata[ib];
+						double ox;
+						ox = (Math.min(iax, ibx));
+						of64data[io] = ox;
+					}
+				}
+			} else if (it.isOutputDouble()) {
 				while (it.hasNext()) {
 					final double iax = it.aDouble;
 					final double ibx = it.bDouble;
@@ -12857,9 +14127,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("minimum supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addBinaryOperatorName(da, db, result, "minimum");
-		return result;
 	}
 
 	/**
@@ -12880,9 +14147,38 @@ public class Maths {
 	 * @return a & b, bitwise AND of a and b
 	 */
 	public static Dataset bitwiseAnd(final Object a, final Object b, final Dataset o) {
+		return bitwiseAnd(a, b, o, isParallel());
+	}
+
+	/**
+	 * bitwiseAnd operator
+	 * @param a
+	 * @param b
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return a & b, bitwise AND of a and b
+	 */
+	public static Dataset bitwiseAnd(final Object a, final Object b, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final Dataset db = b instanceof Dataset ? (Dataset) b : DatasetFactory.createFromObject(b);
 		final BroadcastIterator it = BroadcastIterator.createIterator(da, db, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					bitwiseAndLoop(in[0], in[1], BroadcastIterator.createIterator(in[0], in[1], out));
+				}
+			}, da, db);
+		} else {
+			bitwiseAndLoop(da, db, it);
+		}
+
+		addBinaryOperatorName(da, db, result, "&");
+		return result;
+	}
+
+	private static void bitwiseAndLoop(final Dataset da, final Dataset db, final BroadcastIterator it) {
 		it.setOutputDouble(false);
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
@@ -12891,7 +14187,23 @@ public class Maths {
 		switch(dt) {
 		case Dataset.INT8:
 			final byte[] oi8data = ((ByteDataset) result).data;
-			{
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final byte[] iadata = ((ByteDataset) it.getFirstDataset()).data;
+				final byte[] ibdata = ((ByteDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						byte ox;
+						ox = (byte) (iax & ibx);
+						oi8data[io] = ox;
+					}
+				}
+			} else {
 				while (it.hasNext()) {
 					final long iax = it.aLong;
 					final long ibx = it.bLong;
@@ -12903,7 +14215,23 @@ public class Maths {
 			break;
 		case Dataset.INT16:
 			final short[] oi16data = ((ShortDataset) result).data;
-			{
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final short[] iadata = ((ShortDataset) it.getFirstDataset()).data;
+				final short[] ibdata = ((ShortDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						short ox;
+						ox = (short) (iax & ibx);
+						oi16data[io] = ox;
+					}
+				}
+			} else {
 				while (it.hasNext()) {
 					final long iax = it.aLong;
 					final long ibx = it.bLong;
@@ -12915,7 +14243,23 @@ public class Maths {
 			break;
 		case Dataset.INT64:
 			final long[] oi64data = ((LongDataset) result).data;
-			{
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final long[] iadata = ((LongDataset) it.getFirstDataset()).data;
+				final long[] ibdata = ((LongDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						long ox;
+						ox = (iax & ibx);
+						oi64data[io] = ox;
+					}
+				}
+			} else {
 				while (it.hasNext()) {
 					final long iax = it.aLong;
 					final long ibx = it.bLong;
@@ -12927,7 +14271,23 @@ public class Maths {
 			break;
 		case Dataset.INT32:
 			final int[] oi32data = ((IntegerDataset) result).data;
-			{
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final int[] iadata = ((IntegerDataset) it.getFirstDataset()).data;
+				final int[] ibdata = ((IntegerDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						int ox;
+						ox = (int) (iax & ibx);
+						oi32data[io] = ox;
+					}
+				}
+			} else {
 				while (it.hasNext()) {
 					final long iax = it.aLong;
 					final long ibx = it.bLong;
@@ -13180,9 +14540,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("bitwiseAnd supports integer, compound integer datasets only");
 		}
-
-		addBinaryOperatorName(da, db, result, "&");
-		return result;
 	}
 
 	/**
@@ -13203,9 +14560,38 @@ public class Maths {
 	 * @return a | b, bitwise inclusive OR of a and b
 	 */
 	public static Dataset bitwiseOr(final Object a, final Object b, final Dataset o) {
+		return bitwiseOr(a, b, o, isParallel());
+	}
+
+	/**
+	 * bitwiseOr operator
+	 * @param a
+	 * @param b
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return a | b, bitwise inclusive OR of a and b
+	 */
+	public static Dataset bitwiseOr(final Object a, final Object b, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final Dataset db = b instanceof Dataset ? (Dataset) b : DatasetFactory.createFromObject(b);
 		final BroadcastIterator it = BroadcastIterator.createIterator(da, db, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					bitwiseOrLoop(in[0], in[1], BroadcastIterator.createIterator(in[0], in[1], out));
+				}
+			}, da, db);
+		} else {
+			bitwiseOrLoop(da, db, it);
+		}
+
+		addBinaryOperatorName(da, db, result, "|");
+		return result;
+	}
+
+	private static void bitwiseOrLoop(final Dataset da, final Dataset db, final BroadcastIterator it) {
 		it.setOutputDouble(false);
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
@@ -13214,7 +14600,23 @@ public class Maths {
 		switch(dt) {
 		case Dataset.INT8:
 			final byte[] oi8data = ((ByteDataset) result).data;
-			{
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final byte[] iadata = ((ByteDataset) it.getFirstDataset()).data;
+				final byte[] ibdata = ((ByteDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						byte ox;
+						ox = (byte) (iax | ibx);
+						oi8data[io] = ox;
+					}
+				}
+			} else {
 				while (it.hasNext()) {
 					final long iax = it.aLong;
 					final long ibx = it.bLong;
@@ -13226,7 +14628,23 @@ public class Maths {
 			break;
 		case Dataset.INT16:
 			final short[] oi16data = ((ShortDataset) result).data;
-			{
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final short[] iadata = ((ShortDataset) it.getFirstDataset()).data;
+				final short[] ibdata = ((ShortDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						short ox;
+						ox = (short) (iax | ibx);
+						oi16data[io] = ox;
+					}
+				}
+			} else {
 				while (it.hasNext()) {
 					final long iax = it.aLong;
 					final long ibx = it.bLong;
@@ -13238,7 +14656,23 @@ public class Maths {
 			break;
 		case Dataset.INT64:
 			final long[] oi64data = ((LongDataset) result).data;
-			{
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final long[] iadata = ((LongDataset) it.getFirstDataset()).data;
+				final long[] ibdata = ((LongDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						long ox;
+						ox = (iax | ibx);
+						oi64data[io] = ox;
+					}
+				}
+			} else {
 				while (it.hasNext()) {
 					final long iax = it.aLong;
 					final long ibx = it.bLong;
@@ -13250,7 +14684,23 @@ public class Maths {
 			break;
 		case Dataset.INT32:
 			final int[] oi32data = ((IntegerDataset) result).data;
-			{
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final int[] iadata = ((IntegerDataset) it.getFirstDataset()).data;
+				final int[] ibdata = ((IntegerDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						int ox;
+						ox = (int) (iax | ibx);
+						oi32data[io] = ox;
+					}
+				}
+			} else {
 				while (it.hasNext()) {
 					final long iax = it.aLong;
 					final long ibx = it.bLong;
@@ -13503,9 +14953,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("bitwiseOr supports integer, compound integer datasets only");
 		}
-
-		addBinaryOperatorName(da, db, result, "|");
-		return result;
 	}
 
 	/**
@@ -13526,9 +14973,38 @@ public class Maths {
 	 * @return a ^ b, bitwise exclusive OR of a and b
 	 */
 	public static Dataset bitwiseXor(final Object a, final Object b, final Dataset o) {
+		return bitwiseXor(a, b, o, isParallel());
+	}
+
+	/**
+	 * bitwiseXor operator
+	 * @param a
+	 * @param b
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return a ^ b, bitwise exclusive OR of a and b
+	 */
+	public static Dataset bitwiseXor(final Object a, final Object b, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final Dataset db = b instanceof Dataset ? (Dataset) b : DatasetFactory.createFromObject(b);
 		final BroadcastIterator it = BroadcastIterator.createIterator(da, db, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					bitwiseXorLoop(in[0], in[1], BroadcastIterator.createIterator(in[0], in[1], out));
+				}
+			}, da, db);
+		} else {
+			bitwiseXorLoop(da, db, it);
+		}
+
+		addBinaryOperatorName(da, db, result, "^");
+		return result;
+	}
+
+	private static void bitwiseXorLoop(final Dataset da, final Dataset db, final BroadcastIterator it) {
 		it.setOutputDouble(false);
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
@@ -13537,7 +15013,23 @@ public class Maths {
 		switch(dt) {
 		case Dataset.INT8:
 			final byte[] oi8data = ((ByteDataset) result).data;
-			{
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final byte[] iadata = ((ByteDataset) it.getFirstDataset()).data;
+				final byte[] ibdata = ((ByteDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						byte ox;
+						ox = (byte) (iax ^ ibx);
+						oi8data[io] = ox;
+					}
+				}
+			} else {
 				while (it.hasNext()) {
 					final long iax = it.aLong;
 					final long ibx = it.bLong;
@@ -13549,7 +15041,23 @@ public class Maths {
 			break;
 		case Dataset.INT16:
 			final short[] oi16data = ((ShortDataset) result).data;
-			{
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final short[] iadata = ((ShortDataset) it.getFirstDataset()).data;
+				final short[] ibdata = ((ShortDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						short ox;
+						ox = (short) (iax ^ ibx);
+						oi16data[io] = ox;
+					}
+				}
+			} else {
 				while (it.hasNext()) {
 					final long iax = it.aLong;
 					final long ibx = it.bLong;
@@ -13561,7 +15069,23 @@ public class Maths {
 			break;
 		case Dataset.INT64:
 			final long[] oi64data = ((LongDataset) result).data;
-			{
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final long[] iadata = ((LongDataset) it.getFirstDataset()).data;
+				final long[] ibdata = ((LongDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						long ox;
+						ox = (iax ^ ibx);
+						oi64data[io] = ox;
+					}
+				}
+			} else {
 				while (it.hasNext()) {
 					final long iax = it.aLong;
 					final long ibx = it.bLong;
@@ -13573,7 +15097,23 @@ public class Maths {
 			break;
 		case Dataset.INT32:
 			final int[] oi32data = ((IntegerDataset) result).data;
-			{
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final int[] iadata = ((IntegerDataset) it.getFirstDataset()).data;
+				final int[] ibdata = ((IntegerDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						int ox;
+						ox = (int) (iax ^ ibx);
+						oi32data[io] = ox;
+					}
+				}
+			} else {
 				while (it.hasNext()) {
 					final long iax = it.aLong;
 					final long ibx = it.bLong;
@@ -13826,9 +15366,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("bitwiseXor supports integer, compound integer datasets only");
 		}
-
-		addBinaryOperatorName(da, db, result, "^");
-		return result;
 	}
 
 	/**
@@ -13849,9 +15386,38 @@ public class Maths {
 	 * @return a << b, bitwise left shift of a by b
 	 */
 	public static Dataset leftShift(final Object a, final Object b, final Dataset o) {
+		return leftShift(a, b, o, isParallel());
+	}
+
+	/**
+	 * leftShift operator
+	 * @param a
+	 * @param b
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return a << b, bitwise left shift of a by b
+	 */
+	public static Dataset leftShift(final Object a, final Object b, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final Dataset db = b instanceof Dataset ? (Dataset) b : DatasetFactory.createFromObject(b);
 		final BroadcastIterator it = BroadcastIterator.createIterator(da, db, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					leftShiftLoop(in[0], in[1], BroadcastIterator.createIterator(in[0], in[1], out));
+				}
+			}, da, db);
+		} else {
+			leftShiftLoop(da, db, it);
+		}
+
+		addBinaryOperatorName(da, db, result, "<<");
+		return result;
+	}
+
+	private static void leftShiftLoop(final Dataset da, final Dataset db, final BroadcastIterator it) {
 		it.setOutputDouble(false);
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
@@ -13860,7 +15426,23 @@ public class Maths {
 		switch(dt) {
 		case Dataset.INT8:
 			final byte[] oi8data = ((ByteDataset) result).data;
-			{
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final byte[] iadata = ((ByteDataset) it.getFirstDataset()).data;
+				final byte[] ibdata = ((ByteDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						byte ox;
+						ox = (byte) (iax << ibx);
+						oi8data[io] = ox;
+					}
+				}
+			} else {
 				while (it.hasNext()) {
 					final long iax = it.aLong;
 					final long ibx = it.bLong;
@@ -13872,7 +15454,23 @@ public class Maths {
 			break;
 		case Dataset.INT16:
 			final short[] oi16data = ((ShortDataset) result).data;
-			{
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final short[] iadata = ((ShortDataset) it.getFirstDataset()).data;
+				final short[] ibdata = ((ShortDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						short ox;
+						ox = (short) (iax << ibx);
+						oi16data[io] = ox;
+					}
+				}
+			} else {
 				while (it.hasNext()) {
 					final long iax = it.aLong;
 					final long ibx = it.bLong;
@@ -13884,7 +15482,23 @@ public class Maths {
 			break;
 		case Dataset.INT64:
 			final long[] oi64data = ((LongDataset) result).data;
-			{
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final long[] iadata = ((LongDataset) it.getFirstDataset()).data;
+				final long[] ibdata = ((LongDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						long ox;
+						ox = (iax << ibx);
+						oi64data[io] = ox;
+					}
+				}
+			} else {
 				while (it.hasNext()) {
 					final long iax = it.aLong;
 					final long ibx = it.bLong;
@@ -13896,7 +15510,23 @@ public class Maths {
 			break;
 		case Dataset.INT32:
 			final int[] oi32data = ((IntegerDataset) result).data;
-			{
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final int[] iadata = ((IntegerDataset) it.getFirstDataset()).data;
+				final int[] ibdata = ((IntegerDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						int ox;
+						ox = (int) (iax << ibx);
+						oi32data[io] = ox;
+					}
+				}
+			} else {
 				while (it.hasNext()) {
 					final long iax = it.aLong;
 					final long ibx = it.bLong;
@@ -14149,9 +15779,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("leftShift supports integer, compound integer datasets only");
 		}
-
-		addBinaryOperatorName(da, db, result, "<<");
-		return result;
 	}
 
 	/**
@@ -14172,9 +15799,38 @@ public class Maths {
 	 * @return a >> b, bitwise right shift of a by b
 	 */
 	public static Dataset rightShift(final Object a, final Object b, final Dataset o) {
+		return rightShift(a, b, o, isParallel());
+	}
+
+	/**
+	 * rightShift operator
+	 * @param a
+	 * @param b
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return a >> b, bitwise right shift of a by b
+	 */
+	public static Dataset rightShift(final Object a, final Object b, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final Dataset db = b instanceof Dataset ? (Dataset) b : DatasetFactory.createFromObject(b);
 		final BroadcastIterator it = BroadcastIterator.createIterator(da, db, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					rightShiftLoop(in[0], in[1], BroadcastIterator.createIterator(in[0], in[1], out));
+				}
+			}, da, db);
+		} else {
+			rightShiftLoop(da, db, it);
+		}
+
+		addBinaryOperatorName(da, db, result, ">>");
+		return result;
+	}
+
+	private static void rightShiftLoop(final Dataset da, final Dataset db, final BroadcastIterator it) {
 		it.setOutputDouble(false);
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
@@ -14183,7 +15839,23 @@ public class Maths {
 		switch(dt) {
 		case Dataset.INT8:
 			final byte[] oi8data = ((ByteDataset) result).data;
-			{
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final byte[] iadata = ((ByteDataset) it.getFirstDataset()).data;
+				final byte[] ibdata = ((ByteDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						byte ox;
+						ox = (byte) (iax >> ibx);
+						oi8data[io] = ox;
+					}
+				}
+			} else {
 				while (it.hasNext()) {
 					final long iax = it.aLong;
 					final long ibx = it.bLong;
@@ -14195,7 +15867,23 @@ public class Maths {
 			break;
 		case Dataset.INT16:
 			final short[] oi16data = ((ShortDataset) result).data;
-			{
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final short[] iadata = ((ShortDataset) it.getFirstDataset()).data;
+				final short[] ibdata = ((ShortDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						short ox;
+						ox = (short) (iax >> ibx);
+						oi16data[io] = ox;
+					}
+				}
+			} else {
 				while (it.hasNext()) {
 					final long iax = it.aLong;
 					final long ibx = it.bLong;
@@ -14207,7 +15895,23 @@ public class Maths {
 			break;
 		case Dataset.INT64:
 			final long[] oi64data = ((LongDataset) result).data;
-			{
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final long[] iadata = ((LongDataset) it.getFirstDataset()).data;
+				final long[] ibdata = ((LongDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						long ox;
+						ox = (iax >> ibx);
+						oi64data[io] = ox;
+					}
+				}
+			} else {
 				while (it.hasNext()) {
 					final long iax = it.aLong;
 					final long ibx = it.bLong;
@@ -14219,7 +15923,23 @@ public class Maths {
 			break;
 		case Dataset.INT32:
 			final int[] oi32data = ((IntegerDataset) result).data;
-			{
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final int[] iadata = ((IntegerDataset) it.getFirstDataset()).data;
+				final int[] ibdata = ((IntegerDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						int ox;
+						ox = (int) (iax >> ibx);
+						oi32data[io] = ox;
+					}
+				}
+			} else {
 				while (it.hasNext()) {
 					final long iax = it.aLong;
 					final long ibx = it.bLong;
@@ -14472,9 +16192,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("rightShift supports integer, compound integer datasets only");
 		}
-
-		addBinaryOperatorName(da, db, result, ">>");
-		return result;
 	}
 
 	/**
@@ -14495,9 +16212,38 @@ public class Maths {
 	 * @return a >>> b, bitwise right shift of a by b with zeros added
 	 */
 	public static Dataset unsignedRightShift(final Object a, final Object b, final Dataset o) {
+		return unsignedRightShift(a, b, o, isParallel());
+	}
+
+	/**
+	 * unsignedRightShift operator
+	 * @param a
+	 * @param b
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return a >>> b, bitwise right shift of a by b with zeros added
+	 */
+	public static Dataset unsignedRightShift(final Object a, final Object b, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final Dataset db = b instanceof Dataset ? (Dataset) b : DatasetFactory.createFromObject(b);
 		final BroadcastIterator it = BroadcastIterator.createIterator(da, db, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					unsignedRightShiftLoop(in[0], in[1], BroadcastIterator.createIterator(in[0], in[1], out));
+				}
+			}, da, db);
+		} else {
+			unsignedRightShiftLoop(da, db, it);
+		}
+
+		addBinaryOperatorName(da, db, result, ">>>");
+		return result;
+	}
+
+	private static void unsignedRightShiftLoop(final Dataset da, final Dataset db, final BroadcastIterator it) {
 		it.setOutputDouble(false);
 		final long unsignedMask;
 		final Dataset result = it.getOutput();
@@ -14508,7 +16254,23 @@ public class Maths {
 		case Dataset.INT8:
 			final byte[] oi8data = ((ByteDataset) result).data;
 			unsignedMask = 0xffL;
-			{
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final byte[] iadata = ((ByteDataset) it.getFirstDataset()).data;
+				final byte[] ibdata = ((ByteDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						byte ox;
+						ox = (byte) ((unsignedMask & iax) >>> ibx);
+						oi8data[io] = ox;
+					}
+				}
+			} else {
 				while (it.hasNext()) {
 					final long iax = it.aLong;
 					final long ibx = it.bLong;
@@ -14521,7 +16283,23 @@ public class Maths {
 		case Dataset.INT16:
 			final short[] oi16data = ((ShortDataset) result).data;
 			unsignedMask = 0xffffL;
-			{
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final short[] iadata = ((ShortDataset) it.getFirstDataset()).data;
+				final short[] ibdata = ((ShortDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						short ox;
+						ox = (short) ((unsignedMask & iax) >>> ibx);
+						oi16data[io] = ox;
+					}
+				}
+			} else {
 				while (it.hasNext()) {
 					final long iax = it.aLong;
 					final long ibx = it.bLong;
@@ -14534,7 +16312,23 @@ public class Maths {
 		case Dataset.INT64:
 			final long[] oi64data = ((LongDataset) result).data;
 			unsignedMask = 0xffffffffffffffffL;
-			{
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final long[] iadata = ((LongDataset) it.getFirstDataset()).data;
+				final long[] ibdata = ((LongDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						long ox;
+						ox = ((unsignedMask & iax) >>> ibx);
+						oi64data[io] = ox;
+					}
+				}
+			} else {
 				while (it.hasNext()) {
 					final long iax = it.aLong;
 					final long ibx = it.bLong;
@@ -14547,7 +16341,23 @@ public class Maths {
 		case Dataset.INT32:
 			final int[] oi32data = ((IntegerDataset) result).data;
 			unsignedMask = 0xffffffffL;
-			{
+			if (!it.isOutputDouble() && it.hasInputDtype(dt)) {
+				final int[] iadata = ((IntegerDataset) it.getFirstDataset()).data;
+				final int[] ibdata = ((IntegerDataset) it.getSecondDataset()).data;
+				while (it.nextRun()) {
+					final int n = it.runLength;
+					final int as = it.aRunStep;
+					final int bs = it.bRunStep;
+					final int os = it.oRunStep;
+					for (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {
+						final long iax = iadata[ia];
+						final long ibx = ibdata[ib];
+						int ox;
+						ox = (int) ((unsignedMask & iax) >>> ibx);
+						oi32data[io] = ox;
+					}
+				}
+			} else {
 				while (it.hasNext()) {
 					final long iax = it.aLong;
 					final long ibx = it.bLong;
@@ -14804,9 +16614,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("unsignedRightShift supports integer, compound integer datasets only");
 		}
-
-		addBinaryOperatorName(da, db, result, ">>>");
-		return result;
 	}
 
 	/**
@@ -14825,8 +16632,36 @@ public class Maths {
 	 * @return dataset
 	 */
 	public static Dataset bitwiseInvert(final Object a, final Dataset o) {
+		return bitwiseInvert(a, o, isParallel());
+	}
+
+	/**
+	 * bitwiseInvert - ~a, bitwise invert (or NOT) each element
+	 * @param a
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return dataset
+	 */
+	public static Dataset bitwiseInvert(final Object a, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final SingleInputBroadcastIterator it = new SingleInputBroadcastIterator(da, o, true, true, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					bitwiseInvertLoop(in[0], new SingleInputBroadcastIterator(in[0], out));
+				}
+			}, da);
+		} else {
+			bitwiseInvertLoop(da, it);
+		}
+
+		addFunctionName(result, "bitwiseInvert");
+		return result;
+	}
+
+	private static void bitwiseInvertLoop(final Dataset da, final SingleInputBroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -15019,9 +16854,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("bitwiseInvert supports integer, compound integer datasets only");
 		}
-
-		addFunctionName(result, "bitwiseInvert");
-		return result;
 	}
 
 	/**
@@ -15040,8 +16872,36 @@ public class Maths {
 	 * @return dataset
 	 */
 	public static Dataset sin(final Object a, final Dataset o) {
+		return sin(a, o, isParallel());
+	}
+
+	/**
+	 * sin - evaluate the sine function on each element of the dataset
+	 * @param a
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return dataset
+	 */
+	public static Dataset sin(final Object a, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final SingleInputBroadcastIterator it = new SingleInputBroadcastIterator(da, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					sinLoop(in[0], new SingleInputBroadcastIterator(in[0], out));
+				}
+			}, da);
+		} else {
+			sinLoop(da, it);
+		}
+
+		addFunctionName(result, "sin");
+		return result;
+	}
+
+	private static void sinLoop(final Dataset da, final SingleInputBroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -15570,9 +17430,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("sin supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addFunctionName(result, "sin");
-		return result;
 	}
 
 	/**
@@ -15591,8 +17448,36 @@ public class Maths {
 	 * @return dataset
 	 */
 	public static Dataset cos(final Object a, final Dataset o) {
+		return cos(a, o, isParallel());
+	}
+
+	/**
+	 * cos - evaluate the cosine function on each element of the dataset
+	 * @param a
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return dataset
+	 */
+	public static Dataset cos(final Object a, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final SingleInputBroadcastIterator it = new SingleInputBroadcastIterator(da, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					cosLoop(in[0], new SingleInputBroadcastIterator(in[0], out));
+				}
+			}, da);
+		} else {
+			cosLoop(da, it);
+		}
+
+		addFunctionName(result, "cos");
+		return result;
+	}
+
+	private static void cosLoop(final Dataset da, final SingleInputBroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -16121,9 +18006,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("cos supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addFunctionName(result, "cos");
-		return result;
 	}
 
 	/**
@@ -16142,8 +18024,36 @@ public class Maths {
 	 * @return dataset
 	 */
 	public static Dataset tan(final Object a, final Dataset o) {
+		return tan(a, o, isParallel());
+	}
+
+	/**
+	 * tan - evaluate the tangent function on each element of the dataset
+	 * @param a
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return dataset
+	 */
+	public static Dataset tan(final Object a, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final SingleInputBroadcastIterator it = new SingleInputBroadcastIterator(da, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					tanLoop(in[0], new SingleInputBroadcastIterator(in[0], out));
+				}
+			}, da);
+		} else {
+			tanLoop(da, it);
+		}
+
+		addFunctionName(result, "tan");
+		return result;
+	}
+
+	private static void tanLoop(final Dataset da, final SingleInputBroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -16696,9 +18606,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("tan supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addFunctionName(result, "tan");
-		return result;
 	}
 
 	/**
@@ -16717,8 +18624,36 @@ public class Maths {
 	 * @return dataset
 	 */
 	public static Dataset arcsin(final Object a, final Dataset o) {
+		return arcsin(a, o, isParallel());
+	}
+
+	/**
+	 * arcsin - evaluate the inverse sine function on each element of the dataset
+	 * @param a
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return dataset
+	 */
+	public static Dataset arcsin(final Object a, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final SingleInputBroadcastIterator it = new SingleInputBroadcastIterator(da, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					arcsinLoop(in[0], new SingleInputBroadcastIterator(in[0], out));
+				}
+			}, da);
+		} else {
+			arcsinLoop(da, it);
+		}
+
+		addFunctionName(result, "arcsin");
+		return result;
+	}
+
+	private static void arcsinLoop(final Dataset da, final SingleInputBroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -17255,9 +19190,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("arcsin supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addFunctionName(result, "arcsin");
-		return result;
 	}
 
 	/**
@@ -17276,8 +19208,36 @@ public class Maths {
 	 * @return dataset
 	 */
 	public static Dataset arccos(final Object a, final Dataset o) {
+		return arccos(a, o, isParallel());
+	}
+
+	/**
+	 * arccos - evaluate the inverse cosine function on each element of the dataset
+	 * @param a
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return dataset
+	 */
+	public static Dataset arccos(final Object a, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final SingleInputBroadcastIterator it = new SingleInputBroadcastIterator(da, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					arccosLoop(in[0], new SingleInputBroadcastIterator(in[0], out));
+				}
+			}, da);
+		} else {
+			arccosLoop(da, it);
+		}
+
+		addFunctionName(result, "arccos");
+		return result;
+	}
+
+	private static void arccosLoop(final Dataset da, final SingleInputBroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -17814,9 +19774,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("arccos supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addFunctionName(result, "arccos");
-		return result;
 	}
 
 	/**
@@ -17835,8 +19792,36 @@ public class Maths {
 	 * @return dataset
 	 */
 	public static Dataset arctan(final Object a, final Dataset o) {
+		return arctan(a, o, isParallel());
+	}
+
+	/**
+	 * arctan - evaluate the inverse tangent function on each element of the dataset
+	 * @param a
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return dataset
+	 */
+	public static Dataset arctan(final Object a, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final SingleInputBroadcastIterator it = new SingleInputBroadcastIterator(da, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					arctanLoop(in[0], new SingleInputBroadcastIterator(in[0], out));
+				}
+			}, da);
+		} else {
+			arctanLoop(da, it);
+		}
+
+		addFunctionName(result, "arctan");
+		return result;
+	}
+
+	private static void arctanLoop(final Dataset da, final SingleInputBroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -18373,9 +20358,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("arctan supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addFunctionName(result, "arctan");
-		return result;
 	}
 
 	/**
@@ -18394,8 +20376,36 @@ public class Maths {
 	 * @return dataset
 	 */
 	public static Dataset sinh(final Object a, final Dataset o) {
+		return sinh(a, o, isParallel());
+	}
+
+	/**
+	 * sinh - evaluate the hyperbolic sine function on each element of the dataset
+	 * @param a
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return dataset
+	 */
+	public static Dataset sinh(final Object a, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final SingleInputBroadcastIterator it = new SingleInputBroadcastIterator(da, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					sinhLoop(in[0], new SingleInputBroadcastIterator(in[0], out));
+				}
+			}, da);
+		} else {
+			sinhLoop(da, it);
+		}
+
+		addFunctionName(result, "sinh");
+		return result;
+	}
+
+	private static void sinhLoop(final Dataset da, final SingleInputBroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -18924,9 +20934,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("sinh supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addFunctionName(result, "sinh");
-		return result;
 	}
 
 	/**
@@ -18945,8 +20952,36 @@ public class Maths {
 	 * @return dataset
 	 */
 	public static Dataset cosh(final Object a, final Dataset o) {
+		return cosh(a, o, isParallel());
+	}
+
+	/**
+	 * cosh - evaluate the hyperbolic cosine function on each element of the dataset
+	 * @param a
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return dataset
+	 */
+	public static Dataset cosh(final Object a, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final SingleInputBroadcastIterator it = new SingleInputBroadcastIterator(da, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					coshLoop(in[0], new SingleInputBroadcastIterator(in[0], out));
+				}
+			}, da);
+		} else {
+			coshLoop(da, it);
+		}
+
+		addFunctionName(result, "cosh");
+		return result;
+	}
+
+	private static void coshLoop(final Dataset da, final SingleInputBroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -19475,9 +21510,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("cosh supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addFunctionName(result, "cosh");
-		return result;
 	}
 
 	/**
@@ -19496,8 +21528,36 @@ public class Maths {
 	 * @return dataset
 	 */
 	public static Dataset tanh(final Object a, final Dataset o) {
+		return tanh(a, o, isParallel());
+	}
+
+	/**
+	 * tanh - evaluate the tangent hyperbolic function on each element of the dataset
+	 * @param a
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return dataset
+	 */
+	public static Dataset tanh(final Object a, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final SingleInputBroadcastIterator it = new SingleInputBroadcastIterator(da, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					tanhLoop(in[0], new SingleInputBroadcastIterator(in[0], out));
+				}
+			}, da);
+		} else {
+			tanhLoop(da, it);
+		}
+
+		addFunctionName(result, "tanh");
+		return result;
+	}
+
+	private static void tanhLoop(final Dataset da, final SingleInputBroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -20050,9 +22110,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("tanh supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addFunctionName(result, "tanh");
-		return result;
 	}
 
 	/**
@@ -20071,8 +22128,36 @@ public class Maths {
 	 * @return dataset
 	 */
 	public static Dataset arcsinh(final Object a, final Dataset o) {
+		return arcsinh(a, o, isParallel());
+	}
+
+	/**
+	 * arcsinh - evaluate the inverse hyperbolic sine function on each element of the dataset
+	 * @param a
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return dataset
+	 */
+	public static Dataset arcsinh(final Object a, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final SingleInputBroadcastIterator it = new SingleInputBroadcastIterator(da, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					arcsinhLoop(in[0], new SingleInputBroadcastIterator(in[0], out));
+				}
+			}, da);
+		} else {
+			arcsinhLoop(da, it);
+		}
+
+		addFunctionName(result, "arcsinh");
+		return result;
+	}
+
+	private static void arcsinhLoop(final Dataset da, final SingleInputBroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -20609,9 +22694,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("arcsinh supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addFunctionName(result, "arcsinh");
-		return result;
 	}
 
 	/**
@@ -20630,8 +22712,36 @@ public class Maths {
 	 * @return dataset
 	 */
 	public static Dataset arccosh(final Object a, final Dataset o) {
+		return arccosh(a, o, isParallel());
+	}
+
+	/**
+	 * arccosh - evaluate the inverse hyperbolic cosine function on each element of the dataset
+	 * @param a
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return dataset
+	 */
+	public static Dataset arccosh(final Object a, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final SingleInputBroadcastIterator it = new SingleInputBroadcastIterator(da, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					arccoshLoop(in[0], new SingleInputBroadcastIterator(in[0], out));
+				}
+			}, da);
+		} else {
+			arccoshLoop(da, it);
+		}
+
+		addFunctionName(result, "arccosh");
+		return result;
+	}
+
+	private static void arccoshLoop(final Dataset da, final SingleInputBroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -21168,9 +23278,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("arccosh supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addFunctionName(result, "arccosh");
-		return result;
 	}
 
 	/**
@@ -21189,8 +23296,36 @@ public class Maths {
 	 * @return dataset
 	 */
 	public static Dataset arctanh(final Object a, final Dataset o) {
+		return arctanh(a, o, isParallel());
+	}
+
+	/**
+	 * arctanh - evaluate the inverse hyperbolic tangent function on each element of the dataset
+	 * @param a
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return dataset
+	 */
+	public static Dataset arctanh(final Object a, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final SingleInputBroadcastIterator it = new SingleInputBroadcastIterator(da, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					arctanhLoop(in[0], new SingleInputBroadcastIterator(in[0], out));
+				}
+			}, da);
+		} else {
+			arctanhLoop(da, it);
+		}
+
+		addFunctionName(result, "arctanh");
+		return result;
+	}
+
+	private static void arctanhLoop(final Dataset da, final SingleInputBroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -21727,9 +23862,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("arctanh supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addFunctionName(result, "arctanh");
-		return result;
 	}
 
 	/**
@@ -21748,8 +23880,36 @@ public class Maths {
 	 * @return dataset
 	 */
 	public static Dataset log(final Object a, final Dataset o) {
+		return log(a, o, isParallel());
+	}
+
+	/**
+	 * log - evaluate the logarithm function on each element of the dataset
+	 * @param a
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return dataset
+	 */
+	public static Dataset log(final Object a, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final SingleInputBroadcastIterator it = new SingleInputBroadcastIterator(da, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					logLoop(in[0], new SingleInputBroadcastIterator(in[0], out));
+				}
+			}, da);
+		} else {
+			logLoop(da, it);
+		}
+
+		addFunctionName(result, "log");
+		return result;
+	}
+
+	private static void logLoop(final Dataset da, final SingleInputBroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -22278,9 +24438,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("log supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addFunctionName(result, "log");
-		return result;
 	}
 
 	/**
@@ -22299,8 +24456,36 @@ public class Maths {
 	 * @return dataset
 	 */
 	public static Dataset log2(final Object a, final Dataset o) {
+		return log2(a, o, isParallel());
+	}
+
+	/**
+	 * log2 - evaluate the logarithm function on each element of the dataset
+	 * @param a
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return dataset
+	 */
+	public static Dataset log2(final Object a, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final SingleInputBroadcastIterator it = new SingleInputBroadcastIterator(da, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					log2Loop(in[0], new SingleInputBroadcastIterator(in[0], out));
+				}
+			}, da);
+		} else {
+			log2Loop(da, it);
+		}
+
+		addFunctionName(result, "log2");
+		return result;
+	}
+
+	private static void log2Loop(final Dataset da, final SingleInputBroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -22829,9 +25014,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("log2 supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addFunctionName(result, "log2");
-		return result;
 	}
 
 	/**
@@ -22850,8 +25032,36 @@ public class Maths {
 	 * @return dataset
 	 */
 	public static Dataset log10(final Object a, final Dataset o) {
+		return log10(a, o, isParallel());
+	}
+
+	/**
+	 * log10 - evaluate the logarithm function on each element of the dataset
+	 * @param a
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return dataset
+	 */
+	public static Dataset log10(final Object a, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final SingleInputBroadcastIterator it = new SingleInputBroadcastIterator(da, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					log10Loop(in[0], new SingleInputBroadcastIterator(in[0], out));
+				}
+			}, da);
+		} else {
+			log10Loop(da, it);
+		}
+
+		addFunctionName(result, "log10");
+		return result;
+	}
+
+	private static void log10Loop(final Dataset da, final SingleInputBroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -23380,9 +25590,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("log10 supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addFunctionName(result, "log10");
-		return result;
 	}
 
 	/**
@@ -23401,8 +25608,36 @@ public class Maths {
 	 * @return dataset
 	 */
 	public static Dataset log1p(final Object a, final Dataset o) {
+		return log1p(a, o, isParallel());
+	}
+
+	/**
+	 * log1p - evaluate the logarithm function of 1 plus on each element of the dataset
+	 * @param a
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return dataset
+	 */
+	public static Dataset log1p(final Object a, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final SingleInputBroadcastIterator it = new SingleInputBroadcastIterator(da, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					log1pLoop(in[0], new SingleInputBroadcastIterator(in[0], out));
+				}
+			}, da);
+		} else {
+			log1pLoop(da, it);
+		}
+
+		addFunctionName(result, "log1p");
+		return result;
+	}
+
+	private static void log1pLoop(final Dataset da, final SingleInputBroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -23931,9 +26166,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("log1p supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addFunctionName(result, "log1p");
-		return result;
 	}
 
 	/**
@@ -23952,8 +26184,36 @@ public class Maths {
 	 * @return dataset
 	 */
 	public static Dataset exp(final Object a, final Dataset o) {
+		return exp(a, o, isParallel());
+	}
+
+	/**
+	 * exp - evaluate the exponential function on each element of the dataset
+	 * @param a
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return dataset
+	 */
+	public static Dataset exp(final Object a, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final SingleInputBroadcastIterator it = new SingleInputBroadcastIterator(da, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					expLoop(in[0], new SingleInputBroadcastIterator(in[0], out));
+				}
+			}, da);
+		} else {
+			expLoop(da, it);
+		}
+
+		addFunctionName(result, "exp");
+		return result;
+	}
+
+	private static void expLoop(final Dataset da, final SingleInputBroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -24490,9 +26750,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("exp supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addFunctionName(result, "exp");
-		return result;
 	}
 
 	/**
@@ -24511,8 +26768,36 @@ public class Maths {
 	 * @return dataset
 	 */
 	public static Dataset expm1(final Object a, final Dataset o) {
+		return expm1(a, o, isParallel());
+	}
+
+	/**
+	 * expm1 - evaluate the exponential function - 1 on each element of the dataset
+	 * @param a
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return dataset
+	 */
+	public static Dataset expm1(final Object a, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final SingleInputBroadcastIterator it = new SingleInputBroadcastIterator(da, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					expm1Loop(in[0], new SingleInputBroadcastIterator(in[0], out));
+				}
+			}, da);
+		} else {
+			expm1Loop(da, it);
+		}
+
+		addFunctionName(result, "expm1");
+		return result;
+	}
+
+	private static void expm1Loop(final Dataset da, final SingleInputBroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -25049,9 +27334,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("expm1 supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addFunctionName(result, "expm1");
-		return result;
 	}
 
 	/**
@@ -25070,8 +27352,36 @@ public class Maths {
 	 * @return dataset
 	 */
 	public static Dataset sqrt(final Object a, final Dataset o) {
+		return sqrt(a, o, isParallel());
+	}
+
+	/**
+	 * sqrt - evaluate the square root function on each element of the dataset
+	 * @param a
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return dataset
+	 */
+	public static Dataset sqrt(final Object a, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final SingleInputBroadcastIterator it = new SingleInputBroadcastIterator(da, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					sqrtLoop(in[0], new SingleInputBroadcastIterator(in[0], out));
+				}
+			}, da);
+		} else {
+			sqrtLoop(da, it);
+		}
+
+		addFunctionName(result, "sqrt");
+		return result;
+	}
+
+	private static void sqrtLoop(final Dataset da, final SingleInputBroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -25608,9 +27918,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("sqrt supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addFunctionName(result, "sqrt");
-		return result;
 	}
 
 	/**
@@ -25629,8 +27936,36 @@ public class Maths {
 	 * @return dataset
 	 */
 	public static Dataset cbrt(final Object a, final Dataset o) {
+		return cbrt(a, o, isParallel());
+	}
+
+	/**
+	 * cbrt - evaluate the cube root function on each element of the dataset
+	 * @param a
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return dataset
+	 */
+	public static Dataset cbrt(final Object a, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final SingleInputBroadcastIterator it = new SingleInputBroadcastIterator(da, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					cbrtLoop(in[0], new SingleInputBroadcastIterator(in[0], out));
+				}
+			}, da);
+		} else {
+			cbrtLoop(da, it);
+		}
+
+		addFunctionName(result, "cbrt");
+		return result;
+	}
+
+	private static void cbrtLoop(final Dataset da, final SingleInputBroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -26167,9 +28502,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("cbrt supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addFunctionName(result, "cbrt");
-		return result;
 	}
 
 	/**
@@ -26188,8 +28520,36 @@ public class Maths {
 	 * @return dataset
 	 */
 	public static Dataset square(final Object a, final Dataset o) {
+		return square(a, o, isParallel());
+	}
+
+	/**
+	 * square - square each element
+	 * @param a
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return dataset
+	 */
+	public static Dataset square(final Object a, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final SingleInputBroadcastIterator it = new SingleInputBroadcastIterator(da, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					squareLoop(in[0], new SingleInputBroadcastIterator(in[0], out));
+				}
+			}, da);
+		} else {
+			squareLoop(da, it);
+		}
+
+		addFunctionName(result, "square");
+		return result;
+	}
+
+	private static void squareLoop(final Dataset da, final SingleInputBroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -26718,9 +29078,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("square supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addFunctionName(result, "square");
-		return result;
 	}
 
 	/**
@@ -26739,8 +29096,36 @@ public class Maths {
 	 * @return dataset
 	 */
 	public static Dataset floor(final Object a, final Dataset o) {
+		return floor(a, o, isParallel());
+	}
+
+	/**
+	 * floor - evaluate the floor function on each element of the dataset
+	 * @param a
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return dataset
+	 */
+	public static Dataset floor(final Object a, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final SingleInputBroadcastIterator it = new SingleInputBroadcastIterator(da, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					floorLoop(in[0], new SingleInputBroadcastIterator(in[0], out));
+				}
+			}, da);
+		} else {
+			floorLoop(da, it);
+		}
+
+		addFunctionName(result, "floor");
+		return result;
+	}
+
+	private static void floorLoop(final Dataset da, final SingleInputBroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -27269,9 +29654,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("floor supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addFunctionName(result, "floor");
-		return result;
 	}
 
 	/**
@@ -27290,8 +29672,36 @@ public class Maths {
 	 * @return dataset
 	 */
 	public static Dataset ceil(final Object a, final Dataset o) {
+		return ceil(a, o, isParallel());
+	}
+
+	/**
+	 * ceil - evaluate the ceiling function on each element of the dataset
+	 * @param a
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return dataset
+	 */
+	public static Dataset ceil(final Object a, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final SingleInputBroadcastIterator it = new SingleInputBroadcastIterator(da, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					ceilLoop(in[0], new SingleInputBroadcastIterator(in[0], out));
+				}
+			}, da);
+		} else {
+			ceilLoop(da, it);
+		}
+
+		addFunctionName(result, "ceil");
+		return result;
+	}
+
+	private static void ceilLoop(final Dataset da, final SingleInputBroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -27820,9 +30230,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("ceil supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addFunctionName(result, "ceil");
-		return result;
 	}
 
 	/**
@@ -27841,8 +30248,36 @@ public class Maths {
 	 * @return dataset
 	 */
 	public static Dataset rint(final Object a, final Dataset o) {
+		return rint(a, o, isParallel());
+	}
+
+	/**
+	 * rint - round each element of the dataset
+	 * @param a
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return dataset
+	 */
+	public static Dataset rint(final Object a, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final SingleInputBroadcastIterator it = new SingleInputBroadcastIterator(da, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					rintLoop(in[0], new SingleInputBroadcastIterator(in[0], out));
+				}
+			}, da);
+		} else {
+			rintLoop(da, it);
+		}
+
+		addFunctionName(result, "rint");
+		return result;
+	}
+
+	private static void rintLoop(final Dataset da, final SingleInputBroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -28371,9 +30806,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("rint supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addFunctionName(result, "rint");
-		return result;
 	}
 
 	/**
@@ -28392,8 +30824,36 @@ public class Maths {
 	 * @return dataset
 	 */
 	public static Dataset truncate(final Object a, final Dataset o) {
+		return truncate(a, o, isParallel());
+	}
+
+	/**
+	 * truncate - truncate each element to integers of the dataset
+	 * @param a
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return dataset
+	 */
+	public static Dataset truncate(final Object a, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final SingleInputBroadcastIterator it = new SingleInputBroadcastIterator(da, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					truncateLoop(in[0], new SingleInputBroadcastIterator(in[0], out));
+				}
+			}, da);
+		} else {
+			truncateLoop(da, it);
+		}
+
+		addFunctionName(result, "truncate");
+		return result;
+	}
+
+	private static void truncateLoop(final Dataset da, final SingleInputBroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -28922,9 +31382,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("truncate supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addFunctionName(result, "truncate");
-		return result;
 	}
 
 	/**
@@ -28943,8 +31400,36 @@ public class Maths {
 	 * @return dataset
 	 */
 	public static Dataset toDegrees(final Object a, final Dataset o) {
+		return toDegrees(a, o, isParallel());
+	}
+
+	/**
+	 * toDegrees - convert to degrees
+	 * @param a
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return dataset
+	 */
+	public static Dataset toDegrees(final Object a, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final SingleInputBroadcastIterator it = new SingleInputBroadcastIterator(da, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					toDegreesLoop(in[0], new SingleInputBroadcastIterator(in[0], out));
+				}
+			}, da);
+		} else {
+			toDegreesLoop(da, it);
+		}
+
+		addFunctionName(result, "toDegrees");
+		return result;
+	}
+
+	private static void toDegreesLoop(final Dataset da, final SingleInputBroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -29473,9 +31958,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("toDegrees supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addFunctionName(result, "toDegrees");
-		return result;
 	}
 
 	/**
@@ -29494,8 +31976,36 @@ public class Maths {
 	 * @return dataset
 	 */
 	public static Dataset toRadians(final Object a, final Dataset o) {
+		return toRadians(a, o, isParallel());
+	}
+
+	/**
+	 * toRadians - convert to radians
+	 * @param a
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return dataset
+	 */
+	public static Dataset toRadians(final Object a, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final SingleInputBroadcastIterator it = new SingleInputBroadcastIterator(da, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					toRadiansLoop(in[0], new SingleInputBroadcastIterator(in[0], out));
+				}
+			}, da);
+		} else {
+			toRadiansLoop(da, it);
+		}
+
+		addFunctionName(result, "toRadians");
+		return result;
+	}
+
+	private static void toRadiansLoop(final Dataset da, final SingleInputBroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -30024,9 +32534,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("toRadians supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addFunctionName(result, "toRadians");
-		return result;
 	}
 
 	/**
@@ -30045,8 +32552,36 @@ public class Maths {
 	 * @return dataset
 	 */
 	public static Dataset signum(final Object a, final Dataset o) {
+		return signum(a, o, isParallel());
+	}
+
+	/**
+	 * signum - sign of each element
+	 * @param a
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return dataset
+	 */
+	public static Dataset signum(final Object a, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final SingleInputBroadcastIterator it = new SingleInputBroadcastIterator(da, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					signumLoop(in[0], new SingleInputBroadcastIterator(in[0], out));
+				}
+			}, da);
+		} else {
+			signumLoop(da, it);
+		}
+
+		addFunctionName(result, "signum");
+		return result;
+	}
+
+	private static void signumLoop(final Dataset da, final SingleInputBroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -30575,9 +33110,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("signum supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addFunctionName(result, "signum");
-		return result;
 	}
 
 	/**
@@ -30596,8 +33128,36 @@ public class Maths {
 	 * @return dataset
 	 */
 	public static Dataset negative(final Object a, final Dataset o) {
+		return negative(a, o, isParallel());
+	}
+
+	/**
+	 * negative - negative value of each element
+	 * @param a
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return dataset
+	 */
+	public static Dataset negative(final Object a, final Dataset o, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final SingleInputBroadcastIterator it = new SingleInputBroadcastIterator(da, o, true);
+		final Dataset result = it.getOutput();
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					negativeLoop(in[0], new SingleInputBroadcastIterator(in[0], out));
+				}
+			}, da);
+		} else {
+			negativeLoop(da, it);
+		}
+
+		addFunctionName(result, "negative");
+		return result;
+	}
+
+	private static void negativeLoop(final Dataset da, final SingleInputBroadcastIterator it) {
 		final Dataset result = it.getOutput();
 		final int is = result.getElementsPerItem();
 		final int dt = result.getDtype();
@@ -31126,9 +33686,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("negative supports integer, compound integer, real, compound real, complex datasets only");
 		}
-
-		addFunctionName(result, "negative");
-		return result;
 	}
 
 	/**
@@ -31151,13 +33708,43 @@ public class Maths {
 	 * @return dataset
 	 */
 	public static Dataset clip(final Object a, final Dataset o, final Object pa, final Object pb) {
+		return clip(a, o, pa, pb, isParallel());
+	}
+
+	/**
+	 * clip - clip elements to limits
+	 * @param a
+	 * @param o output can be null - in which case, a new dataset is created
+	 * @param pa
+	 * @param pb
+	 * @param parallel if true, split large datasets into chunks that are evaluated concurrently
+	 * @return dataset
+	 */
+	public static Dataset clip(final Object a, final Dataset o, final Object pa, final Object pb, final boolean parallel) {
 		final Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);
 		final SingleInputBroadcastIterator it = new SingleInputBroadcastIterator(da, o, true);
 		final Dataset result = it.getOutput();
-		final int is = result.getElementsPerItem();
-		final int dt = result.getDtype();
 		final double pax = AbstractDataset.toReal(pa);
 		final double pbx = AbstractDataset.toReal(pb);
+		if (parallel && ParallelUtils.isWorthSplitting(result)) {
+			ParallelUtils.run(result, new ParallelUtils.ChunkOperation() {
+				@Override
+				public void run(Dataset[] in, Dataset out) {
+					clipLoop(in[0], new SingleInputBroadcastIterator(in[0], out), pax, pbx);
+				}
+			}, da);
+		} else {
+			clipLoop(da, it, pax, pbx);
+		}
+
+		addFunctionName(result, "clip");
+		return result;
+	}
+
+	private static void clipLoop(final Dataset da, final SingleInputBroadcastIterator it, final double pax, final double pbx) {
+		final Dataset result = it.getOutput();
+		final int is = result.getElementsPerItem();
+		final int dt = result.getDtype();
 
 		switch(dt) {
 		case Dataset.INT8:
@@ -31903,9 +34490,6 @@ public class Maths {
 		default:
 			throw new IllegalArgumentException("clip supports integer, compound integer, real, compound real datasets only");
 		}
-
-		addFunctionName(result, "clip");
-		return result;
 	}
 
 // End of generated code
@@ -0,0 +1,243 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.analysis.dataset.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.eclipse.dawnsci.analysis.api.dataset.SliceND;
+
+/**
+ * Utilities to split element-wise operations on large datasets into chunks that are
+ * evaluated concurrently in a fork/join pool.
+ * <p>
+ * The output shape is split into ranges along its leading axes so that each chunk covers
+ * a contiguous range of output positions. Inputs are sliced to match where they are not
+ * broadcast along the split axes.
+ */
+public final class ParallelUtils {
+
+	/**
+	 * Default minimum number of items in a dataset before it is split
+	 */
+	public static final int DEFAULT_THRESHOLD = 1 << 18;
+
+	/**
+	 * Minimum number of items in each chunk
+	 */
+	private static final int MIN_CHUNK_SIZE = 1 << 14;
+
+	/**
+	 * Number of chunks per thread, used to balance load
+	 */
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	private static volatile int threshold = DEFAULT_THRESHOLD;
+
+	private static ForkJoinPool pool;
+
+	private ParallelUtils() {
+	}
+
+	/**
+	 * Operation that is run on each chunk
+	 */
+	public interface ChunkOperation {
+		/**
+		 * @param in views of inputs which correspond to the chunk
+		 * @param out view of output chunk
+		 */
+		public void run(Dataset[] in, Dataset out);
+	}
+
+	/**
+	 * @return minimum number of items in a dataset before it is split
+	 */
+	public static int getThreshold() {
+		return threshold;
+	}
+
+	/**
+	 * Set minimum number of items in a dataset before it is split
+	 * @param threshold
+	 */
+	public static void setThreshold(int threshold) {
+		if (threshold < 1) {
+			throw new IllegalArgumentException("Threshold must be positive");
+		}
+		ParallelUtils.threshold = threshold;
+	}
+
+	/**
+	 * @return pool used for parallel evaluation
+	 */
+	public static synchronized ForkJoinPool getPool() {
+		if (pool == null) {
+			pool = new ForkJoinPool();
+		}
+		return pool;
+	}
+
+	/**
+	 * Set number of threads used for parallel evaluation
+	 * @param threads
+	 */
+	public static synchronized void setParallelism(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("Number of threads must be positive");
+		}
+		if (pool != null) {
+			if (pool.getParallelism() == threads) {
+				return;
+			}
+			pool.shutdown();
+		}
+		pool = new ForkJoinPool(threads);
+	}
+
+	/**
+	 * @param o output dataset
+	 * @return true if output is large enough to be split into more than one chunk
+	 */
+	public static boolean isWorthSplitting(final Dataset o) {
+		return o != null && o.getSize() >= threshold && getPool().getParallelism() > 1;
+	}
+
+	/**
+	 * Split shape into chunks which each cover a contiguous range of positions
+	 * @param shape
+	 * @param chunks number of chunks wanted
+	 * @return list of slices
+	 */
+	public static List<SliceND> split(final int[] shape, final int chunks) {
+		List<SliceND> slices = new ArrayList<SliceND>();
+		final int rank = shape.length;
+		if (rank == 0 || chunks <= 1) {
+			slices.add(new SliceND(shape));
+			return slices;
+		}
+
+		// find first axis where the leading positions can provide enough chunks
+		int axis = 0;
+		long lead = 1;
+		for (; axis < rank - 1; axis++) {
+			if (lead * shape[axis] >= chunks) {
+				break;
+			}
+			lead *= shape[axis];
+		}
+		final int length = shape[axis];
+		final int parts = (int) Math.min(length, (chunks + lead - 1) / lead);
+
+		final int[] start = new int[rank];
+		final int[] stop = shape.clone();
+		for (int j = 0; j < axis; j++) {
+			stop[j] = 1;
+		}
+		do {
+			for (int i = 0; i < parts; i++) {
+				start[axis] = (int) (((long) i * length) / parts);
+				stop[axis] = (int) (((long) (i + 1) * length) / parts);
+				slices.add(new SliceND(shape, start, stop, null));
+			}
+		} while (incrementLeading(shape, axis, start, stop));
+
+		return slices;
+	}
+
+	private static boolean incrementLeading(final int[] shape, final int axis, final int[] start, final int[] stop) {
+		for (int j = axis - 1; j >= 0; j--) {
+			if (++start[j] < shape[j]) {
+				stop[j] = start[j] + 1;
+				return true;
+			}
+			start[j] = 0;
+			stop[j] = 1;
+		}
+		return false;
+	}
+
+	/**
+	 * Get slice of input that corresponds to slice of (broadcasted) output
+	 * @param shape of input
+	 * @param oSlice slice of output
+	 * @return slice of input
+	 */
+	private static SliceND getInputSlice(final int[] shape, final SliceND oSlice) {
+		final int rank = shape.length;
+		final int offset = oSlice.getShape().length - rank;
+		final int[] oStart = oSlice.getStart();
+		final int[] oStop = oSlice.getStop();
+		final int[] start = new int[rank];
+		final int[] stop = shape.clone();
+		for (int j = 0; j < rank; j++) {
+			if (shape[j] != 1) {
+				start[j] = oStart[j + offset];
+				stop[j] = oStop[j + offset];
+			}
+		}
+		return new SliceND(shape, start, stop, null);
+	}
+
+	/**
+	 * Run operation over chunks of output in parallel
+	 * @param o output
+	 * @param op operation
+	 * @param inputs datasets which are broadcast against output
+	 */
+	public static void run(final Dataset o, final ChunkOperation op, final Dataset... inputs) {
+		final ForkJoinPool p = getPool();
+		final int chunks = (int) Math.min((long) CHUNKS_PER_THREAD * p.getParallelism(), o.getSize() / MIN_CHUNK_SIZE);
+		final List<SliceND> slices = split(o.getShapeRef(), chunks);
+		if (slices.size() == 1) {
+			op.run(inputs, o);
+			return;
+		}
+		p.invoke(new ChunkAction(o, op, inputs, slices, 0, slices.size()));
+	}
+
+	private static class ChunkAction extends RecursiveAction {
+		private static final long serialVersionUID = -4279573290858371934L;
+
+		private final Dataset o;
+		private final ChunkOperation op;
+		private final Dataset[] inputs;
+		private final List<SliceND> slices;
+		private final int lo;
+		private final int hi;
+
+		public ChunkAction(Dataset o, ChunkOperation op, Dataset[] inputs, List<SliceND> slices, int lo, int hi) {
+			this.o = o;
+			this.op = op;
+			this.inputs = inputs;
+			this.slices = slices;
+			this.lo = lo;
+			this.hi = hi;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo > 1) {
+				int mid = (lo + hi) >>> 1;
+				invokeAll(new ChunkAction(o, op, inputs, slices, lo, mid), new ChunkAction(o, op, inputs, slices, mid, hi));
+				return;
+			}
+
+			SliceND slice = slices.get(lo);
+			Dataset[] in = new Dataset[inputs.length];
+			for (int i = 0; i < in.length; i++) {
+				in[i] = inputs[i].getSliceView(getInputSlice(inputs[i].getShapeRef(), slice));
+			}
+			op.run(in, o.getSliceView(slice));
+		}
+	}
+}
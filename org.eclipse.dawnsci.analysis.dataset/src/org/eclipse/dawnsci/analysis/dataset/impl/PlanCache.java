@@ -0,0 +1,118 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.analysis.dataset.impl;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least-recently-used cache of transform plans (the JTransforms objects that hold the
+ * precomputed tables for a given transform type and shape).
+ * <p>
+ * A plan is removed from the cache whilst it is in use and put back afterwards, so a plan is
+ * never shared between threads. Concurrent transforms of the same shape create extra plans.
+ */
+final class PlanCache {
+
+	/**
+	 * Default maximum number of plans held
+	 */
+	static final int DEFAULT_SIZE = 16;
+
+	private static int maxSize = DEFAULT_SIZE;
+
+	private static final LinkedHashMap<String, Object> plans = new LinkedHashMap<String, Object>(16, 0.75f, true);
+
+	private static long hits;
+	private static long misses;
+
+	private PlanCache() {
+	}
+
+	private static String createKey(Class<?> clazz, int... shape) {
+		return clazz.getName() + Arrays.toString(shape);
+	}
+
+	/**
+	 * Take plan out of cache
+	 * @param clazz class of plan
+	 * @param shape of transform
+	 * @return plan or null if none is available
+	 */
+	@SuppressWarnings("unchecked")
+	static synchronized <T> T take(Class<T> clazz, int... shape) {
+		T plan = (T) plans.remove(createKey(clazz, shape));
+		if (plan == null) {
+			misses++;
+		} else {
+			hits++;
+		}
+		return plan;
+	}
+
+	/**
+	 * Return plan to cache
+	 * @param plan
+	 * @param shape of transform
+	 */
+	static synchronized void release(Object plan, int... shape) {
+		if (maxSize == 0) {
+			return;
+		}
+		plans.put(createKey(plan.getClass(), shape), plan);
+		trim();
+	}
+
+	private static void trim() {
+		Iterator<Map.Entry<String, Object>> it = plans.entrySet().iterator();
+		while (plans.size() > maxSize && it.hasNext()) {
+			it.next();
+			it.remove();
+		}
+	}
+
+	/**
+	 * @param size maximum number of plans held (zero disables caching)
+	 */
+	static synchronized void setMaximumSize(int size) {
+		if (size < 0) {
+			throw new IllegalArgumentException("Cache size must not be negative");
+		}
+		maxSize = size;
+		trim();
+	}
+
+	static synchronized int getMaximumSize() {
+		return maxSize;
+	}
+
+	static synchronized int size() {
+		return plans.size();
+	}
+
+	static synchronized long getHitCount() {
+		return hits;
+	}
+
+	static synchronized long getMissCount() {
+		return misses;
+	}
+
+	/**
+	 * Remove all plans and reset hit and miss counts
+	 */
+	static synchronized void clear() {
+		plans.clear();
+		hits = 0;
+		misses = 0;
+	}
+}
@@ -0,0 +1,419 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.analysis.dataset.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.eclipse.dawnsci.analysis.api.dataset.IDataset;
+import org.eclipse.dawnsci.analysis.api.dataset.SliceND;
+import org.eclipse.dawnsci.analysis.api.io.ILazyAccessPattern;
+import org.eclipse.dawnsci.analysis.api.io.ILazyDynamicLoader;
+import org.eclipse.dawnsci.analysis.api.io.ILazyLoader;
+import org.eclipse.dawnsci.analysis.api.monitor.IMonitor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Lazy loader that reads ahead slices on a background thread when slices are read in order.
+ * <p>
+ * The next slices are predicted from the access pattern, if one has been declared, or else
+ * from the difference between the last two slices read. At most a given number of slices
+ * and bytes are read ahead; other slices are read from the wrapped loader as they are requested.
+ * Use {@link #create(ILazyLoader, int, long)} to keep a wrapped loader's support for dynamic datasets
+ */
+public class PrefetchingLazyLoader implements ILazyLoader, ILazyAccessPattern {
+	private static final long serialVersionUID = -4527816360154936211L;
+
+	private static final Logger logger = LoggerFactory.getLogger(PrefetchingLazyLoader.class);
+
+	/**
+	 * Default maximum number of slices to read ahead
+	 */
+	public static final int DEFAULT_AHEAD = 4;
+
+	/**
+	 * Default maximum number of bytes to hold in slices read ahead
+	 */
+	public static final long DEFAULT_BUDGET = 64L * 1024 * 1024;
+
+	private static ExecutorService executor;
+
+	private final ILazyLoader loader;
+	private final int ahead;
+	private final long budget;
+
+	private transient Map<String, Future<IDataset>> pending;
+	private transient SliceND region; // declared pattern
+	private transient boolean[] frame; // frame axes in pattern
+	private transient SliceND last; // last slice requested
+	private transient long sliceBytes;
+
+	/**
+	 * Lazy loader for dynamic datasets that reads ahead
+	 */
+	public static class Dynamic extends PrefetchingLazyLoader implements ILazyDynamicLoader {
+		private static final long serialVersionUID = 4393263960262545047L;
+
+		/**
+		 * @param loader must also be an {@link ILazyDynamicLoader}
+		 * @param ahead maximum number of slices to read ahead
+		 * @param budget maximum number of bytes to hold in slices read ahead
+		 */
+		public Dynamic(ILazyLoader loader, int ahead, long budget) {
+			super(loader, ahead, budget);
+			if (!(loader instanceof ILazyDynamicLoader)) {
+				throw new IllegalArgumentException("Loader must be dynamic");
+			}
+		}
+
+		@Override
+		public int[] refreshShape() {
+			clear();
+			return ((ILazyDynamicLoader) getLoader()).refreshShape();
+		}
+	}
+
+	/**
+	 * @param loader
+	 * @param ahead maximum number of slices to read ahead
+	 * @param budget maximum number of bytes to hold in slices read ahead
+	 */
+	public PrefetchingLazyLoader(ILazyLoader loader, int ahead, long budget) {
+		if (loader == null) {
+			throw new IllegalArgumentException("Loader must not be null");
+		}
+		if (ahead < 0 || budget < 0) {
+			throw new IllegalArgumentException("Number of slices and bytes to read ahead must not be negative");
+		}
+		this.loader = loader;
+		this.ahead = ahead;
+		this.budget = budget;
+	}
+
+	/**
+	 * @param loader
+	 * @param ahead maximum number of slices to read ahead
+	 * @param budget maximum number of bytes to hold in slices read ahead
+	 * @return loader that reads ahead and is dynamic if given loader is dynamic
+	 */
+	public static PrefetchingLazyLoader create(ILazyLoader loader, int ahead, long budget) {
+		if (loader instanceof ILazyDynamicLoader) {
+			return new Dynamic(loader, ahead, budget);
+		}
+		return new PrefetchingLazyLoader(loader, ahead, budget);
+	}
+
+	/**
+	 * @return wrapped loader
+	 */
+	public ILazyLoader getLoader() {
+		return loader;
+	}
+
+	private static synchronized ExecutorService getExecutor() {
+		if (executor == null) {
+			executor = Executors.newFixedThreadPool(2, new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "Lazy dataset prefetch");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		}
+		return executor;
+	}
+
+	@Override
+	public boolean isFileReadable() {
+		return loader.isFileReadable();
+	}
+
+	@Override
+	public synchronized void setAccessPattern(SliceND region, int... axes) {
+		clear();
+		if (region == null) {
+			this.region = null;
+			frame = null;
+			return;
+		}
+
+		int rank = region.getShape().length;
+		frame = new boolean[rank];
+		if (axes != null) {
+			for (int a : axes) {
+				if (a < 0) {
+					a += rank;
+				}
+				if (a < 0 || a >= rank) {
+					throw new IllegalArgumentException("Axis " + a + " is out of range");
+				}
+				frame[a] = true;
+			}
+		}
+		for (int s : region.getStep()) {
+			if (s <= 0) { // cannot predict
+				this.region = null;
+				frame = null;
+				return;
+			}
+		}
+		this.region = region.clone();
+	}
+
+	/**
+	 * Discard slices read ahead
+	 */
+	public synchronized void clear() {
+		if (pending != null) {
+			for (Future<IDataset> f : pending.values()) {
+				f.cancel(false);
+			}
+			pending.clear();
+		}
+		last = null;
+	}
+
+	@Override
+	public IDataset getDataset(IMonitor mon, SliceND slice) throws Exception {
+		if (ahead == 0) {
+			return loader.getDataset(mon, slice);
+		}
+
+		Future<IDataset> f;
+		List<SliceND> next;
+		synchronized (this) {
+			f = pending == null ? null : pending.remove(createKey(slice));
+			next = predict(slice);
+			last = slice.clone();
+		}
+
+		IDataset data = null;
+		if (f != null) {
+			try {
+				data = f.get();
+			} catch (ExecutionException e) {
+				logger.warn("Could not read ahead {} so reading again", slice, e.getCause());
+			} catch (CancellationException e) {
+				// discarded by another thread
+			}
+		}
+		if (data == null) {
+			data = loader.getDataset(mon, slice);
+		}
+
+		synchronized (this) {
+			if (data != null) {
+				sliceBytes = Math.max(sliceBytes, (long) data.getSize() * data.getItemsize());
+			}
+			schedule(next);
+		}
+		return data;
+	}
+
+	/**
+	 * Start reading next slices and discard any slices read ahead that are not expected
+	 * @param next
+	 */
+	private void schedule(List<SliceND> next) {
+		int n = ahead;
+		if (sliceBytes > 0) {
+			n = (int) Math.min(n, budget / sliceBytes);
+		}
+		if (pending == null) {
+			pending = new LinkedHashMap<String, Future<IDataset>>();
+		}
+
+		Set<String> keys = new HashSet<String>();
+		List<SliceND> todo = new ArrayList<SliceND>();
+		for (int i = 0, imax = Math.min(n, next.size()); i < imax; i++) {
+			SliceND s = next.get(i);
+			String k = createKey(s);
+			keys.add(k);
+			if (!pending.containsKey(k)) {
+				todo.add(s);
+			}
+		}
+
+		Iterator<Map.Entry<String, Future<IDataset>>> it = pending.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<String, Future<IDataset>> e = it.next();
+			if (!keys.contains(e.getKey())) {
+				e.getValue().cancel(false);
+				it.remove();
+			}
+		}
+
+		for (final SliceND s : todo) {
+			pending.put(createKey(s), getExecutor().submit(new Callable<IDataset>() {
+				@Override
+				public IDataset call() throws Exception {
+					return loader.getDataset(null, s);
+				}
+			}));
+		}
+	}
+
+	/**
+	 * @param slice
+	 * @return key that identifies items covered by slice
+	 */
+	private static String createKey(SliceND slice) {
+		int[] start = slice.getStart();
+		int[] shape = slice.getShape();
+		int[] step = slice.getStep().clone();
+		for (int i = 0; i < step.length; i++) {
+			if (shape[i] <= 1) {
+				step[i] = 1;
+			}
+		}
+		return Arrays.toString(start) + Arrays.toString(shape) + Arrays.toString(step);
+	}
+
+	/**
+	 * @param slice
+	 * @return list of slices expected to follow given slice
+	 */
+	private List<SliceND> predict(SliceND slice) {
+		List<SliceND> next = new ArrayList<SliceND>();
+		if (region != null && isFrame(slice)) {
+			predictFrames(slice, next);
+		} else if (last != null) {
+			predictSteps(slice, next);
+		}
+		return next;
+	}
+
+	private boolean isFrame(SliceND slice) {
+		int[] rStart = region.getStart();
+		int[] rShape = region.getShape();
+		int[] rStep = region.getStep();
+		int[] start = slice.getStart();
+		int[] shape = slice.getShape();
+		int[] step = slice.getStep();
+		if (shape.length != rShape.length) {
+			return false;
+		}
+		for (int i = 0; i < shape.length; i++) {
+			if (frame[i]) {
+				if (start[i] != rStart[i] || shape[i] != rShape[i] || (shape[i] > 1 && step[i] != rStep[i])) {
+					return false;
+				}
+			} else {
+				int d = start[i] - rStart[i];
+				if (shape[i] != 1 || d < 0 || d % rStep[i] != 0 || d / rStep[i] >= rShape[i]) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private void predictFrames(SliceND slice, List<SliceND> next) {
+		int[] rStart = region.getStart();
+		int[] rShape = region.getShape();
+		int[] rStep = region.getStep();
+		int[] rStop = region.getStop();
+		int rank = rShape.length;
+		int[] start = slice.getStart().clone();
+		int[] stop = new int[rank];
+		int[] step = new int[rank];
+		for (int i = 0; i < rank; i++) {
+			if (frame[i]) {
+				stop[i] = rStop[i];
+				step[i] = rStep[i];
+			} else {
+				step[i] = 1;
+			}
+		}
+
+		while (next.size() < ahead) {
+			int i = rank - 1;
+			for (; i >= 0; i--) {
+				if (frame[i]) {
+					continue;
+				}
+				start[i] += rStep[i];
+				if (start[i] < rStart[i] + rShape[i] * rStep[i]) {
+					break;
+				}
+				start[i] = rStart[i];
+			}
+			if (i < 0) {
+				break;
+			}
+			for (int j = 0; j < rank; j++) {
+				if (!frame[j]) {
+					stop[j] = start[j] + 1;
+				}
+			}
+			next.add(new SliceND(slice.getSourceShape(), start, stop, step));
+		}
+	}
+
+	private void predictSteps(SliceND slice, List<SliceND> next) {
+		int[] start = slice.getStart();
+		int[] shape = slice.getShape();
+		int[] step = slice.getStep();
+		int[] lStart = last.getStart();
+		int rank = shape.length;
+		if (lStart.length != rank || !Arrays.equals(shape, last.getShape())) {
+			return;
+		}
+
+		int[] sShape = slice.getSourceShape();
+		int[] delta = new int[rank];
+		boolean moved = false;
+		for (int i = 0; i < rank; i++) {
+			if (step[i] <= 0) {
+				return;
+			}
+			delta[i] = start[i] - lStart[i];
+			if (delta[i] != 0) {
+				moved = true;
+			}
+		}
+		if (!moved) {
+			return;
+		}
+
+		int[] nStart = start.clone();
+		int[] nStop = new int[rank];
+		for (int n = 0; n < ahead; n++) {
+			for (int i = 0; i < rank; i++) {
+				nStart[i] += delta[i];
+				nStop[i] = nStart[i] + (shape[i] - 1) * step[i] + 1;
+				if (nStart[i] < 0 || nStop[i] > sShape[i]) {
+					return;
+				}
+			}
+			next.add(new SliceND(sShape, nStart, nStop, step));
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "Prefetching " + loader;
+	}
+}
@@ -9,30 +9,81 @@
 
 package org.eclipse.dawnsci.analysis.dataset.impl;
 
+import java.util.Arrays;
+
 import org.eclipse.dawnsci.analysis.api.dataset.IDataset;
 import org.eclipse.dawnsci.analysis.api.dataset.ILazyDataset;
 
 /**
  * A running mean class
+ * <p>
+ * The average (and the mean of squared errors, if the first dataset has errors) is held in a flat
+ * array and updated a block at a time from the primitive arrays of contiguous datasets. Several
+ * datasets can be added in one pass with {@link #update(IDataset...)} and running averages from
+ * separate threads can be combined with {@link #merge(RunningAverage)}.
  */
 public class RunningAverage {
-	
-	private DoubleDataset average;
-	private DoubleDataset sqAveError;
+
+	/**
+	 * Number of items that are converted to doubles at a time
+	 */
+	private static final int BLOCK = 1024;
+
+	private final int[] shape;
+	private final int size;
+	private final String name;
+	private double[] average;
+	private float[] faverage; // used instead of average for single precision accumulation
+	private double[] sqAveError;
 	private int count = 1;
 
 	/**
 	 * @param dataset
 	 */
 	public RunningAverage(IDataset dataset) {
-		average = (DoubleDataset) (dataset.elementClass().equals(Double.class) ? DatasetUtils.convertToDataset(dataset).clone()
-				: DatasetUtils.cast(dataset, Dataset.FLOAT64));
+		this(dataset, false);
+	}
+
+	/**
+	 * @param dataset
+	 * @param useFloat if true, accumulate average in single precision (errors are always held in double precision)
+	 */
+	public RunningAverage(IDataset dataset, boolean useFloat) {
+		shape = dataset.getShape();
+		size = dataset.getSize();
+		name = dataset.getName();
+
+		final Dataset d = DatasetUtils.convertToDataset(dataset);
+		final double[] buffer = new double[BLOCK];
+		Values values = new Values(d);
+		if (useFloat) {
+			faverage = new float[size];
+			for (int i = 0; i < size; i += BLOCK) {
+				final int n = Math.min(BLOCK, size - i);
+				values.fill(buffer, n);
+				for (int j = 0; j < n; j++) {
+					faverage[i + j] = (float) buffer[j];
+				}
+			}
+		} else {
+			average = new double[size];
+			for (int i = 0; i < size; i += BLOCK) {
+				final int n = Math.min(BLOCK, size - i);
+				values.fill(buffer, n);
+				System.arraycopy(buffer, 0, average, i, n);
+			}
+		}
 
 		sqAveError = null;
-		Dataset eb = average.getErrorBuffer();
-		if (eb != null) {
-			sqAveError = eb.getDtype() != Dataset.FLOAT64 ? (DoubleDataset) DatasetUtils.cast(eb, Dataset.FLOAT64) :
-				(DoubleDataset) eb;
+		final Dataset e = getSquaredError(dataset);
+		if (e != null) {
+			sqAveError = new double[size];
+			values = new Values(e);
+			for (int i = 0; i < size; i += BLOCK) {
+				final int n = Math.min(BLOCK, size - i);
+				values.fill(buffer, n);
+				System.arraycopy(buffer, 0, sqAveError, i, n);
+			}
 		}
 	}
 
@@ -41,57 +92,117 @@ public class RunningAverage {
 	 * @param dataset
 	 */
 	public void update(IDataset dataset) {
-		count++;
-		IndexIterator it = average.getIterator(true);
-		int[] pos = it.getPos();
-		double f = 1. / count;
-		if (sqAveError == null) {
-			while (it.hasNext()) {
-				double m = average.getAbs(it.index);
-				double v = f * (dataset.getDouble(pos) - m);
-				average.setAbs(it.index, m + v);
+		update(new IDataset[] {dataset});
+	}
+
+	/**
+	 * Update average with several datasets in one pass
+	 * @param datasets
+	 */
+	public void update(IDataset... datasets) {
+		final int k = datasets.length;
+		if (k == 0) {
+			return;
+		}
+
+		final Values[] values = new Values[k];
+		final Values[] errors = new Values[k];
+		for (int l = 0; l < k; l++) {
+			values[l] = new Values(DatasetUtils.convertToDataset(datasets[l]));
+			if (sqAveError != null) {
+				final Dataset e = getSquaredError(datasets[l]);
+				if (e != null) {
+					errors[l] = new Values(e);
+				}
 			}
-		} else {
-			double fs = f * f;
-			double gs = 2 * count - 1;
-			if (dataset instanceof Dataset) {
-				final Dataset d = (Dataset) dataset;
-				final Dataset e = d.getErrorBuffer();
-				while (it.hasNext()) {
-					double m = average.getAbs(it.index);
-					double v = f * (d.getDouble(pos) - m);
-					average.setAbs(it.index, m + v);
-
-					if (e != null) {
-						m = sqAveError.getDouble(pos);
-						v = fs * (e.getDouble(pos) - gs * m);
-						sqAveError.setItem(m + v, pos);
-					}
+		}
+
+		final int total = count + k;
+		final double f = 1. / total;
+		final double c2 = (double) count * count;
+		final double fs = f * f;
+		final double[] buffer = new double[BLOCK];
+		final double[] acc = new double[BLOCK];
+		for (int i = 0; i < size; i += BLOCK) {
+			final int n = Math.min(BLOCK, size - i);
+			accumulate(values, buffer, acc, n);
+			if (average != null) {
+				for (int j = 0; j < n; j++) {
+					final double m = average[i + j];
+					average[i + j] = m + f * (acc[j] - k * m);
 				}
-			} else { // only linear error available
-				ILazyDataset le = dataset.getError();
-				final IDataset e;
-				if (le instanceof IDataset) {
-					e = (IDataset) le;
-				} else if (le != null) {
-					e = le.getSlice();
-				} else {
-					e = null;
+			} else {
+				for (int j = 0; j < n; j++) {
+					final double m = faverage[i + j];
+					faverage[i + j] = (float) (m + f * (acc[j] - k * m));
 				}
-				while (it.hasNext()) {
-					double m = average.getAbs(it.index);
-					double v = f * (dataset.getDouble(pos) - m);
-					average.setAbs(it.index, m + v);
-
-					if (e != null) {
-						m = sqAveError.getDouble(pos);
-						v = e.getDouble(pos);
-						v = fs * (v * v - gs * m);
-						sqAveError.setItem(m + v, pos);
-					}
+			}
+
+			if (sqAveError != null) {
+				accumulate(errors, buffer, acc, n);
+				for (int j = 0; j < n; j++) {
+					sqAveError[i + j] = fs * (c2 * sqAveError[i + j] + acc[j]);
 				}
 			}
 		}
+		count = total;
+	}
+
+	/**
+	 * Sum blocks of values
+	 * @param values (can contain nulls that are skipped)
+	 * @param buffer
+	 * @param acc
+	 * @param n
+	 */
+	private static void accumulate(final Values[] values, final double[] buffer, final double[] acc, final int n) {
+		Arrays.fill(acc, 0, n, 0);
+		for (Values v : values) {
+			if (v == null) {
+				continue;
+			}
+			v.fill(buffer, n);
+			for (int j = 0; j < n; j++) {
+				acc[j] += buffer[j];
+			}
+		}
+	}
+
+	/**
+	 * Merge another running average of datasets with the same shape into this one. This is
+	 * used to combine averages that were accumulated in parallel
+	 * @param other
+	 */
+	public void merge(RunningAverage other) {
+		if (!Arrays.equals(shape, other.shape)) {
+			throw new IllegalArgumentException("Running averages must have the same shape");
+		}
+
+		final int total = count + other.count;
+		final double f = (double) other.count / total;
+		for (int i = 0; i < size; i++) {
+			final double m = getAverage(i);
+			final double v = m + f * (other.getAverage(i) - m);
+			if (average != null) {
+				average[i] = v;
+			} else {
+				faverage[i] = (float) v;
+			}
+		}
+
+		if (sqAveError != null) {
+			final double a = (double) count * count;
+			final double b = (double) other.count * other.count;
+			final double fs = 1. / ((double) total * total);
+			for (int i = 0; i < size; i++) {
+				sqAveError[i] = fs * (a * sqAveError[i] + (other.sqAveError == null ? 0 : b * other.sqAveError[i]));
+			}
+		}
+		count = total;
+	}
+
+	private double getAverage(int i) {
+		return average != null ? average[i] : faverage[i];
 	}
 
 	/**
@@ -102,15 +213,120 @@ public class RunningAverage {
 	}
 
 	/**
-	 * @return current average
+	 * @return current average (which shares its data with this running average)
 	 */
 	public Dataset getCurrentAverage() {
+		final Dataset a = average != null ? new DoubleDataset(average, shape) : new FloatDataset(faverage, shape);
+		if (shape.length == 0) {
+			a.setShape(shape);
+		}
+		a.setName(name);
 		if (sqAveError != null) {
-			Dataset e = sqAveError.clone();
+			Dataset e = new DoubleDataset(sqAveError.clone(), shape);
+			if (shape.length == 0) {
+				e.setShape(shape);
+			}
 			DatasetUtils.makeFinite(e);
-			average.setErrorBuffer(e);
+			a.setErrorBuffer(e);
+		}
+
+		return a;
+	}
+
+	/**
+	 * @param dataset
+	 * @return squared error of given dataset or null
+	 */
+	private Dataset getSquaredError(IDataset dataset) {
+		if (dataset instanceof Dataset) {
+			return ((Dataset) dataset).getErrorBuffer();
 		}
 
-		return average;
+		// only linear error available
+		ILazyDataset le = dataset.getError();
+		if (le == null) {
+			return null;
+		}
+		Dataset e = DatasetUtils.convertToDataset(le instanceof IDataset ? (IDataset) le : le.getSlice());
+		return Maths.square(e);
+	}
+
+	/**
+	 * Source of values of a dataset in the order of the average's items
+	 */
+	private class Values {
+		private final Dataset d;
+		private final IndexIterator it;
+		private int index = 0;
+
+		Values(Dataset dataset) {
+			if (!Arrays.equals(shape, dataset.getShape())) {
+				if (dataset.getSize() == size && AbstractDataset.areShapesCompatible(shape, dataset.getShape())) {
+					dataset = dataset.getStrides() == null ? dataset.getView() : dataset.clone();
+					dataset.setShape(shape);
+				} else {
+					dataset = dataset.getBroadcastView(shape);
+				}
+			}
+			d = dataset;
+			it = d.getStrides() == null && d.getElementsPerItem() == 1 ? null : d.getIterator();
+		}
+
+		/**
+		 * Fill buffer with next values
+		 * @param buffer
+		 * @param n number of values
+		 */
+		void fill(final double[] buffer, final int n) {
+			if (it != null) {
+				for (int j = 0; j < n && it.hasNext(); j++) {
+					buffer[j] = d.getElementDoubleAbs(it.index);
+				}
+				return;
+			}
+
+			final int i = index;
+			switch (d.getDtype()) {
+			case Dataset.FLOAT64:
+				System.arraycopy(((DoubleDataset) d).data, i, buffer, 0, n);
+				break;
+			case Dataset.FLOAT32:
+				final float[] f32 = ((FloatDataset) d).data;
+				for (int j = 0; j < n; j++) {
+					buffer[j] = f32[i + j];
+				}
+				break;
+			case Dataset.INT64:
+				final long[] i64 = ((LongDataset) d).data;
+				for (int j = 0; j < n; j++) {
+					buffer[j] = i64[i + j];
+				}
+				break;
+			case Dataset.INT32:
+				final int[] i32 = ((IntegerDataset) d).data;
+				for (int j = 0; j < n; j++) {
+					buffer[j] = i32[i + j];
+				}
+				break;
+			case Dataset.INT16:
+				final short[] i16 = ((ShortDataset) d).data;
+				for (int j = 0; j < n; j++) {
+					buffer[j] = i16[i + j];
+				}
+				break;
+			case Dataset.INT8:
+				final byte[] i8 = ((ByteDataset) d).data;
+				for (int j = 0; j < n; j++) {
+					buffer[j] = i8[i + j];
+				}
+				break;
+			default:
+				for (int j = 0; j < n; j++) {
+					buffer[j] = d.getElementDoubleAbs(i + j);
+				}
+				break;
+			}
+			index += n;
+		}
 	}
 }
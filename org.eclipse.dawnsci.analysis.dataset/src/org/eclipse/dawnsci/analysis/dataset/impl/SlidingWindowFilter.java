@@ -0,0 +1,526 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.analysis.dataset.impl;
+
+import java.util.Arrays;
+
+/**
+ * N-dimensional box filters that slide a window over C-ordered data instead of slicing
+ * the data around every point.
+ * <p>
+ * The window for position x along an axis with kernel size k covers [x - k/2, x - k/2 + k)
+ * and is clipped to the data. Minimum and maximum use the van Herk/Gil-Werman algorithm and
+ * the mean uses compensated running sums; both are separable so are applied one axis at a time
+ * with a cost per item that is independent of the kernel size. The sums are divided by the number
+ * of items in each window once all axes are done, so integer data gives the same means as summing
+ * each window. The median keeps the window in a sorted
+ * array (for small windows) or a pair of heaps that are updated by removing and adding a plane
+ * of the window at each step along the last axis.
+ * NaNs propagate as they would in {@link Dataset#min(boolean...)}, {@link Dataset#max(boolean...)},
+ * {@link Dataset#mean(boolean...)} and are ordered last as in {@link Stats#median(Dataset)}.
+ */
+final class SlidingWindowFilter {
+
+	/**
+	 * Largest window for which the median is found from a sorted array rather than heaps
+	 */
+	private static final int SORTED_WINDOW_MAX = 256;
+
+	private SlidingWindowFilter() {
+	}
+
+	/**
+	 * Filter data
+	 * @param data C-ordered values (which may be overwritten)
+	 * @param shape
+	 * @param kernel window size along each axis
+	 * @param type of filter (only minimum, maximum, mean and median are supported)
+	 * @return filtered values
+	 */
+	static double[] filter(double[] data, final int[] shape, final int[] kernel, final Image.FilterType type) {
+		final int rank = shape.length;
+		if (kernel.length != rank) {
+			throw new IllegalArgumentException("Kernel shape must be the same shape as the input dataset");
+		}
+		for (int k : kernel) {
+			if (k < 1) {
+				throw new IllegalArgumentException("Kernel sizes must be positive");
+			}
+		}
+		if (rank == 0 || data.length == 0) {
+			return data;
+		}
+
+		switch (type) {
+		case MIN:
+		case MAX:
+			for (int a = 0; a < rank; a++) {
+				if (kernel[a] > 1) {
+					filterAxis(data, shape, a, kernel[a], type);
+				}
+			}
+			return data;
+		case MEAN:
+			for (int a = 0; a < rank; a++) {
+				if (kernel[a] > 1) {
+					filterAxis(data, shape, a, kernel[a], type);
+				}
+			}
+			divideByCounts(data, shape, kernel);
+			return data;
+		case MEDIAN:
+			return median(data, shape, kernel);
+		default:
+			throw new IllegalArgumentException("Filter type not supported: " + type);
+		}
+	}
+
+	/**
+	 * Apply 1D filter along given axis
+	 */
+	private static void filterAxis(final double[] data, final int[] shape, final int axis, final int k, final Image.FilterType type) {
+		final int n = shape[axis];
+		int stride = 1;
+		for (int i = axis + 1; i < shape.length; i++) {
+			stride *= shape[i];
+		}
+		final int outer = data.length / (n * stride);
+
+		final double[] line = new double[n];
+		final double[] out = new double[n];
+		final int m = n + k - 1;
+		final double[] g = new double[m];
+		final double[] h = new double[m];
+
+		for (int o = 0; o < outer; o++) {
+			final int base = o * n * stride;
+			for (int s = 0; s < stride; s++) {
+				final int start = base + s;
+				for (int x = 0, i = start; x < n; x++, i += stride) {
+					line[x] = data[i];
+				}
+				if (type == Image.FilterType.MEAN) {
+					sum(line, out, k);
+				} else {
+					minMax(line, out, k, type == Image.FilterType.MAX, g, h);
+				}
+				for (int x = 0, i = start; x < n; x++, i += stride) {
+					data[i] = out[x];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Van Herk/Gil-Werman running minimum or maximum over clipped windows
+	 * @param line
+	 * @param out
+	 * @param k window size
+	 * @param max if true, find maximum
+	 * @param g buffer for maxima from start of each block
+	 * @param h buffer for maxima to end of each block
+	 */
+	private static void minMax(final double[] line, final double[] out, final int k, final boolean max, final double[] g, final double[] h) {
+		final int n = line.length;
+		final int o = k / 2;
+		final int m = n + k - 1;
+		final double pad = max ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+
+		// padded line at t holds line[t - o]
+		for (int t = 0; t < m; t++) {
+			final int x = t - o;
+			final double v = x < 0 || x >= n ? pad : line[x];
+			g[t] = t % k == 0 ? v : (max ? Math.max(g[t - 1], v) : Math.min(g[t - 1], v));
+		}
+		for (int t = m - 1; t >= 0; t--) {
+			final int x = t - o;
+			final double v = x < 0 || x >= n ? pad : line[x];
+			h[t] = t == m - 1 || (t + 1) % k == 0 ? v : (max ? Math.max(h[t + 1], v) : Math.min(h[t + 1], v));
+		}
+		for (int x = 0; x < n; x++) {
+			final double a = h[x];
+			final double b = g[x + k - 1];
+			out[x] = max ? Math.max(a, b) : Math.min(a, b);
+		}
+	}
+
+	/**
+	 * Running sum over clipped windows. Values are added and removed with Neumaier's compensation
+	 * so a large value leaving the window does not take smaller ones with it. Non-finite values are
+	 * counted separately so that they only affect windows which contain them
+	 * @param line
+	 * @param out
+	 * @param k window size
+	 */
+	private static void sum(final double[] line, final double[] out, final int k) {
+		final int n = line.length;
+		final int o = k / 2;
+		double sum = 0;
+		double c = 0; // compensation
+		int nans = 0;
+		int pinfs = 0;
+		int ninfs = 0;
+		int lo = 0;
+		int hi = 0;
+		for (int x = 0; x < n; x++) {
+			final int nlo = Math.max(0, x - o);
+			final int nhi = Math.min(n, x - o + k);
+			for (; hi < nhi; hi++) {
+				final double v = line[hi];
+				if (Double.isNaN(v)) {
+					nans++;
+				} else if (v == Double.POSITIVE_INFINITY) {
+					pinfs++;
+				} else if (v == Double.NEGATIVE_INFINITY) {
+					ninfs++;
+				} else {
+					final double t = sum + v;
+					c += Math.abs(sum) >= Math.abs(v) ? (sum - t) + v : (v - t) + sum;
+					sum = t;
+				}
+			}
+			for (; lo < nlo; lo++) {
+				final double v = -line[lo];
+				if (Double.isNaN(v)) {
+					nans--;
+				} else if (v == Double.NEGATIVE_INFINITY) {
+					pinfs--;
+				} else if (v == Double.POSITIVE_INFINITY) {
+					ninfs--;
+				} else {
+					final double t = sum + v;
+					c += Math.abs(sum) >= Math.abs(v) ? (sum - t) + v : (v - t) + sum;
+					sum = t;
+				}
+			}
+			if (nans > 0 || (pinfs > 0 && ninfs > 0)) {
+				out[x] = Double.NaN;
+			} else if (pinfs > 0) {
+				out[x] = Double.POSITIVE_INFINITY;
+			} else if (ninfs > 0) {
+				out[x] = Double.NEGATIVE_INFINITY;
+			} else {
+				out[x] = sum + c;
+			}
+		}
+	}
+
+	/**
+	 * Divide sums by number of items in their clipped windows
+	 */
+	private static void divideByCounts(final double[] data, final int[] shape, final int[] kernel) {
+		final int rank = shape.length;
+		final int[][] counts = new int[rank][];
+		for (int a = 0; a < rank; a++) {
+			final int n = shape[a];
+			final int k = kernel[a];
+			final int o = k / 2;
+			counts[a] = new int[n];
+			for (int x = 0; x < n; x++) {
+				counts[a][x] = Math.min(n, x - o + k) - Math.max(0, x - o);
+			}
+		}
+
+		final int[] pos = new int[rank];
+		int i = 0;
+		do {
+			long count = 1;
+			for (int a = 0; a < rank; a++) {
+				count *= counts[a][pos[a]];
+			}
+			data[i++] /= count;
+		} while (increment(pos, null, shape));
+	}
+
+	/**
+	 * Median over clipped windows
+	 */
+	private static double[] median(final double[] data, final int[] shape, final int[] kernel) {
+		final int rank = shape.length;
+		final int last = rank - 1;
+		final int n = shape[last];
+		final int kl = kernel[last];
+		final int ol = kl / 2;
+
+		int[] strides = new int[rank];
+		strides[last] = 1;
+		for (int i = last - 1; i >= 0; i--) {
+			strides[i] = strides[i + 1] * shape[i + 1];
+		}
+
+		// maximum number of items in a plane of the window across the last axis
+		int planeMax = 1;
+		for (int i = 0; i < last; i++) {
+			planeMax *= Math.min(kernel[i], shape[i]);
+		}
+		final int[] bases = new int[planeMax];
+		final double[] out = new double[data.length];
+		final int size = planeMax * Math.min(kl, n);
+		final MedianWindow window = size <= SORTED_WINDOW_MAX ? new SortedWindow(size) : new MedianHeap(size);
+
+		final int[] pos = new int[last];
+		final int[] lo = new int[last];
+		final int[] hi = new int[last];
+		final int[] bpos = new int[last];
+		do {
+			// find offsets of items in plane
+			int lineStart = 0;
+			for (int i = 0; i < last; i++) {
+				lineStart += pos[i] * strides[i];
+				lo[i] = Math.max(0, pos[i] - kernel[i] / 2);
+				hi[i] = Math.min(shape[i], pos[i] - kernel[i] / 2 + kernel[i]);
+				bpos[i] = lo[i];
+			}
+			int np = 0;
+			do {
+				int b = 0;
+				for (int i = 0; i < last; i++) {
+					b += bpos[i] * strides[i];
+				}
+				bases[np++] = b;
+			} while (increment(bpos, lo, hi));
+
+			window.clear();
+			int wlo = 0;
+			int whi = 0;
+			for (int x = 0; x < n; x++) {
+				final int nlo = Math.max(0, x - ol);
+				final int nhi = Math.min(n, x - ol + kl);
+				for (; wlo < nlo; wlo++) {
+					final int s = (wlo % kl) * planeMax;
+					for (int p = 0; p < np; p++) {
+						window.remove(s + p, data[bases[p] + wlo]);
+					}
+				}
+				for (; whi < nhi; whi++) {
+					final int s = (whi % kl) * planeMax;
+					for (int p = 0; p < np; p++) {
+						window.add(s + p, data[bases[p] + whi]);
+					}
+				}
+				out[lineStart + x] = window.median();
+			}
+		} while (increment(pos, null, shape));
+
+		return out;
+	}
+
+	/**
+	 * Increment position within [lo, hi)
+	 * @return false when all positions have been visited
+	 */
+	private static boolean increment(final int[] pos, final int[] lo, final int[] hi) {
+		for (int i = pos.length - 1; i >= 0; i--) {
+			if (++pos[i] < hi[i]) {
+				return true;
+			}
+			pos[i] = lo == null ? 0 : lo[i];
+		}
+		return false;
+	}
+
+	/**
+	 * Window of values whose median is required. Each value is placed in a slot
+	 */
+	private static abstract class MedianWindow {
+		abstract void clear();
+
+		abstract void add(int slot, double v);
+
+		abstract void remove(int slot, double v);
+
+		abstract double median();
+	}
+
+	/**
+	 * Sorted array of values. NaNs are ordered after all other values
+	 */
+	private static class SortedWindow extends MedianWindow {
+		private final double[] values;
+		private int n;
+
+		SortedWindow(int size) {
+			values = new double[size];
+		}
+
+		@Override
+		void clear() {
+			n = 0;
+		}
+
+		@Override
+		void add(final int slot, final double v) {
+			int i = n++;
+			for (; i > 0 && Double.compare(values[i - 1], v) > 0; i--) {
+				values[i] = values[i - 1];
+			}
+			values[i] = v;
+		}
+
+		@Override
+		void remove(final int slot, final double v) {
+			n--;
+			for (int i = Arrays.binarySearch(values, 0, n + 1, v); i < n; i++) {
+				values[i] = values[i + 1];
+			}
+		}
+
+		@Override
+		double median() {
+			final int h = (n - 1) / 2;
+			final double a = values[h];
+			if (n % 2 == 1) {
+				return a;
+			}
+			return 0.5 * a + 0.5 * values[h + 1];
+		}
+	}
+
+	/**
+	 * Pair of heaps of slotted values that holds the lower half in a max-heap and the upper half
+	 * in a min-heap. Values can be removed by slot. NaNs are ordered after all other values
+	 */
+	private static class MedianHeap extends MedianWindow {
+		private final double[] value;
+		private final int[] where; // 0 for absent, 1 for lower heap and 2 for upper heap
+		private final int[] index; // place in heap
+		private final int[] lower;
+		private final int[] upper;
+		private int nl;
+		private int nu;
+
+		MedianHeap(int slots) {
+			value = new double[slots];
+			where = new int[slots];
+			index = new int[slots];
+			lower = new int[slots];
+			upper = new int[slots];
+		}
+
+		@Override
+		void clear() {
+			for (int i = 0; i < nl; i++) {
+				where[lower[i]] = 0;
+			}
+			for (int i = 0; i < nu; i++) {
+				where[upper[i]] = 0;
+			}
+			nl = 0;
+			nu = 0;
+		}
+
+		@Override
+		void add(final int slot, final double v) {
+			value[slot] = v;
+			if (nl == 0 || Double.compare(v, value[lower[0]]) <= 0) {
+				where[slot] = 1;
+				lower[nl] = slot;
+				index[slot] = nl;
+				up(lower, nl++, true);
+			} else {
+				where[slot] = 2;
+				upper[nu] = slot;
+				index[slot] = nu;
+				up(upper, nu++, false);
+			}
+			balance();
+		}
+
+		@Override
+		void remove(final int slot, final double v) {
+			final int i = index[slot];
+			if (where[slot] == 1) {
+				removeAt(lower, --nl, i, true);
+			} else {
+				removeAt(upper, --nu, i, false);
+			}
+			where[slot] = 0;
+			balance();
+		}
+
+		@Override
+		double median() {
+			final double a = value[lower[0]];
+			if (nl > nu) {
+				return a;
+			}
+			return 0.5 * a + 0.5 * value[upper[0]];
+		}
+
+		private void removeAt(final int[] heap, final int end, final int i, final boolean isMax) {
+			if (i != end) {
+				final int s = heap[end];
+				heap[i] = s;
+				index[s] = i;
+				up(heap, i, isMax);
+				down(heap, index[s], end, isMax);
+			}
+		}
+
+		private void balance() {
+			if (nl > nu + 1) {
+				final int s = lower[0];
+				removeAt(lower, --nl, 0, true);
+				where[s] = 2;
+				upper[nu] = s;
+				index[s] = nu;
+				up(upper, nu++, false);
+			} else if (nu > nl) {
+				final int s = upper[0];
+				removeAt(upper, --nu, 0, false);
+				where[s] = 1;
+				lower[nl] = s;
+				index[s] = nl;
+				up(lower, nl++, true);
+			}
+		}
+
+		// true if item at i should be above item at j
+		private boolean before(final int[] heap, final int i, final int j, final boolean isMax) {
+			final int c = Double.compare(value[heap[i]], value[heap[j]]);
+			return isMax ? c > 0 : c < 0;
+		}
+
+		private void swap(final int[] heap, final int i, final int j) {
+			final int t = heap[i];
+			heap[i] = heap[j];
+			heap[j] = t;
+			index[heap[i]] = i;
+			index[heap[j]] = j;
+		}
+
+		private void up(final int[] heap, int i, final boolean isMax) {
+			while (i > 0) {
+				final int p = (i - 1) >> 1;
+				if (!before(heap, i, p, isMax)) {
+					break;
+				}
+				swap(heap, i, p);
+				i = p;
+			}
+		}
+
+		private void down(final int[] heap, int i, final int size, final boolean isMax) {
+			while (true) {
+				final int l = 2 * i + 1;
+				if (l >= size) {
+					break;
+				}
+				final int r = l + 1;
+				final int c = r < size && before(heap, r, l, isMax) ? r : l;
+				if (!before(heap, c, i, isMax)) {
+					break;
+				}
+				swap(heap, i, c);
+				i = c;
+			}
+		}
+	}
+}
@@ -13,6 +13,7 @@
 package org.eclipse.dawnsci.analysis.dataset.impl;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.TreeMap;
@@ -36,38 +37,36 @@ public class Stats {
 	private static final String STORE_QUARTILE1 = "quartile1";
 	private static final String STORE_QUARTILE3 = "quartile3";
 
-	// calculates statistics and returns sorted dataset (0th element if compound)
-	private static Dataset calcQuartileStats(final AbstractDataset a) {
-		Dataset s = null;
+	private static final double[] QUARTILES = new double[] {0.25, 0.5, 0.75};
+
+	/**
+	 * Ranges smaller than this are sorted rather than partitioned
+	 */
+	private static final int SELECT_SORT_SIZE = 16;
+
+	// calculates quartile statistics (by selection rather than sorting)
+	private static void calcQuartileStats(final AbstractDataset a) {
 		final int is = a.getElementsPerItem();
 
 		if (is == 1) {
-			s = DatasetUtils.sort(a, null);
-		
-			a.setStoredValue(STORE_MEDIAN, Double.valueOf(pQuantile(s, 0.5)));
-			a.setStoredValue(STORE_QUARTILE1, Double.valueOf(pQuantile(s, 0.25)));
-			a.setStoredValue(STORE_QUARTILE3, Double.valueOf(pQuantile(s, 0.75)));
+			double[] q = pQuantiles(getValues(a, 0), QUARTILES);
+			a.setStoredValue(STORE_QUARTILE1, Double.valueOf(q[0]));
+			a.setStoredValue(STORE_MEDIAN, Double.valueOf(q[1]));
+			a.setStoredValue(STORE_QUARTILE3, Double.valueOf(q[2]));
 		} else {
-			Dataset w = DatasetFactory.zeros(a.getShapeRef(), a.getDtype());
-			a.setStoredValue(STORE_MEDIAN, new double[is]);
-			a.setStoredValue(STORE_QUARTILE1, new double[is]);
-			a.setStoredValue(STORE_QUARTILE3, new double[is]);
+			double[] q1 = new double[is];
+			double[] q2 = new double[is];
+			double[] q3 = new double[is];
 			for (int j = 0; j < is; j++) {
-				((CompoundDataset) a).copyElements(w, j);
-				w.sort(null);
-
-				double[] store;
-				store = (double[]) a.getStoredValue(STORE_MEDIAN);
-				store[j] = pQuantile(w, 0.5);
-				store = (double[]) a.getStoredValue(STORE_QUARTILE1);
-				store[j] = pQuantile(w, 0.25);
-				store = (double[]) a.getStoredValue(STORE_QUARTILE3);
-				store[j] = pQuantile(w, 0.75);
-				if (j == 0)
-					s = w.clone();
+				double[] q = pQuantiles(getValues(a, j), QUARTILES);
+				q1[j] = q[0];
+				q2[j] = q[1];
+				q3[j] = q[2];
 			}
+			a.setStoredValue(STORE_QUARTILE1, q1);
+			a.setStoredValue(STORE_MEDIAN, q2);
+			a.setStoredValue(STORE_QUARTILE3, q3);
 		}
-		return s;
 	}
 
 	static private Object getQStatistics(final AbstractDataset a, final String stat) {
@@ -81,121 +80,236 @@ public class Stats {
 
 	static private Dataset getQStatistics(final AbstractDataset a, int axis, final String stat) {
 		axis = a.checkAxis(axis);
-		Object obj = a.getStoredValue(stat);
-		final int is = a.getElementsPerItem();
+		Object obj = a.getStoredValue(stat + "-" + axis);
 
 		if (obj == null) {
-			if (is == 1) {
-				Dataset s = DatasetUtils.sort(a, axis);
-
-				a.setStoredValue(STORE_MEDIAN + "-" + axis, pQuantile(s, axis, 0.5));
-				a.setStoredValue(STORE_QUARTILE1 + "-" + axis, pQuantile(s, axis, 0.25));
-				a.setStoredValue(STORE_QUARTILE3 + "-" + axis, pQuantile(s, axis, 0.75));
-			} else {
-				Dataset w = DatasetFactory.zeros(a.getShapeRef(), a.getDtype());
-				for (int j = 0; j < is; j++) {
-					((CompoundDataset) a).copyElements(w, j);
-					w.sort(axis);
-
-					CompoundDoubleDataset s;
-					final Dataset c = pQuantile(w, axis, 0.5);
-					if (j == 0) {
-						s = (CompoundDoubleDataset) DatasetFactory.zeros(is, c.getShapeRef(), c.getDtype());
-						a.setStoredValue(STORE_MEDIAN + "-" + axis, s);
-						s = (CompoundDoubleDataset) DatasetFactory.zeros(is, c.getShapeRef(), c.getDtype());
-						a.setStoredValue(STORE_QUARTILE1 + "-" + axis, s);
-						s = (CompoundDoubleDataset) DatasetFactory.zeros(is, c.getShapeRef(), c.getDtype());
-						a.setStoredValue(STORE_QUARTILE3 + "-" + axis, s);
-					}
-					s = (CompoundDoubleDataset) a.getStoredValue(STORE_MEDIAN + "-" + axis);
-					s.setElements(c, j);
+			Dataset[] q = pQuantiles(a, axis, QUARTILES);
+			a.setStoredValue(STORE_QUARTILE1 + "-" + axis, q[0]);
+			a.setStoredValue(STORE_MEDIAN + "-" + axis, q[1]);
+			a.setStoredValue(STORE_QUARTILE3 + "-" + axis, q[2]);
+			obj = a.getStoredValue(stat + "-" + axis);
+		}
 
-					s = (CompoundDoubleDataset) a.getStoredValue(STORE_QUARTILE1 + "-" + axis);
-					s.setElements(pQuantile(w, axis, 0.25), j);
+		return (Dataset) obj;
+	}
 
-					s = (CompoundDoubleDataset) a.getStoredValue(STORE_QUARTILE3 + "-" + axis);
-					s.setElements(pQuantile(w, axis, 0.75), j);
-				}
+	private static void checkQuantiles(final double... values) {
+		for (double q : values) {
+			if (q < 0 || q > 1) {
+				throw new IllegalArgumentException("Quantile requested is outside [0,1]");
 			}
-			obj = a.getStoredValue(stat);
 		}
-
-		return (Dataset) obj;
 	}
 
-	// process a sorted dataset
-	private static double pQuantile(final Dataset s, final double q) {
-		double f = (s.getSize() - 1) * q; // fraction of sample number
-		if (f < 0)
-			return Double.NaN;
-		int qpt = (int) Math.floor(f); // quantile point
-		f -= qpt;
-
-		double quantile = s.getElementDoubleAbs(qpt);
-		if (f > 0) {
-			quantile = (1-f)*quantile + f*s.getElementDoubleAbs(qpt+1);
+	// copy given element of each item to an array
+	private static double[] getValues(final Dataset a, final int element) {
+		final double[] v = new double[a.getSize()];
+		if (a.getDtype() == Dataset.FLOAT64 && a.getStrides() == null) {
+			System.arraycopy(((DoubleDataset) a).data, 0, v, 0, v.length);
+			return v;
 		}
-		return quantile;
+		final IndexIterator it = a.getIterator();
+		int i = 0;
+		while (it.hasNext()) {
+			v[i++] = a.getElementDoubleAbs(it.index + element);
+		}
+		return v;
 	}
 
-	// process a sorted dataset and returns a double or compound double dataset
-	private static Dataset pQuantile(final Dataset s, final int axis, final double q) {
-		final int rank = s.getRank();
-		final int is = s.getElementsPerItem();
+	/**
+	 * Calculate quantiles of values by partially ordering them. NaNs are treated as
+	 * larger than all other values (as in a sort).
+	 * @param v values (which are reordered)
+	 * @param qs quantiles
+	 * @return points at which CDF has given values
+	 */
+	private static double[] pQuantiles(final double[] v, final double... qs) {
+		final int n = v.length;
+		final double[] points = new double[qs.length];
+		if (n == 0) {
+			Arrays.fill(points, Double.NaN);
+			return points;
+		}
+
+		// move NaNs to end
+		int m = n;
+		for (int i = 0; i < m;) {
+			if (Double.isNaN(v[i])) {
+				v[i] = v[--m];
+				v[m] = Double.NaN;
+			} else {
+				i++;
+			}
+		}
 
-		int[] oshape = s.getShape();
+		// find ranks that are needed
+		final int[] ranks = new int[2 * qs.length];
+		int nr = 0;
+		for (double q : qs) {
+			double f = (n - 1) * q;
+			int qpt = (int) Math.floor(f);
+			if (qpt < m) {
+				ranks[nr++] = qpt;
+				if (f > qpt && qpt + 1 < m) {
+					ranks[nr++] = qpt + 1;
+				}
+			}
+		}
+		Arrays.sort(ranks, 0, nr);
+		int nu = 0;
+		for (int i = 0; i < nr; i++) {
+			if (nu == 0 || ranks[nu - 1] != ranks[i]) {
+				ranks[nu++] = ranks[i];
+			}
+		}
+		multiSelect(v, 0, m - 1, ranks, 0, nu);
 
-		double f = (oshape[axis] - 1) * q; // fraction of sample number
-		int qpt = (int) Math.floor(f); // quantile point
-		f -= qpt;
+		for (int i = 0; i < qs.length; i++) {
+			double f = (n - 1) * qs[i];
+			int qpt = (int) Math.floor(f);
+			f -= qpt;
 
-		oshape[axis] = 1;
-		int[] qshape = AbstractDataset.squeezeShape(oshape, false);
-		Dataset qds = DatasetFactory.zeros(is, qshape, Dataset.FLOAT64);
+			double quantile = v[qpt];
+			if (f > 0) {
+				quantile = (1-f)*quantile + f*v[qpt+1];
+			}
+			points[i] = quantile;
+		}
+		return points;
+	}
 
-		IndexIterator qiter = qds.getIterator(true);
-		int[] qpos = qiter.getPos();
-		int[] spos = oshape;
+	/**
+	 * Partially order values so that items at given ranks are in sorted places
+	 * @param v values
+	 * @param lo start of range (inclusive)
+	 * @param hi end of range (inclusive)
+	 * @param ranks sorted, unique ranks within range
+	 * @param rlo start of ranks (inclusive)
+	 * @param rhi end of ranks (exclusive)
+	 */
+	private static void multiSelect(final double[] v, int lo, final int hi, final int[] ranks, int rlo, final int rhi) {
+		while (rlo < rhi) {
+			final int mid = (rlo + rhi) >>> 1;
+			final int k = ranks[mid];
+			select(v, lo, hi, k);
+			multiSelect(v, lo, k - 1, ranks, rlo, mid);
+			lo = k + 1;
+			rlo = mid + 1;
+		}
+	}
 
-		while (qiter.hasNext()) {
-			int i = 0;
-			for (; i < axis; i++) {
-				spos[i] = qpos[i];
+	/**
+	 * Partially order values so that the item of given rank is in its sorted place with
+	 * no larger items before it and no smaller items after it. This uses quickselect with a
+	 * median-of-three pivot and falls back to sorting when the partitioning is unbalanced
+	 * @param v values (which must not be NaNs)
+	 * @param lo start of range (inclusive)
+	 * @param hi end of range (inclusive)
+	 * @param k rank
+	 */
+	private static void select(final double[] v, int lo, int hi, final int k) {
+		int depth = 2 * (32 - Integer.numberOfLeadingZeros(hi - lo + 1));
+		while (hi - lo >= SELECT_SORT_SIZE) {
+			if (depth-- == 0) {
+				break;
+			}
+
+			// order lo, lo+1 and hi with median in lo+1 as pivot
+			swap(v, (lo + hi) >>> 1, lo + 1);
+			if (v[lo] > v[hi]) {
+				swap(v, lo, hi);
+			}
+			if (v[lo + 1] > v[hi]) {
+				swap(v, lo + 1, hi);
+			}
+			if (v[lo] > v[lo + 1]) {
+				swap(v, lo, lo + 1);
+			}
+			final double pivot = v[lo + 1];
+			int i = lo + 1;
+			int j = hi;
+			while (true) {
+				do {
+					i++;
+				} while (v[i] < pivot);
+				do {
+					j--;
+				} while (v[j] > pivot);
+				if (j < i) {
+					break;
+				}
+				swap(v, i, j);
+			}
+			v[lo + 1] = v[j];
+			v[j] = pivot;
+
+			if (j >= k) {
+				hi = j - 1;
 			}
-			spos[i++] = qpt;
-			for (; i < rank; i++) {
-				spos[i] = qpos[i-1];
+			if (j <= k) {
+				lo = i;
 			}
+		}
+		if (hi > lo) {
+			Arrays.sort(v, lo, hi + 1);
+		}
+	}
 
-			Object obj = s.getObject(spos);
-			qds.set(obj, qpos);
+	private static void swap(final double[] v, final int i, final int j) {
+		final double t = v[i];
+		v[i] = v[j];
+		v[j] = t;
+	}
+
+	/**
+	 * Calculate quantiles along an axis by selection
+	 * @param a
+	 * @param axis
+	 * @param qs quantiles
+	 * @return double or compound double datasets
+	 */
+	private static Dataset[] pQuantiles(final Dataset a, int axis, final double... qs) {
+		axis = a.checkAxis(axis);
+		final int is = a.getElementsPerItem();
+		final int[] oshape = a.getShape();
+		final int length = oshape[axis];
+		oshape[axis] = 1;
+		final int[] qshape = AbstractDataset.squeezeShape(oshape, false);
+
+		final Dataset[] points = new Dataset[qs.length];
+		for (int i = 0; i < qs.length; i++) {
+			points[i] = DatasetFactory.zeros(is, qshape, Dataset.FLOAT64);
+		}
+		final double[][] pdata = new double[qs.length][];
+		for (int i = 0; i < qs.length; i++) {
+			pdata[i] = is == 1 ? ((DoubleDataset) points[i]).getData() : ((CompoundDoubleDataset) points[i]).getData();
 		}
 
-		if (f > 0) {
-			qiter = qds.getIterator(true);
-			qpos = qiter.getPos();
-			qpt++;
-			Dataset rds = DatasetFactory.zeros(is, qshape, Dataset.FLOAT64);
-			
-			while (qiter.hasNext()) {
-				int i = 0;
-				for (; i < axis; i++) {
-					spos[i] = qpos[i];
+		final double[] line = new double[length];
+		final PositionIterator pi = a.getPositionIterator(axis);
+		final int[] pos = pi.getPos();
+		int o = 0;
+		while (pi.hasNext()) {
+			final int index = a.get1DIndex(pos);
+			int step = 0;
+			if (length > 1) {
+				pos[axis] = 1;
+				step = a.get1DIndex(pos) - index;
+				pos[axis] = 0;
+			}
+			for (int j = 0; j < is; j++) {
+				for (int k = 0, n = index + j; k < length; k++, n += step) {
+					line[k] = a.getElementDoubleAbs(n);
 				}
-				spos[i++] = qpt;
-				for (; i < rank; i++) {
-					spos[i] = qpos[i-1];
+				final double[] p = pQuantiles(line, qs);
+				for (int i = 0; i < qs.length; i++) {
+					pdata[i][o] = p[i];
 				}
-
-				Object obj = s.getObject(spos);
-				rds.set(obj, qpos);
+				o++;
 			}
-			rds.imultiply(f);
-			qds.imultiply(1-f);
-			qds.iadd(rds);
 		}
 
-		return qds;
+		return points;
 	}
 
 	/**
@@ -205,73 +319,35 @@ public class Stats {
 	 * @return point at which CDF has value q
 	 */
 	public static double quantile(final Dataset a, final double q) {
-		if (q < 0 || q > 1) {
-			throw new IllegalArgumentException("Quantile requested is outside [0,1]");
-		}
-		final Dataset s = calcQuartileStats(DatasetUtils.convertToAbstractDataset(a));
-		return pQuantile(s, q);
+		checkQuantiles(q);
+		return pQuantiles(getValues(a, 0), q)[0];
 	}
 
 	/**
 	 * Calculate quantiles of dataset which is defined as the inverse of the cumulative distribution function (CDF)
+	 * <p>
+	 * The values are partitioned once for all the quantiles
 	 * @param a
 	 * @param values
 	 * @return points at which CDF has given values
 	 */
 	public static double[] quantile(final Dataset a, final double... values) {
-		final double[] points  = new double[values.length];
-		final Dataset s = calcQuartileStats(DatasetUtils.convertToAbstractDataset(a));
-		for (int i = 0; i < points.length; i++) {
-			final double q = values[i];
-			if (q < 0 || q > 1) {
-				throw new IllegalArgumentException("Quantile requested is outside [0,1]");
-			}
-			points[i] = pQuantile(s, q);
-		}
-		return points;
+		checkQuantiles(values);
+		return pQuantiles(getValues(a, 0), values);
 	}
 
 	/**
 	 * Calculate quantiles of dataset which is defined as the inverse of the cumulative distribution function (CDF)
+	 * <p>
+	 * The values along the axis are partitioned once for all the quantiles
 	 * @param a
 	 * @param axis
 	 * @param values
 	 * @return points at which CDF has given values
 	 */
 	public static Dataset[] quantile(final Dataset a, final int axis, final double... values) {
-		final Dataset[] points  = new Dataset[values.length];
-		final int is = a.getElementsPerItem();
-
-		if (is == 1) {
-			Dataset s = DatasetUtils.sort(a, axis);
-			for (int i = 0; i < points.length; i++) {
-				final double q = values[i];
-				if (q < 0 || q > 1) {
-					throw new IllegalArgumentException("Quantile requested is outside [0,1]");
-				}
-				points[i] = pQuantile(s, axis, q);
-			}
-		} else {
-			Dataset w = DatasetFactory.zeros(a.getShapeRef(), a.getDtype());
-			for (int j = 0; j < is; j++) {
-				((CompoundDataset) a).copyElements(w, j);
-				w.sort(axis);
-
-				for (int i = 0; i < points.length; i++) {
-					final double q = values[i];
-					if (q < 0 || q > 1) {
-						throw new IllegalArgumentException("Quantile requested is outside [0,1]");
-					}
-					final Dataset c = pQuantile(w, axis, q);
-					if (j == 0) {
-						points[i] = DatasetFactory.zeros(is, c.getShapeRef(), c.getDtype());
-					}
-					((CompoundDoubleDataset) points[i]).setElements(c, j);
-				}
-			}
-		}
-
-		return points;
+		checkQuantiles(values);
+		return pQuantiles(a, axis, values);
 	}
 
 	/**
@@ -280,7 +356,7 @@ public class Stats {
 	 * @return median
 	 */
 	public static Dataset median(final Dataset a, final int axis) {
-		return getQStatistics(DatasetUtils.convertToAbstractDataset(a), axis, STORE_MEDIAN + "-" + axis);
+		return getQStatistics(DatasetUtils.convertToAbstractDataset(a), axis, STORE_MEDIAN);
 	}
 
 	/**
@@ -305,7 +381,7 @@ public class Stats {
 		}
 
 		double[] q1 = (double[]) getQStatistics(aa, STORE_QUARTILE1);
-		double[] q3 = (double[]) getQStatistics(aa, STORE_QUARTILE3);
+		double[] q3 = ((double[]) getQStatistics(aa, STORE_QUARTILE3)).clone();
 		for (int j = 0; j < is; j++) {
 			q3[j] -= q1[j];
 		}
@@ -320,9 +396,9 @@ public class Stats {
 	 */
 	public static Dataset iqr(final Dataset a, final int axis) {
 		AbstractDataset aa = DatasetUtils.convertToAbstractDataset(a);
-		Dataset q3 = getQStatistics(aa, axis, STORE_QUARTILE3 + "-" + axis);
+		Dataset q3 = getQStatistics(aa, axis, STORE_QUARTILE3);
 
-		return Maths.subtract(q3, aa.getStoredValue(STORE_QUARTILE1 + "-" + axis));
+		return Maths.subtract(q3, getQStatistics(aa, axis, STORE_QUARTILE1));
 	}
 
 	static private Object getHigherStatistic(final AbstractDataset a, final boolean ignoreNaNs, String stat) {
@@ -0,0 +1,429 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.analysis.dataset.impl;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Summary statistics of a dataset that are found in one pass: count, sum, mean and variance (using
+ * Welford's method), minimum and maximum (overall and positive) and the shapeless hash. Only the
+ * first element of each item is used for compound datasets.
+ * <p>
+ * Items are accumulated in fixed-size chunks whose partial results are merged in order so the
+ * results do not depend on whether the chunks are processed in parallel. The hash is a sequential
+ * remainder over all items so each chunk continues from the hash of the previous one; when chunks
+ * are processed in parallel, the hash is found in a separate sequential pass.
+ */
+final class SummaryStats {
+
+	/**
+	 * Number of items in each chunk
+	 */
+	static final int CHUNK = 1 << 16;
+
+	/**
+	 * Number of items that are converted to doubles at a time
+	 */
+	private static final int BLOCK = 1024;
+
+	private static final double HASH_MODULUS = Integer.MAX_VALUE;
+
+	private final boolean ignoreNaNs;
+	private final boolean ignoreInfs;
+
+	private long items = 0; // all items, including ignored ones
+	private long n = 0;
+	private double sum = 0;
+	private double mean = 0;
+	private double m2 = 0; // sum of squared deviations from mean
+	private double max = Double.NEGATIVE_INFINITY;
+	private double min = Double.POSITIVE_INFINITY;
+	private double pmax = Double.MIN_VALUE;
+	private double pmin = Double.POSITIVE_INFINITY;
+	private double hash = 0;
+	private boolean hasNaNs = false;
+
+	SummaryStats(boolean ignoreNaNs, boolean ignoreInfs) {
+		this(ignoreNaNs, ignoreInfs, 0);
+	}
+
+	/**
+	 * @param ignoreNaNs
+	 * @param ignoreInfs
+	 * @param hash of preceding items
+	 */
+	private SummaryStats(boolean ignoreNaNs, boolean ignoreInfs, double hash) {
+		this.ignoreNaNs = ignoreNaNs;
+		this.ignoreInfs = ignoreInfs;
+		this.hash = hash;
+	}
+
+	/**
+	 * Calculate summary statistics of dataset
+	 * @param a dataset
+	 * @param ignoreNaNs if true, ignore NaNs
+	 * @param ignoreInfs if true, ignore infinities
+	 * @return statistics
+	 */
+	static SummaryStats calculate(final Dataset a, final boolean ignoreNaNs, final boolean ignoreInfs) {
+		final SummaryStats total = new SummaryStats(ignoreNaNs, ignoreInfs);
+		final int size = a.getSize();
+
+		if (a.getStrides() != null || a.getElementsPerItem() != 1) { // view or compound so iterate
+			final IndexIterator iter = a.getIterator();
+			final double[] buffer = new double[BLOCK];
+			SummaryStats part = new SummaryStats(ignoreNaNs, ignoreInfs);
+			int i = 0;
+			while (iter.hasNext()) {
+				buffer[i++] = a.getElementDoubleAbs(iter.index);
+				if (i == BLOCK) {
+					part.add(buffer, 0, i);
+					i = 0;
+					if (part.items == CHUNK) {
+						total.merge(part);
+						part = new SummaryStats(ignoreNaNs, ignoreInfs, part.hash);
+					}
+				}
+			}
+			part.add(buffer, 0, i);
+			total.merge(part);
+			return total;
+		}
+
+		final int chunks = Math.max(1, (size + CHUNK - 1) / CHUNK);
+		final SummaryStats[] parts = new SummaryStats[chunks];
+		final boolean parallel = chunks > 1 && ParallelUtils.isWorthSplitting(a);
+		if (parallel) {
+			ParallelUtils.getPool().invoke(new ChunkAction(a, ignoreNaNs, ignoreInfs, parts, 0, chunks));
+		} else {
+			double hash = 0;
+			for (int i = 0; i < chunks; i++) {
+				parts[i] = calculate(a, i, ignoreNaNs, ignoreInfs, hash);
+				hash = parts[i].hash;
+			}
+		}
+		for (SummaryStats p : parts) {
+			total.merge(p);
+		}
+		if (parallel) {
+			total.hash = hash(a);
+		}
+		return total;
+	}
+
+	/**
+	 * Calculate summary statistics of chunk of contiguous dataset
+	 * @param hash of preceding chunks
+	 */
+	private static SummaryStats calculate(final Dataset a, final int chunk, final boolean ignoreNaNs, final boolean ignoreInfs, final double hash) {
+		final SummaryStats s = new SummaryStats(ignoreNaNs, ignoreInfs, hash);
+		final int start = chunk * CHUNK;
+		final int end = (int) Math.min(a.getSize(), (long) start + CHUNK);
+		if (a.getDtype() == Dataset.FLOAT64) {
+			s.add(((DoubleDataset) a).data, start, end);
+			return s;
+		}
+
+		final double[] buffer = new double[BLOCK];
+		for (int i = start; i < end; i += BLOCK) {
+			final int m = Math.min(BLOCK, end - i);
+			fill(a, i, buffer, m);
+			s.add(buffer, 0, m);
+		}
+		return s;
+	}
+
+	/**
+	 * Calculate hash of contiguous dataset sequentially
+	 * @param a
+	 * @return hash
+	 */
+	private static double hash(final Dataset a) {
+		final int size = a.getSize();
+		final double[] buffer = a.getDtype() == Dataset.FLOAT64 ? null : new double[BLOCK];
+		double hash = 0;
+		for (int i = 0; i < size; i += BLOCK) {
+			final int m = Math.min(BLOCK, size - i);
+			final double[] values;
+			final int offset;
+			if (buffer == null) {
+				values = ((DoubleDataset) a).data;
+				offset = i;
+			} else {
+				fill(a, i, buffer, m);
+				values = buffer;
+				offset = 0;
+			}
+			for (int j = offset, jmax = offset + m; j < jmax; j++) {
+				final double val = values[j];
+				if (Double.isNaN(val) || Double.isInfinite(val)) {
+					hash = (hash * 19) % HASH_MODULUS;
+				} else {
+					hash = (hash * 19 + val) % HASH_MODULUS;
+				}
+			}
+		}
+		return hash;
+	}
+
+	/**
+	 * Convert items of contiguous dataset to doubles
+	 * @param a
+	 * @param start index of first item
+	 * @param buffer
+	 * @param m number of items
+	 */
+	private static void fill(final Dataset a, final int start, final double[] buffer, final int m) {
+		switch (a.getDtype()) {
+		case Dataset.FLOAT32:
+			final float[] f32 = ((FloatDataset) a).data;
+			for (int j = 0; j < m; j++) {
+				buffer[j] = f32[start + j];
+			}
+			break;
+		case Dataset.INT64:
+			final long[] i64 = ((LongDataset) a).data;
+			for (int j = 0; j < m; j++) {
+				buffer[j] = i64[start + j];
+			}
+			break;
+		case Dataset.INT32:
+			final int[] i32 = ((IntegerDataset) a).data;
+			for (int j = 0; j < m; j++) {
+				buffer[j] = i32[start + j];
+			}
+			break;
+		case Dataset.INT16:
+			final short[] i16 = ((ShortDataset) a).data;
+			for (int j = 0; j < m; j++) {
+				buffer[j] = i16[start + j];
+			}
+			break;
+		case Dataset.INT8:
+			final byte[] i8 = ((ByteDataset) a).data;
+			for (int j = 0; j < m; j++) {
+				buffer[j] = i8[start + j];
+			}
+			break;
+		default:
+			for (int j = 0; j < m; j++) {
+				buffer[j] = a.getElementDoubleAbs(start + j);
+			}
+			break;
+		}
+	}
+
+	private static class ChunkAction extends RecursiveAction {
+		private static final long serialVersionUID = 5366474455102462233L;
+
+		private final Dataset a;
+		private final boolean ignoreNaNs;
+		private final boolean ignoreInfs;
+		private final SummaryStats[] parts;
+		private final int lo;
+		private final int hi;
+
+		ChunkAction(Dataset a, boolean ignoreNaNs, boolean ignoreInfs, SummaryStats[] parts, int lo, int hi) {
+			this.a = a;
+			this.ignoreNaNs = ignoreNaNs;
+			this.ignoreInfs = ignoreInfs;
+			this.parts = parts;
+			this.lo = lo;
+			this.hi = hi;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo > 1) {
+				int mid = (lo + hi) >>> 1;
+				invokeAll(new ChunkAction(a, ignoreNaNs, ignoreInfs, parts, lo, mid),
+						new ChunkAction(a, ignoreNaNs, ignoreInfs, parts, mid, hi));
+				return;
+			}
+			parts[lo] = calculate(a, lo, ignoreNaNs, ignoreInfs, 0);
+		}
+	}
+
+	/**
+	 * Add values
+	 * @param values
+	 * @param start
+	 * @param end
+	 */
+	void add(final double[] values, final int start, final int end) {
+		double lhash = hash;
+		double lmax = max;
+		double lmin = min;
+		double lpmax = pmax;
+		double lpmin = pmin;
+		long ln = n;
+		double lsum = sum;
+		double lmean = mean;
+		double lm2 = m2;
+		boolean nans = hasNaNs;
+
+		for (int i = start; i < end; i++) {
+			final double val = values[i];
+			if (Double.isNaN(val)) {
+				lhash = (lhash * 19) % HASH_MODULUS;
+				if (ignoreNaNs)
+					continue;
+				nans = true;
+			} else if (Double.isInfinite(val)) {
+				lhash = (lhash * 19) % HASH_MODULUS;
+				if (ignoreInfs)
+					continue;
+			} else {
+				lhash = (lhash * 19 + val) % HASH_MODULUS;
+			}
+
+			if (val > lmax) {
+				lmax = val;
+			}
+			if (val < lmin) {
+				lmin = val;
+			}
+			if (val > 0) {
+				if (val < lpmin) {
+					lpmin = val;
+				}
+				if (val > lpmax) {
+					lpmax = val;
+				}
+			}
+
+			ln++;
+			lsum += val;
+			final double delta = val - lmean;
+			lmean += delta / ln;
+			lm2 += delta * (val - lmean);
+		}
+
+		items += end - start;
+		hash = lhash;
+		max = lmax;
+		min = lmin;
+		pmax = lpmax;
+		pmin = lpmin;
+		n = ln;
+		sum = lsum;
+		mean = lmean;
+		m2 = lm2;
+		hasNaNs = nans;
+	}
+
+	/**
+	 * Merge statistics of following items
+	 * @param o statistics whose hash continues from this hash
+	 */
+	void merge(final SummaryStats o) {
+		hash = o.hash;
+		items += o.items;
+		hasNaNs |= o.hasNaNs;
+		if (o.max > max) {
+			max = o.max;
+		}
+		if (o.min < min) {
+			min = o.min;
+		}
+		if (o.pmax > pmax) {
+			pmax = o.pmax;
+		}
+		if (o.pmin < pmin) {
+			pmin = o.pmin;
+		}
+
+		if (o.n == 0) {
+			return;
+		}
+		if (n == 0) {
+			n = o.n;
+			sum = o.sum;
+			mean = o.mean;
+			m2 = o.m2;
+			return;
+		}
+		final long t = n + o.n;
+		final double delta = o.mean - mean;
+		mean += delta * o.n / t;
+		m2 += o.m2 + delta * delta * ((double) n * o.n / t);
+		sum += o.sum;
+		n = t;
+	}
+
+	/**
+	 * @return number of values which were not ignored
+	 */
+	long getN() {
+		return n;
+	}
+
+	double getSum() {
+		return sum;
+	}
+
+	/**
+	 * @return mean or NaN if there are no values
+	 */
+	double getMean() {
+		return n == 0 ? Double.NaN : mean;
+	}
+
+	/**
+	 * @param isWholePopulation if false, use bias-corrected (sample) variance
+	 * @return variance or NaN if there are no values
+	 */
+	double getVariance(boolean isWholePopulation) {
+		if (n == 0) {
+			return Double.NaN;
+		}
+		if (n == 1) {
+			return 0;
+		}
+		return m2 / (isWholePopulation ? n : n - 1);
+	}
+
+	/**
+	 * @return bias-corrected variance
+	 */
+	double getVariance() {
+		return getVariance(false);
+	}
+
+	/**
+	 * @return true if NaNs were found and not ignored
+	 */
+	boolean hasNaNs() {
+		return hasNaNs;
+	}
+
+	double getMax() {
+		return max;
+	}
+
+	double getMin() {
+		return min;
+	}
+
+	double getPositiveMax() {
+		return pmax;
+	}
+
+	double getPositiveMin() {
+		return pmin;
+	}
+
+	/**
+	 * @return hash of all values (including ignored ones)
+	 */
+	double getHash() {
+		return hash;
+	}
+}
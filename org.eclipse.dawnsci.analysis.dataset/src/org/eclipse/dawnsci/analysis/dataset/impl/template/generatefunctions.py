@@ -56,6 +56,14 @@ arguments are treated as signed or unsigned integers - they are "s" by
 default. When "u" is specified, a (long) "unsignedMask" is defined
 that will be available for use.
 
+Each function also gets an overload with a trailing "parallel" argument.
+The element-wise loops are put in a private method (named with a "Loop"
+suffix) which is either run over the whole output or, in parallel mode,
+over chunks of the output via ParallelUtils. When both inputs of a binary
+operation have the same type as the (non-compound) output, the loop reads
+their primitive arrays directly using the runs of items given by
+BroadcastIterator.nextRun().
+
 '''
 
 #
@@ -140,52 +148,100 @@ def oldmethod(name, jdoc=None, params=0):
             print("\t\treturn %s(a, null);" % name)
     print("\t}\n")
 
-def beginmethod(name, jdoc=None, params=0):
-    oldmethod(name, jdoc, params)
+def methoddoc(name, jdoc, plist, parallel=False):
     if is_binaryop:
         print("\t/**\n\t * %s operator" %  name)
         print("\t * @param a")
         print("\t * @param b")
-        print("\t * @param o output can be null - in which case, a new dataset is created")
     else:
         print("\t/**\n\t * %s - %s" %  (name, jdoc))
         print("\t * @param a")
-        print("\t * @param o output can be null - in which case, a new dataset is created")
+    print("\t * @param o output can be null - in which case, a new dataset is created")
+    for p in plist:
+        print("\t * @param %s" % p)
+    if parallel:
+        print("\t * @param parallel if true, split large datasets into chunks that are evaluated concurrently")
+    if is_binaryop:
+        print("\t * @return %s\n\t */" % jdoc)
+    else:
+        print("\t * @return dataset\n\t */")
+
+def beginmethod(name, jdoc=None, params=0):
+    oldmethod(name, jdoc, params)
 
     plist = []
-    if params > 0:
-        plist = ["pa"]
-        psig = "final Object " + plist[0]
-        for p in range(1, params):
-            plist.append("p"+chr(ord('a')+p))
-            psig += ", final Object " + plist[p]
+    psig = ""
+    ptext = ""
+    for p in range(params):
+        plist.append("p"+chr(ord('a')+p))
+        psig += ", final Object " + plist[p]
+        ptext += ", " + plist[p]
 
-        for p in plist:
-            print("\t * @param %s" % p)
-        if is_binaryop:
-            print("\t * @return %s\n\t */" % jdoc)
-            print("\tpublic static Dataset %s(final Object a, final Object b, final Dataset o, %s) {" % (name, psig))
-        else:
-            print("\t * @return dataset\n\t */")
-            print("\tpublic static Dataset %s(final Object a, final Dataset o, %s) {" % (name, psig))
+    if is_binaryop:
+        args = "a, b, o"
+        sig = "final Object a, final Object b, final Dataset o"
     else:
-        if is_binaryop:
-            print("\t * @return %s\n\t */" % jdoc)
-            print("\tpublic static Dataset %s(final Object a, final Object b, final Dataset o) {" % name)
-        else:
-            print("\t * @return dataset\n\t */")
-            print("\tpublic static Dataset %s(final Object a, final Dataset o) {" % name)
+        args = "a, o"
+        sig = "final Object a, final Dataset o"
+
+    methoddoc(name, jdoc, plist)
+    print("\tpublic static Dataset %s(%s%s) {" % (name, sig, psig))
+    print("\t\treturn %s(%s%s, isParallel());" % (name, args, ptext))
+    print("\t}\n")
+
+    methoddoc(name, jdoc, plist, parallel=True)
+    print("\tpublic static Dataset %s(%s%s, final boolean parallel) {" % (name, sig, psig))
     print("\t\tfinal Dataset da = a instanceof Dataset ? (Dataset) a : DatasetFactory.createFromObject(a);")
     if is_binaryop:
         print("\t\tfinal Dataset db = b instanceof Dataset ? (Dataset) b : DatasetFactory.createFromObject(b);")
         print("\t\tfinal BroadcastIterator it = BroadcastIterator.createIterator(da, db, o, true);")
-        if allow_ints:
-            print("\t\tit.setOutputDouble(false);");
     else:
         if allow_ints:
             print("\t\tfinal SingleInputBroadcastIterator it = new SingleInputBroadcastIterator(da, o, true, true, true);")
         else:
             print("\t\tfinal SingleInputBroadcastIterator it = new SingleInputBroadcastIterator(da, o, true);")
+    print("\t\tfinal Dataset result = it.getOutput();")
+    pvals = ""
+    for p in plist:
+        print("\t\tfinal double %s = AbstractDataset.toReal(%s);" % (p+"x", p))
+        pvals += ", " + p + "x"
+#        print("\t\tfinal double %s = AbstractDataset.toImag(%s);" % (p+"y", p))
+
+    print("\t\tif (parallel && ParallelUtils.isWorthSplitting(result)) {")
+    print("\t\t\tParallelUtils.run(result, new ParallelUtils.ChunkOperation() {")
+    print("\t\t\t\t@Override")
+    print("\t\t\t\tpublic void run(Dataset[] in, Dataset out) {")
+    if is_binaryop:
+        print("\t\t\t\t\t%sLoop(in[0], in[1], BroadcastIterator.createIterator(in[0], in[1], out)%s);" % (name, pvals))
+        print("\t\t\t\t}")
+        print("\t\t\t}, da, db);")
+    else:
+        print("\t\t\t\t\t%sLoop(in[0], new SingleInputBroadcastIterator(in[0], out)%s);" % (name, pvals))
+        print("\t\t\t\t}")
+        print("\t\t\t}, da);")
+    print("\t\t} else {")
+    if is_binaryop:
+        print("\t\t\t%sLoop(da, db, it%s);" % (name, pvals))
+    else:
+        print("\t\t\t%sLoop(da, it%s);" % (name, pvals))
+    print("\t\t}\n")
+    if is_binaryop:
+        opsym = jdoc.split()[1]
+        print("\t\taddBinaryOperatorName(da, db, result, \"%s\");" % opsym)
+    else:
+        print("\t\taddFunctionName(result, \"%s\");" % name)
+    print("\t\treturn result;")
+    print("\t}\n")
+
+    psig = ""
+    for p in plist:
+        psig += ", final double " + p + "x"
+    if is_binaryop:
+        print("\tprivate static void %sLoop(final Dataset da, final Dataset db, final BroadcastIterator it%s) {" % (name, psig))
+        if allow_ints:
+            print("\t\tit.setOutputDouble(false);");
+    else:
+        print("\tprivate static void %sLoop(final Dataset da, final SingleInputBroadcastIterator it%s) {" % (name, psig))
 
     if def_unsigned_mask:
         print("\t\tfinal long unsignedMask;")
@@ -194,9 +250,6 @@ def beginmethod(name, jdoc=None, params=0):
     print("\t\tfinal Dataset result = it.getOutput();")
     print("\t\tfinal int is = result.getElementsPerItem();")
     print("\t\tfinal int dt = result.getDtype();")
-    for p in plist:
-        print("\t\tfinal double %s = AbstractDataset.toReal(%s);" % (p+"x", p))
-#        print("\t\tfinal double %s = AbstractDataset.toImag(%s);" % (p+"y", p))
 
     print("")
     print("\t\tswitch(dt) {")
@@ -208,15 +261,8 @@ def endmethod(name, jdoc, types):
     for t in types[1:]:
         dtypes += ", %s" % t
     print("\t\t\tthrow new IllegalArgumentException(\"%s supports %s datasets only\");" % (name, dtypes))
-    print("\t\t}\n")
-    if is_binaryop:
-        opsym = jdoc.split()[1]
-        print("\t\taddBinaryOperatorName(da, db, result, \"%s\");" % opsym)
-    else:
-        print("\t\taddFunctionName(result, \"%s\");" % name)
-    print("\t\treturn result;")
+    print("\t\t}")
     print("\t}\n")
-
 def sameloop(codedict, cprefix, vletter, text, use_long=False, override_long=False, unsigned=False):
     is_int = cprefix.endswith("INT")
     for w in codedict.keys():
@@ -228,7 +274,7 @@ def sameloop(codedict, cprefix, vletter, text, use_long=False, override_long=Fal
         else:
             mask = None
         preloop(dtype, otype, oclass, ovar, is_int, use_long, override_long=override_long, mask=mask)
-        loop(text, otype, ovar, is_int, override_long)
+        loop(text, otype, ovar, is_int, override_long, oclass)
         postloop()
 
 def complexloop(codedict, cprefix, vletter, text, real):
@@ -335,9 +381,40 @@ def transtext(text, jtype, otype=None, lprefix="\t\t\t\t\t", is_int=True, overri
 
     return vars
 
-def loop(text, jtype, ovar, is_int, override_long):
+def runloop(text, jtype, iclass, ovar, is_int, override_long):
+    print("\t\t\t\tfinal %s[] iadata = ((%s) it.getFirstDataset()).data;" % (jtype, iclass))
+    print("\t\t\t\tfinal %s[] ibdata = ((%s) it.getSecondDataset()).data;" % (jtype, iclass))
+    print("\t\t\t\twhile (it.nextRun()) {")
+    print("\t\t\t\t\tfinal int n = it.runLength;")
+    print("\t\t\t\t\tfinal int as = it.aRunStep;")
+    print("\t\t\t\t\tfinal int bs = it.bRunStep;")
+    print("\t\t\t\t\tfinal int os = it.oRunStep;")
+    print("\t\t\t\t\tfor (int k = 0, ia = it.aIndex, ib = it.bIndex, io = it.oIndex; k < n; k++, ia += as, ib += bs, io += os) {")
+    if is_int:
+        print("\t\t\t\t\t\tfinal long iax = iadata[ia];")
+        print("\t\t\t\t\t\tfinal long ibx = ibdata[ib];")
+        transtext(text, jtype, lprefix="\t\t\t\t\t\t", is_int=is_int, override_long=override_long, use_long=True)
+    else:
+        print("\t\t\t\t\t\tfinal double iax = iadata[ia];")
+        print("\t\t\t\t\t\tfinal double ibx = ibdata[ib];")
+        transtext(text, jtype, lprefix="\t\t\t\t\t\t", is_int=False, override_long=override_long)
+    print("\t\t\t\t\t\t%s[io] = ox;" % ovar)
+    print("\t\t\t\t\t}")
+    print("\t\t\t\t}")
+
+def loop(text, jtype, ovar, is_int, override_long, iclass=None):
+    fast = is_binaryop and iclass is not None and (is_int or not allow_ints)
+    prefix = "\t\t\t"
+    if fast:
+        # iterate over runs of items when inputs are of the same type as output
+        if is_int:
+            print("\t\t\tif (!it.isOutputDouble() && it.hasInputDtype(dt)) {")
+        else:
+            print("\t\t\tif (it.isOutputDouble() && it.hasInputDtype(dt)) {")
+        runloop(text, jtype, iclass, ovar, is_int, override_long)
+        prefix += "} else "
     if not allow_ints:
-        print("\t\t\tif (it.isOutputDouble()) {")
+        print(prefix + "if (it.isOutputDouble()) {")
         print("\t\t\t\twhile (it.hasNext()) {")
         if is_binaryop:
             print("\t\t\t\t\tfinal double iax = it.aDouble;")
@@ -349,7 +426,7 @@ def loop(text, jtype, ovar, is_int, override_long):
         print("\t\t\t\t}")
         print("\t\t\t} else {")
     else:
-        print("\t\t\t{")
+        print(prefix + "{")
     print("\t\t\t\twhile (it.hasNext()) {")
     if is_binaryop:
         print("\t\t\t\t\tfinal long iax = it.aLong;")
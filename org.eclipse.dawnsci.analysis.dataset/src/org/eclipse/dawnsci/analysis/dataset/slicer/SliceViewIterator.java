@@ -15,6 +15,7 @@ import java.util.List;
 
 import org.eclipse.dawnsci.analysis.api.dataset.ILazyDataset;
 import org.eclipse.dawnsci.analysis.api.dataset.SliceND;
+import org.eclipse.dawnsci.analysis.dataset.impl.LazyDataset;
 import org.eclipse.dawnsci.analysis.dataset.impl.SliceNDIterator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -63,7 +64,11 @@ public class SliceViewIterator implements ISliceViewIterator{
 		total = calculateTotal(sampling, axes);
 		
 		next = iterator.hasNext();
-		
+
+		if (lazyDataset instanceof LazyDataset) { // let loader read ahead
+			((LazyDataset) lazyDataset).setAccessPattern(this.sampling, axes);
+		}
+
 		List<SliceFromSeriesMetadata> sl;
 		try {
 			sl = lazyDataset.getMetadata(SliceFromSeriesMetadata.class);
@@ -150,4 +150,66 @@ public class AggregateDatasetTest {
 		assertArrayEquals("Incorrect shape", new int[] {2, 1}, s.getShape());
 		assertArrayEquals("Incorrect values", new double[] {1, 1}, (double[])s.getBuffer(), 1e-5);
 	}
+
+	@Test
+	public void testParallelSlices() throws Exception {
+		final int n = 40;
+		ILazyDataset[] frames = new ILazyDataset[n];
+		Dataset[] expected = new Dataset[n];
+		for (int i = 0; i < n; i++) {
+			Dataset f = DatasetFactory.createRange(i * 12, (i + 1) * 12, 1, i % 2 == 0 ? Dataset.INT32 : Dataset.FLOAT64).reshape(1, 3, 4);
+			frames[i] = f;
+			expected[i] = f.cast(Dataset.FLOAT64);
+		}
+		Dataset all = DatasetUtils.concatenate(expected, 0);
+
+		int threads = AggregateDataset.getReadThreads();
+		try {
+			for (int t : new int[] {1, 4}) {
+				AggregateDataset.setReadThreads(t);
+				AggregateDataset a = new AggregateDataset(false, frames);
+				assertEquals("Incorrect type", Dataset.FLOAT64, a.getDtype());
+				assertEquals(all, a.getSlice());
+				assertEquals(all.getSlice(new int[] {3, 1, 0}, new int[] {37, 3, 4}, new int[] {5, 1, 2}),
+						a.getSlice(new int[] {3, 1, 0}, new int[] {37, 3, 4}, new int[] {5, 1, 2}));
+				assertEquals(all.getSlice(new int[] {39, 0, 0}, new int[] {40, 3, 4}, null),
+						a.getSlice(new int[] {39, 0, 0}, new int[] {40, 3, 4}, null));
+
+				// nested aggregates read on pool threads
+				AggregateDataset b = new AggregateDataset(false, a, a, a);
+				Dataset all3 = DatasetUtils.concatenate(new Dataset[] {all, all, all}, 0);
+				assertEquals(all3.getSlice(new int[] {10, 0, 0}, new int[] {110, 3, 4}, new int[] {3, 1, 1}),
+						b.getSlice(new int[] {10, 0, 0}, new int[] {110, 3, 4}, new int[] {3, 1, 1}));
+			}
+		} finally {
+			AggregateDataset.setReadThreads(threads);
+		}
+	}
+
+	@Test(timeout = 20000)
+	public void testNestedParallelSlices() throws Exception {
+		Dataset all = DatasetFactory.createRange(48, Dataset.FLOAT64).reshape(4, 3, 4);
+		ILazyDataset[] frames = new ILazyDataset[4];
+		for (int i = 0; i < frames.length; i++) {
+			frames[i] = all.getSlice(new int[] {i, 0, 0}, new int[] {i + 1, 3, 4}, null);
+		}
+		Dataset all3 = DatasetUtils.concatenate(new Dataset[] {all, all, all}, 0);
+
+		int threads = AggregateDataset.getReadThreads();
+		try {
+			for (int t : new int[] {2, 3}) {
+				AggregateDataset.setReadThreads(t);
+				// more outer pieces than threads so inner reads run on every pool thread
+				AggregateDataset in = new AggregateDataset(false, frames);
+				AggregateDataset b = new AggregateDataset(false, in, in, in);
+				for (int j = 0; j < 10; j++) {
+					assertEquals(all3, b.getSlice());
+				}
+				AggregateDataset c = new AggregateDataset(false, b, b);
+				assertEquals(DatasetUtils.concatenate(new Dataset[] {all3, all3}, 0), c.getSlice());
+			}
+		} finally {
+			AggregateDataset.setReadThreads(threads);
+		}
+	}
 }
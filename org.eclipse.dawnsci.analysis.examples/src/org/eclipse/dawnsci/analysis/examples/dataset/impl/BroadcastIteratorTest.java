@@ -9,13 +9,20 @@
 
 package org.eclipse.dawnsci.analysis.examples.dataset.impl;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import org.eclipse.dawnsci.analysis.api.dataset.Slice;
 import org.eclipse.dawnsci.analysis.dataset.impl.BroadcastIterator;
 import org.eclipse.dawnsci.analysis.dataset.impl.BroadcastUtils;
+import org.eclipse.dawnsci.analysis.dataset.impl.Comparisons;
 import org.eclipse.dawnsci.analysis.dataset.impl.CompoundDataset;
 import org.eclipse.dawnsci.analysis.dataset.impl.Dataset;
 import org.eclipse.dawnsci.analysis.dataset.impl.DatasetFactory;
 import org.eclipse.dawnsci.analysis.dataset.impl.DoubleDataset;
+import org.eclipse.dawnsci.analysis.dataset.impl.Maths;
+import org.eclipse.dawnsci.analysis.dataset.impl.Random;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -279,4 +286,166 @@ public class BroadcastIteratorTest {
 			}
 		}
 	}
+
+	private static void checkRuns(Dataset a, Dataset b, Dataset c) {
+		BroadcastIterator it = BroadcastIterator.createIterator(a, b, c);
+		BroadcastIterator rt = BroadcastIterator.createIterator(a, b, c);
+		int n = 0;
+		while (rt.nextRun()) {
+			for (int k = 0; k < rt.runLength; k++) {
+				Assert.assertTrue(it.hasNext());
+				Assert.assertEquals("First index", it.aIndex, rt.aIndex + k * rt.aRunStep);
+				Assert.assertEquals("Second index", it.bIndex, rt.bIndex + k * rt.bRunStep);
+				if (c != null) {
+					Assert.assertEquals("Output index", it.oIndex, rt.oIndex + k * rt.oRunStep);
+				}
+				n++;
+			}
+		}
+		Assert.assertFalse(it.hasNext());
+		Assert.assertFalse(rt.nextRun());
+
+		rt.reset();
+		int m = 0;
+		while (rt.nextRun()) {
+			m += rt.runLength;
+		}
+		Assert.assertEquals("Items after reset", n, m);
+	}
+
+	@Test
+	public void testRuns() {
+		Dataset a, b, c;
+
+		// contiguous
+		a = DatasetFactory.createRange(120, Dataset.FLOAT64).reshape(10, 12);
+		b = DatasetFactory.createRange(120, Dataset.FLOAT64).reshape(10, 12);
+		c = DatasetFactory.zeros(new int[] {10, 12}, Dataset.FLOAT64);
+		checkRuns(a, b, c);
+		checkRuns(a, b, null);
+		checkRuns(a, b, a);
+		checkRuns(a, b, b);
+
+		// strided and reversed views
+		a = DatasetFactory.createRange(240, Dataset.FLOAT64).reshape(20, 12).getSliceView(new Slice(null, null, 2));
+		checkRuns(a, b, c);
+		checkRuns(a, b, a);
+		b = b.getSliceView(new Slice(null, null, -1), new Slice(null, null, -3));
+		a = a.getSliceView(null, new Slice(1, null, 3));
+		c = DatasetFactory.zeros(new int[] {10, 4}, Dataset.FLOAT64);
+		checkRuns(a, b, c);
+		checkRuns(b, a, b);
+
+		// broadcast
+		a = DatasetFactory.createRange(10, Dataset.FLOAT64).reshape(10, 1);
+		b = DatasetFactory.createRange(12, Dataset.FLOAT64);
+		c = DatasetFactory.zeros(new int[] {10, 12}, Dataset.FLOAT64);
+		checkRuns(a, b, c);
+		checkRuns(b, a, c);
+		a = DatasetFactory.createRange(120, Dataset.FLOAT64).reshape(2, 5, 12).getSliceView(new Slice(null, null, -1));
+		checkRuns(a, b, null);
+		checkRuns(a, b, a);
+
+		// runs over several axes
+		a = DatasetFactory.createRange(240, Dataset.FLOAT64).reshape(4, 5, 12).getSliceView(new Slice(null, null, 2));
+		b = DatasetFactory.createRange(120, Dataset.FLOAT64).reshape(2, 5, 12);
+		c = DatasetFactory.zeros(new int[] {2, 5, 12}, Dataset.FLOAT64);
+		checkRuns(a, b, c);
+		BroadcastIterator rt = BroadcastIterator.createIterator(a, b, c);
+		Assert.assertTrue(rt.nextRun());
+		Assert.assertEquals(60, rt.runLength);
+
+		// compound output
+		c = DatasetFactory.zeros(3, new int[] {2, 5, 12}, Dataset.FLOAT64);
+		checkRuns(a, b, c);
+
+		// zero-ranked and empty
+		a = DatasetFactory.createFromObject(2.5);
+		b = DatasetFactory.createFromObject(1.5);
+		checkRuns(a, b, null);
+		checkRuns(a, b, a);
+		b = DatasetFactory.createRange(5, Dataset.FLOAT64);
+		checkRuns(a, b, null);
+		checkRuns(b, a, b);
+		a = DatasetFactory.zeros(new int[] {0, 3}, Dataset.FLOAT64);
+		checkRuns(a, a, null);
+	}
+
+	@Test
+	public void testRunsInMaths() {
+		Dataset a = Random.rand(new int[] {20, 12}).getSliceView(new Slice(null, null, 2), new Slice(null, null, -1));
+		Dataset b = DatasetFactory.createRange(12, Dataset.FLOAT64);
+		Dataset bi = b.cast(Dataset.INT32);
+
+		// floating point datasets of same type use runs, mixed types do not
+		Dataset e = Maths.add(a, bi);
+		Dataset r = Maths.add(a, b);
+		Assert.assertArrayEquals(e.getShape(), r.getShape());
+		Assert.assertEquals(e, r);
+		Assert.assertEquals(Maths.multiply(bi, a), Maths.multiply(b, a));
+
+		Dataset o = a.clone();
+		Maths.subtract(o, b, o);
+		Assert.assertEquals(Maths.subtract(a, bi), o);
+
+		Dataset h = DatasetFactory.createRange(12, Dataset.FLOAT64).idivide(12);
+		Assert.assertEquals(Comparisons.greaterThan(a, h.cast(Dataset.FLOAT32)), Comparisons.greaterThan(a, h));
+		Assert.assertEquals(Comparisons.lessThanOrEqualTo(h.cast(Dataset.FLOAT32), a), Comparisons.lessThanOrEqualTo(h, a));
+
+		Dataset ai = DatasetFactory.createRange(240, Dataset.INT32).reshape(20, 12).getSliceView(new Slice(null, null, 2));
+		Dataset al = ai.cast(Dataset.INT64);
+		Dataset d = Maths.divide(ai, bi);
+		Assert.assertEquals(Dataset.INT32, d.getDtype());
+		Assert.assertEquals(Maths.divide(al, bi).cast(Dataset.INT32), d);
+		Assert.assertEquals(Maths.bitwiseAnd(al, bi).cast(Dataset.INT32), Maths.bitwiseAnd(ai, bi));
+	}
+
+	private static final int NLOOP = 15;
+
+	private static long timeElements(Dataset a, Dataset b, Dataset c) {
+		List<Long> elapsed = new ArrayList<Long>();
+		double[] cdata = (double[]) c.getBuffer();
+		for (int i = 0; i < NLOOP; i++) {
+			long stime = System.nanoTime();
+			BroadcastIterator it = BroadcastIterator.createIterator(a, b, c);
+			while (it.hasNext()) {
+				cdata[it.oIndex] = it.aDouble + it.bDouble;
+			}
+			elapsed.add(System.nanoTime() - stime);
+		}
+		Collections.sort(elapsed);
+		return elapsed.get(0);
+	}
+
+	private static long timeRuns(Dataset a, Dataset b, Dataset c) {
+		List<Long> elapsed = new ArrayList<Long>();
+		for (int i = 0; i < NLOOP; i++) {
+			long stime = System.nanoTime();
+			Maths.add(a, b, c);
+			elapsed.add(System.nanoTime() - stime);
+		}
+		Collections.sort(elapsed);
+		return elapsed.get(0);
+	}
+
+	private static void timeAdd(String name, Dataset a, Dataset b) {
+		Dataset c = DatasetFactory.zeros(BroadcastUtils.broadcastShapes(a.getShapeRef(), b.getShapeRef()).get(0), Dataset.FLOAT64);
+		timeElements(a, b, c); // warm up
+		timeRuns(a, b, c);
+		long te = timeElements(a, b, c);
+		Dataset e = c.clone();
+		long tr = timeRuns(a, b, c);
+		Assert.assertEquals(e, c);
+		System.out.println(String.format("  %-10s element %8.1fus, run %8.1fus", name, te * 1e-3, tr * 1e-3));
+	}
+
+	@Test
+	public void testRunSpeed() {
+		Dataset a = Random.rand(new int[] {512, 512});
+		Dataset b = Random.rand(new int[] {512, 512});
+		System.out.println("Addition of 512x512 datasets:");
+		timeAdd("contiguous", a, b);
+		timeAdd("strided", Random.rand(new int[] {512, 1024}).getSliceView(null, new Slice(null, null, 2)), b);
+		timeAdd("broadcast", a, Random.rand(new int[] {512, 1}));
+	}
 }
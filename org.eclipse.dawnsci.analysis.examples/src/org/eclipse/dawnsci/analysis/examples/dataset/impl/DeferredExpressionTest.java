@@ -0,0 +1,100 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.analysis.examples.dataset.impl;
+
+import org.eclipse.dawnsci.analysis.api.dataset.Slice;
+import org.eclipse.dawnsci.analysis.dataset.impl.Dataset;
+import org.eclipse.dawnsci.analysis.dataset.impl.DatasetFactory;
+import org.eclipse.dawnsci.analysis.dataset.impl.DeferredExpression;
+import org.eclipse.dawnsci.analysis.dataset.impl.IndexIterator;
+import org.eclipse.dawnsci.analysis.dataset.impl.Maths;
+import org.eclipse.dawnsci.analysis.dataset.impl.ParallelUtils;
+import org.eclipse.dawnsci.analysis.dataset.impl.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DeferredExpressionTest {
+
+	private static void checkEquals(Dataset e, Dataset a) {
+		Assert.assertArrayEquals(e.getShape(), a.getShape());
+		IndexIterator it = e.getIterator(true);
+		int[] pos = it.getPos();
+		while (it.hasNext()) {
+			Assert.assertEquals(e.getDouble(pos), a.getDouble(pos), 1e-6 * Math.max(1, Math.abs(e.getDouble(pos))));
+		}
+	}
+
+	@Test
+	public void testArithmetic() {
+		Dataset a = Random.rand(new int[] {20, 30});
+		Dataset b = Random.rand(new int[] {20, 30}).iadd(0.5);
+		Dataset c = DatasetFactory.createRange(30, Dataset.INT32);
+
+		Dataset e = Maths.divide(Maths.subtract(a, c), b);
+		Dataset r = DeferredExpression.of(a).subtract(c).divide(b).evaluate();
+		Assert.assertEquals(Dataset.FLOAT64, r.getDtype());
+		checkEquals(e, r);
+
+		e = Maths.multiply(Maths.add(a, 2.5), Maths.sqrt(b));
+		r = DeferredExpression.of(a).add(2.5).multiply(DeferredExpression.of(b).sqrt()).evaluate();
+		checkEquals(e, r);
+
+		e = Maths.log(Maths.power(Maths.abs(Maths.negative(a)), b));
+		r = DeferredExpression.of(a).negative().abs().power(b).log().evaluate();
+		checkEquals(e, r);
+
+		// repeated inputs
+		e = Maths.multiply(a, a);
+		r = DeferredExpression.of(a).multiply(a).evaluate();
+		checkEquals(e, r);
+	}
+
+	@Test
+	public void testTypesAndViews() {
+		Dataset a = DatasetFactory.createRange(24, Dataset.INT16).reshape(2, 3, 4);
+		Dataset r = DeferredExpression.of(a).multiply(2).evaluate();
+		Assert.assertEquals(Dataset.FLOAT32, r.getDtype());
+		checkEquals(Maths.multiply(a, 2), r);
+
+		Dataset v = a.getSliceView(new Slice(1, 2), null, new Slice(null, null, 2));
+		Dataset b = Random.rand(new int[] {4});
+		Dataset w = b.getSliceView(new Slice(null, null, -2));
+		r = DeferredExpression.of(v).subtract(w).evaluate();
+		checkEquals(Maths.subtract(v.getSlice(), w.getSlice()), r);
+
+		Dataset o = DatasetFactory.zeros(new int[] {1, 3, 2}, Dataset.FLOAT64);
+		Dataset ov = DatasetFactory.zeros(new int[] {1, 3, 4}, Dataset.FLOAT64).getSliceView(null, null, new Slice(1, null, 2));
+		Assert.assertSame(o, DeferredExpression.of(v).add(w).evaluate(o));
+		DeferredExpression.of(v).add(w).evaluate(ov);
+		checkEquals(Maths.add(v.getSlice(), w.getSlice()), o);
+		checkEquals(o, ov);
+
+		try {
+			DeferredExpression.of(a).evaluate(o);
+			Assert.fail("Mismatched output should fail");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testParallel() {
+		ParallelUtils.setThreshold(1000);
+		ParallelUtils.setParallelism(4);
+		try {
+			Dataset a = Random.rand(new int[] {200, 500});
+			Dataset b = Random.rand(new int[] {500});
+			DeferredExpression x = DeferredExpression.of(a).subtract(b).divide(DeferredExpression.of(b).add(1)).clip(0, 0.5);
+			checkEquals(x.evaluate(null, false), x.evaluate(null, true));
+		} finally {
+			ParallelUtils.setThreshold(ParallelUtils.DEFAULT_THRESHOLD);
+		}
+	}
+}
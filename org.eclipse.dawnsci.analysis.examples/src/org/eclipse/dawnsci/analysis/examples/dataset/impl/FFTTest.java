@@ -0,0 +1,128 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.analysis.examples.dataset.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.dawnsci.analysis.dataset.impl.DCT;
+import org.eclipse.dawnsci.analysis.dataset.impl.Dataset;
+import org.eclipse.dawnsci.analysis.dataset.impl.FFT;
+import org.eclipse.dawnsci.analysis.dataset.impl.IndexIterator;
+import org.eclipse.dawnsci.analysis.dataset.impl.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FFTTest {
+
+	private static void checkEquals(Dataset e, Dataset a) {
+		Assert.assertArrayEquals(e.getShape(), a.getShape());
+		IndexIterator it = e.getIterator();
+		int isize = e.getElementsPerItem();
+		while (it.hasNext()) {
+			for (int j = 0; j < isize; j++) {
+				Assert.assertEquals(e.getElementDoubleAbs(it.index + j), a.getElementDoubleAbs(it.index + j), 1e-10);
+			}
+		}
+	}
+
+	@Test
+	public void testPlanCache() {
+		Dataset a = Random.rand(new int[] {16, 24});
+		FFT.setPlanCacheSize(0);
+		FFT.clearPlanCache();
+		Dataset e = FFT.fftn(a, null, null);
+		Dataset ed = DCT.dctn(a, null, null);
+		Assert.assertEquals(0, FFT.getPlanCacheCount());
+		Assert.assertEquals(0, FFT.getPlanCacheHitCount());
+		Assert.assertEquals(2, FFT.getPlanCacheMissCount());
+
+		FFT.setPlanCacheSize(4);
+		FFT.clearPlanCache();
+		try {
+			for (int i = 0; i < 3; i++) {
+				checkEquals(e, FFT.fftn(a, null, null));
+				checkEquals(ed, DCT.dctn(a, null, null));
+				checkEquals(a, FFT.ifftn(FFT.fftn(a, null, null), null, null).real());
+			}
+			Assert.assertEquals(2, FFT.getPlanCacheCount()); // one FFT and one DCT plan
+			Assert.assertEquals(2, FFT.getPlanCacheMissCount());
+			Assert.assertEquals(10, FFT.getPlanCacheHitCount());
+
+			for (int n = 2; n < 10; n++) {
+				FFT.fft(Random.rand(new int[] {n}));
+			}
+			Assert.assertEquals(4, FFT.getPlanCacheSize());
+			Assert.assertEquals(4, FFT.getPlanCacheCount());
+			Assert.assertEquals(10, FFT.getPlanCacheMissCount());
+
+			FFT.clearPlanCache();
+			Assert.assertEquals(0, FFT.getPlanCacheCount());
+			Assert.assertEquals(0, FFT.getPlanCacheHitCount());
+			Assert.assertEquals(0, FFT.getPlanCacheMissCount());
+			FFT.fftn(a, null, null);
+			Assert.assertEquals(1, FFT.getPlanCacheCount());
+			Assert.assertEquals(1, FFT.getPlanCacheMissCount());
+		} finally {
+			FFT.clearPlanCache();
+			FFT.setPlanCacheSize(16);
+		}
+	}
+
+	@Test
+	public void testStack() {
+		List<Dataset> frames = new ArrayList<Dataset>();
+		for (int i = 0; i < 5; i++) {
+			frames.add(Random.rand(new int[] {12, 10}));
+		}
+		int[] axes = new int[] {-2, -1};
+		List<Dataset> ts = FFT.fftn(frames, null, axes);
+		Assert.assertArrayEquals(new int[] {-2, -1}, axes);
+		List<Dataset> is = FFT.ifftn(ts, null, axes);
+		for (int i = 0; i < frames.size(); i++) {
+			checkEquals(FFT.fftn(frames.get(i), null, null), ts.get(i));
+			checkEquals(frames.get(i), is.get(i).real());
+		}
+
+		// one plan is used for the whole stack even when plans are not cached
+		FFT.setPlanCacheSize(0);
+		FFT.clearPlanCache();
+		try {
+			FFT.fftn(frames, null, null);
+			FFT.ifftn(ts, null, null);
+			Assert.assertEquals(2, FFT.getPlanCacheMissCount());
+			Assert.assertEquals(0, FFT.getPlanCacheHitCount());
+		} finally {
+			FFT.clearPlanCache();
+			FFT.setPlanCacheSize(16);
+		}
+
+		frames.add(Random.rand(new int[] {10, 12}));
+		try {
+			FFT.fftn(frames, null, null);
+			Assert.fail("Frames of different shapes should fail");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testThreads() {
+		int n = FFT.getNumberOfThreads();
+		try {
+			FFT.setNumberOfThreads(2);
+			Assert.assertEquals(2, FFT.getNumberOfThreads());
+			Dataset a = Random.rand(new int[] {64, 64});
+			checkEquals(a, FFT.ifft2(FFT.fft2(a, null, null), null, null).real());
+		} finally {
+			FFT.setNumberOfThreads(n);
+		}
+	}
+}
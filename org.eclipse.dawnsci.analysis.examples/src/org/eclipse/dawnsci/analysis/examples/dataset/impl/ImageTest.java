@@ -11,13 +11,18 @@ package org.eclipse.dawnsci.analysis.examples.dataset.impl;
 
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import org.eclipse.dawnsci.analysis.dataset.impl.Dataset;
 import org.eclipse.dawnsci.analysis.dataset.impl.DatasetUtils;
 import org.eclipse.dawnsci.analysis.dataset.impl.DoubleDataset;
 import org.eclipse.dawnsci.analysis.dataset.impl.Image;
+import org.eclipse.dawnsci.analysis.dataset.impl.IndexIterator;
 import org.eclipse.dawnsci.analysis.dataset.impl.IntegerDataset;
+import org.eclipse.dawnsci.analysis.dataset.impl.Maths;
 import org.eclipse.dawnsci.analysis.dataset.impl.Random;
+import org.eclipse.dawnsci.analysis.dataset.impl.Stats;
 import org.junit.Test;
 
 
@@ -71,6 +76,60 @@ public class ImageTest {
 		assertEquals(result.getDouble(5,5,5), ds.getDouble(5,5,5), 0.001);
 	}
 	
+	@Test
+	public void testKernelFilters() {
+		Dataset ds = Random.randn(new int[] {7, 12, 9});
+		ds.set(Double.NaN, 3, 4, 5);
+		for (int[] kernel : new int[][] {{3, 3, 3}, {2, 5, 1}, {1, 4, 20}}) {
+			Dataset min = Image.minFilter(ds, kernel);
+			Dataset max = Image.maxFilter(ds, kernel);
+			Dataset mean = Image.meanFilter(ds, kernel);
+			Dataset median = Image.medianFilter(ds, kernel);
+
+			IndexIterator iter = ds.getIterator(true);
+			int[] pos = iter.getPos();
+			int[] start = new int[3];
+			int[] stop = new int[3];
+			while (iter.hasNext()) {
+				for (int i = 0; i < 3; i++) {
+					start[i] = Math.max(0, pos[i] - kernel[i] / 2);
+					stop[i] = Math.min(ds.getShapeRef()[i], pos[i] - kernel[i] / 2 + kernel[i]);
+				}
+				Dataset window = ds.getSlice(start, stop, null);
+				assertEquals(window.min().doubleValue(), min.getDouble(pos), 0);
+				assertEquals(window.max().doubleValue(), max.getDouble(pos), 0);
+				assertEquals((Double) window.mean(), mean.getDouble(pos), 1e-12);
+				assertEquals((Double) Stats.median(window), median.getDouble(pos), 1e-15);
+			}
+		}
+
+		ds = IntegerDataset.createRange(100).reshape(10, 10);
+		Dataset result = Image.meanFilter(ds, new int[] {2, 2});
+		assertEquals(Dataset.INT32, result.getDtype());
+		assertEquals(16, result.getInt(2, 2)); // (11 + 12 + 21 + 22) / 4 truncated
+	}
+
+	@Test
+	public void testMeanFilterPrecision() {
+		Dataset ds = Random.randint(0, 1000, new int[] {40, 40});
+		Dataset mean = Image.meanFilter(ds, new int[] {3, 3});
+		IndexIterator iter = ds.getIterator(true);
+		int[] pos = iter.getPos();
+		while (iter.hasNext()) {
+			int[] start = new int[] {Math.max(0, pos[0] - 1), Math.max(0, pos[1] - 1)};
+			int[] stop = new int[] {Math.min(40, pos[0] + 2), Math.min(40, pos[1] + 2)};
+			Dataset window = ds.getSlice(start, stop, null);
+			assertEquals(((Number) window.sum()).intValue() / window.getSize(), mean.getInt(pos));
+		}
+
+		ds = new DoubleDataset(new double[] {1e20, 1, 1, 1, 1}, 5);
+		mean = Image.meanFilter(ds, new int[] {2});
+		assertEquals(1e20, mean.getDouble(0), 0);
+		for (int i = 2; i < 5; i++) {
+			assertEquals(1, mean.getDouble(i), 0);
+		}
+	}
+
 	@Test
 	public void testConvolutionFilter() {
 		Dataset ds = DoubleDataset.createRange(1000);
@@ -91,6 +150,106 @@ public class ImageTest {
 	}
 	
 	
+	// reference that sums each window multiplied by the kernel
+	private static double convolveAt(Dataset ds, Dataset kernel, int[] pos) {
+		int[] shape = ds.getShapeRef();
+		int[] kShape = kernel.getShapeRef();
+		double sum = 0;
+		IndexIterator it = kernel.getIterator(true);
+		int[] kPos = it.getPos();
+		int[] p = new int[pos.length];
+		while (it.hasNext()) {
+			boolean inside = true;
+			for (int i = 0; i < pos.length; i++) {
+				p[i] = pos[i] + kPos[i] - kShape[i] / 2;
+				if (p[i] < 0 || p[i] >= shape[i]) {
+					inside = false;
+				}
+			}
+			if (inside) {
+				sum += ds.getDouble(p) * kernel.getDouble(kPos);
+			}
+		}
+		return sum;
+	}
+
+	@Test
+	public void testConvolutionMethods() {
+		Dataset ds = Random.randn(new int[] {60, 50});
+		Dataset sobel = new DoubleDataset(new double[] {-1,0,1,-2,0,2,-1,0,1}, 3, 3); // separable
+		Dataset small = Random.rand(new int[] {4, 5}); // even and not separable
+		Dataset large = Random.rand(new int[] {40, 34}); // uses FFT
+		for (Dataset kernel : new Dataset[] {sobel, small, large}) {
+			Dataset result = Image.convolutionFilter(ds, kernel);
+			IndexIterator it = ds.getIterator(true);
+			int[] pos = it.getPos();
+			while (it.hasNext()) {
+				assertEquals(convolveAt(ds, kernel, pos), result.getDouble(pos), 1e-9);
+			}
+		}
+
+		Dataset ids = Random.randint(0, 100, new int[] {30, 30});
+		Dataset result = Image.convolutionFilter(ids, large);
+		assertEquals(Dataset.INT32, result.getDtype());
+		IndexIterator it = ids.getIterator(true);
+		int[] pos = it.getPos();
+		while (it.hasNext()) {
+			assertEquals((int) convolveAt(ids, large, pos), result.getInt(pos));
+		}
+	}
+
+	@Test
+	public void testConvolutionNaN() {
+		Dataset ds = Random.randn(new int[] {64, 80});
+		ds.set(Double.NaN, 20, 30);
+		Dataset large = Random.rand(new int[] {31, 30}); // would use FFT
+		Dataset result = Image.convolutionFilter(ds, large);
+		int nans = 0;
+		IndexIterator it = ds.getIterator(true);
+		int[] pos = it.getPos();
+		while (it.hasNext()) {
+			assertEquals(convolveAt(ds, large, pos), result.getDouble(pos), 1e-9);
+			if (Double.isNaN(result.getDouble(pos))) {
+				nans++;
+			}
+		}
+		assertEquals(31 * 30, nans);
+
+		Dataset blurred = Image.gaussianBlurFilter(ds, 20);
+		assertFalse(Double.isNaN(blurred.getDouble(0, 0)));
+		assertTrue(Double.isNaN(blurred.getDouble(20, 30)));
+	}
+
+	@Test
+	public void testGaussianBlurFilter() {
+		Dataset ds = Random.rand(new int[] {80, 70});
+		int radius = 4;
+		double sigma = (2 * radius + 1) / 5.;
+		Dataset kernel = new DoubleDataset(2 * radius + 1, 2 * radius + 1);
+		IndexIterator kt = kernel.getIterator(true);
+		int[] kPos = kt.getPos();
+		while (kt.hasNext()) {
+			double x = kPos[0] - radius;
+			double y = kPos[1] - radius;
+			kernel.set(Math.exp(-0.5 * (x * x + y * y) / (sigma * sigma)), kPos);
+		}
+		Dataset ones = DoubleDataset.ones(80, 70);
+
+		for (Dataset blur : new Dataset[] {Image.gaussianBlurFilter(ds, radius), Image.gaussianBlurFilter(ds, sigma, radius)}) {
+			IndexIterator it = ds.getIterator(true);
+			int[] pos = it.getPos();
+			while (it.hasNext()) {
+				double expected = convolveAt(ds, kernel, pos) / convolveAt(ones, kernel, pos);
+				assertEquals(expected, blur.getDouble(pos), 1e-12);
+			}
+		}
+
+		// constant image is unchanged, including at edges
+		Dataset blur = Image.gaussianBlurFilter(Maths.multiply(ones, 3), 30);
+		assertEquals(3, ((Number) blur.min()).doubleValue(), 1e-12);
+		assertEquals(3, ((Number) blur.max()).doubleValue(), 1e-12);
+	}
+
 	@Test
 	public void testSobelFilter() {
 		Dataset ds = Random.rand(new int[] {100,100});
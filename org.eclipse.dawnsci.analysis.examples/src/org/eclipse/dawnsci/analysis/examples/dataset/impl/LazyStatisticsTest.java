@@ -0,0 +1,98 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.analysis.examples.dataset.impl;
+
+import org.eclipse.dawnsci.analysis.dataset.impl.Dataset;
+import org.eclipse.dawnsci.analysis.dataset.impl.DatasetFactory;
+import org.eclipse.dawnsci.analysis.dataset.impl.IndexIterator;
+import org.eclipse.dawnsci.analysis.dataset.impl.LazyDataset;
+import org.eclipse.dawnsci.analysis.dataset.impl.LazyMaths;
+import org.eclipse.dawnsci.analysis.dataset.impl.LazyStatistics;
+import org.eclipse.dawnsci.analysis.dataset.impl.Maths;
+import org.eclipse.dawnsci.analysis.dataset.impl.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LazyStatisticsTest {
+
+	private static void checkEquals(Dataset e, Dataset a) {
+		Assert.assertArrayEquals(e.getShape(), a.getShape());
+		IndexIterator it = e.getIterator(true);
+		int[] pos = it.getPos();
+		while (it.hasNext()) {
+			double v = e.getDouble(pos);
+			Assert.assertEquals(v, a.getDouble(pos), 1e-10 * Math.max(1, Math.abs(v)));
+		}
+	}
+
+	@Test
+	public void testAxes() {
+		Dataset a = Random.randn(new int[] {7, 11, 13});
+		LazyDataset l = LazyDataset.createLazyDataset(a);
+		for (long budget : new long[] {8, 8 * 50, LazyStatistics.DEFAULT_BUDGET}) {
+			for (int threads : new int[] {1, 3}) {
+				for (int axis = -1; axis < 3; axis++) {
+					LazyStatistics s = new LazyStatistics(l, axis);
+					s.setMemoryBudget(budget);
+					s.setThreads(threads);
+					s.calculate();
+					int r = axis < 0 ? axis + 3 : axis;
+					checkEquals(a.sum(r), s.getSum());
+					checkEquals(a.product(r), s.getProduct());
+					checkEquals(a.mean(r), s.getMean());
+					checkEquals(a.variance(r), s.getVariance());
+					checkEquals(a.min(r), s.getMin());
+					checkEquals(a.max(r), s.getMax());
+					Assert.assertEquals(a.getShape()[r], s.getCount().getLong(0));
+				}
+
+				LazyStatistics s = new LazyStatistics(l, 0, 2);
+				s.setMemoryBudget(budget);
+				s.setThreads(threads);
+				s.calculate();
+				checkEquals(a.sum(0).sum(1), s.getSum());
+				checkEquals(a.max(0).max(1), s.getMax());
+			}
+		}
+
+		LazyStatistics s = new LazyStatistics(l).calculate();
+		Assert.assertEquals(0, s.getResultShape().length);
+		Assert.assertEquals(((Number) a.mean()).doubleValue(), s.getMean().getDouble(), 1e-12);
+		Assert.assertEquals(a.variance(true).doubleValue(), s.getVariance(true).getDouble(), 1e-12);
+	}
+
+	@Test
+	public void testNaNs() {
+		Dataset a = DatasetFactory.createFromObject(new double[] {1, Double.NaN, 3, 4, 5, 6}).reshape(2, 3);
+		LazyDataset l = LazyDataset.createLazyDataset(a);
+		LazyStatistics s = new LazyStatistics(l, 0).calculate();
+		Assert.assertTrue(Double.isNaN(s.getMax().getDouble(1)));
+		Assert.assertTrue(Double.isNaN(s.getMean().getDouble(1)));
+
+		s.setIgnoreNaNs(true);
+		s.calculate();
+		Assert.assertEquals(1, s.getCount().getLong(1));
+		Assert.assertEquals(5, s.getMax().getDouble(1), 0);
+		Assert.assertEquals(5, s.getMean().getDouble(1), 0);
+		Assert.assertEquals(0, s.getVariance().getDouble(1), 0);
+	}
+
+	@Test
+	public void testLazyMaths() {
+		Dataset a = Random.rand(new int[] {5, 6, 4});
+		LazyDataset l = LazyDataset.createLazyDataset(a);
+		checkEquals(a.sum(0), LazyMaths.sum(l, 0));
+		checkEquals(a.sum(2), LazyMaths.sum(l, -1));
+		checkEquals(a.product(1), LazyMaths.product(l, 1));
+		checkEquals(a.mean(0), LazyMaths.mean(l, 1, 2));
+		checkEquals(a.mean(0).mean(1), LazyMaths.mean(l, 1));
+		checkEquals(Maths.add(a, 0), LazyMaths.mean(l, 0, 1, 2));
+	}
+}
@@ -0,0 +1,107 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.analysis.examples.dataset.impl;
+
+import java.util.List;
+
+import org.eclipse.dawnsci.analysis.api.dataset.Slice;
+import org.eclipse.dawnsci.analysis.api.dataset.SliceND;
+import org.eclipse.dawnsci.analysis.dataset.impl.ComplexDoubleDataset;
+import org.eclipse.dawnsci.analysis.dataset.impl.Dataset;
+import org.eclipse.dawnsci.analysis.dataset.impl.Maths;
+import org.eclipse.dawnsci.analysis.dataset.impl.ParallelUtils;
+import org.eclipse.dawnsci.analysis.dataset.impl.Random;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelUtilsTest {
+
+	@Before
+	public void setUp() {
+		ParallelUtils.setThreshold(1000);
+		ParallelUtils.setParallelism(4);
+	}
+
+	@After
+	public void tearDown() {
+		ParallelUtils.setThreshold(ParallelUtils.DEFAULT_THRESHOLD);
+	}
+
+	@Test
+	public void testSplit() {
+		int[] shape = new int[] {3, 10, 20};
+		List<SliceND> slices = ParallelUtils.split(shape, 8);
+		int total = 0;
+		int end = 0;
+		for (SliceND s : slices) {
+			Assert.assertEquals(1, s.getShape()[0]);
+			Assert.assertEquals(20, s.getShape()[2]);
+			int start = s.getStart()[0] * 200 + s.getStart()[1] * 20;
+			Assert.assertEquals("Chunks should be contiguous", end, start);
+			end = start + s.getShape()[1] * 20;
+			total += s.getShape()[1] * 20;
+		}
+		Assert.assertEquals(600, total);
+		Assert.assertEquals(1, ParallelUtils.split(shape, 1).size());
+		Assert.assertEquals(1, ParallelUtils.split(new int[] {}, 4).size());
+	}
+
+	@Test
+	public void testBinaryOperations() {
+		for (int[] shape : new int[][] {{100000}, {3, 50, 400}, {700, 300}}) {
+			Dataset a = Random.rand(shape);
+			Dataset b = Random.rand(shape).iadd(0.5);
+			Assert.assertEquals(Maths.add(a, b, null, false), Maths.add(a, b, null, true));
+			Assert.assertEquals(Maths.divide(a, b, null, false), Maths.divide(a, b, null, true));
+
+			Dataset r = Random.rand(shape[shape.length - 1]);
+			Assert.assertEquals(Maths.subtract(a, r, null, false), Maths.subtract(a, r, null, true));
+			Assert.assertEquals(Maths.subtract(r, a, null, false), Maths.subtract(r, a, null, true));
+
+			Dataset c = new ComplexDoubleDataset(a, b);
+			Assert.assertEquals(Maths.multiply(c, b, null, false), Maths.multiply(c, b, null, true));
+
+			Dataset i = Maths.multiply(a, 100).cast(Dataset.INT32);
+			Assert.assertEquals(Maths.unsignedRightShift(i, 2, null, false), Maths.unsignedRightShift(i, 2, null, true));
+
+			Dataset s = a.clone();
+			Maths.add(s, b, s, true);
+			Assert.assertEquals(Maths.add(a, b), s);
+
+			Dataset v = a.getSliceView(new Slice(null, null, 2));
+			Assert.assertEquals(Maths.multiply(v, 2, null, false), Maths.multiply(v, 2, null, true));
+		}
+	}
+
+	@Test
+	public void testUnaryOperations() {
+		Dataset a = Random.rand(40, 50, 60);
+		Assert.assertEquals(Maths.sin(a, null, false), Maths.sin(a, null, true));
+		Assert.assertEquals(Maths.clip(a, null, 0.2, 0.7, false), Maths.clip(a, null, 0.2, 0.7, true));
+
+		Dataset i = Maths.multiply(a, 100).cast(Dataset.INT16);
+		Assert.assertEquals(Maths.bitwiseInvert(i, null, false), Maths.bitwiseInvert(i, null, true));
+	}
+
+	@Test
+	public void testGlobalSetting() {
+		Dataset a = Random.rand(200, 200);
+		Dataset e = Maths.sqrt(a);
+		try {
+			Maths.setParallel(true);
+			Assert.assertTrue(Maths.isParallel());
+			Assert.assertEquals(e, Maths.sqrt(a));
+		} finally {
+			Maths.setParallel(false);
+		}
+	}
+}
@@ -0,0 +1,136 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.analysis.examples.dataset.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.dawnsci.analysis.api.dataset.IDataset;
+import org.eclipse.dawnsci.analysis.api.dataset.ILazyDataset;
+import org.eclipse.dawnsci.analysis.api.dataset.Slice;
+import org.eclipse.dawnsci.analysis.api.dataset.SliceND;
+import org.eclipse.dawnsci.analysis.api.io.ILazyLoader;
+import org.eclipse.dawnsci.analysis.api.monitor.IMonitor;
+import org.eclipse.dawnsci.analysis.dataset.impl.Dataset;
+import org.eclipse.dawnsci.analysis.dataset.impl.DatasetFactory;
+import org.eclipse.dawnsci.analysis.dataset.impl.LazyDataset;
+import org.eclipse.dawnsci.analysis.dataset.impl.PrefetchingLazyLoader;
+import org.eclipse.dawnsci.analysis.dataset.slicer.SliceFromSeriesMetadata;
+import org.eclipse.dawnsci.analysis.dataset.slicer.SliceViewIterator;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PrefetchingLazyLoaderTest {
+
+	/**
+	 * Loader that records the threads used to read slices
+	 */
+	private static class CountingLoader implements ILazyLoader {
+		private static final long serialVersionUID = 1L;
+
+		final Dataset data;
+		final List<String> threads = Collections.synchronizedList(new ArrayList<String>());
+
+		CountingLoader(Dataset data) {
+			this.data = data;
+		}
+
+		@Override
+		public boolean isFileReadable() {
+			return true;
+		}
+
+		@Override
+		public IDataset getDataset(IMonitor mon, SliceND slice) throws Exception {
+			threads.add(Thread.currentThread().getName());
+			return data.getSlice(mon, slice);
+		}
+
+		int countOn(String name) {
+			int n = 0;
+			synchronized (threads) {
+				for (String t : threads) {
+					if (t.equals(name)) {
+						n++;
+					}
+				}
+			}
+			return n;
+		}
+	}
+
+	private static Dataset createData() {
+		return DatasetFactory.createRange(4 * 5 * 6 * 7, Dataset.INT32).reshape(4, 5, 6, 7);
+	}
+
+	@Test
+	public void testAccessPattern() throws Exception {
+		Dataset data = createData();
+		CountingLoader cl = new CountingLoader(data);
+		LazyDataset lazy = new LazyDataset("test", data.getDtype(), data.getShape(), cl);
+		lazy.setPrefetching(3, PrefetchingLazyLoader.DEFAULT_BUDGET);
+
+		SliceND sampling = new SliceND(data.getShape(), new int[] {1, 0, 0, 0}, new int[] {4, 5, 6, 7}, new int[] {2, 2, 1, 1});
+		SliceViewIterator it = new SliceViewIterator(lazy, sampling, 2, 3);
+		int n = 0;
+		String main = Thread.currentThread().getName();
+		while (it.hasNext()) {
+			ILazyDataset view = it.next();
+			Slice[] s = view.getMetadata(SliceFromSeriesMetadata.class).get(0).getSliceFromInput();
+			Assert.assertEquals(data.getSlice(s), view.getSlice());
+			n++;
+		}
+		Assert.assertEquals(6, n);
+		Assert.assertEquals("Each frame should be read once", n, cl.threads.size());
+		Assert.assertEquals("Only first frame should be read on calling thread", 1, cl.countOn(main));
+	}
+
+	@Test
+	public void testSequential() throws Exception {
+		Dataset data = createData();
+		CountingLoader cl = new CountingLoader(data);
+		LazyDataset lazy = new LazyDataset("test", data.getDtype(), data.getShape(), cl);
+		lazy.setPrefetching(2, PrefetchingLazyLoader.DEFAULT_BUDGET);
+
+		String main = Thread.currentThread().getName();
+		for (int i = 0; i < 5; i++) {
+			Assert.assertEquals(data.getSlice(new int[] {1, i, 0, 0}, new int[] {2, i + 1, 6, 7}, null),
+					lazy.getSlice(new int[] {1, i, 0, 0}, new int[] {2, i + 1, 6, 7}, null));
+		}
+		Assert.assertEquals("Each frame should be read once", 5, cl.threads.size());
+		Assert.assertEquals("Only first two frames should be read on calling thread", 2, cl.countOn(main));
+
+		// change of direction
+		Assert.assertEquals(data.getSlice(new int[] {0, 0, 0, 0}, new int[] {1, 5, 6, 1}, null),
+				lazy.getSlice(new int[] {0, 0, 0, 0}, new int[] {1, 5, 6, 1}, null));
+		Assert.assertEquals(3, cl.countOn(main));
+	}
+
+	@Test
+	public void testBudget() throws Exception {
+		Dataset data = createData();
+		CountingLoader cl = new CountingLoader(data);
+		LazyDataset lazy = new LazyDataset("test", data.getDtype(), data.getShape(), cl);
+		lazy.setPrefetching(4, 100); // less than size of a frame
+
+		String main = Thread.currentThread().getName();
+		for (int i = 0; i < 4; i++) {
+			lazy.getSlice(new int[] {i, 0, 0, 0}, new int[] {i + 1, 5, 6, 7}, null);
+		}
+		Assert.assertEquals(4, cl.countOn(main));
+
+		lazy.setPrefetching(0, 0);
+		for (int i = 0; i < 4; i++) {
+			lazy.getSlice(new int[] {i, 0, 0, 0}, new int[] {i + 1, 5, 6, 7}, null);
+		}
+		Assert.assertEquals(8, cl.countOn(main));
+	}
+}
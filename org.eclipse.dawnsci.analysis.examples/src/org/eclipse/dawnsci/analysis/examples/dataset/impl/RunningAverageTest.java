@@ -0,0 +1,146 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.analysis.examples.dataset.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.dawnsci.analysis.api.dataset.IDataset;
+import org.eclipse.dawnsci.analysis.api.dataset.Slice;
+import org.eclipse.dawnsci.analysis.dataset.impl.CollectionStats;
+import org.eclipse.dawnsci.analysis.dataset.impl.Dataset;
+import org.eclipse.dawnsci.analysis.dataset.impl.DatasetFactory;
+import org.eclipse.dawnsci.analysis.dataset.impl.IndexIterator;
+import org.eclipse.dawnsci.analysis.dataset.impl.Maths;
+import org.eclipse.dawnsci.analysis.dataset.impl.Random;
+import org.eclipse.dawnsci.analysis.dataset.impl.RunningAverage;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RunningAverageTest {
+
+	private static void checkEquals(Dataset e, Dataset a, double tol) {
+		Assert.assertArrayEquals(e.getShape(), a.getShape());
+		IndexIterator it = e.getIterator(true);
+		int[] pos = it.getPos();
+		while (it.hasNext()) {
+			Assert.assertEquals(e.getDouble(pos), a.getDouble(pos), tol);
+		}
+	}
+
+	private static List<Dataset> createFrames(int n) {
+		List<Dataset> frames = new ArrayList<Dataset>();
+		for (int i = 0; i < n; i++) {
+			frames.add(Random.rand(new int[] {30, 40}).imultiply(i + 1));
+		}
+		return frames;
+	}
+
+	private static Dataset sum(List<Dataset> frames) {
+		Dataset s = DatasetFactory.zeros(frames.get(0).getShape(), Dataset.FLOAT64);
+		for (Dataset f : frames) {
+			s.iadd(f);
+		}
+		return s;
+	}
+
+	@Test
+	public void testUpdate() {
+		List<Dataset> frames = createFrames(7);
+		Dataset expected = Maths.divide(sum(frames), frames.size());
+
+		RunningAverage av = new RunningAverage(frames.get(0));
+		for (int i = 1; i < frames.size(); i++) {
+			av.update(frames.get(i));
+		}
+		Assert.assertEquals(frames.size(), av.getCount());
+		checkEquals(expected, av.getCurrentAverage(), 1e-12);
+
+		av = new RunningAverage(frames.get(0));
+		av.update(frames.get(1), frames.get(2), frames.get(3));
+		av.update(frames.subList(4, 7).toArray(new IDataset[3]));
+		Assert.assertEquals(7, av.getCount());
+		checkEquals(expected, av.getCurrentAverage(), 1e-12);
+
+		av = new RunningAverage(frames.get(0), true);
+		av.update(frames.subList(1, 7).toArray(new IDataset[6]));
+		Dataset f = av.getCurrentAverage();
+		Assert.assertEquals(Dataset.FLOAT32, f.getDtype());
+		checkEquals(expected, f, 1e-5);
+	}
+
+	@Test
+	public void testTypesAndViews() {
+		Dataset a = DatasetFactory.createRange(24, Dataset.INT16).reshape(4, 6);
+		Dataset b = Random.rand(new int[] {8, 6}).getSliceView(new Slice(null, null, 2), new Slice(null, null, -1));
+		Dataset c = DatasetFactory.createRange(24, Dataset.FLOAT32).reshape(1, 4, 6);
+		RunningAverage av = new RunningAverage(a);
+		av.update(b);
+		av.update(c);
+		Dataset expected = Maths.add(Maths.add(a, b.getSlice()), c.reshape(4, 6)).idivide(3);
+		checkEquals(expected, av.getCurrentAverage(), 1e-12);
+	}
+
+	@Test
+	public void testMerge() {
+		List<Dataset> frames = createFrames(9);
+		Dataset expected = Maths.divide(sum(frames), frames.size());
+
+		RunningAverage a = new RunningAverage(frames.get(0));
+		a.update(frames.subList(1, 4).toArray(new IDataset[3]));
+		RunningAverage b = new RunningAverage(frames.get(4));
+		b.update(frames.subList(5, 9).toArray(new IDataset[4]));
+		a.merge(b);
+		Assert.assertEquals(9, a.getCount());
+		checkEquals(expected, a.getCurrentAverage(), 1e-12);
+
+		try {
+			a.merge(new RunningAverage(Random.rand(new int[] {3})));
+			Assert.fail("Merging different shapes should fail");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testErrors() {
+		List<Dataset> frames = createFrames(5);
+		Dataset errors = DatasetFactory.zeros(frames.get(0).getShape(), Dataset.FLOAT64);
+		for (Dataset f : frames) {
+			f.setErrorBuffer(f.clone()); // Poisson
+			errors.iadd(f);
+		}
+		errors.idivide(frames.size() * frames.size());
+
+		RunningAverage av = new RunningAverage(frames.get(0));
+		av.update(frames.get(1));
+		av.update(frames.subList(2, 5).toArray(new IDataset[3]));
+		checkEquals(errors, av.getCurrentAverage().getErrorBuffer(), 1e-12);
+
+		RunningAverage a = new RunningAverage(frames.get(0));
+		a.update(frames.get(1));
+		RunningAverage b = new RunningAverage(frames.get(2));
+		b.update(frames.get(3), frames.get(4));
+		a.merge(b);
+		checkEquals(errors, a.getCurrentAverage().getErrorBuffer(), 1e-12);
+	}
+
+	@Test
+	public void testCollectionMean() throws Exception {
+		List<Dataset> frames = createFrames(4);
+		frames.get(0).setName("first");
+		frames.get(0).setErrorBuffer(frames.get(0).clone());
+		List<IDataset> sets = new ArrayList<IDataset>(frames);
+		Dataset mean = CollectionStats.mean(sets);
+		checkEquals(Maths.divide(sum(frames), 4), mean, 1e-12);
+		Assert.assertEquals("", mean.getName());
+		Assert.assertNull(mean.getErrorBuffer());
+	}
+}
@@ -0,0 +1,106 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.analysis.examples.dataset.impl;
+
+import org.eclipse.dawnsci.analysis.api.dataset.Slice;
+import org.eclipse.dawnsci.analysis.dataset.impl.CompoundDataset;
+import org.eclipse.dawnsci.analysis.dataset.impl.Dataset;
+import org.eclipse.dawnsci.analysis.dataset.impl.DatasetFactory;
+import org.eclipse.dawnsci.analysis.dataset.impl.DatasetUtils;
+import org.eclipse.dawnsci.analysis.dataset.impl.Random;
+import org.eclipse.dawnsci.analysis.dataset.impl.Stats;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StatsTest {
+
+	// reference calculation from sorted values
+	private static double sortedQuantile(Dataset a, double q) {
+		Dataset s = DatasetUtils.sort(a.flatten(), null);
+		double f = (s.getSize() - 1) * q;
+		int qpt = (int) Math.floor(f);
+		f -= qpt;
+		double v = s.getElementDoubleAbs(qpt);
+		return f > 0 ? (1 - f) * v + f * s.getElementDoubleAbs(qpt + 1) : v;
+	}
+
+	@Test
+	public void testQuantile() {
+		for (int n : new int[] {1, 2, 7, 16, 17, 100, 1001}) {
+			Dataset a = Random.randn(new int[] {n});
+			Dataset b = Random.randint(0, 5, new int[] {n}); // many repeats
+			for (double q : new double[] {0, 0.1, 0.25, 0.5, 0.75, 0.99, 1}) {
+				Assert.assertEquals(sortedQuantile(a, q), Stats.quantile(a, q), 1e-14);
+				Assert.assertEquals(sortedQuantile(b, q), Stats.quantile(b, q), 1e-14);
+			}
+			double[] qs = Stats.quantile(a, 0.9, 0.1, 0.5, 0.5);
+			Assert.assertEquals(sortedQuantile(a, 0.9), qs[0], 1e-14);
+			Assert.assertEquals(sortedQuantile(a, 0.1), qs[1], 1e-14);
+			Assert.assertEquals(sortedQuantile(a, 0.5), qs[2], 1e-14);
+			Assert.assertEquals(qs[2], qs[3], 0);
+		}
+
+		Dataset a = DatasetFactory.createFromObject(new double[] {3, Double.NaN, 1, 2, 4});
+		Assert.assertEquals(3, Stats.quantile(a, 0.5), 1e-15);
+		Assert.assertTrue(Double.isNaN(Stats.quantile(a, 1)));
+
+		try {
+			Stats.quantile(a, 1.5);
+			Assert.fail("Quantile outside [0,1] should fail");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testMedianAndIQR() {
+		Dataset a = Random.rand(new int[] {101});
+		Assert.assertEquals(sortedQuantile(a, 0.5), ((Number) Stats.median(a)).doubleValue(), 1e-15);
+		Assert.assertEquals(sortedQuantile(a, 0.75) - sortedQuantile(a, 0.25), ((Number) Stats.iqr(a)).doubleValue(), 1e-15);
+
+		CompoundDataset c = DatasetUtils.createCompoundDataset(a, Random.rand(new int[] {101}));
+		double[] m = (double[]) Stats.median(c);
+		double[] r = (double[]) Stats.iqr(c);
+		for (int j = 0; j < 2; j++) {
+			Dataset e = c.getElements(j);
+			Assert.assertEquals(sortedQuantile(e, 0.5), m[j], 1e-15);
+			Assert.assertEquals(sortedQuantile(e, 0.75) - sortedQuantile(e, 0.25), r[j], 1e-15);
+		}
+		Assert.assertEquals(r[0], ((double[]) Stats.iqr(c))[0], 0);
+	}
+
+	@Test
+	public void testAxis() {
+		Dataset a = Random.randn(new int[] {5, 20, 6});
+		Dataset v = a.getSliceView(null, new Slice(null, null, -3), null);
+		for (Dataset d : new Dataset[] {a, v}) {
+			for (int axis = 0; axis < 3; axis++) {
+				Dataset[] qs = Stats.quantile(d, axis, 0.3, 0.5);
+				Dataset m = Stats.median(d, axis);
+				Dataset r = Stats.iqr(d, axis);
+				int[] shape = d.getShape();
+				for (int i = 0; i < shape[(axis + 1) % 3]; i++) {
+					for (int j = 0; j < shape[(axis + 2) % 3]; j++) {
+						Slice[] slice = new Slice[3];
+						slice[(axis + 1) % 3] = new Slice(i, i + 1);
+						slice[(axis + 2) % 3] = new Slice(j, j + 1);
+						Dataset line = d.getSlice(slice);
+						int[] pos = axis == 1 ? new int[] {j, i} : new int[] {i, j};
+						Assert.assertEquals(sortedQuantile(line, 0.3), qs[0].getDouble(pos), 1e-14);
+						Assert.assertEquals(sortedQuantile(line, 0.5), qs[1].getDouble(pos), 1e-14);
+						Assert.assertEquals(qs[1].getDouble(pos), m.getDouble(pos), 0);
+						Assert.assertEquals(sortedQuantile(line, 0.75) - sortedQuantile(line, 0.25), r.getDouble(pos), 1e-14);
+					}
+				}
+			}
+		}
+		Assert.assertEquals(Stats.median(a, 2), Stats.median(a, -1));
+	}
+}
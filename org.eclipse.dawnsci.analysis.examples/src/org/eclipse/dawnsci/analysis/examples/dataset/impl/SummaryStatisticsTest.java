@@ -0,0 +1,166 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.analysis.examples.dataset.impl;
+
+import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
+import org.eclipse.dawnsci.analysis.api.dataset.Slice;
+import org.eclipse.dawnsci.analysis.dataset.impl.CompoundDoubleDataset;
+import org.eclipse.dawnsci.analysis.dataset.impl.Dataset;
+import org.eclipse.dawnsci.analysis.dataset.impl.DatasetFactory;
+import org.eclipse.dawnsci.analysis.dataset.impl.IndexIterator;
+import org.eclipse.dawnsci.analysis.dataset.impl.ParallelUtils;
+import org.eclipse.dawnsci.analysis.dataset.impl.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SummaryStatisticsTest {
+
+	private static void checkStatistics(Dataset a, boolean ignoreNaNs) {
+		SummaryStatistics expected = new SummaryStatistics();
+		double pmax = Double.MIN_VALUE;
+		IndexIterator it = a.getIterator();
+		while (it.hasNext()) {
+			double v = a.getElementDoubleAbs(it.index);
+			if (ignoreNaNs && Double.isNaN(v)) {
+				continue;
+			}
+			expected.addValue(v);
+			if (v > pmax) {
+				pmax = v;
+			}
+		}
+
+		double tol = 1e-12 * Math.max(1, Math.abs(expected.getMean()));
+		Assert.assertEquals(expected.getN(), a.count(ignoreNaNs));
+		Assert.assertEquals(expected.getSum(), ((Number) a.sum(ignoreNaNs)).doubleValue(), tol * expected.getN());
+		Assert.assertEquals(expected.getMean(), ((Number) a.mean(ignoreNaNs)).doubleValue(), tol);
+		Assert.assertEquals(expected.getMax(), a.max(ignoreNaNs).doubleValue(), 0);
+		Assert.assertEquals(expected.getMin(), a.min(ignoreNaNs).doubleValue(), 0);
+		if (pmax > Double.MIN_VALUE) {
+			Assert.assertEquals(pmax, a.positiveMax(ignoreNaNs).doubleValue(), 0);
+		}
+		if (!ignoreNaNs) {
+			Assert.assertEquals(expected.getVariance(), a.variance().doubleValue(), 1e-10 * expected.getVariance());
+			Assert.assertEquals(expected.getPopulationVariance(), a.variance(true).doubleValue(), 1e-10 * expected.getVariance());
+		}
+	}
+
+	@Test
+	public void testStatistics() {
+		for (int n : new int[] {1, 2, 1000, 200000}) {
+			Dataset a = Random.randn(100, 5, new int[] {n});
+			checkStatistics(a, false);
+			checkStatistics(Random.randint(-50, 50, new int[] {n}), false);
+
+			a.set(Double.NaN, n / 2);
+			Assert.assertTrue(Double.isNaN(a.clone().max().doubleValue()));
+			if (n > 1) {
+				checkStatistics(a.clone(), true);
+			}
+		}
+
+		Dataset a = Random.rand(new int[] {400, 500});
+		checkStatistics(a.getSliceView(new Slice(1, null, 3), new Slice(null, null, -2)), false);
+	}
+
+	@Test
+	public void testHashAndParallel() {
+		Dataset a = Random.rand(new int[] {600, 500});
+		Dataset v = a.getSliceView(new Slice(100, 500), null);
+		Dataset c = v.clone();
+		Assert.assertEquals(c.hashCode(), v.hashCode());
+
+		int hash = a.hashCode();
+		ParallelUtils.setThreshold(1000);
+		ParallelUtils.setParallelism(4);
+		try {
+			Dataset p = a.clone();
+			Assert.assertEquals(hash, p.hashCode());
+			Assert.assertEquals(((Number) a.mean()).doubleValue(), ((Number) p.mean()).doubleValue(), 0);
+			Assert.assertEquals(a.variance().doubleValue(), p.variance().doubleValue(), 0);
+			Assert.assertEquals(a.max().doubleValue(), p.max().doubleValue(), 0);
+		} finally {
+			ParallelUtils.setThreshold(ParallelUtils.DEFAULT_THRESHOLD);
+		}
+
+		Dataset s = DatasetFactory.createRange(10, Dataset.FLOAT64);
+		Assert.assertEquals(DatasetFactory.createRange(10, Dataset.FLOAT64).hashCode(), s.hashCode());
+	}
+
+	private static int sequentialHash(Dataset a) {
+		double hash = 0;
+		IndexIterator it = a.getIterator();
+		while (it.hasNext()) {
+			double v = a.getElementDoubleAbs(it.index);
+			if (Double.isNaN(v) || Double.isInfinite(v)) {
+				hash = (hash * 19) % Integer.MAX_VALUE;
+			} else {
+				hash = (hash * 19 + v) % Integer.MAX_VALUE;
+			}
+		}
+		int ihash = ((int) hash) * 19 + a.getDtype() * 17 + a.getElementsPerItem();
+		for (int s : a.getShapeRef()) {
+			ihash = ihash * 17 + s;
+		}
+		return ihash;
+	}
+
+	@Test
+	public void testHashOfLargeDataset() {
+		Dataset a = Random.rand(new int[] {300001});
+		a.set(Double.NaN, 70000);
+		a.set(Double.POSITIVE_INFINITY, 140000);
+		int hash = sequentialHash(a);
+		Assert.assertEquals(hash, a.clone().hashCode());
+		Assert.assertEquals(hash, a.getSliceView(new Slice(null, null, 1)).hashCode());
+
+		Dataset f = a.cast(Dataset.FLOAT32);
+		Assert.assertEquals(sequentialHash(f), f.clone().hashCode());
+
+		ParallelUtils.setThreshold(1000);
+		ParallelUtils.setParallelism(4);
+		try {
+			Assert.assertEquals(hash, a.clone().hashCode());
+			Assert.assertEquals(sequentialHash(f), f.clone().hashCode());
+		} finally {
+			ParallelUtils.setThreshold(ParallelUtils.DEFAULT_THRESHOLD);
+		}
+	}
+
+	/**
+	 * Exposes the maximum found by the summary statistics of a compound dataset
+	 */
+	private static class CompoundMax extends CompoundDoubleDataset {
+		private static final long serialVersionUID = 1L;
+
+		CompoundMax(double[] data, int size) {
+			super(data.length / size, data, size);
+		}
+
+		Object getMax() {
+			return getMaxMin(false, false, STORE_MAX);
+		}
+	}
+
+	@Test
+	public void testCompound() {
+		// only the first element of each item is used so a NaN elsewhere is not found
+		int size = 100000;
+		double[] data = new double[3 * size];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = i;
+		}
+		data[4] = Double.NaN;
+		Assert.assertNull(new CompoundMax(data, size).getMax());
+
+		data[data.length - 3] = Double.NaN;
+		Assert.assertTrue(Double.isNaN((Double) new CompoundMax(data, size).getMax()));
+	}
+}
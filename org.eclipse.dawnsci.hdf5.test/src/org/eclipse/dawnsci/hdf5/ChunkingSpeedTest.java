@@ -0,0 +1,109 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.hdf5;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.eclipse.dawnsci.analysis.api.dataset.ILazyWriteableDataset;
+import org.eclipse.dawnsci.analysis.api.dataset.SliceND;
+import org.eclipse.dawnsci.analysis.dataset.impl.Dataset;
+import org.eclipse.dawnsci.analysis.dataset.impl.DatasetFactory;
+import org.eclipse.dawnsci.nexus.ChunkAdvisor;
+import org.eclipse.dawnsci.nexus.NexusException;
+import org.eclipse.dawnsci.nexus.NexusFile;
+import org.junit.Test;
+
+import ncsa.hdf.hdf5lib.H5;
+import ncsa.hdf.hdf5lib.HDF5Constants;
+import ncsa.hdf.hdf5lib.exceptions.HDF5LibraryException;
+
+/**
+ * Replays a scan writing a frame per point then reading frames and pixel time-series
+ * with frame-sized chunks and with chunks given by {@link ChunkAdvisor}
+ */
+public class ChunkingSpeedTest {
+
+	private static final int[] SCAN = {20, 20};
+	private static final int[] FRAME = {256, 256};
+
+	@Test
+	public void testScanChunking() throws Exception {
+		new File("test-scratch/").mkdirs();
+		int[] shape = {SCAN[0], SCAN[1], FRAME[0], FRAME[1]};
+		int[] frame = {1, 1, FRAME[0], FRAME[1]};
+
+		ChunkAdvisor advisor = new ChunkAdvisor(new int[] {ILazyWriteableDataset.UNLIMITED, ILazyWriteableDataset.UNLIMITED, FRAME[0], FRAME[1]}, 4);
+		advisor.setExpectedShape(shape);
+		advisor.setWriteUnit(frame);
+		advisor.addReadPattern(1, frame);
+		advisor.addReadPattern(1, SCAN[0], SCAN[1], 1, 1);
+
+		replay("test-scratch/chunking-frame.h5", shape, frame);
+		replay("test-scratch/chunking-advised.h5", shape, advisor.getChunking());
+	}
+
+	private void replay(String file, int[] shape, int[] chunk) throws NexusException, HDF5LibraryException {
+		System.err.println("Chunks " + Arrays.toString(chunk) + ":");
+		int[] start = {0, 0, 0, 0};
+		int[] frame = {1, 1, FRAME[0], FRAME[1]};
+		int[] max = {ILazyWriteableDataset.UNLIMITED, ILazyWriteableDataset.UNLIMITED, FRAME[0], FRAME[1]};
+		Dataset data = DatasetFactory.createRange(FRAME[0] * FRAME[1], Dataset.INT32);
+		data.setShape(frame);
+
+		long now = -System.nanoTime();
+		long fid = H5.H5Fcreate(file, HDF5Constants.H5F_ACC_TRUNC, HDF5Constants.H5P_DEFAULT, HDF5Constants.H5P_DEFAULT);
+		try {
+			HDF5Utils.createDataset(fid, NexusFile.COMPRESSION_NONE, "/data", Dataset.INT32, shape, max, chunk, null);
+			for (int i = 0; i < shape[0]; i++) {
+				for (int j = 0; j < shape[1]; j++) {
+					start[0] = i;
+					start[1] = j;
+					HDF5Utils.writeDatasetSlice(fid, "/data", new SliceND(shape, max, start, new int[] {i + 1, j + 1, FRAME[0], FRAME[1]}, null), data);
+				}
+			}
+		} finally {
+			H5.H5Fclose(fid);
+		}
+		now += System.nanoTime();
+		System.err.println("\twrite took " + now*1e-9 + "s");
+
+		int[] step = {1, 1, 1, 1};
+		now = -System.nanoTime();
+		fid = H5.H5Fopen(file, HDF5Constants.H5F_ACC_RDONLY, HDF5Constants.H5P_DEFAULT);
+		try {
+			for (int i = 0; i < shape[0]; i++) {
+				for (int j = 0; j < shape[1]; j++) {
+					start[0] = i;
+					start[1] = j;
+					HDF5Utils.readDataset(fid, "/data", start, frame, step, Dataset.INT32, 1, false);
+				}
+			}
+			now += System.nanoTime();
+			System.err.println("\tframe reads took " + now*1e-9 + "s");
+
+			int[] series = {shape[0], shape[1], 1, 1};
+			start[0] = 0;
+			start[1] = 0;
+			now = -System.nanoTime();
+			for (int y = 0; y < FRAME[0]; y += 16) { // sample every 16th row
+				for (int x = 0; x < FRAME[1]; x++) {
+					start[2] = y;
+					start[3] = x;
+					HDF5Utils.readDataset(fid, "/data", start, series, step, Dataset.INT32, 1, false);
+				}
+			}
+			now += System.nanoTime();
+			System.err.println("\tpixel time-series reads took " + now*1e-9 + "s");
+		} finally {
+			H5.H5Fclose(fid);
+		}
+	}
+}
@@ -0,0 +1,70 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.hdf5;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+
+import org.eclipse.dawnsci.analysis.dataset.impl.Dataset;
+import org.eclipse.dawnsci.analysis.dataset.impl.DatasetFactory;
+import org.junit.Test;
+
+import ncsa.hdf.hdf5lib.H5;
+import ncsa.hdf.hdf5lib.HDF5Constants;
+
+public class HDF5DatasetCacheTest {
+
+	@Test
+	public void testCache() throws Exception {
+		String file = "test-scratch/datasetcache.h5";
+		new File(file).getParentFile().mkdirs();
+		long fid = H5.H5Fcreate(file, HDF5Constants.H5F_ACC_TRUNC, HDF5Constants.H5P_DEFAULT, HDF5Constants.H5P_DEFAULT);
+		Dataset data = DatasetFactory.createRange(6 * 20 * 30, Dataset.FLOAT64).reshape(6, 20, 30);
+		HDF5Utils.writeDataset(fid, "data", data);
+		H5.H5Fclose(fid);
+
+		int[] start = new int[3];
+		int[] count = new int[] {1, 20, 30};
+		int[] step = new int[] {1, 1, 1};
+		fid = HDF5FileFactory.acquireFile(file, false);
+		try {
+			HDF5DatasetCache cache = HDF5FileFactory.getDatasetCache(fid);
+			assertEquals(0, cache.size());
+			for (int i = 0; i < 6; i++) {
+				start[0] = i;
+				Dataset frame = HDF5Utils.readDataset(fid, "data", start, count, step, -1, -1, false);
+				assertEquals(data.getSlice(start, new int[] {i + 1, 20, 30}, null).squeeze(), frame.squeeze());
+				assertEquals(1, cache.size());
+			}
+
+			assertNull(HDF5Utils.readDataset(fid, "missing", start, count, step, -1, -1, false));
+			assertEquals(1, cache.size());
+
+			assertArrayEquals(data.getShape(), HDF5Utils.readDatasetShape(fid, "data")[0]);
+			assertEquals(0, cache.size());
+			HDF5Utils.readDataset(fid, "data", start, count, step, -1, -1, false);
+			assertEquals(1, cache.size());
+		} finally {
+			HDF5FileFactory.releaseFile(file, true);
+		}
+		assertNull(HDF5FileFactory.getDatasetCache(fid));
+	}
+
+	@Test
+	public void testChunkSlots() {
+		assertEquals(101, HDF5DatasetCache.getChunkSlots(1024, 1024));
+		assertEquals(401, HDF5DatasetCache.getChunkSlots(4 * 1024 * 1024, 1024 * 1024));
+		assertEquals(HDF5DatasetCache.MAX_CHUNK_SLOTS, HDF5DatasetCache.getChunkSlots(HDF5DatasetCache.MAX_CHUNK_CACHE, 8));
+		assertEquals(HDF5DatasetCache.MAX_CHUNK_SLOTS, HDF5DatasetCache.getChunkSlots(HDF5DatasetCache.MAX_CHUNK_CACHE, 0));
+	}
+}
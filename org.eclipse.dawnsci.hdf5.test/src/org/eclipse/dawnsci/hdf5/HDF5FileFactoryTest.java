@@ -0,0 +1,95 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.hdf5;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.dawnsci.analysis.dataset.impl.Dataset;
+import org.eclipse.dawnsci.analysis.dataset.impl.DatasetFactory;
+import org.junit.Test;
+
+public class HDF5FileFactoryTest {
+
+	private static final int FILES = 8;
+	private static final int THREADS = 4;
+	private static final int REPEATS = 50;
+
+	@Test
+	public void testConcurrentAccess() throws Exception {
+		final String[] files = new String[FILES];
+		Dataset data = DatasetFactory.createRange(100, Dataset.FLOAT64);
+		data.setName("data");
+		for (int i = 0; i < FILES; i++) {
+			files[i] = "test-scratch/factory" + i + ".h5";
+			new File(files[i]).getParentFile().mkdirs();
+			HDF5FileFactory.deleteFile(files[i]);
+			HDF5Utils.writeDataset(files[i], "/", data);
+			HDF5FileFactory.releaseFile(files[i], true); // close now rather than after held period
+		}
+
+		long held = HDF5FileFactory.getHeldPeriod();
+		HDF5FileFactory.setHeldPeriod(500);
+		HDF5FileFactory.resetMetrics();
+		int open = HDF5FileFactory.getOpenFileCount();
+		ExecutorService service = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<Void>> results = new ArrayList<>();
+			for (int t = 0; t < THREADS; t++) {
+				results.add(service.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						for (int r = 0; r < REPEATS; r++) {
+							for (String f : files) {
+								long fid = HDF5FileFactory.acquireFile(f, false);
+								try {
+									assertNotNull(HDF5FileFactory.getDatasetCache(fid));
+								} finally {
+									HDF5FileFactory.releaseFile(f);
+								}
+							}
+						}
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> f : results) {
+				f.get();
+			}
+
+			assertEquals(THREADS * REPEATS * FILES, HDF5FileFactory.getHitCount() + HDF5FileFactory.getMissCount());
+			assertEquals(FILES, HDF5FileFactory.getMissCount());
+			assertEquals(open + FILES, HDF5FileFactory.getOpenFileCount());
+			assertTrue(HDF5FileFactory.getWaitTime() >= 0);
+
+			// wait for files to expire
+			long fid = HDF5FileFactory.acquireFile(files[0], false);
+			HDF5FileFactory.releaseFile(files[0]);
+			for (int i = 0; i < 40 && HDF5FileFactory.getOpenFileCount() > open; i++) {
+				Thread.sleep(100);
+			}
+			assertEquals(open, HDF5FileFactory.getOpenFileCount());
+			assertNull(HDF5FileFactory.getDatasetCache(fid));
+		} finally {
+			service.shutdown();
+			HDF5FileFactory.setHeldPeriod(held);
+		}
+	}
+}
@@ -0,0 +1,30 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.hdf5;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+
+import org.eclipse.dawnsci.nexus.NexusFilter;
+import org.junit.Test;
+
+public class HDF5FilterTest {
+
+	@Test
+	public void testBuiltInFilters() {
+		assertArrayEquals(new NexusFilter[] {NexusFilter.deflate(1)}, HDF5Utils.getBuiltInFilters(NexusFilter.lz4(0)));
+		assertArrayEquals(new NexusFilter[] {NexusFilter.shuffle(), NexusFilter.deflate(1)},
+				HDF5Utils.getBuiltInFilters(NexusFilter.bitshuffle(true)));
+		assertArrayEquals(new NexusFilter[] {NexusFilter.shuffle(), NexusFilter.deflate(5)},
+				HDF5Utils.getBuiltInFilters(NexusFilter.blosc("lz4", 5, 1)));
+		assertArrayEquals(new NexusFilter[] {NexusFilter.deflate(9)}, HDF5Utils.getBuiltInFilters(NexusFilter.deflate(9)));
+		assertNull(HDF5Utils.getBuiltInFilters(new NexusFilter(32020, "other", false)));
+	}
+}
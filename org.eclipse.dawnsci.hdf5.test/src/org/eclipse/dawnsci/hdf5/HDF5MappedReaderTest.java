@@ -0,0 +1,151 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.hdf5;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import org.eclipse.dawnsci.analysis.api.dataset.SliceND;
+import org.eclipse.dawnsci.analysis.dataset.impl.Dataset;
+import org.eclipse.dawnsci.analysis.dataset.impl.DatasetFactory;
+import org.eclipse.dawnsci.analysis.dataset.impl.DoubleDataset;
+import org.eclipse.dawnsci.analysis.dataset.impl.IntegerDataset;
+import org.eclipse.dawnsci.nexus.NexusFile;
+import org.junit.Test;
+
+import ncsa.hdf.hdf5lib.H5;
+import ncsa.hdf.hdf5lib.HDF5Constants;
+
+public class HDF5MappedReaderTest {
+
+	private static final int HEADER = 100;
+
+	private static File writeRaw(String name, ByteBuffer data) throws IOException {
+		File f = new File("test-scratch/" + name);
+		f.getParentFile().mkdirs();
+		try (FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			channel.write(ByteBuffer.allocate(HEADER));
+			data.flip();
+			channel.write(data);
+		}
+		return f;
+	}
+
+	private static void checkSlices(HDF5MappedReader reader, Dataset expected) {
+		int[][][] slices = new int[][][] {
+			{{0, 0, 0}, {5, 6, 7}, {1, 1, 1}},
+			{{2, 0, 0}, {1, 6, 7}, {1, 1, 1}},
+			{{0, 1, 2}, {5, 2, 3}, {1, 2, 1}},
+			{{1, 0, 1}, {2, 3, 3}, {3, 2, 2}},
+			{{0, 5, 6}, {5, 1, 1}, {1, 1, 1}},
+		};
+		for (int[][] s : slices) {
+			int[] stop = new int[3];
+			for (int i = 0; i < 3; i++) {
+				stop[i] = s[0][i] + (s[1][i] - 1) * s[2][i] + 1;
+			}
+			Dataset d = reader.read(s[0], s[1], s[2], -1, false);
+			assertEquals(expected.getSlice(new SliceND(expected.getShapeRef(), s[0], stop, s[2])), d);
+		}
+	}
+
+	@Test
+	public void testIntegers() throws IOException {
+		int[] shape = {5, 6, 7};
+		IntegerDataset data = (IntegerDataset) DatasetFactory.createRange(5 * 6 * 7, Dataset.INT32).reshape(shape);
+		ByteBuffer buffer = ByteBuffer.allocate(data.getSize() * 4).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.asIntBuffer().put(data.getData());
+		buffer.position(buffer.capacity());
+		File f = writeRaw("mapped-int.raw", buffer);
+
+		try (FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+			HDF5MappedReader reader = new HDF5MappedReader(channel, HEADER, shape, Dataset.INT32, ByteOrder.LITTLE_ENDIAN);
+			checkSlices(reader, data);
+
+			// segments smaller than rows
+			reader = new HDF5MappedReader(channel, HEADER, shape, Dataset.INT32, ByteOrder.LITTLE_ENDIAN, 12);
+			checkSlices(reader, data);
+
+			assertNull(reader.read(new int[] {4, 0, 0}, new int[] {2, 6, 7}, new int[] {1, 1, 1}, -1, false));
+			assertNull(reader.read(new int[] {0, 0, 0}, new int[] {1, 6, 7}, new int[] {1, 1, 1}, Dataset.FLOAT64, false));
+		}
+	}
+
+	@Test
+	public void testBigEndianDoubles() throws IOException {
+		int[] shape = {5, 6, 7};
+		DoubleDataset data = (DoubleDataset) DatasetFactory.createRange(5 * 6 * 7, Dataset.FLOAT64).reshape(shape);
+		data.imultiply(0.5);
+		ByteBuffer buffer = ByteBuffer.allocate(data.getSize() * 8).order(ByteOrder.BIG_ENDIAN);
+		buffer.asDoubleBuffer().put(data.getData());
+		buffer.position(buffer.capacity());
+		File f = writeRaw("mapped-double.raw", buffer);
+
+		try (FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+			checkSlices(new HDF5MappedReader(channel, HEADER, shape, Dataset.FLOAT64, ByteOrder.BIG_ENDIAN), data);
+			checkSlices(new HDF5MappedReader(channel, HEADER, shape, Dataset.FLOAT64, ByteOrder.BIG_ENDIAN, 64), data);
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testTruncated() throws IOException {
+		File f = writeRaw("mapped-short.raw", ByteBuffer.allocate(16));
+		try (FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+			new HDF5MappedReader(channel, HEADER, new int[] {5, 6, 7}, Dataset.INT32, ByteOrder.LITTLE_ENDIAN);
+		}
+	}
+
+	@Test
+	public void testLayouts() throws Exception {
+		String file = "test-scratch/mapped.h5";
+		new File(file).getParentFile().mkdirs();
+		Dataset data = DatasetFactory.createRange(6 * 20 * 30, Dataset.FLOAT64).reshape(6, 20, 30);
+		long fid = H5.H5Fcreate(file, HDF5Constants.H5F_ACC_TRUNC, HDF5Constants.H5P_DEFAULT, HDF5Constants.H5P_DEFAULT);
+		try {
+			HDF5Utils.writeDataset(fid, "/contiguous", data);
+			HDF5Utils.createDataset(fid, NexusFile.COMPRESSION_NONE, "/chunked", Dataset.FLOAT64, data.getShape(), data.getShape(), new int[] {1, 20, 30}, null);
+		} finally {
+			H5.H5Fclose(fid);
+		}
+
+		HDF5MappedReader reader = HDF5MappedReader.create(file, "/contiguous");
+		assertNotNull(reader);
+		checkSlices(reader, data);
+		assertNull(HDF5MappedReader.create(file, "/chunked"));
+
+		HDF5LazyLoader loader = new HDF5LazyLoader(null, file, "/contiguous", "data", data.getShape(), 1, Dataset.FLOAT64, false);
+		SliceND slice = new SliceND(data.getShapeRef(), new int[] {1, 2, 3}, new int[] {5, 20, 30}, new int[] {2, 3, 1});
+		boolean mapping = HDF5LazyLoader.isMapping();
+		try {
+			HDF5LazyLoader.setMapping(false);
+			assertEquals(data.getSlice(slice), loader.getDataset(null, slice));
+			HDF5DatasetCache cache = HDF5FileFactory.getDatasetCache(HDF5FileFactory.acquireFile(file, false));
+			assertFalse(cache.isMapped("/contiguous"));
+
+			HDF5LazyLoader.setMapping(true);
+			assertEquals(data.getSlice(slice), loader.getDataset(null, slice));
+			assertTrue(cache.isMapped("/contiguous"));
+			HDF5FileFactory.releaseFile(file, true); // mapping is dropped with file
+			assertFalse(cache.isMapped("/contiguous"));
+		} finally {
+			HDF5LazyLoader.setMapping(mapping);
+		}
+	}
+}
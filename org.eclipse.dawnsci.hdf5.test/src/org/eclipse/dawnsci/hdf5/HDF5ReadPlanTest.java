@@ -0,0 +1,116 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.hdf5;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class HDF5ReadPlanTest {
+
+	@Test
+	public void testBoundaries() {
+		assertArrayEquals(new int[] {0, 1, 2, 3}, HDF5ReadPlan.findBoundaries(1, 5, 3, 1));
+		assertArrayEquals(new int[] {0, 2, 7, 10}, HDF5ReadPlan.findBoundaries(10, 7, 10, 2));
+		assertArrayEquals(new int[] {0, 1, 2, 3}, HDF5ReadPlan.findBoundaries(4, 0, 3, 4));
+		assertArrayEquals(new int[] {0, 4}, HDF5ReadPlan.findBoundaries(64, 10, 4, 3));
+	}
+
+	@Test
+	public void testUnchunked() {
+		HDF5ReadPlan plan = new HDF5ReadPlan(null, new int[] {2, 3}, new int[] {5, 7}, new int[] {1, 2}, 1);
+		List<HDF5ReadPlan.Block> blocks = plan.getBlocks();
+		assertEquals(1, blocks.size());
+		assertArrayEquals(new long[] {2, 3}, blocks.get(0).start);
+		assertArrayEquals(new long[] {5, 7}, blocks.get(0).count);
+		assertArrayEquals(new long[] {0, 0}, blocks.get(0).offset);
+	}
+
+	@Test
+	public void testTimeSeries() {
+		// single pixel through stack of frame chunks
+		long[] chunk = new long[] {1, 512, 512};
+		int[] start = new int[] {0, 100, 200};
+		int[] count = new int[] {10000, 1, 1};
+		int[] step = new int[] {1, 1, 1};
+		HDF5ReadPlan plan = new HDF5ReadPlan(chunk, start, count, step, 1024);
+		assertEquals(10, plan.getBlocks().size());
+		checkPlan(plan, chunk, start, count, step, 1024);
+	}
+
+	@Test
+	public void testPlans() {
+		long[] chunk = new long[] {3, 4, 5};
+		int[][] slices = new int[][] {
+			{0, 0, 0, 20, 16, 25, 1, 1, 1},
+			{1, 2, 3, 7, 5, 6, 3, 2, 3},
+			{0, 1, 0, 10, 4, 12, 2, 4, 2},
+			{4, 1, 2, 6, 1, 9, 1, 1, 2},
+		};
+		for (int[] s : slices) {
+			int[] start = new int[] {s[0], s[1], s[2]};
+			int[] count = new int[] {s[3], s[4], s[5]};
+			int[] step = new int[] {s[6], s[7], s[8]};
+			for (long max : new long[] {1, 2, 5, 17, 1000}) {
+				checkPlan(new HDF5ReadPlan(chunk, start, count, step, max), chunk, start, count, step, max);
+			}
+		}
+	}
+
+	private static void checkPlan(HDF5ReadPlan plan, long[] chunk, int[] start, int[] count, int[] step, long max) {
+		int rank = count.length;
+		int size = 1;
+		for (int c : count) {
+			size *= c;
+		}
+		boolean[] seen = new boolean[size];
+		Set<String> chunks = new HashSet<>();
+		for (HDF5ReadPlan.Block b : plan.getBlocks()) {
+			Set<String> bChunks = new HashSet<>();
+			long[] p = new long[rank];
+			int n = 1;
+			for (long c : b.count) {
+				n *= c;
+			}
+			for (int j = 0; j < n; j++) {
+				int index = 0;
+				StringBuilder key = new StringBuilder();
+				for (int i = 0; i < rank; i++) {
+					long k = b.offset[i] + p[i];
+					assertEquals(start[i] + k * step[i], b.start[i] + p[i] * b.stride[i]);
+					index = index * count[i] + (int) k;
+					key.append((b.start[i] + p[i] * b.stride[i]) / chunk[i]).append(',');
+				}
+				assertTrue("Position read twice", !seen[index]);
+				seen[index] = true;
+				bChunks.add(key.toString());
+				for (int i = rank - 1; i >= 0; i--) {
+					if (++p[i] < b.count[i]) {
+						break;
+					}
+					p[i] = 0;
+				}
+			}
+			assertTrue("Too many chunks in block", bChunks.size() <= max);
+			for (String c : bChunks) {
+				assertTrue("Chunk read by more than one block", chunks.add(c));
+			}
+		}
+		for (boolean s : seen) {
+			assertTrue("Position not read", s);
+		}
+	}
+}
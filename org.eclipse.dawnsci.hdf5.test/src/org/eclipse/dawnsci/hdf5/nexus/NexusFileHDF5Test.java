@@ -9,6 +9,8 @@
 
 package org.eclipse.dawnsci.hdf5.nexus;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 
 import ncsa.hdf.hdf5lib.H5;
@@ -59,4 +61,34 @@ public class NexusFileHDF5Test {
 			lds.setSlice(null, ods, new int[] {0}, new int[] {3}, null);
 		}
 	}
+
+	@Test
+	public void testWriteBehind() throws Exception {
+		String file = "test-scratch/writebehind.nxs";
+		int points = 50;
+		try (NexusFileHDF5 nf = new NexusFileHDF5(file, false)) {
+			nf.setWriteBehind(true);
+			nf.createAndOpenToWrite();
+			ILazyWriteableDataset lds = new LazyWriteableDataset("data",
+					Dataset.FLOAT64,
+					new int[] {0, 3},
+					new int[] {ILazyWriteableDataset.UNLIMITED, 3},
+					new int[] {8, 3},
+					null);
+			nf.createData("/test", lds, true);
+			Dataset point = DatasetFactory.zeros(new int[] {1, 3}, Dataset.FLOAT64);
+			for (int i = 0; i < points; i++) {
+				point.fill(i); // reuse buffer
+				lds.setSlice(null, point, new int[] {i, 0}, new int[] {i + 1, 3}, null);
+			}
+		}
+		try (NexusFileHDF5 nf = new NexusFileHDF5(file, false)) {
+			nf.openToRead();
+			Dataset data = (Dataset) nf.getData("/test/data").getDataset().getSlice();
+			assertArrayEquals(new int[] {points, 3}, data.getShape());
+			for (int i = 0; i < points; i++) {
+				assertEquals(i, data.getDouble(i, 2), 0);
+			}
+		}
+	}
 }
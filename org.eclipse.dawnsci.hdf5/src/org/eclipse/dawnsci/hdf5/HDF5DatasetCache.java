@@ -0,0 +1,377 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.hdf5;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.eclipse.dawnsci.hdf5.HDF5Utils.DatasetType;
+import org.eclipse.dawnsci.nexus.NexusException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ncsa.hdf.hdf5lib.H5;
+import ncsa.hdf.hdf5lib.HDF5Constants;
+import ncsa.hdf.hdf5lib.exceptions.HDF5Exception;
+import ncsa.hdf.hdf5lib.structs.H5O_info_t;
+
+/**
+ * Cache of open dataset IDs and their type, shape and chunking for a file held by
+ * {@link HDF5FileFactory}. This saves reopening and querying a dataset for every slice read.
+ * <p>
+ * An entry is invalidated when its dataset's shape is refreshed or written, and all entries are
+ * closed when the file is closed. An entry that is in use when invalidated is closed when it is
+ * released. Readers of memory-mapped datasets are also held here so that their mappings are
+ * not kept beyond the file being closed.
+ */
+class HDF5DatasetCache {
+	private static final Logger logger = LoggerFactory.getLogger(HDF5DatasetCache.class);
+
+	/**
+	 * Open dataset and its properties
+	 */
+	static class Entry {
+		final String node;
+		long did = -1;
+		long tid = -1;
+		DatasetType type;
+		boolean isRef;
+		int rank;
+		long[] dims;
+		long[] chunk; // null if not chunked
+		long offset = -1; // file address of contiguous raw data (-1 if not contiguous or not yet written)
+		private int users;
+		private boolean stale;
+
+		private Entry(String node) {
+			this.node = node;
+		}
+
+		/**
+		 * Update dimensions from file (needed when another process has extended the dataset)
+		 * @throws HDF5Exception
+		 */
+		void refresh() throws HDF5Exception {
+			H5.H5Drefresh(did);
+			readDims();
+		}
+
+		private void readDims() throws HDF5Exception {
+			long sid = H5.H5Dget_space(did);
+			try {
+				rank = H5.H5Sget_simple_extent_ndims(sid);
+				if (rank == 0) {
+					// a single data point
+					rank = 1;
+					dims = new long[] {1};
+				} else {
+					dims = new long[rank];
+					H5.H5Sget_simple_extent_dims(sid, dims, null);
+				}
+			} finally {
+				H5.H5Sclose(sid);
+			}
+		}
+
+		/**
+		 * @param start
+		 * @param count
+		 * @param step
+		 * @return true if slice lies within dimensions
+		 */
+		boolean contains(final int[] start, final int[] count, final int[] step) {
+			final int r = Math.min(rank, start.length);
+			for (int i = 0; i < r; i++) {
+				if (count[i] > 0 && start[i] + (count[i] - 1L) * step[i] >= dims[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		void close() {
+			if (tid != -1) {
+				try {
+					H5.H5Tclose(tid);
+				} catch (HDF5Exception ex) {
+				}
+				tid = -1;
+			}
+			if (did != -1) {
+				try {
+					H5.H5Dclose(did);
+				} catch (HDF5Exception ex) {
+				}
+				did = -1;
+			}
+		}
+	}
+
+	/**
+	 * Default size of HDF5 chunk cache in bytes
+	 */
+	static final long DEFAULT_CHUNK_CACHE = 1024 * 1024;
+
+	/**
+	 * Maximum size of chunk cache in bytes set for a dataset
+	 */
+	static final long MAX_CHUNK_CACHE = 64 * 1024 * 1024;
+
+	/**
+	 * Maximum number of hash table slots in chunk cache set for a dataset (a prime)
+	 */
+	static final long MAX_CHUNK_SLOTS = 65521;
+
+	private final Map<String, Entry> entries = new HashMap<>();
+
+	private final Map<String, HDF5MappedReader> mapped = new HashMap<>(); // null if dataset cannot be mapped
+
+	/**
+	 * Get size of chunk cache that holds all chunks across the trailing dimensions so reading
+	 * successive slices along the first dimension does not re-read partially used chunks
+	 * @param dims
+	 * @param chunk
+	 * @param itemSize
+	 * @return size in bytes
+	 */
+	static long getChunkCacheSize(long[] dims, long[] chunk, long itemSize) {
+		double size = itemSize;
+		for (int i = 0; i < chunk.length; i++) {
+			size *= chunk[i];
+			if (i > 0 && chunk[i] > 0) {
+				size *= (dims[i] + chunk[i] - 1) / chunk[i];
+			}
+		}
+		return (long) Math.max(DEFAULT_CHUNK_CACHE, Math.min(MAX_CHUNK_CACHE, size));
+	}
+
+	/**
+	 * Get number of hash table slots for chunk cache, aiming for 100 times the number of chunks
+	 * that fit in the cache but no more than {@link #MAX_CHUNK_SLOTS}
+	 * @param bytes size of cache
+	 * @param chunkBytes size of chunk
+	 * @return prime number of slots
+	 */
+	static long getChunkSlots(long bytes, long chunkBytes) {
+		long n = 100 * Math.max(1, bytes / Math.max(1, chunkBytes));
+		return n >= MAX_CHUNK_SLOTS ? MAX_CHUNK_SLOTS : nextPrime(n);
+	}
+
+	/**
+	 * @param n
+	 * @return smallest prime greater than or equal to n
+	 */
+	static long nextPrime(long n) {
+		for (long p = Math.max(2, n);; p++) {
+			boolean prime = true;
+			for (long d = 2; d * d <= p; d++) {
+				if (p % d == 0) {
+					prime = false;
+					break;
+				}
+			}
+			if (prime) {
+				return p;
+			}
+		}
+	}
+
+	/**
+	 * Open dataset and read its properties
+	 * @param fid
+	 * @param node
+	 * @return entry or null if node is not a dataset
+	 * @throws NexusException
+	 */
+	static Entry open(long fid, String node) throws NexusException {
+		try {
+			H5O_info_t info = H5.H5Oget_info_by_name(fid, node, HDF5Constants.H5P_DEFAULT);
+			if (info.type != HDF5Constants.H5O_TYPE_DATASET) {
+				logger.error("Node {} was not a dataset", node);
+				return null;
+			}
+		} catch (HDF5Exception ex) {
+			logger.error("Could not find info about object {}", node);
+			return null;
+		}
+
+		Entry e = new Entry(node);
+		long ntid = -1;
+		long pid = -1;
+		try {
+			e.did = H5.H5Dopen(fid, node, HDF5Constants.H5P_DEFAULT);
+			e.tid = H5.H5Dget_type(e.did);
+			ntid = H5.H5Tget_native_type(e.tid);
+			e.type = HDF5Utils.getDatasetType(e.tid, ntid);
+			e.isRef = H5.H5Tequal(e.tid, HDF5Constants.H5T_STD_REF_OBJ);
+			e.readDims();
+
+			pid = H5.H5Dget_create_plist(e.did);
+			try {
+				int layout = H5.H5Pget_layout(pid);
+				if (layout == HDF5Constants.H5D_CHUNKED) {
+					e.chunk = new long[e.rank];
+					H5.H5Pget_chunk(pid, e.rank, e.chunk);
+				} else if (layout == HDF5Constants.H5D_CONTIGUOUS && H5.H5Pget_external_count(pid) == 0) {
+					try {
+						e.offset = H5.H5Dget_offset(e.did);
+					} catch (HDF5Exception ex) {
+						// storage not allocated
+					}
+				}
+			} catch (HDF5Exception ex) {
+				logger.error("Could not get chunk size");
+				throw new NexusException("Could not get chunk size", ex);
+			}
+
+			if (e.chunk != null) {
+				long itemSize = H5.H5Tget_size(e.tid);
+				long bytes = getChunkCacheSize(e.dims, e.chunk, itemSize);
+				if (bytes > DEFAULT_CHUNK_CACHE) { // reopen with larger cache
+					long chunkBytes = itemSize;
+					for (long c : e.chunk) {
+						chunkBytes *= c;
+					}
+					long apid = H5.H5Pcreate(HDF5Constants.H5P_DATASET_ACCESS);
+					try {
+						H5.H5Pset_chunk_cache(apid, getChunkSlots(bytes, chunkBytes), bytes, 0.75);
+						H5.H5Dclose(e.did);
+						e.did = -1;
+						e.did = H5.H5Dopen(fid, node, apid);
+					} finally {
+						H5.H5Pclose(apid);
+					}
+				}
+			}
+		} catch (HDF5Exception ex) {
+			e.close();
+			logger.error("Could not open dataset", ex);
+			throw new NexusException("Could not open dataset", ex);
+		} catch (NexusException ex) {
+			e.close();
+			throw ex;
+		} finally {
+			if (pid != -1) {
+				try {
+					H5.H5Pclose(pid);
+				} catch (HDF5Exception ex) {
+				}
+			}
+			if (ntid != -1) {
+				try {
+					H5.H5Tclose(ntid);
+				} catch (HDF5Exception ex) {
+				}
+			}
+		}
+		return e;
+	}
+
+	/**
+	 * Get dataset entry, opening it if necessary. The entry must be released after use
+	 * @param fid
+	 * @param node
+	 * @return entry or null if node is not a dataset
+	 * @throws NexusException
+	 */
+	synchronized Entry acquire(long fid, String node) throws NexusException {
+		Entry e = entries.get(node);
+		if (e == null) {
+			e = open(fid, node);
+			if (e == null) {
+				return null;
+			}
+			entries.put(node, e);
+		}
+		e.users++;
+		return e;
+	}
+
+	/**
+	 * Get reader of memory-mapped dataset, creating it if necessary
+	 * @param fid
+	 * @param fileName
+	 * @param node
+	 * @return reader or null if dataset cannot be mapped
+	 */
+	HDF5MappedReader getMappedReader(long fid, String fileName, String node) {
+		synchronized (this) {
+			if (mapped.containsKey(node)) {
+				return mapped.get(node);
+			}
+		}
+		HDF5MappedReader r = HDF5MappedReader.create(fid, fileName, node); // not synchronized as mapping can be slow
+		synchronized (this) {
+			if (!mapped.containsKey(node)) {
+				mapped.put(node, r);
+			}
+			return mapped.get(node);
+		}
+	}
+
+	/**
+	 * @param node
+	 * @return true if dataset has a memory-mapped reader
+	 */
+	synchronized boolean isMapped(String node) {
+		return mapped.get(node) != null;
+	}
+
+	/**
+	 * Release dataset entry
+	 * @param e
+	 */
+	synchronized void release(Entry e) {
+		e.users--;
+		if (e.stale && e.users <= 0) {
+			e.close();
+		}
+	}
+
+	/**
+	 * Invalidate dataset entry
+	 * @param node
+	 */
+	synchronized void invalidate(String node) {
+		mapped.remove(node);
+		Entry e = entries.remove(node);
+		if (e != null) {
+			if (e.users <= 0) {
+				e.close();
+			} else {
+				e.stale = true;
+			}
+		}
+	}
+
+	/**
+	 * Close all entries. This must be called before the file is closed
+	 */
+	synchronized void clear() {
+		mapped.clear();
+		Iterator<Entry> it = entries.values().iterator();
+		while (it.hasNext()) {
+			Entry e = it.next();
+			if (e.users > 0) {
+				logger.warn("Dataset {} is still in use when closing file", e.node);
+			}
+			e.close();
+			it.remove();
+		}
+	}
+
+	/**
+	 * @return number of open datasets
+	 */
+	synchronized int size() {
+		return entries.size();
+	}
+}
@@ -12,9 +12,14 @@ package org.eclipse.dawnsci.hdf5;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.Iterator;
+import java.util.Collections;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.eclipse.dawnsci.analysis.api.io.ScanFileHolderException;
 import org.slf4j.Logger;
@@ -27,6 +32,11 @@ import ncsa.hdf.hdf5lib.exceptions.HDF5LibraryException;
 /**
  * This contains method to access low level HDF5 file IDs and allows them to
  * be held open for a set period (default of 5s) before being closed.
+ * <p>
+ * Access to each file is guarded by one of a fixed set of locks chosen by its path so threads
+ * working on different files rarely contend. Released files are queued by expiry time for the
+ * releaser thread to close. A file that fails to close is queued again with a longer wait and
+ * is forgotten after several failed attempts.
  */
 public class HDF5FileFactory {
 	private static final Logger logger = LoggerFactory.getLogger(HDF5FileFactory.class);
@@ -36,8 +46,49 @@ public class HDF5FileFactory {
 		long time; // time of release
 		int count; // number of accessors
 		boolean writeable; // if true then can write
+		final HDF5DatasetCache datasets = new HDF5DatasetCache(); // open datasets
 	}
 
+	/**
+	 * Time when a released file can be closed. This is stale if the file has since been acquired
+	 * or released again
+	 */
+	private static class Expiry implements Delayed {
+		final String path;
+		final FileAccess access;
+		final long time;
+		final int failures; // number of failed attempts to close file
+
+		Expiry(String path, FileAccess access) {
+			this(path, access, 0);
+		}
+
+		Expiry(String path, FileAccess access, int failures) {
+			this.path = path;
+			this.access = access;
+			this.time = access.time;
+			this.failures = failures;
+		}
+
+		boolean isStale() {
+			return access.count > 0 || access.time != time || INSTANCE.map.get(path) != access;
+		}
+
+		@Override
+		public long getDelay(TimeUnit unit) {
+			return unit.convert(time - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+		}
+
+		@Override
+		public int compareTo(Delayed o) {
+			return Long.compare(time, ((Expiry) o).time);
+		}
+	}
+
+	private static final int STRIPES = 64; // number of locks
+
+	private static final int MAX_CLOSE_ATTEMPTS = 5; // number of times releaser tries to close a file
+
 	private static long heldPeriod = 5000; // 5 seconds
 	private static boolean verbose = false;
 
@@ -56,9 +107,28 @@ public class HDF5FileFactory {
 
 	private ConcurrentMap<String, FileAccess> map;
 
+	private ConcurrentMap<String, String> paths; // file names to canonical paths of open files
+
+	private ConcurrentMap<Long, FileAccess> ids; // file IDs to accesses of open files
+
+	private final ReentrantLock[] locks;
+
+	private final DelayQueue<Expiry> expiries;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong waitTime = new AtomicLong();
+
 	// Need singleton to add finalizer
 	private HDF5FileFactory() {
 		map = new ConcurrentHashMap<>();
+		paths = new ConcurrentHashMap<>();
+		ids = new ConcurrentHashMap<>();
+		locks = new ReentrantLock[STRIPES];
+		for (int i = 0; i < STRIPES; i++) {
+			locks[i] = new ReentrantLock();
+		}
+		expiries = new DelayQueue<>();
 	}
 
 	@Override
@@ -67,6 +137,7 @@ public class HDF5FileFactory {
 			for (String f : map.keySet()) {
 				FileAccess a = map.get(f);
 				try {
+					a.datasets.clear();
 					H5.H5Fclose(a.id);
 				} catch (HDF5LibraryException e) {
 					logger.error("Could not close file: {}", f);
@@ -92,6 +163,109 @@ public class HDF5FileFactory {
 	}
 
 
+	/**
+	 * Canonicalise path of file, reusing previous result while the file is held open
+	 * @param fileName
+	 * @return canonical path
+	 * @throws ScanFileHolderException
+	 */
+	private static String getCanonicalPath(String fileName) throws ScanFileHolderException {
+		String cPath = INSTANCE.paths.get(fileName);
+		if (cPath == null) {
+			try {
+				cPath = canonicalisePath(fileName);
+			} catch (IOException e) {
+				logger.error("Problem canonicalising path", e);
+				throw new ScanFileHolderException("Problem canonicalising path", e);
+			}
+		}
+		return cPath;
+	}
+
+	/**
+	 * Record canonical path of file that is held open. Must be called with the file locked
+	 * so it can be forgotten when the file is removed
+	 * @param fileName
+	 * @param cPath canonical path
+	 */
+	private static void recordPath(String fileName, String cPath) {
+		INSTANCE.paths.put(fileName, cPath);
+	}
+
+	/**
+	 * Lock access to file, recording any time spent waiting for another thread
+	 * @param cPath canonical path
+	 * @return lock to be unlocked by caller
+	 */
+	private static ReentrantLock lockFile(String cPath) {
+		ReentrantLock lock = INSTANCE.locks[(cPath.hashCode() & Integer.MAX_VALUE) % STRIPES];
+		if (!lock.tryLock()) {
+			long start = System.nanoTime();
+			lock.lock();
+			INSTANCE.waitTime.addAndGet(System.nanoTime() - start);
+		}
+		return lock;
+	}
+
+	/**
+	 * Remove file from map of open files
+	 * @param cPath canonical path
+	 */
+	private static void removeFile(String cPath) {
+		FileAccess access = INSTANCE.map.remove(cPath);
+		if (access != null) {
+			INSTANCE.ids.remove(access.id);
+		}
+		INSTANCE.paths.values().removeAll(Collections.singleton(cPath));
+	}
+
+	/**
+	 * Get cache of open datasets for a file ID
+	 * @param fid file ID
+	 * @return cache or null if file was not acquired from this factory
+	 */
+	static HDF5DatasetCache getDatasetCache(long fid) {
+		FileAccess a = INSTANCE.ids.get(fid);
+		return a == null ? null : a.datasets;
+	}
+
+	/**
+	 * @return number of files held open
+	 */
+	public static int getOpenFileCount() {
+		return INSTANCE.map.size();
+	}
+
+	/**
+	 * @return number of acquisitions that reused a file ID already held open
+	 */
+	public static long getHitCount() {
+		return INSTANCE.hits.get();
+	}
+
+	/**
+	 * @return number of acquisitions that opened or created a file
+	 */
+	public static long getMissCount() {
+		return INSTANCE.misses.get();
+	}
+
+	/**
+	 * @return total time in nanoseconds that threads have waited to access files
+	 */
+	public static long getWaitTime() {
+		return INSTANCE.waitTime.get();
+	}
+
+	/**
+	 * Reset hit and miss counts and wait time
+	 */
+	public static void resetMetrics() {
+		INSTANCE.hits.set(0);
+		INSTANCE.misses.set(0);
+		INSTANCE.waitTime.set(0);
+	}
+
 	/**
 	 * Set period of time a file ID is held open for. The period specified must be greater
 	 * than or equal to 100 ms.
@@ -112,7 +286,9 @@ public class HDF5FileFactory {
 		return heldPeriod;
 	}
 
-	private static void closeFile(long fid) throws HDF5LibraryException {
+	private static void closeFile(FileAccess access) throws HDF5LibraryException {
+		access.datasets.clear();
+		long fid = access.id;
 		long openObjects = H5.H5Fget_obj_count(fid,
 				HDF5Constants.H5F_OBJ_LOCAL |
 				HDF5Constants.H5F_OBJ_DATASET |
@@ -129,39 +305,37 @@ public class HDF5FileFactory {
 		new Thread(new Runnable() {
 			@Override
 			public void run() {
-				long waitPeriod = heldPeriod;
 				while (true) {
-					if (waitPeriod >= 0) {
-						try {
-							Thread.sleep(waitPeriod);
-						} catch (InterruptedException e) {
-						}
+					Expiry e;
+					try {
+						e = INSTANCE.expiries.take();
+					} catch (InterruptedException ex) {
+						continue;
 					}
 
-					long now = System.currentTimeMillis();
-					long next = now + heldPeriod;
-					synchronized (INSTANCE) {
-						Iterator<String> iter = INSTANCE.map.keySet().iterator();
-						while (iter.hasNext()) {
-							String f = iter.next();
-							FileAccess a = INSTANCE.map.get(f);
-							if (a.count <= 0) {
-								if (a.time <= now) {
-									try {
-										closeFile(a.id);
-										INSTANCE.map.remove(f);
+					String f = e.path;
+					ReentrantLock lock = lockFile(f);
+					try {
+						if (!e.isStale()) {
+							closeFile(e.access);
+							removeFile(f);
 // FIXME for CustomTomoConverter, etc 
-//										HierarchicalDataFactory.releaseLowLevelReadingAccess(f);
-									} catch (HDF5LibraryException e) {
-										logger.error("Could not close file {}", f, e);
-									}
-								} else if (a.time < next) {
-									next = a.time; // reduce waiting to next earliest between now and next
-								}
-							}
+//							HierarchicalDataFactory.releaseLowLevelReadingAccess(f);
+						}
+					} catch (HDF5LibraryException ex) {
+						int failures = e.failures + 1;
+						if (failures < MAX_CLOSE_ATTEMPTS) {
+							// try again later, doubling the wait each time
+							logger.warn("Could not close file {} so will try again", f, ex);
+							e.access.time = System.currentTimeMillis() + (heldPeriod << e.failures);
+							INSTANCE.expiries.add(new Expiry(f, e.access, failures));
+						} else {
+							logger.error("Could not close file {} after {} attempts so forgetting it", f, failures, ex);
+							removeFile(f);
 						}
+					} finally {
+						lock.unlock();
 					}
-					waitPeriod = next - System.currentTimeMillis();
 				}
 			}
 		}, "File ID releaser").start();
@@ -188,19 +362,14 @@ public class HDF5FileFactory {
 	 * @throws ScanFileHolderException
 	 */
 	private static long acquireFile(String fileName, boolean writeable, boolean asNew, boolean withLatestVersion) throws ScanFileHolderException {
-		final String cPath;
-		try {
-			cPath = canonicalisePath(fileName);
-		} catch (IOException e) {
-			logger.error("Problem canonicalising path", e);
-			throw new ScanFileHolderException("Problem canonicalising path", e);
-		}
+		final String cPath = getCanonicalPath(fileName);
 
 		FileAccess access = null;
 		long fid = -1;
 		long fapl = -1;
 
-		synchronized (INSTANCE) {
+		ReentrantLock lock = lockFile(cPath);
+		try {
 			try {
 				if (INSTANCE.map.containsKey(cPath)) {
 					access = INSTANCE.map.get(cPath);
@@ -212,8 +381,8 @@ public class HDF5FileFactory {
 							throw new ScanFileHolderException("File already open and will need to closed");
 						} else {
 							//close and allow fall through to file creation below
-							closeFile(access.id);
-							INSTANCE.map.remove(cPath);
+							closeFile(access);
+							removeFile(cPath);
 						}
 					} else {
 						if (writeable && !access.writeable) {
@@ -221,6 +390,8 @@ public class HDF5FileFactory {
 							throw new ScanFileHolderException("Cannot get file in writeable state as it has been opened read-only");
 						}
 						access.count++;
+						recordPath(fileName, cPath);
+						INSTANCE.hits.incrementAndGet();
 						return access.id;
 					}
 				}
@@ -278,6 +449,9 @@ public class HDF5FileFactory {
 				}
 				access.id = fid;
 				INSTANCE.map.put(cPath, access);
+				INSTANCE.ids.put(fid, access);
+				recordPath(fileName, cPath);
+				INSTANCE.misses.incrementAndGet();
 				return fid;
 			} catch (Throwable le) {
 // FIXME for CustomTomoConverter, etc 
@@ -287,6 +461,8 @@ public class HDF5FileFactory {
 				logger.error("Could not acquire access to file: {}", cPath, le);
 				throw new ScanFileHolderException("Could not acquire access to file: " + cPath, le);
 			}
+		} finally {
+			lock.unlock();
 		}
 	}
 
@@ -328,15 +504,10 @@ public class HDF5FileFactory {
 	 * @throws ScanFileHolderException
 	 */
 	public static void deleteFile(String fileName) throws ScanFileHolderException {
-		final String cPath;
-		try {
-			cPath = canonicalisePath(fileName);
-		} catch (IOException e) {
-			logger.error("Problem canonicalising path", e);
-			throw new ScanFileHolderException("Problem canonicalising path", e);
-		}
+		final String cPath = getCanonicalPath(fileName);
 
-		synchronized (INSTANCE) {
+		ReentrantLock lock = lockFile(cPath);
+		try {
 			if (INSTANCE.map.containsKey(cPath)) {
 				try {
 					FileAccess access = INSTANCE.map.get(cPath);
@@ -345,8 +516,9 @@ public class HDF5FileFactory {
 							if (verbose) {
 								System.err.println("Closing and deleting " + cPath);
 							}
+							access.datasets.clear();
 							H5.H5Fclose(access.id);
-							INSTANCE.map.remove(cPath);
+							removeFile(cPath);
 // FIXME for CustomTomoConverter, etc 
 //							HierarchicalDataFactory.releaseLowLevelReadingAccess(cPath); 
 						} catch (HDF5LibraryException e) {
@@ -362,6 +534,8 @@ public class HDF5FileFactory {
 					throw new ScanFileHolderException("Problem releasing access to file: " + cPath, le);
 				}
 			}
+		} finally {
+			lock.unlock();
 		}
 
 		File f = new File(cPath);
@@ -386,15 +560,10 @@ public class HDF5FileFactory {
 	 * @throws ScanFileHolderException
 	 */
 	public static void releaseFile(String fileName, boolean close) throws ScanFileHolderException {
-		final String cPath;
-		try {
-			cPath = canonicalisePath(fileName);
-		} catch (IOException e) {
-			logger.error("Problem canonicalising path", e);
-			throw new ScanFileHolderException("Problem canonicalising path", e);
-		}
+		final String cPath = getCanonicalPath(fileName);
 
-		synchronized (INSTANCE) {
+		ReentrantLock lock = lockFile(cPath);
+		try {
 			if (!INSTANCE.map.containsKey(cPath)) {
 				logger.debug("File not known - has it already been released?");
 				return;
@@ -409,8 +578,9 @@ public class HDF5FileFactory {
 							if (verbose) {
 								System.err.println("Closing " + cPath);
 							}
+							access.datasets.clear();
 							H5.H5Fclose(access.id);
-							INSTANCE.map.remove(cPath);
+							removeFile(cPath);
 // FIXME for CustomTomoConverter, etc 
 //							HierarchicalDataFactory.releaseLowLevelReadingAccess(cPath); 
 						} catch (HDF5LibraryException e) {
@@ -419,12 +589,15 @@ public class HDF5FileFactory {
 						}
 					} else {
 						access.time = System.currentTimeMillis() + heldPeriod; // update release time
+						INSTANCE.expiries.add(new Expiry(cPath, access));
 					}
 				}
 			} catch (Throwable le) {
 				logger.error("Problem releasing access to file: {}", cPath, le);
 				throw new ScanFileHolderException("Problem releasing access to file: " + cPath, le);
 			}
+		} finally {
+			lock.unlock();
 		}
 	}
 }
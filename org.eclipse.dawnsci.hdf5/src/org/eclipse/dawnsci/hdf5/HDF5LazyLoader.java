@@ -41,6 +41,8 @@ public class HDF5LazyLoader implements ILazyLoader, ILazyDynamicLoader, Serializ
 	private boolean extendUnsigned;
 	protected String name;
 
+	private static boolean mapping = Boolean.getBoolean("org.eclipse.dawnsci.hdf5.mapping");
+
 	/**
 	 * @param hostname
 	 * @param filename
@@ -134,10 +136,10 @@ public class HDF5LazyLoader implements ILazyLoader, ILazyDynamicLoader, Serializ
 					}
 				}
 
-				d = HDF5Utils.loadDataset(filePath, nodePath, tstart, tsize, tstep, dtype, isize, extendUnsigned);
+				d = loadDataset(tstart, tsize, tstep);
 				d.setShape(newShape); // squeeze shape back
 			} else {
-				d = HDF5Utils.loadDataset(filePath, nodePath, lstart, newShape, lstep, dtype, isize, extendUnsigned);
+				d = loadDataset(lstart, newShape, lstep);
 			}
 			if (d != null) {
 				d.setName(name);
@@ -147,7 +149,49 @@ public class HDF5LazyLoader implements ILazyLoader, ILazyDynamicLoader, Serializ
 		}
 		return d;
 	}
-	
+
+	/**
+	 * Load slice from mapped dataset if possible, otherwise from file via HDF5 library
+	 * @param start
+	 * @param count
+	 * @param step
+	 * @return dataset
+	 * @throws ScanFileHolderException
+	 */
+	private Dataset loadDataset(int[] start, int[] count, int[] step) throws ScanFileHolderException {
+		if (canMap() && isize == 1) {
+			Dataset d = HDF5MappedReader.read(filePath, nodePath, start, count, step, dtype, extendUnsigned);
+			if (d != null) {
+				return d;
+			}
+		}
+		return HDF5Utils.loadDataset(filePath, nodePath, start, count, step, dtype, isize, extendUnsigned);
+	}
+
+	/**
+	 * @return true if contiguous, unfiltered datasets can be read from memory-mapped file
+	 */
+	protected boolean canMap() {
+		return !isRemote && isMapping();
+	}
+
+	/**
+	 * @return true if contiguous, unfiltered datasets are read from memory-mapped files
+	 */
+	public static synchronized boolean isMapping() {
+		return mapping;
+	}
+
+	/**
+	 * Set whether contiguous, unfiltered datasets are read from memory-mapped files. This is off
+	 * by default, or set with the system property org.eclipse.dawnsci.hdf5.mapping, as a mapped
+	 * file cannot be deleted or truncated on some platforms until the mapping is garbage collected
+	 * @param map
+	 */
+	public static synchronized void setMapping(boolean map) {
+		mapping = map;
+	}
+
 	public int[] refreshShape() {
 		int[][] shape = null;
 		try {
@@ -158,7 +202,7 @@ public class HDF5LazyLoader implements ILazyLoader, ILazyDynamicLoader, Serializ
 			return null;
 		}
 		
-		trueShape = shape[0];
+		trueShape = shape[0]; // any mapping of dataset was dropped when its shape was read
 		return trueShape.clone();
 	}
 }
@@ -11,19 +11,31 @@ package org.eclipse.dawnsci.hdf5;
 
 import java.io.File;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.eclipse.dawnsci.analysis.api.dataset.IDataset;
 import org.eclipse.dawnsci.analysis.api.dataset.SliceND;
-import org.eclipse.dawnsci.analysis.api.io.ILazySaver;
+import org.eclipse.dawnsci.analysis.api.io.ILazyAsyncSaver;
+import org.eclipse.dawnsci.analysis.api.io.ScanFileHolderException;
 import org.eclipse.dawnsci.analysis.api.monitor.IMonitor;
 import org.eclipse.dawnsci.analysis.api.tree.Node;
 import org.eclipse.dawnsci.analysis.api.tree.Tree;
+import org.eclipse.dawnsci.analysis.dataset.impl.Dataset;
 import org.eclipse.dawnsci.analysis.dataset.impl.DatasetUtils;
 
 /**
  * Lazy saver for HDF5 files
+ * <p>
+ * In write-behind mode, consecutive slices that follow on along one axis are gathered in memory
+ * into blocks that end on chunk boundaries. Each block is written, and the dataset extended, on a
+ * writer thread. Call {@link #flush()} to wait for all slices to be written
  */
-public class HDF5LazySaver extends HDF5LazyLoader implements ILazySaver, Serializable {
+public class HDF5LazySaver extends HDF5LazyLoader implements ILazyAsyncSaver, Serializable {
 
 	private static final long serialVersionUID = -5244067010482825423L;
 
@@ -34,6 +46,91 @@ public class HDF5LazySaver extends HDF5LazyLoader implements ILazySaver, Seriali
 	private Object fill;
 	private boolean create = false; // create on first slice setting
 	private boolean init = false;   // has been initialized?
+	private boolean writeBehind = false;
+
+	/**
+	 * Maximum number of slices in a block when dataset is not chunked along axis
+	 */
+	static final int MAX_BLOCK_SLICES = 256;
+
+	/**
+	 * Maximum number of bytes in a block
+	 */
+	static final long MAX_BLOCK_BYTES = 16 * 1024 * 1024;
+
+	private transient Block block; // slices waiting to be written
+	private transient Future<Void> lastWrite;
+	private transient volatile Exception writeError;
+
+	/**
+	 * Consecutive slices that follow on along an axis
+	 */
+	private static class Block {
+		final int[] start;
+		final int[] stop;
+		int[] sourceShape;
+		int[] maxShape;
+		int axis = -1; // unknown until second slice
+		long bytes;
+		final List<Dataset> data = new ArrayList<>();
+
+		Block(SliceND slice, Dataset d) {
+			start = slice.getStart().clone();
+			stop = slice.getStop().clone();
+			add(slice, d);
+		}
+
+		private void add(SliceND slice, Dataset d) {
+			sourceShape = slice.getSourceShape();
+			maxShape = slice.getMaxShape();
+			bytes += d.getNbytes();
+			data.add(d);
+		}
+
+		/**
+		 * @param slice
+		 * @return axis along which slice follows on or -1 if it does not
+		 */
+		int findAxis(SliceND slice) {
+			int[] sstart = slice.getStart();
+			int[] sstop = slice.getStop();
+			if (sstart.length != start.length) {
+				return -1;
+			}
+			for (int s : slice.getStep()) {
+				if (s != 1) {
+					return -1;
+				}
+			}
+			int a = -1;
+			for (int i = 0; i < start.length; i++) {
+				if (sstart[i] != start[i] || sstop[i] != stop[i]) {
+					if (a >= 0 || sstart[i] != stop[i]) {
+						return -1;
+					}
+					a = i;
+				}
+			}
+			return axis < 0 || a == axis ? a : -1;
+		}
+
+		void append(SliceND slice, Dataset d, int a) {
+			axis = a;
+			stop[a] = slice.getStop()[a];
+			add(slice, d);
+		}
+
+		SliceND getSlice() {
+			return new SliceND(sourceShape, maxShape, start, stop, null);
+		}
+
+		Dataset getData() {
+			if (data.size() == 1) {
+				return data.get(0);
+			}
+			return DatasetUtils.concatenate(data.toArray(new Dataset[data.size()]), axis);
+		}
+	}
 
 	/**
 	 * 
@@ -85,6 +182,11 @@ public class HDF5LazySaver extends HDF5LazyLoader implements ILazySaver, Seriali
 		return isWriteable;
 	}
 
+	@Override
+	protected boolean canMap() {
+		return false; // as slices are written through library
+	}
+
 	@Override
 	public void initialize() throws Exception {
 		if (!init) {
@@ -95,6 +197,61 @@ public class HDF5LazySaver extends HDF5LazyLoader implements ILazySaver, Seriali
 		}
 	}
 
+	/**
+	 * Set write-behind mode. When switching it off, all slices are written first
+	 * @param writeBehind
+	 * @throws Exception if any slice could not be written
+	 */
+	public void setWriteBehind(boolean writeBehind) throws Exception {
+		if (!writeBehind) {
+			flush();
+		}
+		this.writeBehind = writeBehind;
+	}
+
+	/**
+	 * @return true if in write-behind mode
+	 */
+	public boolean isWriteBehind() {
+		return writeBehind;
+	}
+
+	@Override
+	public synchronized void flush() throws Exception {
+		if (block != null) {
+			submitBlock();
+		}
+		if (lastWrite != null) {
+			try {
+				lastWrite.get();
+			} catch (ExecutionException e) {
+				// error is recorded by write
+			}
+			lastWrite = null;
+		}
+		checkWriteError();
+	}
+
+	private void checkWriteError() throws Exception {
+		Exception e = writeError;
+		if (e != null) {
+			writeError = null;
+			throw e;
+		}
+	}
+
+	@Override
+	public Dataset getDataset(IMonitor mon, SliceND slice) throws ScanFileHolderException {
+		if (writeBehind) {
+			try {
+				flush();
+			} catch (Exception e) {
+				throw new ScanFileHolderException("Could not write pending slices", e);
+			}
+		}
+		return super.getDataset(mon, slice);
+	}
+
 	@Override
 	public void setSlice(IMonitor mon, IDataset data, SliceND slice) throws Exception {
 		if (!init) {
@@ -116,6 +273,11 @@ public class HDF5LazySaver extends HDF5LazyLoader implements ILazySaver, Seriali
 		}
 
 		//higher level API does not cope with differing data types
+		if (writeBehind) {
+			Dataset d = DatasetUtils.cast(data, dtype);
+			setSliceBehind(d == data ? d.clone() : d, slice); // copy as data may be reused
+			return;
+		}
 		data = DatasetUtils.cast(data, dtype);
 		if (!create) { // ensure create on first use
 			HDF5Utils.setDatasetSlice(filePath, parentPath, name, slice, data);
@@ -124,4 +286,60 @@ public class HDF5LazySaver extends HDF5LazyLoader implements ILazySaver, Seriali
 			HDF5Utils.setExistingDatasetSlice(filePath, parentPath, name, slice, data);
 		}
 	}
+
+	private synchronized void setSliceBehind(Dataset data, SliceND slice) throws Exception {
+		checkWriteError();
+		if (!Arrays.equals(data.getShape(), slice.getShape())) {
+			data = data.reshape(slice.getShape());
+		}
+
+		if (block != null) {
+			int a = block.findAxis(slice);
+			if (a >= 0 && block.bytes + data.getNbytes() <= MAX_BLOCK_BYTES &&
+					(block.data.size() < MAX_BLOCK_SLICES || getChunk(a) > 1)) {
+				block.append(slice, data, a);
+			} else {
+				submitBlock();
+			}
+		}
+		if (block == null) {
+			block = new Block(slice, data);
+		}
+
+		// end block at chunk boundary
+		int a = block.axis;
+		if (a >= 0 && getChunk(a) > 1 && block.stop[a] % getChunk(a) == 0) {
+			submitBlock();
+		}
+	}
+
+	private int getChunk(int axis) {
+		return chunks == null || axis >= chunks.length ? 1 : chunks[axis];
+	}
+
+	private void submitBlock() throws InterruptedException {
+		final SliceND bslice = block.getSlice();
+		final Dataset bdata = block.getData();
+		final boolean exists = create;
+		block = null;
+		create = true;
+		lastWrite = HDF5SliceWriter.getWriter().submit(new Callable<Void>() {
+			@Override
+			public Void call() throws Exception {
+				try {
+					if (exists) {
+						HDF5Utils.setExistingDatasetSlice(filePath, parentPath, name, bslice, bdata);
+					} else {
+						HDF5Utils.setDatasetSlice(filePath, parentPath, name, bslice, bdata);
+					}
+				} catch (Exception e) {
+					if (writeError == null) {
+						writeError = e;
+					}
+					throw e;
+				}
+				return null;
+			}
+		});
+	}
 }
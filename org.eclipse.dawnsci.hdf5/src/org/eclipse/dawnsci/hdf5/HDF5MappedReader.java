@@ -0,0 +1,336 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.hdf5;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import org.eclipse.dawnsci.analysis.api.io.ScanFileHolderException;
+import org.eclipse.dawnsci.analysis.dataset.impl.AbstractDataset;
+import org.eclipse.dawnsci.analysis.dataset.impl.Dataset;
+import org.eclipse.dawnsci.analysis.dataset.impl.DatasetFactory;
+import org.eclipse.dawnsci.analysis.dataset.impl.DatasetUtils;
+import org.eclipse.dawnsci.nexus.NexusException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ncsa.hdf.hdf5lib.H5;
+import ncsa.hdf.hdf5lib.HDF5Constants;
+import ncsa.hdf.hdf5lib.exceptions.HDF5Exception;
+
+/**
+ * Reader of slices from a contiguous, unfiltered dataset of integers or floats.
+ * <p>
+ * The raw data of such a dataset lies at a fixed offset in its file so it is memory-mapped and
+ * each row of a slice is copied straight from the mapping into the destination buffer without
+ * calling the HDF5 library. Mappings are split into segments as a mapped buffer is limited to
+ * 2GB.
+ * <p>
+ * A mapping pins its file until the reader is garbage collected, as a mapped buffer cannot be
+ * released explicitly: on Windows the file cannot be deleted or truncated meanwhile, and a file
+ * truncated by another process makes reads beyond its new end fail. Readers are therefore only
+ * made when {@link HDF5LazyLoader#setMapping(boolean)} allows and are held by the
+ * {@link HDF5DatasetCache} of a file in {@link HDF5FileFactory}, so they are dropped when the
+ * file is closed (e.g. when its held period expires) and not kept by loaders.
+ */
+class HDF5MappedReader {
+	private static final Logger logger = LoggerFactory.getLogger(HDF5MappedReader.class);
+
+	/**
+	 * Size of mapped segment in bytes (a multiple of all item sizes)
+	 */
+	static final long SEGMENT_SIZE = 1L << 30;
+
+	private final int[] shape;
+	private final long[] strides; // in items
+	private final int dtype;
+	private final int itemSize;
+	private final long segmentItems;
+	private final ByteOrder order;
+	private final ByteBuffer[] segments;
+
+	/**
+	 * @param channel file
+	 * @param offset position of data in file
+	 * @param shape
+	 * @param dtype dataset type
+	 * @param order byte order of data
+	 * @throws IOException
+	 */
+	HDF5MappedReader(FileChannel channel, long offset, int[] shape, int dtype, ByteOrder order) throws IOException {
+		this(channel, offset, shape, dtype, order, SEGMENT_SIZE);
+	}
+
+	/**
+	 * @param channel file
+	 * @param offset position of data in file
+	 * @param shape
+	 * @param dtype dataset type
+	 * @param order byte order of data
+	 * @param segmentSize size of mapped segment in bytes (must be a multiple of item size)
+	 * @throws IOException
+	 */
+	HDF5MappedReader(FileChannel channel, long offset, int[] shape, int dtype, ByteOrder order, long segmentSize) throws IOException {
+		this.shape = shape.clone();
+		this.dtype = dtype;
+		this.order = order;
+		itemSize = AbstractDataset.getItemsize(dtype);
+		if (segmentSize <= 0 || segmentSize > Integer.MAX_VALUE || segmentSize % itemSize != 0) {
+			throw new IllegalArgumentException("Segment size must be a positive multiple of item size and less than 2GB");
+		}
+		segmentItems = segmentSize / itemSize;
+
+		final int rank = shape.length;
+		strides = new long[rank];
+		long size = 1;
+		for (int i = rank - 1; i >= 0; i--) {
+			strides[i] = size;
+			size *= shape[i];
+		}
+		long length = size * itemSize;
+		if (offset + length > channel.size()) {
+			throw new IOException("Data lies beyond end of file");
+		}
+
+		int n = (int) ((length + segmentSize - 1) / segmentSize);
+		segments = new ByteBuffer[n];
+		for (int i = 0; i < n; i++) {
+			long start = i * segmentSize;
+			segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset + start, Math.min(segmentSize, length - start)).order(order);
+		}
+	}
+
+	/**
+	 * Read slice with reader held for dataset by file's cache
+	 * @param fileName
+	 * @param node
+	 * @param start
+	 * @param count
+	 * @param step
+	 * @param dtype (can be -1 for dataset type from file)
+	 * @param extend if true, extend unsigned values to larger type
+	 * @return dataset or null if dataset cannot be mapped or slice cannot be read from mapping
+	 * @throws ScanFileHolderException
+	 */
+	static Dataset read(String fileName, String node, int[] start, int[] count, int[] step, int dtype, boolean extend) throws ScanFileHolderException {
+		long fid = HDF5FileFactory.acquireFile(fileName, false);
+		try {
+			HDF5DatasetCache cache = HDF5FileFactory.getDatasetCache(fid);
+			HDF5MappedReader reader = cache == null ? null : cache.getMappedReader(fid, fileName, node);
+			if (reader == null) {
+				return null;
+			}
+			try {
+				return reader.read(start, count, step, dtype, extend);
+			} catch (InternalError e) { // file was truncated under mapping
+				logger.warn("Mapping of dataset {} in {} is no longer valid", node, fileName, e);
+				cache.invalidate(node);
+				return null;
+			}
+		} finally {
+			HDF5FileFactory.releaseFile(fileName);
+		}
+	}
+
+	/**
+	 * Create reader for dataset
+	 * @param fileName
+	 * @param node
+	 * @return reader or null if dataset cannot be mapped
+	 * @throws ScanFileHolderException
+	 */
+	static HDF5MappedReader create(String fileName, String node) throws ScanFileHolderException {
+		long fid = HDF5FileFactory.acquireFile(fileName, false);
+		try {
+			return create(fid, fileName, node);
+		} finally {
+			HDF5FileFactory.releaseFile(fileName);
+		}
+	}
+
+	/**
+	 * Create reader for dataset in file that has been acquired
+	 * @param fid
+	 * @param fileName
+	 * @param node
+	 * @return reader or null if dataset cannot be mapped
+	 */
+	static HDF5MappedReader create(long fid, String fileName, String node) {
+		try {
+			if ((H5.H5Fget_intent(fid) & HDF5Constants.H5F_ACC_RDWR) != 0) {
+				return null; // file is being written to by library so mapping can be stale
+			}
+			HDF5DatasetCache cache = HDF5FileFactory.getDatasetCache(fid);
+			HDF5DatasetCache.Entry entry = cache == null ? HDF5DatasetCache.open(fid, node) : cache.acquire(fid, node);
+			if (entry == null) {
+				return null;
+			}
+			try {
+				if (entry.offset < 0 || entry.isRef || entry.type.vlen || entry.type.isize != 1) {
+					return null;
+				}
+				int tclass = H5.H5Tget_class(entry.tid);
+				if (tclass != HDF5Constants.H5T_INTEGER && tclass != HDF5Constants.H5T_FLOAT) {
+					return null;
+				}
+				int dtype = entry.type.dtype;
+				switch (dtype) {
+				case Dataset.INT8:
+				case Dataset.INT16:
+				case Dataset.INT32:
+				case Dataset.INT64:
+				case Dataset.FLOAT32:
+				case Dataset.FLOAT64:
+					break;
+				default:
+					return null;
+				}
+				if (H5.H5Tget_size(entry.tid) != AbstractDataset.getItemsize(dtype)) {
+					return null;
+				}
+				ByteOrder order = H5.H5Tget_order(entry.tid) == HDF5Constants.H5T_ORDER_BE ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+
+				try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+					return new HDF5MappedReader(channel, entry.offset, HDF5Utils.toIntArray(entry.dims), dtype, order);
+				}
+			} finally {
+				if (cache == null) {
+					entry.close();
+				} else {
+					cache.release(entry);
+				}
+			}
+		} catch (HDF5Exception | NexusException | IOException e) {
+			logger.debug("Could not map dataset {} in {}", node, fileName, e);
+			return null;
+		}
+	}
+
+	/**
+	 * @return shape of dataset
+	 */
+	int[] getShape() {
+		return shape.clone();
+	}
+
+	/**
+	 * Read slice
+	 * @param start
+	 * @param count
+	 * @param step
+	 * @param dtype (can be -1 for dataset type from file)
+	 * @param extend if true, extend unsigned values to larger type
+	 * @return dataset or null if slice lies outside dataset or needs a different type
+	 */
+	Dataset read(final int[] start, final int[] count, final int[] step, final int dtype, final boolean extend) {
+		final int rank = shape.length;
+		if (dtype >= 0 && dtype != this.dtype) {
+			return null;
+		}
+		if (start.length != rank || count.length != rank || step.length != rank) {
+			return null;
+		}
+		boolean empty = false;
+		for (int i = 0; i < rank; i++) {
+			if (count[i] <= 0) {
+				empty = true;
+			} else if (step[i] <= 0 || start[i] < 0 || start[i] + (count[i] - 1L) * step[i] >= shape[i]) {
+				return null;
+			}
+		}
+
+		Dataset data = DatasetFactory.zeros(1, count, this.dtype);
+		if (!empty) {
+			Object buffer = data.getBuffer();
+			final int last = rank - 1;
+			final int n = count[last];
+			final int[] pos = new int[rank];
+			int index = 0;
+			while (true) {
+				long item = start[last];
+				for (int i = 0; i < last; i++) {
+					item += (start[i] + (long) pos[i] * step[i]) * strides[i];
+				}
+				copy(item, n, step[last], buffer, index);
+				index += n;
+
+				int d = last - 1;
+				while (d >= 0 && ++pos[d] >= count[d]) {
+					pos[d] = 0;
+					d--;
+				}
+				if (d < 0) {
+					break;
+				}
+			}
+		}
+
+		return extend ? DatasetUtils.makeUnsigned(data) : data;
+	}
+
+	/**
+	 * Copy items from mapping
+	 * @param item index of first item
+	 * @param n number of items
+	 * @param step
+	 * @param buffer destination
+	 * @param index position in destination
+	 */
+	private void copy(long item, int n, int step, Object buffer, int index) {
+		if (step == 1) {
+			while (n > 0) {
+				int s = (int) (item / segmentItems);
+				int i = (int) (item % segmentItems);
+				int m = (int) Math.min(n, segmentItems - i);
+				ByteBuffer b = segments[s].duplicate().order(order); // as positions are changed
+				b.position(i * itemSize);
+				if (buffer instanceof double[]) {
+					b.asDoubleBuffer().get((double[]) buffer, index, m);
+				} else if (buffer instanceof float[]) {
+					b.asFloatBuffer().get((float[]) buffer, index, m);
+				} else if (buffer instanceof long[]) {
+					b.asLongBuffer().get((long[]) buffer, index, m);
+				} else if (buffer instanceof int[]) {
+					b.asIntBuffer().get((int[]) buffer, index, m);
+				} else if (buffer instanceof short[]) {
+					b.asShortBuffer().get((short[]) buffer, index, m);
+				} else {
+					b.get((byte[]) buffer, index, m);
+				}
+				item += m;
+				index += m;
+				n -= m;
+			}
+			return;
+		}
+
+		for (int j = 0; j < n; j++, item += step) {
+			ByteBuffer b = segments[(int) (item / segmentItems)];
+			int i = (int) (item % segmentItems) * itemSize;
+			if (buffer instanceof double[]) {
+				((double[]) buffer)[index + j] = b.getDouble(i);
+			} else if (buffer instanceof float[]) {
+				((float[]) buffer)[index + j] = b.getFloat(i);
+			} else if (buffer instanceof long[]) {
+				((long[]) buffer)[index + j] = b.getLong(i);
+			} else if (buffer instanceof int[]) {
+				((int[]) buffer)[index + j] = b.getInt(i);
+			} else if (buffer instanceof short[]) {
+				((short[]) buffer)[index + j] = b.getShort(i);
+			} else {
+				((byte[]) buffer)[index + j] = b.get(i);
+			}
+		}
+	}
+}
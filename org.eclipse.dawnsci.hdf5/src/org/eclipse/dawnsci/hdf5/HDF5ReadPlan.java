@@ -0,0 +1,160 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.hdf5;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plan of hyperslab reads for a slice of a chunked dataset.
+ * <p>
+ * The slice is split into blocks whose boundaries are aligned with chunk boundaries so no chunk is
+ * read by more than one block. Each block is a regular hyperslab in the file and a contiguous
+ * hyperslab in the destination so it can be read straight into the destination buffer. The number
+ * of chunks covered by each block is limited as HDF5 holds a selection for every chunk touched by
+ * a read.
+ */
+class HDF5ReadPlan {
+
+	/**
+	 * Default maximum number of chunks covered by a read
+	 */
+	static final long MAX_CHUNKS = 1024;
+
+	/**
+	 * Hyperslab read
+	 */
+	static class Block {
+		final long[] start; // in file
+		final long[] stride;
+		final long[] count;
+		final long[] offset; // in destination
+
+		private Block(int rank) {
+			start = new long[rank];
+			stride = new long[rank];
+			count = new long[rank];
+			offset = new long[rank];
+		}
+	}
+
+	private final List<Block> blocks;
+
+	/**
+	 * @param chunk chunk shape (can be null if dataset is not chunked)
+	 * @param start
+	 * @param count
+	 * @param step
+	 * @param maxChunks maximum number of chunks covered by each block
+	 */
+	HDF5ReadPlan(final long[] chunk, final int[] start, final int[] count, final int[] step, final long maxChunks) {
+		final int rank = count.length;
+		blocks = new ArrayList<>();
+		if (chunk == null) {
+			addBlock(start, count, step, new int[rank], count);
+			return;
+		}
+
+		// find chunk boundaries along each axis
+		final int[][] bounds = new int[rank][];
+		double total = 1;
+		for (int i = 0; i < rank; i++) {
+			bounds[i] = findBoundaries(chunk[i], start[i], count[i], step[i]);
+			total *= bounds[i].length - 1;
+		}
+		if (total <= maxChunks) {
+			addBlock(start, count, step, new int[rank], count);
+			return;
+		}
+
+		// split along axis where chunks of trailing axes fit and group its chunks
+		int a = rank - 1;
+		long inner = 1;
+		while (inner * (bounds[a].length - 1) <= maxChunks) {
+			inner *= bounds[a].length - 1;
+			a--;
+		}
+		final int group = (int) Math.max(1, maxChunks / inner);
+
+		final int[] k = new int[a + 1]; // chunk index for each split axis
+		final int[] kStart = new int[rank];
+		final int[] kCount = count.clone();
+		while (true) {
+			for (int i = 0; i <= a; i++) {
+				final int[] b = bounds[i];
+				final int e = i == a ? Math.min(k[i] + group, b.length - 1) : k[i] + 1;
+				kStart[i] = b[k[i]];
+				kCount[i] = b[e] - b[k[i]];
+			}
+			addBlock(start, count, step, kStart, kCount);
+
+			int i = a;
+			for (; i >= 0; i--) {
+				k[i] += i == a ? group : 1;
+				if (k[i] < bounds[i].length - 1) {
+					break;
+				}
+				k[i] = 0;
+			}
+			if (i < 0) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * @param c chunk size
+	 * @param s start
+	 * @param n count
+	 * @param d step
+	 * @return indexes of slice positions where a new chunk is entered, followed by count
+	 */
+	static int[] findBoundaries(final long c, final int s, final int n, final int d) {
+		if (n <= 0) {
+			return new int[] {0, 0};
+		}
+		if (c <= 1 || d >= c) { // every position in its own chunk
+			final int[] b = new int[n + 1];
+			for (int j = 0; j <= n; j++) {
+				b[j] = j;
+			}
+			return b;
+		}
+
+		final int first = (int) (s / c);
+		final int last = (int) ((s + (n - 1L) * d) / c);
+		final int[] b = new int[last - first + 2];
+		for (int j = 1; j < b.length - 1; j++) {
+			final long p = (first + j) * c; // first position in chunk
+			b[j] = (int) ((p - s + d - 1) / d);
+		}
+		b[b.length - 1] = n;
+		return b;
+	}
+
+	private void addBlock(final int[] start, final int[] count, final int[] step, final int[] kStart, final int[] kCount) {
+		final int rank = count.length;
+		final Block b = new Block(rank);
+		for (int i = 0; i < rank; i++) {
+			b.start[i] = start[i] + (long) kStart[i] * step[i];
+			b.stride[i] = step[i];
+			b.count[i] = kCount[i];
+			b.offset[i] = kStart[i];
+		}
+		blocks.add(b);
+	}
+
+	/**
+	 * @return blocks to read
+	 */
+	List<Block> getBlocks() {
+		return blocks;
+	}
+}
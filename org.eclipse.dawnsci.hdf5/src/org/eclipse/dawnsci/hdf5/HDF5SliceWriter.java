@@ -0,0 +1,76 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.hdf5;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writer thread for slices set on HDF5 lazy savers in write-behind mode. Writes are done in
+ * the order they are submitted and submitting blocks when too many writes are waiting
+ */
+class HDF5SliceWriter {
+	private static final Logger logger = LoggerFactory.getLogger(HDF5SliceWriter.class);
+
+	/**
+	 * Maximum number of writes waiting
+	 */
+	static final int QUEUE_SIZE = 32;
+
+	private static HDF5SliceWriter writer;
+
+	private final BlockingQueue<FutureTask<Void>> queue;
+
+	private HDF5SliceWriter() {
+		queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				while (true) {
+					try {
+						queue.take().run();
+					} catch (InterruptedException e) {
+						logger.warn("HDF5 slice writer interrupted", e);
+					}
+				}
+			}
+		}, "HDF5 slice writer");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * @return shared writer
+	 */
+	static synchronized HDF5SliceWriter getWriter() {
+		if (writer == null) {
+			writer = new HDF5SliceWriter();
+		}
+		return writer;
+	}
+
+	/**
+	 * Submit write, waiting if queue is full
+	 * @param write
+	 * @return future that completes when write is done
+	 * @throws InterruptedException
+	 */
+	Future<Void> submit(Callable<Void> write) throws InterruptedException {
+		FutureTask<Void> task = new FutureTask<>(write);
+		queue.put(task);
+		return task;
+	}
+}
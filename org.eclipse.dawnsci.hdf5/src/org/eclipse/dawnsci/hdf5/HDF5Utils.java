@@ -31,9 +31,9 @@ import org.eclipse.dawnsci.analysis.dataset.impl.Dataset;
 import org.eclipse.dawnsci.analysis.dataset.impl.DatasetFactory;
 import org.eclipse.dawnsci.analysis.dataset.impl.DatasetUtils;
 import org.eclipse.dawnsci.analysis.dataset.impl.LazyWriteableDataset;
-import org.eclipse.dawnsci.analysis.dataset.impl.PositionIterator;
 import org.eclipse.dawnsci.nexus.NexusException;
 import org.eclipse.dawnsci.nexus.NexusFile;
+import org.eclipse.dawnsci.nexus.NexusFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,11 +44,30 @@ import ncsa.hdf.hdf5lib.exceptions.HDF5Exception;
 import ncsa.hdf.hdf5lib.exceptions.HDF5LibraryException;
 import ncsa.hdf.hdf5lib.structs.H5O_info_t;
 import ncsa.hdf.object.Datatype;
-import ncsa.hdf.object.h5.H5Datatype;
 
 public class HDF5Utils {
 	private static final Logger logger = LoggerFactory.getLogger(HDF5Utils.class);
 
+	private static boolean filterFallback = Boolean.getBoolean("org.eclipse.dawnsci.hdf5.filterFallback");
+
+	/**
+	 * @return true if a mandatory filter whose plugin is not available is replaced by built-in filters on writing
+	 */
+	public static synchronized boolean isFilterFallback() {
+		return filterFallback;
+	}
+
+	/**
+	 * Set whether a mandatory filter whose plugin is not available is replaced by built-in filters
+	 * rather than failing when a dataset is created. The dataset is then written with the replacement
+	 * filters, not the requested one, so it is compressed differently (and usually more slowly). This
+	 * is off by default, or set with the system property org.eclipse.dawnsci.hdf5.filterFallback
+	 * @param fallback
+	 */
+	public static synchronized void setFilterFallback(boolean fallback) {
+		filterFallback = fallback;
+	}
+
 	/**
 	 * Create a dataset from the given data object
 	 * @param data
@@ -311,6 +330,11 @@ public class HDF5Utils {
 	 * @throws NexusException
 	 */
 	public static int[][] readDatasetShape(long fileID, String dataPath) throws NexusException {
+		HDF5DatasetCache cache = HDF5FileFactory.getDatasetCache(fileID);
+		if (cache != null) { // shape is refreshed so reopen dataset for next read
+			cache.invalidate(dataPath);
+		}
+
 		long hdfDatasetId = -1;
 		try {
 			try {
@@ -376,218 +400,98 @@ public class HDF5Utils {
 	public static Dataset readDataset(long fid, final String node, final int[] start, final int[] count,
 			final int[] step, final int dtype, final int isize, final boolean extend)
 					throws NexusException {
-		Dataset data = null;
-
+		HDF5DatasetCache cache = HDF5FileFactory.getDatasetCache(fid);
+		HDF5DatasetCache.Entry entry = null;
 		try {
-			H5O_info_t info = H5.H5Oget_info_by_name(fid, node, HDF5Constants.H5P_DEFAULT);
-			int t = info.type;
-			if (t != HDF5Constants.H5O_TYPE_DATASET) {
-				logger.error("Node {} was not a dataset", node);
-				return data;
+			entry = cache == null ? HDF5DatasetCache.open(fid, node) : cache.acquire(fid, node);
+			if (entry == null) {
+				return null;
+			}
+			return readDataset(entry, start, count, step, dtype, isize, extend);
+		} finally {
+			if (entry != null) {
+				if (cache == null) {
+					entry.close();
+				} else {
+					cache.release(entry);
+				}
 			}
-		} catch (HDF5Exception ex) {
-			logger.error("Could not find info about object {}" + node);
-			return data;
 		}
+	}
+
+	/**
+	 * Read dataset from open dataset
+	 * @param entry
+	 * @param start
+	 * @param count
+	 * @param step
+	 * @param dtype (can be -1 for dataset type from file)
+	 * @param isize (can be -1 for item size from file)
+	 * @param extend
+	 * @return dataset
+	 * @throws NexusException
+	 */
+	private static Dataset readDataset(HDF5DatasetCache.Entry entry, final int[] start, final int[] count,
+			final int[] step, final int dtype, final int isize, final boolean extend)
+					throws NexusException {
+		Dataset data = null;
 
-		long did = -1;
-		long tid = -1;
-		long ntid = -1;
+		final long did = entry.did;
+		final long tid = entry.tid;
+		final DatasetType type = entry.type;
 		try {
-			did = H5.H5Dopen(fid, node, HDF5Constants.H5P_DEFAULT);
-			tid = H5.H5Dget_type(did);
-			ntid = H5.H5Tget_native_type(tid);
-			DatasetType type = getDatasetType(tid, ntid);
-			long sid = -1, pid = -1;
-			int rank;
+			if (!entry.contains(start, count, step)) {
+				entry.refresh(); // dataset may have been extended
+			}
+
+			long sid = -1;
+			long msid = -1;
 			boolean isText, isVLEN; //, isUnsigned = false;
 //				boolean isEnum, isRegRef, isNativeDatatype;
-			long[] dims;
-
-			// create a new scalar dataset
 
 			try {
-				pid = H5.H5Dget_create_plist(did);
-
 				sid = H5.H5Dget_space(did);
 
-				rank = H5.H5Sget_simple_extent_ndims(sid);
-
+				final int rank = entry.rank;
 				isText = type.dtype == Dataset.STRING;
 				isVLEN = type.vlen;
 
 				final int ldtype = dtype >= 0 ? dtype : type.dtype;
 				final int lisize = isize >= 0 ? isize : type.isize;
 
-				if (rank == 0) {
-					// a single data point
-					rank = 1;
-					dims = new long[1];
-					dims[0] = 1;
-				} else {
-					dims = new long[rank];
-					H5.H5Sget_simple_extent_dims(sid, dims, null);
-				}
-
-				long[] schunk = null; // source chunking
-
-				try {
-					if (H5.H5Pget_layout(pid) == HDF5Constants.H5D_CHUNKED) {
-						schunk = new long[rank];
-						H5.H5Pget_chunk(pid, rank, schunk);
-					}
-				} catch (HDF5Exception ex) {
-					logger.error("Could not get chunk size");
-					throw new NexusException("Could not get chunk size", ex);
-				}
-
-				final long[] sstart = new long[rank]; // source start
-				final long[] sstride = new long[rank]; // source steps
 				final long[] dsize = new long[rank]; // destination size
-
 				for (int i = 0; i < rank; i++) {
-					sstart[i] = start[i];
-					sstride[i] = step[i];
 					dsize[i] = count[i];
 				}
 
-				boolean all = false;
-				if (schunk == null) {
-					all = true;
-				} else {
-					if (Arrays.equals(dims, schunk)) {
-						all = true;
-					} else {
-						int j = rank - 1; // find last chunked dimension that is sliced across
-						while (j >= 0) {
-							if (schunk[j] > 1 && dsize[j] <= 1)
-								break;
-							j--;
-						}
-						all = j < 0;
-					}
-				}
-				if (schunk == null || all) {
-					H5.H5Sselect_hyperslab(sid, HDF5Constants.H5S_SELECT_SET, sstart, sstride, dsize, null);
-//						long length = 1;
-//						for (int i = 0; i < rank; i++)
-//							length *= count[i];
-//
-//						long msid = H5.H5Screate_simple(1, new long[] {length}, null);
-					long msid = H5.H5Screate_simple(rank, dsize, null);
-					H5.H5Sselect_all(msid);
-					data = DatasetFactory.zeros(lisize, count, ldtype);
-					Object odata = data.getBuffer();
-
-					boolean isREF = H5.H5Tequal(tid, HDF5Constants.H5T_STD_REF_OBJ);
+				// VLEN strings are read in one go as unselected items would be overwritten
+				HDF5ReadPlan plan = new HDF5ReadPlan(isVLEN ? null : entry.chunk, start, count, step, HDF5ReadPlan.MAX_CHUNKS);
+				data = DatasetFactory.zeros(lisize, count, ldtype);
+				Object odata = data.getBuffer();
+
+				msid = H5.H5Screate_simple(rank, dsize, null);
+				for (HDF5ReadPlan.Block b : plan.getBlocks()) {
+					H5.H5Sselect_hyperslab(sid, HDF5Constants.H5S_SELECT_SET, b.start, b.stride, b.count, null);
+					H5.H5Sselect_hyperslab(msid, HDF5Constants.H5S_SELECT_SET, b.offset, null, b.count, null);
 					if (isVLEN) {
 						H5.H5Dread_VLStrings(did, tid, msid, sid, HDF5Constants.H5P_DEFAULT, (Object[]) odata);
 					} else {
 						H5.H5Dread(did, tid, msid, sid, HDF5Constants.H5P_DEFAULT, odata);
-
-						if (odata instanceof byte[] && ldtype != Dataset.INT8) {
-							// TODO check if this is actually used
-							Object idata = null;
-							byte[] bdata = (byte[]) odata;
-							if (isText) {
-								idata = ncsa.hdf.object.Dataset.byteToString(bdata, (int) H5.H5Tget_size(tid));
-							} else if (isREF) {
-								idata = HDFNativeData.byteToLong(bdata);
-							}
-
-							if (idata != null) {
-								data = createDataset(idata, count, ldtype, false); // extend later, if necessary
-							}
-						}
-					}
-				} else {
-					// read in many split chunks
-					final boolean[] isSplit = new boolean[rank];
-					final long[] send = new long[rank];
-					int length = 1;
-					for (int i = 0; i < rank; i++) {
-						send[i] = sstart[i] + count[i] * step[i];
-						isSplit[i] = schunk[i] <= 1 && dsize[i] > 1;
-						if (isSplit[i]) {
-							dsize[i] = 1;
-						} else {
-							length *= dsize[i];
-						}
 					}
-					if (length == 1) { // if just single point then bulk up request
-						for (int i = rank - 1; i >= 0; i--) {
-							int l = count[i];
-							if (l > 1) {
-								dsize[i] = l;
-								length = l;
-								isSplit[i] = false;
-								break;
-							}
-						}
-					}
-					final List<Integer> notSplit = new ArrayList<Integer>();
-					for (int i = 0; i < rank; i++) {
-						if (!isSplit[i])
-							notSplit.add(i);
-					}
-					final int[] axes = new int[notSplit.size()];
-					for (int i = 0; i < axes.length; i++) {
-						axes[i] = notSplit.get(i);
-					}
-					data = DatasetFactory.zeros(count, ldtype);
-					Object odata;
-					try {
-						odata = H5Datatype.allocateArray(tid, length);
-					} catch (OutOfMemoryError err) {
-						logger.error("Out of memory", err);
-						throw new NexusException("Out Of Memory", err);
+				}
+
+				if (odata instanceof byte[] && ldtype != Dataset.INT8) {
+					// TODO check if this is actually used
+					Object idata = null;
+					byte[] bdata = (byte[]) odata;
+					if (isText) {
+						idata = ncsa.hdf.object.Dataset.byteToString(bdata, (int) H5.H5Tget_size(tid));
+					} else if (entry.isRef) {
+						idata = HDFNativeData.byteToLong(bdata);
 					}
-//						long msid = H5.H5Screate_simple(1, new long[] {length}, null);
-					long msid = H5.H5Screate_simple(rank, dsize, null);
-					H5.H5Sselect_all(msid);
-
-					PositionIterator it = data.getPositionIterator(axes);
-					final int[] pos = it.getPos();
-					final boolean[] hit = it.getOmit();
-					while (it.hasNext()) {
-						H5.H5Sselect_hyperslab(sid, HDF5Constants.H5S_SELECT_SET, sstart, sstride, dsize, null);
-						boolean isREF = H5.H5Tequal(tid, HDF5Constants.H5T_STD_REF_OBJ);
-						Object idata;
-						if (isVLEN) {
-							H5.H5Dread_VLStrings(did, tid, msid, sid, HDF5Constants.H5P_DEFAULT, (Object[]) odata);
-							idata = odata;
-						} else {
-							H5.H5Dread(did, tid, msid, sid, HDF5Constants.H5P_DEFAULT, odata);
-
-							if (odata instanceof byte[] && ldtype != Dataset.INT8) {
-								// TODO check if this is actually used
-								byte[] bdata = (byte[]) odata;
-								if (isText) {
-									idata = ncsa.hdf.object.Dataset.byteToString(bdata, (int) H5.H5Tget_size(tid));
-								} else if (isREF) {
-									idata = HDFNativeData.byteToLong(bdata);
-								} else {
-									idata = odata;
-								}
-							} else {
-								idata = odata;
-							}
-						}
 
-						data.setItemsOnAxes(pos, hit, idata);
-						int j = rank - 1;
-						for (; j >= 0; j--) {
-							if (isSplit[j]) {
-								sstart[j] += sstride[j];
-								if (sstart[j] >= send[j]) {
-									sstart[j] = start[j];
-								} else {
-									break;
-								}
-							}
-						}
-						if (j == -1)
-							break;
+					if (idata != null) {
+						data = createDataset(idata, count, ldtype, false); // extend later, if necessary
 					}
 				}
 				if (extend) {
@@ -597,41 +501,22 @@ public class HDF5Utils {
 				logger.error("Could not get data space information", ex);
 				throw new NexusException("Could not get data space information", ex);
 			} finally {
-				if (sid != -1) {
+				if (msid != -1) {
 					try {
-						H5.H5Sclose(sid);
+						H5.H5Sclose(msid);
 					} catch (HDF5Exception ex2) {
 					}
 				}
-				if (pid != -1) {
+				if (sid != -1) {
 					try {
-						H5.H5Pclose(pid);
-					} catch (HDF5Exception ex) {
+						H5.H5Sclose(sid);
+					} catch (HDF5Exception ex2) {
 					}
 				}
 			}
 		} catch (HDF5Exception ex) {
-			logger.error("Could not open dataset", ex);
-			throw new NexusException("Could not open dataset", ex);
-		} finally {
-			if (ntid != -1) {
-				try {
-					H5.H5Tclose(ntid);
-				} catch (HDF5Exception ex) {
-				}
-			}
-			if (tid != -1) {
-				try {
-					H5.H5Tclose(tid);
-				} catch (HDF5Exception ex) {
-				}
-			}
-			if (did != -1) {
-				try {
-					H5.H5Dclose(did);
-				} catch (HDF5Exception ex) {
-				}
-			}
+			logger.error("Could not read dataset", ex);
+			throw new NexusException("Could not read dataset", ex);
 		}
 
 		return data;
@@ -796,6 +681,23 @@ public class HDF5Utils {
 	 */
 	public static void createDataset(long fileID, int compression, String dataPath, int dtype, int[] iShape, int[] iMaxShape, int[] iChunks,
 			Object fillValue) throws NexusException {
+		createDataset(fileID, NexusFilter.getFilters(compression), dataPath, dtype, iShape, iMaxShape, iChunks, fillValue);
+	}
+
+	/**
+	 * Create a dataset in given file ID
+	 * @param fileID
+	 * @param filters pipeline of filters (chunks must be given if any filter is used)
+	 * @param dataPath
+	 * @param dtype
+	 * @param iShape
+	 * @param iMaxShape
+	 * @param iChunks
+	 * @param fillValue
+	 * @throws NexusException
+	 */
+	public static void createDataset(long fileID, NexusFilter[] filters, String dataPath, int dtype, int[] iShape, int[] iMaxShape, int[] iChunks,
+			Object fillValue) throws NexusException {
 		long[] shape = toLongArray(iShape);
 		long[] maxShape = toLongArray(iMaxShape);
 		long[] chunks = toLongArray(iChunks);
@@ -822,18 +724,7 @@ public class HDF5Utils {
 					H5.H5Pset_layout(hdfPropertiesId, HDF5Constants.H5D_CHUNKED);
 					H5.H5Pset_chunk(hdfPropertiesId, chunks.length, chunks);
 				}
-				int deflateLevel = 0;
-				switch (compression) {
-				case NexusFile.COMPRESSION_LZW_L1:
-					deflateLevel = 1;
-					break;
-				default:
-					compression = NexusFile.COMPRESSION_NONE;
-					break;
-				}
-				if (compression != NexusFile.COMPRESSION_NONE) {
-					H5.H5Pset_deflate(hdfPropertiesId, deflateLevel);
-				}
+				setFilters(hdfPropertiesId, filters);
 				long hdfDatasetId = -1;
 				try {
 					hdfDatasetId = H5.H5Dcreate(fileID, dataPath, hdfDatatypeId, hdfDataspaceId,
@@ -872,6 +763,93 @@ public class HDF5Utils {
 		}
 	}
 
+	/**
+	 * Set pipeline of filters in a dataset creation property list. A registered filter whose plugin
+	 * is not available is set as optional if it was so requested. Otherwise it is an error unless
+	 * {@link #setFilterFallback(boolean)} allows it to be replaced by the built-in filters from
+	 * {@link #getBuiltInFilters(NexusFilter)}
+	 * @param dcpl dataset creation property list
+	 * @param filters (can be null)
+	 * @throws HDF5Exception
+	 * @throws NexusException if a mandatory filter is not available and is not to be replaced
+	 */
+	public static void setFilters(long dcpl, NexusFilter... filters) throws HDF5Exception, NexusException {
+		if (filters == null) {
+			return;
+		}
+		for (NexusFilter f : filters) {
+			if (f.isBuiltIn() || H5.H5Zfilter_avail(f.getId()) > 0) {
+				setFilter(dcpl, f);
+			} else if (f.isOptional()) {
+				logger.warn("Filter {} is not available so will be skipped on writing", f);
+				setFilter(dcpl, f);
+			} else {
+				NexusFilter[] replacements = isFilterFallback() ? getBuiltInFilters(f) : null;
+				if (replacements == null) {
+					throw new NexusException("Filter " + f + " is not available: install its HDF5 plugin or make it optional");
+				}
+				logger.warn("Filter {} is not available so using {} instead", f, Arrays.toString(replacements));
+				for (NexusFilter r : replacements) {
+					setFilter(dcpl, r);
+				}
+			}
+		}
+	}
+
+	private static void setFilter(long dcpl, NexusFilter f) throws HDF5Exception {
+		int[] parameters = f.getParameters();
+		switch (f.getId()) {
+		case NexusFilter.DEFLATE_ID:
+			H5.H5Pset_deflate(dcpl, parameters[0]);
+			break;
+		case NexusFilter.SHUFFLE_ID:
+			H5.H5Pset_shuffle(dcpl);
+			break;
+		case NexusFilter.SCALEOFFSET_ID:
+			H5.H5Pset_scaleoffset(dcpl, parameters[0] == NexusFilter.SCALEOFFSET_INT ? HDF5Constants.H5Z_SO_INT :
+				HDF5Constants.H5Z_SO_FLOAT_DSCALE, parameters[1]);
+			break;
+		default:
+			H5.H5Pset_filter(dcpl, f.getId(), f.isOptional() ? HDF5Constants.H5Z_FLAG_OPTIONAL : HDF5Constants.H5Z_FLAG_MANDATORY,
+					parameters.length, parameters);
+			break;
+		}
+	}
+
+	/**
+	 * Get built-in filters that can stand in for a filter whose plugin is not available. These
+	 * trade some speed for the same kind of compression: shuffle for bit or byte shuffling and
+	 * fast deflate for LZ4 and other fast compressors
+	 * @param filter
+	 * @return replacement filters or null if there are none
+	 */
+	static NexusFilter[] getBuiltInFilters(NexusFilter filter) {
+		if (filter.isBuiltIn()) {
+			return new NexusFilter[] {filter};
+		}
+		int[] parameters = filter.getParameters();
+		switch (filter.getId()) {
+		case NexusFilter.LZ4_ID:
+			return new NexusFilter[] {NexusFilter.deflate(1)};
+		case NexusFilter.BITSHUFFLE_ID:
+			boolean lz4 = parameters.length > 1 && parameters[parameters.length - 1] == NexusFilter.BITSHUFFLE_LZ4;
+			return lz4 ? new NexusFilter[] {NexusFilter.shuffle(), NexusFilter.deflate(1)} :
+				new NexusFilter[] {NexusFilter.shuffle()};
+		case NexusFilter.BLOSC_ID:
+			int level = parameters.length > 4 ? parameters[4] : 1;
+			List<NexusFilter> filters = new ArrayList<>();
+			if (parameters.length > 5 && parameters[5] > 0) {
+				filters.add(NexusFilter.shuffle());
+			}
+			if (level > 0) {
+				filters.add(NexusFilter.deflate(level));
+			}
+			return filters.toArray(new NexusFilter[filters.size()]);
+		default:
+			return null;
+		}
+	}
+
 	/**
 	 * write a dataset in HDF5 file. Create the file if necessary
 	 * @param fileName
@@ -13,10 +13,12 @@ import java.io.File;
 import java.io.Serializable;
 import java.net.URI;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import ncsa.hdf.hdf5lib.H5;
@@ -60,9 +62,11 @@ import org.eclipse.dawnsci.hdf5.HDF5PropertiesResource;
 import org.eclipse.dawnsci.hdf5.HDF5Resource;
 import org.eclipse.dawnsci.hdf5.HDF5Utils;
 import org.eclipse.dawnsci.hdf5.HDF5Utils.DatasetType;
+import org.eclipse.dawnsci.nexus.ChunkAdvisor;
 import org.eclipse.dawnsci.nexus.NXobject;
 import org.eclipse.dawnsci.nexus.NexusException;
 import org.eclipse.dawnsci.nexus.NexusFile;
+import org.eclipse.dawnsci.nexus.NexusFilter;
 import org.eclipse.dawnsci.nexus.NexusNodeFactory;
 import org.eclipse.dawnsci.nexus.NexusUtils;
 import org.slf4j.Logger;
@@ -186,6 +190,10 @@ public class NexusFileHDF5 implements NexusFile {
 
 	private boolean useSWMR = false;
 
+	private boolean writeBehind = false;
+
+	private List<HDF5LazySaver> behindSavers = new ArrayList<HDF5LazySaver>(); // savers in write-behind mode
+
 	private static int DEF_FIXED_STRING_LENGTH = 1024;
 
 	public NexusFileHDF5(String path) {
@@ -197,6 +205,45 @@ public class NexusFileHDF5 implements NexusFile {
 		useSWMR  = enableSWMR;
 	}
 
+	/**
+	 * Set write-behind mode for datasets subsequently created. Slices set on these datasets are
+	 * gathered into blocks and written on a writer thread. All slices are written when the file
+	 * is flushed or closed
+	 * @param writeBehind
+	 */
+	public void setWriteBehind(boolean writeBehind) {
+		this.writeBehind = writeBehind;
+	}
+
+	private HDF5LazySaver prepareSaver(HDF5LazySaver saver) throws NexusException {
+		if (writeBehind) {
+			try {
+				saver.setWriteBehind(true);
+			} catch (Exception e) {
+				throw new NexusException("Could not set write-behind mode", e);
+			}
+			behindSavers.add(saver);
+		}
+		return saver;
+	}
+
+	private void flushSavers() throws NexusException {
+		NexusException error = null;
+		for (HDF5LazySaver s : behindSavers) {
+			try {
+				s.flush();
+			} catch (Exception e) {
+				logger.error("Could not write slices to {}", s, e);
+				if (error == null) {
+					error = new NexusException("Could not write slices to " + s, e);
+				}
+			}
+		}
+		if (error != null) {
+			throw error;
+		}
+	}
+
 	private void initializeTree() {
 		if (tree == null) {
 			tree = TreeFactory.createTreeFile(fileName.hashCode(), fileName);
@@ -681,8 +728,8 @@ public class NexusFileHDF5 implements NexusFile {
 		Object[] fill = getFillValue(datasetType);
 		if (writeable) {
 			lazyDataset = new LazyWriteableDataset(name, datasetType, iShape, iMaxShape, iChunks,
-					new HDF5LazySaver(null, fileName, path, name, iShape, itemSize,
-							datasetType, extendUnsigned, iMaxShape, iChunks, fill));
+					prepareSaver(new HDF5LazySaver(null, fileName, path, name, iShape, itemSize,
+							datasetType, extendUnsigned, iMaxShape, iChunks, fill)));
 		} else {
 			lazyDataset = new LazyDataset(name, datasetType, iShape,
 					new HDF5LazyLoader(null, fileName, path, name, iShape, itemSize,
@@ -788,63 +835,22 @@ public class NexusFileHDF5 implements NexusFile {
 		return getData(path);
 	}
 
-	private static final int MAX_CHUNK = 1024 * 1024; //default chunk cache is 1MB so we should fit in that.
-	private static final int MIN_CHUNK = 8 * 1024;
-	private static final int BASE_CHUNK = 16 * 1024;
-	private static final int UNLIMITED_DIM_ESTIMATE = 64; //we'd like this to be lower than typical detector sizes
-
-	//TODO: lustre might prefer larger chunks (1MB or 4MB)
-	//      we might want to reconsider this later as a result
+	/**
+	 * Estimate chunking for data written one item at a time along its unlimited dimensions
+	 * and read back in the same slices
+	 * @param shape
+	 * @param maxshape
+	 * @param typeSize
+	 * @return chunk shape
+	 */
 	private long[] estimateChunking(long[] shape, long[] maxshape, int typeSize) {
-		boolean fixedSize = true;
-		long[] chunk = new long[shape.length];
-		boolean[] fixedDims = new boolean[shape.length];
+		int[] expected = new int[shape.length];
 		for (int i = 0; i < shape.length; i++) {
-			fixedDims[i] = maxshape[i] == shape[i];
-			fixedSize &= fixedDims[i];
-			chunk[i] = maxshape[i] > 0 ? maxshape[i] : UNLIMITED_DIM_ESTIMATE; //we have to have *something* for unlimited dimensions
-		}
-		long rawDataSize = typeSize;
-		for (long c : chunk) {
-			rawDataSize *= c;
-			assert rawDataSize > 0;
-		}
-		//heuristic copied from h5py
-		//(2 << ... instead of 1 << ... because we want to "round up" the exponent)
-		long targetSize = BASE_CHUNK * (2 << (int) Math.log10(rawDataSize / (1024 * 1024)));
-		if (targetSize > MAX_CHUNK) {
-			targetSize = MAX_CHUNK;
-		} else if (targetSize < MIN_CHUNK) {
-			targetSize = MIN_CHUNK;
-		}
-
-		long chunkByteSize = rawDataSize;
-		//make sure we're over the minimum chunk size if possible
-		if (!fixedSize) {
-			while (chunkByteSize < targetSize) {
-				int count = 0;
-				for (int i = 0; i < chunk.length; i++) {
-					if (!fixedDims[i]) {
-						chunk[i] *= 2;
-						count++;
-					}
-				}
-				chunkByteSize <<= count;
-			}
-		}
-		int idx = 0;
-		//halve each axis in turn until we're under the maximum size, and smaller than the target size or within 50% of it
-		while ( !((chunkByteSize < targetSize || (chunkByteSize - targetSize) / (double)targetSize < 0.5) &&
-				chunkByteSize < MAX_CHUNK) ) {
-			chunk[idx] = (long)Math.ceil(chunk[idx] / 2.0);
-			chunkByteSize /= 2;
-			long p = 1;
-			for (long c : chunk) p *= c;
-			if (p == 1) break;
-			idx++;
-			idx %= chunk.length;
+			expected[i] = (int) (maxshape[i] > 0 ? maxshape[i] : (shape[i] > ChunkAdvisor.DEFAULT_UNLIMITED_SIZE ? shape[i] : 0));
 		}
-		return chunk;
+		ChunkAdvisor advisor = new ChunkAdvisor(HDF5Utils.toIntArray(maxshape), typeSize);
+		advisor.setExpectedShape(expected);
+		return HDF5Utils.toLongArray(advisor.getChunking());
 	}
 
 	@Override
@@ -855,6 +861,12 @@ public class NexusFileHDF5 implements NexusFile {
 	@Override
 	public DataNode createData(String path, String name, ILazyWriteableDataset data, int compression, boolean createPathIfNecessary)
 			throws NexusException {
+		return createData(path, name, data, createPathIfNecessary, NexusFilter.getFilters(compression));
+	}
+
+	@Override
+	public DataNode createData(String path, String name, ILazyWriteableDataset data, boolean createPathIfNecessary, NexusFilter... filters)
+			throws NexusException {
 		assertCanWrite();
 		NodeData parentNode = getGroupNode(path, createPathIfNecessary);
 		if (parentNode.name == null) {
@@ -926,17 +938,11 @@ public class NexusFileHDF5 implements NexusFile {
 					H5.H5Pset_layout(hdfPropertiesId, HDF5Constants.H5D_CHUNKED);
 					H5.H5Pset_chunk(hdfPropertiesId, chunks.length, chunks);
 				}
-				int deflateLevel = 0;
-				switch (compression) {
-				case COMPRESSION_LZW_L1:
-					deflateLevel = 1;
-					break;
-				default:
-					compression = COMPRESSION_NONE;
-					break;
-				}
-				if (compression != COMPRESSION_NONE) {
-					H5.H5Pset_deflate(hdfPropertiesId, deflateLevel);
+				if (filters != null && filters.length > 0) {
+					if (chunks == null) {
+						throw new NexusException("Filters can only be used with chunked data");
+					}
+					HDF5Utils.setFilters(hdfPropertiesId, filters);
 				}
 				long datasetId = H5.H5Dcreate(fileId, dataPath, hdfDatatypeId, hdfDataspaceId,
 						HDF5Constants.H5P_DEFAULT, hdfPropertiesId, HDF5Constants.H5P_DEFAULT);
@@ -946,8 +952,8 @@ public class NexusFileHDF5 implements NexusFile {
 			throw new NexusException("Could not create dataset", e);
 		}
 
-		HDF5LazySaver saver = new HDF5LazySaver(null, fileName, parentPath + Node.SEPARATOR + name, name,
-				iShape, itemSize, dataType, false, iMaxShape, iChunks, fillValue);
+		HDF5LazySaver saver = prepareSaver(new HDF5LazySaver(null, fileName, parentPath + Node.SEPARATOR + name, name,
+				iShape, itemSize, dataType, false, iMaxShape, iChunks, fillValue));
 		data.setSaver(saver);
 
 		DataNode dataNode = TreeFactory.createDataNode(dataPath.hashCode());
@@ -980,6 +986,12 @@ public class NexusFileHDF5 implements NexusFile {
 		return createData(path, name, data, compression, true);
 	}
 
+	@Override
+	public DataNode createData(GroupNode group, String name, ILazyWriteableDataset data, NexusFilter... filters) throws NexusException {
+		String path = getPath(group);
+		return createData(path, name, data, true, filters);
+	}
+
 	@Override
 	public DataNode createData(GroupNode group, ILazyWriteableDataset data) throws NexusException {
 		return createData(group, null, data);
@@ -1403,6 +1415,7 @@ public class NexusFileHDF5 implements NexusFile {
 		if (fileId == -1) {
 			return;
 		}
+		flushSavers();
 		try {
 			H5.H5Fflush(fileId, HDF5Constants.H5F_SCOPE_GLOBAL);
 		} catch (HDF5LibraryException e) {
@@ -1460,6 +1473,14 @@ public class NexusFileHDF5 implements NexusFile {
 		if (fileId == -1) {
 			return;
 		}
+		NexusException writeError = null;
+		try {
+			flushSavers();
+		} catch (NexusException e) {
+			writeError = e;
+		} finally {
+			behindSavers.clear();
+		}
 		try {
 			tryToCloseOpenObjects();
 			fileId = -1;
@@ -1476,6 +1497,9 @@ public class NexusFileHDF5 implements NexusFile {
 				throw new NexusException("Cannot release file", e);
 			}
 		}
+		if (writeError != null) {
+			throw writeError;
+		}
 	}
 
 	@Override
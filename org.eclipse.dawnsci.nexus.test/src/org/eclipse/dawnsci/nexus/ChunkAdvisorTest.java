@@ -0,0 +1,234 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.nexus;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.dawnsci.analysis.api.dataset.ILazyWriteableDataset;
+import org.junit.Test;
+
+public class ChunkAdvisorTest {
+
+	private static final int UNLIMITED = ILazyWriteableDataset.UNLIMITED;
+
+	private static long getBytes(int[] chunk, int itemSize) {
+		long bytes = itemSize;
+		for (int c : chunk) {
+			bytes *= c;
+		}
+		return bytes;
+	}
+
+	@Test
+	public void testTouches() {
+		assertEquals(1, ChunkAdvisor.getTouches(1, 8, 100), 1e-12);
+		assertEquals(10 / 3., ChunkAdvisor.getTouches(8, 3, 100), 1e-12);
+		assertEquals(1, ChunkAdvisor.getTouches(100, 128, 100), 1e-12);
+		assertEquals(8, ChunkAdvisor.getTouches(1000, 128, 1000), 1e-12);
+		assertEquals(1.25, ChunkAdvisor.getTouches(3, 8, 100), 1e-12); // 2 of every 8 slices span two chunks
+		assertEquals(1, ChunkAdvisor.getTouches(4, 8, 100), 1e-12);
+	}
+
+	@Test
+	public void testDefaultChunking() {
+		ChunkAdvisor advisor = new ChunkAdvisor(new int[] {UNLIMITED, 1000, 1000}, 8);
+		assertArrayEquals(new int[] {1, 128, 1000}, advisor.getChunking());
+
+		advisor = new ChunkAdvisor(new int[] {UNLIMITED, 4096, 4096}, 4);
+		int[] chunk = advisor.getChunking();
+		assertEquals(1, chunk[0]);
+		assertEquals(4096, chunk[2]);
+		assertTrue(getBytes(chunk, 4) <= ChunkAdvisor.DEFAULT_MAX_CHUNK_BYTES);
+
+		// points are gathered into chunks
+		advisor = new ChunkAdvisor(new int[] {UNLIMITED}, 8);
+		advisor.setExpectedShape(1000);
+		chunk = advisor.getChunking();
+		assertTrue(chunk[0] >= 64);
+		assertTrue(getBytes(chunk, 8) <= ChunkAdvisor.DEFAULT_MAX_CHUNK_BYTES);
+
+		// small items with no expected size still fill a minimum size
+		advisor = new ChunkAdvisor(new int[] {UNLIMITED}, 8);
+		assertArrayEquals(new int[] {4096}, advisor.getExpectedShape());
+		assertArrayEquals(new int[] {4096}, advisor.getChunking());
+		advisor = new ChunkAdvisor(new int[] {UNLIMITED, UNLIMITED}, 8);
+		assertArrayEquals(new int[] {64, 64}, advisor.getChunking());
+		advisor = new ChunkAdvisor(new int[] {UNLIMITED, 2}, 4);
+		assertArrayEquals(new int[] {4096, 2}, advisor.getExpectedShape());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBadPattern() {
+		ChunkAdvisor advisor = new ChunkAdvisor(new int[] {UNLIMITED, 100}, 4);
+		advisor.addReadPattern(1, 1);
+	}
+
+	@Test
+	public void testScanInfo() {
+		NexusScanInfo info = new NexusScanInfo();
+		info.setRank(2);
+		info.setShape(20, 20);
+		assertArrayEquals(new int[] {1, 1, 512, 512}, info.createChunk(512, 512)); // 2MB frame is not split
+		assertArrayEquals(new int[] {1, 1, 2048, 2048}, info.createChunk(2, new int[] {2048, 2048}));
+		assertArrayEquals(new int[] {1, 1, 512, 512}, info.createChunk(4, new int[] {512, 512}));
+		assertArrayEquals(new int[] {1, 1, 512, 512}, info.createChunkAdvisor(4, 512, 512).getChunking());
+
+		ChunkAdvisor advisor = info.createChunkAdvisor(4, 512, 512);
+		advisor.addReadPattern(1, 1, 1, 0, 0);
+		advisor.addReadPattern(1, 0, 0, 1, 1);
+		int[] chunk = advisor.getChunking();
+		assertArrayEquals(new int[] {20, 20, 512, 512}, advisor.getExpectedShape());
+		assertTrue("Pixel time-series should touch fewer chunks", chunk[2] * chunk[3] < 512 * 512);
+	}
+
+	/**
+	 * Replay slices that tile a dataset in order through a least recently used chunk cache
+	 * @return number of chunks touched and number of bytes moved
+	 */
+	private static long[] replay(int[] shape, int[] chunk, int[] unit, int itemSize, long cacheBytes, final boolean write) {
+		final int rank = shape.length;
+		final long chunkBytes = getBytes(chunk, itemSize);
+		final long capacity = cacheBytes / chunkBytes;
+		final long[] counts = new long[2];
+		final Set<Long> written = new HashSet<>();
+		Map<Long, Boolean> cache = new LinkedHashMap<Long, Boolean>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+				if (size() > capacity) {
+					if (write) {
+						counts[1] += chunkBytes;
+					}
+					return true;
+				}
+				return false;
+			}
+		};
+
+		int[] nchunks = new int[rank];
+		for (int i = 0; i < rank; i++) {
+			nchunks[i] = (shape[i] + chunk[i] - 1) / chunk[i];
+		}
+		int[] pos = new int[rank];
+		int[] lo = new int[rank];
+		int[] hi = new int[rank];
+		int[] index = new int[rank];
+		while (true) {
+			for (int i = 0; i < rank; i++) {
+				lo[i] = pos[i] / chunk[i];
+				hi[i] = (Math.min(pos[i] + unit[i], shape[i]) - 1) / chunk[i];
+				index[i] = lo[i];
+			}
+			while (true) {
+				long key = 0;
+				for (int i = 0; i < rank; i++) {
+					key = key * nchunks[i] + index[i];
+				}
+				counts[0]++;
+				if (cache.get(key) == null) {
+					if (!write || written.contains(key)) {
+						counts[1] += chunkBytes; // read (back) chunk
+					}
+					if (capacity > 0) {
+						cache.put(key, Boolean.TRUE);
+					} else if (write) {
+						counts[1] += chunkBytes;
+					}
+				}
+				if (write) {
+					written.add(key);
+				}
+				int d = rank - 1;
+				while (d >= 0 && ++index[d] > hi[d]) {
+					index[d] = lo[d];
+					d--;
+				}
+				if (d < 0) {
+					break;
+				}
+			}
+
+			int d = rank - 1;
+			while (d >= 0) {
+				pos[d] += unit[d];
+				if (pos[d] < shape[d]) {
+					break;
+				}
+				pos[d] = 0;
+				d--;
+			}
+			if (d < 0) {
+				break;
+			}
+		}
+		if (write) {
+			counts[1] += cache.size() * chunkBytes; // flush
+		}
+		return counts;
+	}
+
+	private static long[][] replayScan(String name, int[] shape, int[] chunk, int itemSize, int[]... units) {
+		long[][] results = new long[units.length][];
+		StringBuilder s = new StringBuilder(name).append(' ').append(Arrays.toString(chunk)).append(':');
+		for (int i = 0; i < units.length; i++) {
+			results[i] = replay(shape, chunk, units[i], itemSize, ChunkAdvisor.DEFAULT_CACHE_BYTES, i == 0);
+			s.append(String.format(" %s %d chunks %.1fMB;", i == 0 ? "write" : "read " + Arrays.toString(units[i]),
+					results[i][0], results[i][1] / (1024. * 1024)));
+		}
+		System.err.println(s);
+		return results;
+	}
+
+	@Test
+	public void testReplayAreaDetectorScan() {
+		int[] shape = {10, 10, 256, 256};
+		int[] frame = {1, 1, 256, 256};
+		int[] series = {10, 10, 1, 1};
+		ChunkAdvisor advisor = new ChunkAdvisor(new int[] {UNLIMITED, UNLIMITED, 256, 256}, 4);
+		advisor.setExpectedShape(shape);
+		advisor.addReadPattern(1, frame);
+		advisor.addReadPattern(1, series);
+		int[] chunk = advisor.getChunking();
+
+		long[][] naive = replayScan("Area detector frame chunks", shape, frame, 4, frame, frame, series);
+		long[][] advised = replayScan("Area detector advised chunks", shape, chunk, 4, frame, frame, series);
+		long frameBytes = getBytes(shape, 4);
+		assertTrue("Writes should not be amplified", advised[0][1] <= 2 * frameBytes);
+		assertTrue("Frame reads should not be amplified", advised[1][1] <= 2 * frameBytes);
+		assertTrue("Time-series reads should move much less", advised[2][1] * 100 < naive[2][1]);
+	}
+
+	@Test
+	public void testReplayFluorescenceMap() {
+		int[] shape = {32, 32, 4096};
+		int[] spectrum = {1, 1, 4096};
+		int[] map = {32, 32, 1};
+		ChunkAdvisor advisor = new ChunkAdvisor(new int[] {UNLIMITED, UNLIMITED, 4096}, 4);
+		advisor.setExpectedShape(shape);
+		advisor.addReadPattern(1, spectrum);
+		advisor.addReadPattern(1, map);
+		int[] chunk = advisor.getChunking();
+
+		long[][] naive = replayScan("Fluorescence spectrum chunks", shape, spectrum, 4, spectrum, spectrum, map);
+		long[][] advised = replayScan("Fluorescence advised chunks", shape, chunk, 4, spectrum, spectrum, map);
+		assertTrue("Writes should not be amplified", advised[0][1] <= naive[0][1]);
+		assertTrue("Spectrum reads should not be amplified", advised[1][1] <= naive[1][1]);
+		assertTrue("Map reads should move much less", advised[2][1] * 10 < naive[2][1]);
+	}
+}
@@ -0,0 +1,385 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.nexus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.eclipse.dawnsci.analysis.api.dataset.ILazyWriteableDataset;
+
+/**
+ * Advises on the chunk shape of a dataset given how it will be written and read
+ * <p>
+ * Data is written in units (e.g. one frame per scan point) and read in one or more patterns
+ * (e.g. whole frames or the time-series of a pixel). Each unit or pattern is a slice shape and
+ * slices are assumed to tile the dataset in order. For each pattern, a candidate chunk shape is
+ * costed by the number of bytes moved per byte of slice, with a fixed overhead for each chunk
+ * moved. A chunk that spans several slices is moved once if all the chunks partially accessed at
+ * a time fit in the chunk cache; otherwise it is moved for every slice (and, when writing, also
+ * read back). The logarithms of these costs are summed with weights,
+ * so a pattern's relative slowdown counts rather than its absolute cost, and the cheapest chunk
+ * shape no larger than the maximum chunk size is chosen. Ties go to the shape that is larger in
+ * its later dimensions.
+ */
+public class ChunkAdvisor {
+
+	/**
+	 * Size used for unlimited dimensions when no expected size is given
+	 */
+	public static final int DEFAULT_UNLIMITED_SIZE = 64;
+
+	/**
+	 * Minimum expected size of dataset in bytes. Unlimited dimensions with no expected size are
+	 * doubled from {@value #DEFAULT_UNLIMITED_SIZE} until the dataset is at least this large so
+	 * that small items are still gathered into reasonably sized chunks
+	 */
+	public static final long DEFAULT_MIN_DATASET_BYTES = 32 * 1024;
+
+	/**
+	 * Default maximum chunk size in bytes (the default chunk cache size)
+	 */
+	public static final long DEFAULT_MAX_CHUNK_BYTES = 1024 * 1024;
+
+	/**
+	 * Default chunk cache size in bytes
+	 */
+	public static final long DEFAULT_CACHE_BYTES = 1024 * 1024;
+
+	/**
+	 * Cost of touching a chunk (look up, seek and filter call) as equivalent number of bytes
+	 */
+	static final long CHUNK_OVERHEAD = 16 * 1024;
+
+	private static final double TOLERANCE = 1e-9;
+
+	private static class Pattern {
+		final double weight;
+		final int[] unit;
+
+		Pattern(double weight, int[] unit) {
+			this.weight = weight;
+			this.unit = unit;
+		}
+	}
+
+	private final int[] maxShape;
+	private final int itemSize;
+	private final int rank;
+	private int[] size; // expected size
+	private int[] writeUnit;
+	private double writeWeight = 1;
+	private final List<Pattern> reads = new ArrayList<>();
+	private long maxChunkBytes = DEFAULT_MAX_CHUNK_BYTES;
+	private long cacheBytes = DEFAULT_CACHE_BYTES;
+
+	/**
+	 * @param maxShape maximum shape of dataset (can contain {@link ILazyWriteableDataset#UNLIMITED})
+	 * @param itemSize size of each item in bytes
+	 */
+	public ChunkAdvisor(int[] maxShape, int itemSize) {
+		if (maxShape == null) {
+			throw new IllegalArgumentException("Maximum shape must be defined");
+		}
+		for (int m : maxShape) {
+			if (m <= 0 && m != ILazyWriteableDataset.UNLIMITED) {
+				throw new IllegalArgumentException("Maximum shape must have dimensions greater than zero or be unlimited");
+			}
+		}
+		if (itemSize <= 0) {
+			throw new IllegalArgumentException("Item size must be greater than zero");
+		}
+		this.maxShape = maxShape.clone();
+		this.itemSize = itemSize;
+		rank = maxShape.length;
+		setExpectedShape((int[]) null);
+	}
+
+	/**
+	 * Set expected final shape of dataset. This is used for unlimited dimensions
+	 * @param shape can be null (or have values less than one) to use {@value #DEFAULT_UNLIMITED_SIZE}
+	 * or more for unlimited dimensions (see {@link #DEFAULT_MIN_DATASET_BYTES})
+	 */
+	public void setExpectedShape(int... shape) {
+		if (shape != null && shape.length != rank) {
+			throw new IllegalArgumentException("Expected shape must have same rank as dataset");
+		}
+		size = new int[rank];
+		boolean[] unknown = new boolean[rank];
+		long bytes = itemSize;
+		for (int i = 0; i < rank; i++) {
+			if (maxShape[i] == ILazyWriteableDataset.UNLIMITED) {
+				unknown[i] = shape == null || shape[i] <= 0;
+				size[i] = unknown[i] ? DEFAULT_UNLIMITED_SIZE : shape[i];
+			} else {
+				size[i] = shape == null || shape[i] <= 0 ? maxShape[i] : Math.min(shape[i], maxShape[i]);
+			}
+			bytes *= size[i];
+		}
+
+		while (bytes < DEFAULT_MIN_DATASET_BYTES) {
+			int count = 0;
+			for (int i = 0; i < rank; i++) {
+				if (unknown[i]) {
+					size[i] *= 2;
+					count++;
+				}
+			}
+			if (count == 0) {
+				break;
+			}
+			bytes <<= count;
+		}
+	}
+
+	/**
+	 * @return expected final shape of dataset
+	 */
+	public int[] getExpectedShape() {
+		return size.clone();
+	}
+
+	/**
+	 * Set the shape of slice written in each call. By default, this is one item along each
+	 * unlimited dimension and the whole of other dimensions
+	 * @param unit slice shape where values less than one denote the whole dimension
+	 */
+	public void setWriteUnit(int... unit) {
+		writeUnit = checkUnit(unit);
+	}
+
+	/**
+	 * @param weight relative importance of write speed (default is one)
+	 */
+	public void setWriteWeight(double weight) {
+		if (weight < 0) {
+			throw new IllegalArgumentException("Weight must be non-negative");
+		}
+		writeWeight = weight;
+	}
+
+	/**
+	 * Add an expected read pattern. If none are added then data is expected to be read in
+	 * write units
+	 * @param weight relative importance of pattern
+	 * @param unit slice shape where values less than one denote the whole dimension
+	 */
+	public void addReadPattern(double weight, int... unit) {
+		if (weight < 0) {
+			throw new IllegalArgumentException("Weight must be non-negative");
+		}
+		reads.add(new Pattern(weight, checkUnit(unit)));
+	}
+
+	/**
+	 * @param bytes maximum size of chunk
+	 */
+	public void setMaxChunkBytes(long bytes) {
+		if (bytes < itemSize) {
+			throw new IllegalArgumentException("Maximum chunk size must be at least the item size");
+		}
+		maxChunkBytes = bytes;
+	}
+
+	/**
+	 * @param bytes size of chunk cache used when writing
+	 */
+	public void setCacheBytes(long bytes) {
+		if (bytes < 0) {
+			throw new IllegalArgumentException("Cache size must be non-negative");
+		}
+		cacheBytes = bytes;
+	}
+
+	private int[] checkUnit(int[] unit) {
+		if (unit == null || unit.length != rank) {
+			throw new IllegalArgumentException("Slice shape must have same rank as dataset");
+		}
+		return unit.clone();
+	}
+
+	private int[] getUnit(int[] unit) {
+		int[] u = new int[rank];
+		for (int i = 0; i < rank; i++) {
+			if (unit == null) {
+				u[i] = maxShape[i] == ILazyWriteableDataset.UNLIMITED ? 1 : size[i];
+			} else {
+				u[i] = unit[i] <= 0 ? size[i] : Math.min(unit[i], size[i]);
+			}
+		}
+		return u;
+	}
+
+	/**
+	 * @return chunk shape with least cost
+	 */
+	public int[] getChunking() {
+		int[][] candidates = new int[rank][];
+		List<int[]> units = new ArrayList<>();
+		units.add(getUnit(writeUnit));
+		for (Pattern p : reads) {
+			units.add(getUnit(p.unit));
+		}
+		for (int i = 0; i < rank; i++) {
+			TreeSet<Integer> set = new TreeSet<>();
+			for (int c = 1; c < size[i]; c <<= 1) {
+				set.add(c);
+			}
+			set.add(size[i]);
+			for (int[] u : units) {
+				set.add(u[i]);
+			}
+			candidates[i] = new int[set.size()];
+			int j = 0;
+			for (int c : set) {
+				candidates[i][j++] = c;
+			}
+		}
+
+		int[] chunk = new int[rank];
+		int[] best = new int[rank];
+		Arrays.fill(best, 1);
+		double[] bestCost = {getCost(best)};
+		search(candidates, 0, 1, chunk, best, bestCost);
+		return best;
+	}
+
+	private void search(int[][] candidates, int d, long items, int[] chunk, int[] best, double[] bestCost) {
+		if (d == rank) {
+			double cost = getCost(chunk);
+			if (cost < bestCost[0] - TOLERANCE || (cost <= bestCost[0] + TOLERANCE && isLaterLarger(chunk, best))) {
+				bestCost[0] = cost;
+				System.arraycopy(chunk, 0, best, 0, rank);
+			}
+			return;
+		}
+		for (int c : candidates[d]) {
+			long n = items * c;
+			if (c > 1 && n * itemSize > maxChunkBytes) {
+				break; // candidates are in ascending order
+			}
+			chunk[d] = c;
+			search(candidates, d + 1, n, chunk, best, bestCost);
+		}
+	}
+
+	/**
+	 * @return true if chunk a is larger than b in its last differing dimension
+	 */
+	private static boolean isLaterLarger(int[] a, int[] b) {
+		for (int i = a.length - 1; i >= 0; i--) {
+			if (a[i] != b[i]) {
+				return a[i] > b[i];
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @param chunk
+	 * @return weighted sum of logarithms of write and read costs
+	 */
+	public double getCost(int... chunk) {
+		if (chunk == null || chunk.length != rank) {
+			throw new IllegalArgumentException("Chunk must have same rank as dataset");
+		}
+		long chunkBytes = itemSize;
+		for (int c : chunk) {
+			chunkBytes *= c;
+		}
+		int[] unit = getUnit(writeUnit);
+		double cost = writeWeight * Math.log(getCost(unit, chunk, chunkBytes, true));
+		if (reads.isEmpty()) {
+			cost += Math.log(getCost(unit, chunk, chunkBytes, false));
+		} else {
+			for (Pattern p : reads) {
+				cost += p.weight * Math.log(getCost(getUnit(p.unit), chunk, chunkBytes, false));
+			}
+		}
+		return cost;
+	}
+
+	/**
+	 * @param unit
+	 * @param chunk
+	 * @return mean number of chunks touched by a slice
+	 */
+	double getTouches(int[] unit, int[] chunk) {
+		double t = 1;
+		for (int i = 0; i < rank; i++) {
+			t *= getTouches(unit[i], chunk[i], size[i]);
+		}
+		return t;
+	}
+
+	/**
+	 * @param u slice length
+	 * @param c chunk length
+	 * @param s dimension length
+	 * @return mean number of chunks touched along dimension by slices that start at multiples of their length
+	 */
+	static double getTouches(int u, int c, int s) {
+		int all = (s + c - 1) / c;
+		if (u >= s) {
+			return all;
+		}
+		return Math.min(all, (u + c - gcd(u, c)) / (double) c);
+	}
+
+	private static int gcd(int a, int b) {
+		while (b != 0) {
+			int t = a % b;
+			a = b;
+			b = t;
+		}
+		return a;
+	}
+
+	/**
+	 * @param unit
+	 * @param chunk
+	 * @param chunkBytes
+	 * @param write
+	 * @return bytes moved per byte of slice when slices are accessed in order
+	 */
+	private double getCost(int[] unit, int[] chunk, long chunkBytes, boolean write) {
+		double touches = getTouches(unit, chunk);
+		double moved = touches; // chunks moved per slice when they stay in cache
+		long open = 1; // number of chunks partially accessed
+		boolean partial = false;
+		for (int i = 0; i < rank; i++) {
+			if (partial) { // all chunks after first dimension where slices are thinner than chunks
+				open *= (size[i] + chunk[i] - 1) / chunk[i];
+			} else if (chunk[i] > unit[i]) {
+				partial = true;
+			} else {
+				open *= (long) Math.ceil(getTouches(unit[i], chunk[i], size[i]));
+			}
+			if (chunk[i] > unit[i]) {
+				moved *= unit[i] / (double) chunk[i];
+			}
+		}
+		if (partial && open * chunkBytes > cacheBytes) {
+			// chunks are evicted before they are finished with so each is moved again for every slice
+			// and, when writing, read back and rewritten
+			moved = write ? 2 * touches : touches;
+		}
+		return moved * (chunkBytes + CHUNK_OVERHEAD) / getBytes(unit);
+	}
+
+	private double getBytes(int[] unit) {
+		double b = itemSize;
+		for (int u : unit) {
+			b *= u;
+		}
+		return b;
+	}
+}
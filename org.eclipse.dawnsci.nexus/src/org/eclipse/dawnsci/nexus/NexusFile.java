@@ -192,6 +192,18 @@ public interface NexusFile extends AutoCloseable {
 	 */
 	public DataNode createData(String path, String name, ILazyWriteableDataset data, int compression, boolean createPathIfNecessary) throws NexusException;
 
+	/**
+	 * Create data node with given name and path to its group and create path if necessary
+	 * @param path to parent group
+	 * @param name name within parent group
+	 * @param data dataset
+	 * @param createPathIfNecessary
+	 * @param filters pipeline of filters applied to each chunk in order
+	 * @return node or null if data does not exist at specified path
+	 * @throws NexusException when node already exists or a filter cannot be used
+	 */
+	public DataNode createData(String path, String name, ILazyWriteableDataset data, boolean createPathIfNecessary, NexusFilter... filters) throws NexusException;
+
 	/**
 	 * Create data node with given path to its group and create path if necessary
 	 * @param path to group
@@ -252,6 +264,17 @@ public interface NexusFile extends AutoCloseable {
 	 */
 	public DataNode createData(GroupNode group, String name, ILazyWriteableDataset data, int compression) throws NexusException;
 
+	/**
+	 * Create data node with given name in given group
+	 * @param group parent group
+	 * @param name name within group
+	 * @param data dataset
+	 * @param filters pipeline of filters applied to each chunk in order
+	 * @return node
+	 * @throws NexusException when node already exists or a filter cannot be used
+	 */
+	public DataNode createData(GroupNode group, String name, ILazyWriteableDataset data, NexusFilter... filters) throws NexusException;
+
 	/**
 	 * Create data node in given group
 	 * @param group parent group
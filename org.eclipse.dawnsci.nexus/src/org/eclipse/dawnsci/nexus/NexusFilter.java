@@ -0,0 +1,248 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.nexus;
+
+import java.util.Arrays;
+
+/**
+ * Filter (compression or other transform) applied to each chunk of a dataset when it is written.
+ * Filters given when creating data in a {@link NexusFile} form a pipeline and are applied in
+ * the given order on writing (and the reverse on reading)
+ * <p>
+ * Filter IDs are those registered with the HDF Group. The shuffle, deflate and scale-offset
+ * filters are built in to the HDF5 library; other filters need a plugin which may not be present
+ * on all systems. An optional filter is skipped for chunks where it cannot be applied. Data written
+ * with a filter from a plugin can only be read where that plugin is installed.
+ */
+public class NexusFilter {
+
+	/**
+	 * Deflate (zlib) compression
+	 */
+	public static final int DEFLATE_ID = 1;
+
+	/**
+	 * Byte shuffle
+	 */
+	public static final int SHUFFLE_ID = 2;
+
+	/**
+	 * Scale-offset (lossy for floating point data)
+	 */
+	public static final int SCALEOFFSET_ID = 6;
+
+	/**
+	 * Blosc meta-compressor
+	 */
+	public static final int BLOSC_ID = 32001;
+
+	/**
+	 * LZ4 compression
+	 */
+	public static final int LZ4_ID = 32004;
+
+	/**
+	 * Bit shuffle with optional LZ4 compression
+	 */
+	public static final int BITSHUFFLE_ID = 32008;
+
+	/**
+	 * Scale-offset type for floating point data: factor is number of decimal digits kept
+	 */
+	public static final int SCALEOFFSET_FLOAT = 0;
+
+	/**
+	 * Scale-offset type for integer data: factor is minimum number of bits (0 for automatic)
+	 */
+	public static final int SCALEOFFSET_INT = 2;
+
+	/**
+	 * Bitshuffle compression parameter for LZ4
+	 */
+	public static final int BITSHUFFLE_LZ4 = 2;
+
+	private static final String[] BLOSC_COMPRESSORS = {"blosclz", "lz4", "lz4hc", "snappy", "zlib", "zstd"};
+
+	private final int id;
+	private final String name;
+	private final int[] parameters;
+	private final boolean optional;
+
+	/**
+	 * @param id registered filter ID
+	 * @param name
+	 * @param optional
+	 * @param parameters client data values passed to filter
+	 */
+	public NexusFilter(int id, String name, boolean optional, int... parameters) {
+		if (id < 0) {
+			throw new IllegalArgumentException("Filter ID must be non-negative");
+		}
+		this.id = id;
+		this.name = name;
+		this.optional = optional;
+		this.parameters = parameters == null ? new int[0] : parameters.clone();
+	}
+
+	/**
+	 * @param level from 0 (fastest) to 9 (smallest)
+	 * @return deflate filter
+	 */
+	public static NexusFilter deflate(int level) {
+		if (level < 0 || level > 9) {
+			throw new IllegalArgumentException("Deflate level must be between 0 and 9");
+		}
+		return new NexusFilter(DEFLATE_ID, "deflate", false, level);
+	}
+
+	/**
+	 * @return byte shuffle filter
+	 */
+	public static NexusFilter shuffle() {
+		return new NexusFilter(SHUFFLE_ID, "shuffle", false);
+	}
+
+	/**
+	 * @param type either {@link #SCALEOFFSET_FLOAT} or {@link #SCALEOFFSET_INT}
+	 * @param factor
+	 * @return scale-offset filter
+	 */
+	public static NexusFilter scaleOffset(int type, int factor) {
+		if (type != SCALEOFFSET_FLOAT && type != SCALEOFFSET_INT) {
+			throw new IllegalArgumentException("Scale-offset type must be float or integer");
+		}
+		if (factor < 0) {
+			throw new IllegalArgumentException("Scale-offset factor must be non-negative");
+		}
+		return new NexusFilter(SCALEOFFSET_ID, "scaleoffset", false, type, factor);
+	}
+
+	/**
+	 * @param blockSize size in bytes of blocks compressed independently (0 for default)
+	 * @return LZ4 filter
+	 */
+	public static NexusFilter lz4(int blockSize) {
+		if (blockSize < 0) {
+			throw new IllegalArgumentException("Block size must be non-negative");
+		}
+		return new NexusFilter(LZ4_ID, "lz4", false, blockSize);
+	}
+
+	/**
+	 * @param lz4 if true, compress bit shuffled blocks with LZ4
+	 * @return bitshuffle filter with automatic block size
+	 */
+	public static NexusFilter bitshuffle(boolean lz4) {
+		return new NexusFilter(BITSHUFFLE_ID, "bitshuffle", false, 0, lz4 ? BITSHUFFLE_LZ4 : 0);
+	}
+
+	/**
+	 * @param compressor one of "blosclz", "lz4", "lz4hc", "snappy", "zlib" or "zstd"
+	 * @param level from 0 to 9
+	 * @param shuffle 0 for none, 1 for byte shuffle and 2 for bit shuffle
+	 * @return Blosc filter
+	 */
+	public static NexusFilter blosc(String compressor, int level, int shuffle) {
+		int code = Arrays.asList(BLOSC_COMPRESSORS).indexOf(compressor);
+		if (code < 0) {
+			throw new IllegalArgumentException("Unknown Blosc compressor: " + compressor);
+		}
+		if (level < 0 || level > 9) {
+			throw new IllegalArgumentException("Blosc level must be between 0 and 9");
+		}
+		if (shuffle < 0 || shuffle > 2) {
+			throw new IllegalArgumentException("Blosc shuffle must be 0, 1 or 2");
+		}
+		// first four values are set by filter
+		return new NexusFilter(BLOSC_ID, "blosc", false, 0, 0, 0, 0, level, shuffle, code);
+	}
+
+	/**
+	 * @param compression one of the compression constants in {@link NexusFile}
+	 * @return filters equivalent to compression
+	 */
+	public static NexusFilter[] getFilters(int compression) {
+		switch (compression) {
+		case NexusFile.COMPRESSION_LZW_L1:
+			return new NexusFilter[] {deflate(1)};
+		default:
+			return new NexusFilter[0];
+		}
+	}
+
+	/**
+	 * @return copy of this filter that is skipped if it cannot be applied
+	 */
+	public NexusFilter asOptional() {
+		return optional ? this : new NexusFilter(id, name, true, parameters);
+	}
+
+	/**
+	 * @return registered filter ID
+	 */
+	public int getId() {
+		return id;
+	}
+
+	/**
+	 * @return name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return client data values passed to filter
+	 */
+	public int[] getParameters() {
+		return parameters.clone();
+	}
+
+	/**
+	 * @return true if filter is skipped when it cannot be applied
+	 */
+	public boolean isOptional() {
+		return optional;
+	}
+
+	/**
+	 * @return true if filter is built in to HDF5 library
+	 */
+	public boolean isBuiltIn() {
+		return id == DEFLATE_ID || id == SHUFFLE_ID || id == SCALEOFFSET_ID;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + id;
+		result = prime * result + (optional ? 1231 : 1237);
+		result = prime * result + Arrays.hashCode(parameters);
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null || getClass() != obj.getClass()) {
+			return false;
+		}
+		NexusFilter other = (NexusFilter) obj;
+		return id == other.id && optional == other.optional && Arrays.equals(parameters, other.parameters);
+	}
+
+	@Override
+	public String toString() {
+		return (name == null ? "filter " + id : name) + Arrays.toString(parameters) + (optional ? " (optional)" : "");
+	}
+}
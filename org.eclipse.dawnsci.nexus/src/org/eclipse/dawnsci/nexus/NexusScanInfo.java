@@ -18,7 +18,13 @@ import org.eclipse.dawnsci.analysis.api.dataset.SliceND;
  */
 public class NexusScanInfo {
 
+	/**
+	 * Item size assumed by {@link #createChunk(int...)}
+	 */
+	private static final int DEFAULT_ITEM_SIZE = 8;
+
 	private int rank;
+	private int[] shape;
 	private List<String> axisNames;
 	public NexusScanInfo() {
 		
@@ -48,29 +54,79 @@ public class NexusScanInfo {
 	}
 
 	/**
-	 * Attempts to make a chunk size from the scan.
-	 * NOTE This assumes that the datashape is a resonable size currently.
-	 * If the datashape is small, the chunking can become too small to usefully
-	 * read.
+	 * @return expected shape of scan (can be null if not known)
+	 */
+	public int[] getShape() {
+		return shape;
+	}
+
+	/**
+	 * Set expected shape of scan. This is used to size chunks in the scan dimensions
+	 * @param shape
+	 */
+	public void setShape(int... shape) {
+		this.shape = shape;
+	}
+
+	/**
+	 * Attempts to make a chunk size from the scan for data written one frame per point and read
+	 * back in frames. The data items are assumed to be eight bytes in size.
 	 * 
 	 * @param datashape
 	 * @return the suggested chunk array
+	 * @see #createChunk(int, int[])
 	 */
 	public int[] createChunk(int... datashape) {
-		// Create chunk array of correct length
-		final int[] chunk = new int[rank+datashape.length];
+		return createChunk(DEFAULT_ITEM_SIZE, datashape);
+	}
+
+	/**
+	 * Attempts to make a chunk size from the scan for data written one frame per point and read
+	 * back in frames
+	 * 
+	 * @param itemSize size of each data item in bytes
+	 * @param datashape shape of data that the device is adding at each point
+	 * @return the suggested chunk array
+	 * @see #createChunkAdvisor(int, int...)
+	 */
+	public int[] createChunk(int itemSize, int[] datashape) {
+		return createChunkAdvisor(itemSize, datashape).getChunking();
+	}
 
-		// Initialise the array to all 1
-		// TODO this is slightly redundant but ensures no zeros can ever be allowed through
-		Arrays.fill(chunk, 1);
+	/**
+	 * Create an advisor for the chunk shape of data written one frame per scan point. Read
+	 * patterns, such as the time-series of each pixel, can be added to the advisor before getting
+	 * its chunking; without them, the data is expected to be read back in frames. The maximum
+	 * chunk size is raised to the size of a frame, if necessary, so that a frame is not split
+	 * across chunks
+	 * 
+	 * @param itemSize size of each data item in bytes
+	 * @param datashape shape of data that the device is adding at each point
+	 * @return advisor
+	 */
+	public ChunkAdvisor createChunkAdvisor(int itemSize, int... datashape) {
+		final int[] maxShape = new int[rank+datashape.length];
+		final int[] unit = new int[maxShape.length];
+		Arrays.fill(maxShape, 0, rank, ILazyWriteableDataset.UNLIMITED);
+		Arrays.fill(unit, 0, rank, 1);
+		System.arraycopy(datashape, 0, maxShape, rank, datashape.length);
+		System.arraycopy(datashape, 0, unit, rank, datashape.length);
 
-		// Change end of chunk array to match datashape
-		int index = 0;
-		for (int i = datashape.length; i>0; i--) {
-			chunk[chunk.length-i] = datashape[index];
-			index++;
+		ChunkAdvisor advisor = new ChunkAdvisor(maxShape, itemSize);
+		long frameBytes = itemSize;
+		for (int d : datashape) {
+			frameBytes *= d;
+		}
+		if (frameBytes > ChunkAdvisor.DEFAULT_MAX_CHUNK_BYTES) {
+			advisor.setMaxChunkBytes(frameBytes);
+		}
+		if (shape != null && shape.length == rank) {
+			int[] expected = new int[maxShape.length];
+			System.arraycopy(shape, 0, expected, 0, rank);
+			advisor.setExpectedShape(expected);
 		}
-		return chunk;
+		advisor.setWriteUnit(unit);
+		return advisor;
 	}
 	
 
@@ -19,6 +19,7 @@ import org.eclipse.dawnsci.analysis.api.metadata.DynamicConnectionInfo;
 import org.eclipse.dawnsci.analysis.dataset.impl.AbstractDataset;
 import org.eclipse.dawnsci.analysis.dataset.impl.Dataset;
 import org.eclipse.dawnsci.analysis.dataset.impl.LazyWriteableDataset;
+import org.eclipse.dawnsci.remotedataset.Format;
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.WebSocketAdapter;
 import org.eclipse.jetty.websocket.client.WebSocketClient;
@@ -119,6 +120,9 @@ class RemoteDataset extends LazyWriteableDataset implements IRemoteDataset {
     	
 		this.loader = new RemoteLoader(urlBuilder);
 		createInfo();
+		if (dtype!=Dataset.STRING && dtype!=Dataset.OBJECT) {
+			urlBuilder.setFormat(Format.BDATA); // Slices of numbers decode straight into their dataset
+		}
 		if (eventDelegate.hasDataListeners()) {
 			createFileListener();
 		}
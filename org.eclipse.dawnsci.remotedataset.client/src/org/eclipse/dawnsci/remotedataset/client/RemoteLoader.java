@@ -1,13 +1,20 @@
 package org.eclipse.dawnsci.remotedataset.client;
 
+import java.io.IOException;
+
 import org.eclipse.dawnsci.analysis.api.dataset.IDataset;
 import org.eclipse.dawnsci.analysis.api.dataset.SliceND;
 import org.eclipse.dawnsci.analysis.api.io.ILazyLoader;
 import org.eclipse.dawnsci.analysis.api.monitor.IMonitor;
+import org.eclipse.dawnsci.remotedataset.Format;
 import org.eclipse.dawnsci.remotedataset.client.slice.SliceClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 class RemoteLoader implements ILazyLoader {
 
+	private static final Logger logger = LoggerFactory.getLogger(RemoteLoader.class);
+
 	/**
 	 * 
 	 */
@@ -24,12 +31,29 @@ class RemoteLoader implements ILazyLoader {
 		return true;
 	}
 
+	/**
+	 * Get slice from server. If the server does not accept {@link Format#BDATA}, as is the case
+	 * for servers which predate binary frames, the slice is requested again as {@link Format#DATA}
+	 * and, if that works, DATA is used from then on.
+	 */
 	@Override
 	public IDataset getDataset(IMonitor unused, SliceND slice) throws Exception {
 		urlBuilder.setSlice(slice);
-		final SliceClient<IDataset> client = new SliceClient<IDataset>(urlBuilder);
-		IDataset ret = client.get();
-		return ret;
+		try {
+			return new SliceClient<IDataset>(urlBuilder).get();
+		} catch (IOException ne) {
+			if (urlBuilder.getFormat() != Format.BDATA) throw ne;
+
+			urlBuilder.setFormat(Format.DATA);
+			try {
+				IDataset ret = new SliceClient<IDataset>(urlBuilder).get();
+				logger.info("Server rejected {} slices so using {} instead", Format.BDATA, Format.DATA);
+				return ret;
+			} catch (Exception e) {
+				urlBuilder.setFormat(Format.BDATA); // Not a format problem
+				throw ne;
+			}
+		}
 	}
 
 }
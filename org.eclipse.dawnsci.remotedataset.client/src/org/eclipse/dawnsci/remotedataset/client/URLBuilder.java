@@ -30,6 +30,11 @@ public class URLBuilder {
 	private String     histo;
 	private long       sleep=100;
 	
+	// Tiles
+	private String     tile;
+	private int        tileSize;
+	private String     mode;
+	
 	// Data
 	private String path;
 	private String dataset;
@@ -63,6 +68,10 @@ public class URLBuilder {
 		return getURL("ws", "/event/", false);
 	}
 	
+	public String getStreamURL() throws Exception {
+		return getURL("ws", "/stream/", true);
+	}
+	
 	public String getInfoURL() throws Exception {
 		return getURL("http", "/info/", false);
 	}
@@ -88,6 +97,9 @@ public class URLBuilder {
 			    append(buf, "format",  format);
 			    append(buf, "histo",   histo);
 			    append(buf, "sleep",   sleep);
+			    append(buf, "tile",    tile);
+			    if (tileSize>0) append(buf, "tileSize", tileSize);
+			    append(buf, "mode",    mode);
 			}
 		}
 		return buf.toString();
@@ -174,6 +186,39 @@ public class URLBuilder {
 		this.sleep = sleep;
 	}
 
+	public String getTile() {
+		return tile;
+	}
+
+	/**
+	 * @param tile as level,row,col or null for no tile
+	 */
+	public void setTile(String tile) {
+		this.tile = tile;
+	}
+
+	public int getTileSize() {
+		return tileSize;
+	}
+
+	/**
+	 * @param tileSize or 0 for server's default
+	 */
+	public void setTileSize(int tileSize) {
+		this.tileSize = tileSize;
+	}
+
+	public String getMode() {
+		return mode;
+	}
+
+	/**
+	 * @param mode DownsampleMode used to bin tile pyramid or null for server's default
+	 */
+	public void setMode(String mode) {
+		this.mode = mode;
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -188,6 +233,9 @@ public class URLBuilder {
 		result = prime * result + ((serverName == null) ? 0 : serverName.hashCode());
 		result = prime * result + (int) (sleep ^ (sleep >>> 32));
 		result = prime * result + ((slice == null) ? 0 : slice.hashCode());
+		result = prime * result + ((tile == null) ? 0 : tile.hashCode());
+		result = prime * result + tileSize;
+		result = prime * result + ((mode == null) ? 0 : mode.hashCode());
 		result = prime * result + (writingExpected ? 1231 : 1237);
 		return result;
 	}
@@ -239,6 +287,18 @@ public class URLBuilder {
 				return false;
 		} else if (!slice.equals(other.slice))
 			return false;
+		if (tile == null) {
+			if (other.tile != null)
+				return false;
+		} else if (!tile.equals(other.tile))
+			return false;
+		if (tileSize != other.tileSize)
+			return false;
+		if (mode == null) {
+			if (other.mode != null)
+				return false;
+		} else if (!mode.equals(other.mode))
+			return false;
 		if (writingExpected != other.writingExpected)
 			return false;
 		return true;
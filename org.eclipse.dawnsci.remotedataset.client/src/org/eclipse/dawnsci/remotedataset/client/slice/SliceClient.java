@@ -11,12 +11,15 @@
  *******************************************************************************/
 package org.eclipse.dawnsci.remotedataset.client.slice;
 
+import java.io.InputStream;
 import java.io.ObjectInputStream;
+import java.net.URI;
 import java.net.URL;
 import java.net.URLConnection;
 
 import javax.imageio.ImageIO;
 
+import org.eclipse.dawnsci.remotedataset.BinaryFrame;
 import org.eclipse.dawnsci.remotedataset.Format;
 import org.eclipse.dawnsci.remotedataset.ServiceHolder;
 import org.eclipse.dawnsci.remotedataset.client.URLBuilder;
@@ -49,6 +52,8 @@ import org.eclipse.dawnsci.remotedataset.client.streamer.StreamerFactory;
  *              PNG  - PNG made using IImageService to make the image
  *              MJPG:<dim> e.g. MJPG:0 to send the first dimension as slices in a series as JPGs. NOTE slice mist be set in this case.
  *              MDATA:<dim> e.g. MDATA:0 to send the first dimension as slices in a series as IDatasets. NOTE slice must be set in this case.
+ *              BDATA - slice as a BinaryFrame, decoded straight into the backing array of a new dataset
+ *              MBDATA:<dim> e.g. MBDATA:0 as MDATA but each slice is sent as a BinaryFrame.
  *
  *    histo`  - Encoding of histo to the rules of ImageServiceBean.encode(...) / ImageServiceBean.decode(...)
  *              Example: "MEAN", "OUTLIER_VALUES:5-95"
@@ -56,6 +61,10 @@ import org.eclipse.dawnsci.remotedataset.client.streamer.StreamerFactory;
  *    
  *    sleep   - Time to sleep between sending images, default 100ms.
  *    
+ *    push    - Not a parameter, if set a stream is read from a web socket to which the server pushes the latest
+ *              frame as it appears and as fast as the connection allows, rather than sleeping between frames.
+ *              The credits are the number of frames which may be sent before any are taken.
+ *    
  *    writingExpected - If you know that the remote dataset it likely to be written to, set this flag to ensure
  *                      that limitations with SWMR datestamping and cached writable lazy datasets, do not cause the
  *                      dataset to be incorrectly cached by the server.
@@ -92,6 +101,8 @@ public class SliceClient<T> {
 
 	private int        imageCache=10;
 	private boolean    isFinished;
+	private boolean    push;
+	private int        credits=2;
 	
 	// Private data, not getter/setter
 	private IStreamer<T> streamer;
@@ -131,14 +142,18 @@ public class SliceClient<T> {
 		Format format = urlBuilder.getFormat();
 		if (format!=Format.MJPG && format.isImage()) {
 			return get();
-		} else if (format!=Format.MDATA && (format==null || format==Format.DATA)) {
+		} else if (format==null || format==Format.DATA || format==Format.BDATA) {
 			return get();
 		}
 		
 		if (isFinished()) throw new Exception("Client has infinished reading images!");
 		if (streamer==null) {
 			this.isFinished = false;
-	        this.streamer = (IStreamer<T>)StreamerFactory.getStreamer(urlBuilder.getSliceURL(), getSleep(), imageCache, format);
+	        if (push) {
+	        	this.streamer = (IStreamer<T>)StreamerFactory.getSocketStreamer(URI.create(urlBuilder.getStreamURL()), credits, format);
+	        } else {
+	        	this.streamer = (IStreamer<T>)StreamerFactory.getStreamer(urlBuilder.getSliceURL(), getSleep(), imageCache, format);
+	        }
 	        streamer.start(); // Runs thread to add to queue
 		}
 		
@@ -156,6 +171,12 @@ public class SliceClient<T> {
 	public long getReceivedImageCount() {
 		return streamer.getReceivedImageCount();
 	}
+	/**
+	 * @return mean latency in ms of frames pushed by the server or -1 if not known
+	 */
+	public double getLatency() {
+		return streamer.getLatency();
+	}
 	
 	/**
 	 * Gets a remote, non-dynamic view of the data.
@@ -172,6 +193,7 @@ public class SliceClient<T> {
 		if (format==null) format = Format.DATA;
 		switch(format) {
 		case DATA:
+		case BDATA:
 			return getData();
 		case JPG:
 		case PNG:
@@ -210,7 +232,7 @@ public class SliceClient<T> {
 			if (ServiceHolder.getClassLoaderService()!=null) ServiceHolder.getClassLoaderService().setDataAnalysisClassLoaderActive(true);
 
 			Format format = urlBuilder.getFormat();
-			if (format!=null && format!=Format.DATA) {
+			if (format!=null && format!=Format.DATA && format!=Format.BDATA) {
 				throw new Exception("Cannot get data with format set to "+format);
 			}
 			
@@ -220,6 +242,15 @@ public class SliceClient<T> {
 	        conn.setDoOutput(true);
 	        conn.setUseCaches(false);
 	
+			if (format==Format.BDATA) {
+				final InputStream in = url.openStream();
+				try {
+					return (T)BinaryFrame.read(in);
+				} finally {
+					in.close();
+				}
+			}
+
 	        ObjectInputStream oin=null;
 			try {
 		        oin  = new ObjectInputStream(url.openStream());
@@ -304,6 +335,22 @@ public class SliceClient<T> {
 	public void setImageCache(int imageCache) {
 		this.imageCache = imageCache;
 	}
+
+	public boolean isPush() {
+		return push;
+	}
+
+	public void setPush(boolean push) {
+		this.push = push;
+	}
+
+	public int getCredits() {
+		return credits;
+	}
+
+	public void setCredits(int credits) {
+		this.credits = credits;
+	}
 	@Override
 	public int hashCode() {
 		final int prime = 31;
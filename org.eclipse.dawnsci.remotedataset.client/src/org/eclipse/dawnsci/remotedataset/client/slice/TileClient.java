@@ -0,0 +1,252 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.remotedataset.client.slice;
+
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URLConnection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.dawnsci.analysis.api.downsample.DownsampleMode;
+import org.eclipse.dawnsci.analysis.dataset.impl.Dataset;
+import org.eclipse.dawnsci.analysis.dataset.impl.DatasetFactory;
+import org.eclipse.dawnsci.remotedataset.BinaryFrame;
+import org.eclipse.dawnsci.remotedataset.Constants;
+import org.eclipse.dawnsci.remotedataset.Format;
+import org.eclipse.dawnsci.remotedataset.TileLayout;
+import org.eclipse.dawnsci.remotedataset.client.URLBuilder;
+
+/**
+ * Gets the parts of a remote image in view at a given zoom from the tiles of its
+ * multi-resolution pyramid on the server, as a map client does. Only tiles which
+ * overlap the viewport and are not already held are requested, so panning and zooming
+ * a large image sends little more than the pixels displayed.
+ * <p>
+ * Usage:
+ * <pre>
+ *    TileClient client = new TileClient("localhost", 8690);
+ *    client.setPath("/dls/i03/data/image.h5");
+ *    client.setDataset("/entry/data/data");
+ *    client.setSlice("[10,:,:]");
+ *    Dataset view = client.getViewport(0.25, 0, 0, 4096, 4096); // 1024x1024
+ * </pre>
+ */
+public class TileClient {
+
+	private final URLBuilder urlBuilder;
+	private int              tileSize = TileLayout.DEFAULT_TILE_SIZE;
+	private int              cacheSize = 256;
+	private TileLayout       layout;
+	private long             requests;
+
+	private final Map<String, Dataset> tiles;
+
+	public TileClient(String serverName, int port) {
+		this(new URLBuilder(serverName, port));
+	}
+
+	public TileClient(URLBuilder urlBuilder) {
+		this.urlBuilder = urlBuilder;
+		urlBuilder.setFormat(Format.BDATA);
+		this.tiles = new LinkedHashMap<String, Dataset>(16, 0.75f, true) {
+			private static final long serialVersionUID = -2415386826315370385L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Dataset> eldest) {
+				return size() > cacheSize;
+			}
+		};
+	}
+
+	/**
+	 * @return layout of tiles of image, read from server on first call
+	 * @throws Exception
+	 */
+	public synchronized TileLayout getLayout() throws Exception {
+		if (layout == null) getTile(0, 0, 0);
+		return layout;
+	}
+
+	/**
+	 * Get part of image in view at given scale, from the level with at least one
+	 * pixel per pixel of display
+	 * @param scale pixels of display per pixel of image
+	 * @param y of viewport in image
+	 * @param x of viewport in image
+	 * @param h of viewport in image
+	 * @param w of viewport in image
+	 * @return part of level of pyramid in viewport, clipped to image
+	 * @throws Exception
+	 */
+	public Dataset getViewport(double scale, int y, int x, int h, int w) throws Exception {
+		return getViewport(getLayout().getLevel(scale), y, x, h, w);
+	}
+
+	/**
+	 * @param level of pyramid
+	 * @param y of viewport in image
+	 * @param x of viewport in image
+	 * @param h of viewport in image
+	 * @param w of viewport in image
+	 * @return part of level of pyramid in viewport, clipped to image, or null if viewport is outside image
+	 * @throws Exception
+	 */
+	public synchronized Dataset getViewport(int level, int y, int x, int h, int w) throws Exception {
+		final TileLayout l = getLayout();
+		final int[] r = l.getRegion(level, y, x, h, w);
+		if (r[0] >= r[2] || r[1] >= r[3]) return null;
+
+		Dataset view = null;
+		for (int[] t : l.getTiles(level, y, x, h, w)) {
+			final Dataset tile = getTile(level, t[0], t[1]);
+			final int[]   tr   = l.getTileRegion(level, t[0], t[1]);
+			if (view == null) {
+				view = DatasetFactory.zeros(tile.getElementsPerItem(), new int[] {r[2] - r[0], r[3] - r[1]}, tile.getDtype());
+			}
+			// Intersection of tile and viewport in pixels of level
+			final int y0 = Math.max(r[0], tr[0]), y1 = Math.min(r[2], tr[2]);
+			final int x0 = Math.max(r[1], tr[1]), x1 = Math.min(r[3], tr[3]);
+			final Dataset part = tile.getSliceView(new int[] {y0 - tr[0], x0 - tr[1]}, new int[] {y1 - tr[0], x1 - tr[1]}, null);
+			view.setSlice(part, new int[] {y0 - r[0], x0 - r[1]}, new int[] {y1 - r[0], x1 - r[1]}, null);
+		}
+		return view;
+	}
+
+	/**
+	 * @param level
+	 * @param row
+	 * @param col
+	 * @return tile from cache or server
+	 * @throws Exception
+	 */
+	public synchronized Dataset getTile(int level, int row, int col) throws Exception {
+		final String key = level + "," + row + "," + col;
+		Dataset tile = tiles.get(key);
+		if (tile != null) return tile;
+
+		urlBuilder.setTile(key);
+		urlBuilder.setTileSize(tileSize);
+		try {
+			final URLConnection conn = urlBuilder.getSliceURL().openConnection();
+			conn.setDoInput(true);
+			conn.setUseCaches(false);
+
+			final String type = conn.getContentType();
+			if (type == null || !type.startsWith(Constants.BINARY_TYPE)) {
+				final String reason = conn instanceof HttpURLConnection ? ((HttpURLConnection) conn).getResponseMessage() : type;
+				throw new Exception("Cannot get tile " + key + " of " + urlBuilder.getPath() + ": " + reason);
+			}
+			if (layout == null) {
+				layout = new TileLayout(toIntArray(conn.getHeaderField("shape")), tileSize);
+			}
+			final InputStream in = conn.getInputStream();
+			try {
+				tile = BinaryFrame.read(in);
+			} finally {
+				in.close();
+			}
+			requests++;
+		} finally {
+			urlBuilder.setTile(null);
+		}
+		tiles.put(key, tile);
+		return tile;
+	}
+
+	private static int[] toIntArray(String array) {
+		if (array == null) throw new IllegalArgumentException("Server did not send shape of image");
+		final String[] sa = array.replace("[", "").replace("]", "").split(",");
+		final int[] ret = new int[sa.length];
+		for (int i = 0; i < sa.length; i++) {
+			ret[i] = Integer.parseInt(sa[i].trim());
+		}
+		return ret;
+	}
+
+	/**
+	 * Forget layout and tiles, for instance if image has changed
+	 */
+	public synchronized void clear() {
+		layout = null;
+		tiles.clear();
+	}
+
+	/**
+	 * @return number of tiles requested from server
+	 */
+	public synchronized long getRequestCount() {
+		return requests;
+	}
+
+	public String getPath() {
+		return urlBuilder.getPath();
+	}
+
+	public void setPath(String path) {
+		urlBuilder.setPath(path);
+		clear();
+	}
+
+	public String getDataset() {
+		return urlBuilder.getDataset();
+	}
+
+	public void setDataset(String dataset) {
+		urlBuilder.setDataset(dataset);
+		clear();
+	}
+
+	public String getSlice() {
+		return urlBuilder.getSlice();
+	}
+
+	/**
+	 * @param slice giving one image, may be null if dataset is an image
+	 */
+	public void setSlice(String slice) {
+		urlBuilder.setSlice(slice);
+		clear();
+	}
+
+	public DownsampleMode getMode() {
+		return urlBuilder.getMode() != null ? DownsampleMode.valueOf(urlBuilder.getMode()) : DownsampleMode.MEAN;
+	}
+
+	/**
+	 * @param mode used to bin levels of pyramid
+	 */
+	public void setMode(DownsampleMode mode) {
+		urlBuilder.setMode(mode != null ? mode.toString() : null);
+		clear();
+	}
+
+	public int getTileSize() {
+		return tileSize;
+	}
+
+	public void setTileSize(int tileSize) {
+		if (tileSize < 1) throw new IllegalArgumentException("Tile size must be positive");
+		this.tileSize = tileSize;
+		clear();
+	}
+
+	public int getCacheSize() {
+		return cacheSize;
+	}
+
+	/**
+	 * @param cacheSize number of tiles held
+	 */
+	public synchronized void setCacheSize(int cacheSize) {
+		if (cacheSize < 1) throw new IllegalArgumentException("Cache size must be positive");
+		this.cacheSize = cacheSize;
+	}
+}
@@ -175,6 +175,9 @@ abstract class AbstractStreamer<T> implements IStreamer<T>, Runnable {
 	public long getReceivedImageCount() {
 		return receivedImages;
 	}
+	public double getLatency() {
+		return -1; // Frames are not timed
+	}
 
 	public void start() {
 		Thread thread = new Thread(this);
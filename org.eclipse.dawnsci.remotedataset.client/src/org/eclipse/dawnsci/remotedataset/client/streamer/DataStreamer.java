@@ -17,9 +17,12 @@ import java.net.URL;
 
 import org.eclipse.dawnsci.analysis.api.dataset.IDataset;
 import org.eclipse.dawnsci.analysis.dataset.impl.ShortDataset;
+import org.eclipse.dawnsci.remotedataset.BinaryFrame;
 
 class DataStreamer extends AbstractStreamer<IDataset> {
 	
+	private final boolean binary;
+	
 	/**
 	 * 
 	 * @param url - URL to read from
@@ -28,6 +31,19 @@ class DataStreamer extends AbstractStreamer<IDataset> {
 	 * @throws Exception
 	 */
 	public DataStreamer(URL url, long sleepTime, int cacheSize) throws Exception {
+		this(url, sleepTime, cacheSize, false);
+	}
+	
+	/**
+	 * 
+	 * @param url - URL to read from
+	 * @param sleepTime - time to sleep between image reads, we don't want to use all CPU
+	 * @param cacheSize - size of image cache. If image cache grows too large, they are DROPPED.
+	 * @param binary - true if each frame is a BinaryFrame rather than a serialized IDataset
+	 * @throws Exception
+	 */
+	public DataStreamer(URL url, long sleepTime, int cacheSize, boolean binary) throws Exception {
+		this.binary = binary;
 		init(url, sleepTime, cacheSize);
 	}
 	
@@ -40,6 +56,9 @@ class DataStreamer extends AbstractStreamer<IDataset> {
 
 	@Override
 	protected IDataset getFromStream(ByteArrayInputStream bais) throws Exception {
+		if (binary) {
+			return BinaryFrame.read(bais);
+		}
 		ObjectInputStream oin = new ObjectInputStream(bais);
 		try {
 			return (IDataset)oin.readObject();
@@ -44,6 +44,12 @@ public interface IStreamer<T> {
 	 */
 	long getReceivedImageCount();
 
+	/**
+	 * Gets the mean time in ms from a frame being read on the server to it being received
+	 * @return latency or -1 if not known
+	 */
+	double getLatency();
+
 	/**
 	 * Call to stop streamer from streaming.
 	 * @param b
@@ -0,0 +1,213 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.remotedataset.client.streamer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ObjectInputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+
+import javax.imageio.ImageIO;
+
+import org.eclipse.dawnsci.remotedataset.BinaryFrame;
+import org.eclipse.dawnsci.remotedataset.Constants;
+import org.eclipse.dawnsci.remotedataset.Format;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.WebSocketAdapter;
+import org.eclipse.jetty.websocket.client.WebSocketClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Takes frames pushed by the server's stream socket. The server sends the latest
+ * frame when there is one and this streamer has credit for it. A credit is granted
+ * for each frame taken, so frames arrive as fast as they are used and the connection
+ * allows. A frame which arrives before the previous one is taken replaces it.
+ * <p>
+ * Frames dropped here and by the server are counted, as is the latency from a frame
+ * being read on the server to it arriving here, which assumes the clocks agree.
+ */
+class SocketStreamer<T> extends WebSocketAdapter implements IStreamer<T> {
+
+	private static final Logger logger = LoggerFactory.getLogger(SocketStreamer.class);
+
+	/**
+	 * Largest frame which may be received
+	 */
+	private static final int MAX_FRAME_SIZE = Integer.getInteger("org.eclipse.dawnsci.remotedataset.client.maxFrameSize", 256 * 1024 * 1024);
+
+	private final URI    uri;
+	private final Format format;
+	private final int    credits;
+
+	private WebSocketClient client;
+
+	// Guarded by this
+	private T       latest;
+	private boolean isFinished;
+
+	private volatile long droppedImages;  // here
+	private volatile long serverDropped;
+	private volatile long receivedImages;
+	private volatile long latency;        // total ms
+	private volatile long lastIndex = -1;
+
+	/**
+	 * @param uri of stream socket
+	 * @param format MJPG, MDATA or MBDATA
+	 * @param credits number of frames which may be sent before any are taken
+	 */
+	public SocketStreamer(URI uri, Format format, int credits) {
+		if (credits < 1) throw new IllegalArgumentException("Credits must be positive");
+		this.uri     = uri;
+		this.format  = format;
+		this.credits = credits;
+	}
+
+	@Override
+	public void start() {
+		try {
+			client = new WebSocketClient();
+			client.getPolicy().setMaxBinaryMessageSize(MAX_FRAME_SIZE);
+			client.start();
+			client.connect(this, uri).get();
+			grant(credits);
+		} catch (Exception ne) {
+			logger.error("Cannot connect to "+uri, ne);
+			setFinished(true);
+		}
+	}
+
+	@Override
+	public void onWebSocketBinary(byte[] payload, int offset, int len) {
+		final long now = System.currentTimeMillis();
+		try {
+			final ByteBuffer header = ByteBuffer.wrap(payload, offset, Constants.STREAM_HEADER_SIZE);
+			final long index = header.getLong();
+			serverDropped    = header.getLong();
+			latency         += now - header.getLong();
+			lastIndex        = index;
+
+			final T frame = decode(new ByteArrayInputStream(payload, offset + Constants.STREAM_HEADER_SIZE, len - Constants.STREAM_HEADER_SIZE));
+			synchronized (this) {
+				if (latest != null) {
+					droppedImages++;
+					logger.trace("We dropped an image when reading a frame stream");
+				}
+				latest = frame;
+				receivedImages++;
+				notifyAll();
+			}
+		} catch (Exception ne) {
+			logger.error("Cannot read frame from "+uri, ne);
+			synchronized (this) {
+				isFinished = true;
+				notifyAll();
+			}
+			getSession().close(); // Client is stopped by setFinished(...) off this thread
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private T decode(ByteArrayInputStream in) throws Exception {
+		switch (format) {
+		case MBDATA:
+			return (T) BinaryFrame.read(in);
+		case MDATA:
+			ObjectInputStream oin = new ObjectInputStream(in);
+			try {
+				return (T) oin.readObject();
+			} finally {
+				oin.close();
+			}
+		default:
+			return (T) ImageIO.read(in);
+		}
+	}
+
+	@Override
+	public void onWebSocketClose(int statusCode, String reason) {
+		super.onWebSocketClose(statusCode, reason);
+		if (statusCode != 1000 && reason != null) logger.error("Frame stream closed: "+reason);
+		synchronized (this) {
+			isFinished = true;
+			notifyAll();
+		}
+	}
+
+	/**
+	 * Blocks until a frame arrives
+	 * @return latest frame or null when finished
+	 */
+	@Override
+	public T take() throws InterruptedException {
+		T frame;
+		synchronized (this) {
+			while (latest == null && !isFinished) {
+				wait();
+			}
+			frame  = latest;
+			latest = null;
+		}
+		if (frame == null) return null;
+		grant(1);
+		return frame;
+	}
+
+	private void grant(int n) {
+		final Session session = getSession();
+		if (session == null || !session.isOpen()) return;
+		session.getRemote().sendStringByFuture(Constants.CREDIT + n);
+	}
+
+	/**
+	 * @return frames dropped here and by the server
+	 */
+	@Override
+	public long getDroppedImageCount() {
+		return droppedImages + serverDropped;
+	}
+
+	@Override
+	public long getReceivedImageCount() {
+		return receivedImages;
+	}
+
+	/**
+	 * @return index of last frame received
+	 */
+	public long getLastIndex() {
+		return lastIndex;
+	}
+
+	@Override
+	public double getLatency() {
+		final long n = receivedImages;
+		return n > 0 ? (double) latency / n : -1;
+	}
+
+	@Override
+	public void setFinished(boolean b) {
+		synchronized (this) {
+			isFinished = b;
+			notifyAll();
+		}
+		if (!b) return;
+		final Session session = getSession();
+		if (session != null && session.isOpen()) session.close();
+		if (client != null && client.isStarted()) {
+			try {
+				client.stop();
+			} catch (Exception ne) {
+				logger.error("Cannot stop web socket client", ne);
+			}
+		}
+	}
+}
@@ -11,6 +11,7 @@
  *******************************************************************************/
 package org.eclipse.dawnsci.remotedataset.client.streamer;
 
+import java.net.URI;
 import java.net.URL;
 
 import org.eclipse.dawnsci.remotedataset.Format;
@@ -23,7 +24,23 @@ public class StreamerFactory {
 			return new MJPGStreamer(url, sleepTime, cacheSize);
 		} else if (format == Format.MDATA) {
 			return new DataStreamer(url, sleepTime, cacheSize);
+		} else if (format == Format.MBDATA) {
+			return new DataStreamer(url, sleepTime, cacheSize, true);
 		}
 		throw new Exception("No streamer for format "+format);
 	}
+
+	/**
+	 * @param uri of server's stream socket
+	 * @param credits number of frames which may be sent before any are taken
+	 * @param format MJPG, MDATA or MBDATA
+	 * @return streamer which has frames pushed to it
+	 * @throws Exception
+	 */
+	public static IStreamer<?> getSocketStreamer(URI uri, int credits, Format format) throws Exception {
+		if (format == null || !format.isMultipart()) {
+			throw new Exception("No streamer for format "+format);
+		}
+		return new SocketStreamer<Object>(uri, format, credits);
+	}
 }
@@ -0,0 +1,340 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.remotedataset;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+import org.eclipse.dawnsci.analysis.api.dataset.IDataset;
+import org.eclipse.dawnsci.analysis.dataset.impl.Dataset;
+import org.eclipse.dawnsci.analysis.dataset.impl.DatasetFactory;
+import org.eclipse.dawnsci.analysis.dataset.impl.DatasetUtils;
+
+/**
+ * Compact binary frame for sending a dataset of numbers or booleans.
+ * <p>
+ * The frame is a header, in big-endian order, of
+ * <pre>
+ *    int   magic number
+ *    byte  version
+ *    byte  byte order of items (0 for big-endian, 1 for little-endian)
+ *    int   dataset type
+ *    int   elements per item
+ *    int   rank
+ *    int[] shape
+ * </pre>
+ * followed by the raw elements of the dataset's backing array. Booleans are sent as bytes.
+ * <p>
+ * Items are written in native order so the backing array is put into the channel's buffer as
+ * a block (a byte array is written without copying) and read back with a single copy into the
+ * backing array of a new dataset. Channels are given direct buffers whereas streams are read
+ * and written through the array of a heap buffer.
+ */
+public class BinaryFrame {
+
+	/**
+	 * "DAWB"
+	 */
+	static final int MAGIC = 0x44415742;
+
+	static final byte VERSION = 1;
+
+	private static final int HEADER_SIZE = 18; // excluding shape
+
+	/**
+	 * Size of buffer used to move items in and out of channels
+	 */
+	static final int BUFFER_SIZE = 64 * 1024;
+
+	private BinaryFrame() {
+	}
+
+	/**
+	 * @param data
+	 * @return true if dataset can be sent in a frame
+	 */
+	public static boolean isSupported(IDataset data) {
+		switch (DatasetUtils.convertToDataset(data).getDtype()) {
+		case Dataset.STRING:
+		case Dataset.OBJECT:
+			return false;
+		default:
+			return true;
+		}
+	}
+
+	/**
+	 * @param data
+	 * @return number of bytes in frame for given dataset
+	 */
+	public static long getLength(IDataset data) {
+		Dataset d = DatasetUtils.convertToDataset(data);
+		check(d);
+		return HEADER_SIZE + 4 * d.getRank() + (long) d.getSize() * d.getElementsPerItem() * getElementSize(d.getBuffer());
+	}
+
+	/**
+	 * Write dataset as a frame
+	 * @param data
+	 * @param channel
+	 * @return number of bytes written
+	 * @throws IOException
+	 */
+	public static long write(IDataset data, WritableByteChannel channel) throws IOException {
+		return write(data, channel, true);
+	}
+
+	/**
+	 * Write dataset as a frame
+	 * @param data
+	 * @param out
+	 * @return number of bytes written
+	 * @throws IOException
+	 */
+	public static long write(IDataset data, OutputStream out) throws IOException {
+		return write(data, new StreamChannel(null, out), false);
+	}
+
+	private static long write(IDataset data, WritableByteChannel channel, boolean direct) throws IOException {
+		Dataset d = DatasetUtils.convertToDataset(data);
+		check(d);
+		if (d.getStrides() != null) {
+			d = d.clone(); // as backing array is not contiguous
+		}
+
+		final int[] shape = d.getShapeRef();
+		final ByteOrder order = ByteOrder.nativeOrder();
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + 4 * shape.length);
+		header.putInt(MAGIC);
+		header.put(VERSION);
+		header.put((byte) (order == ByteOrder.BIG_ENDIAN ? 0 : 1));
+		header.putInt(d.getDtype());
+		header.putInt(d.getElementsPerItem());
+		header.putInt(shape.length);
+		for (int s : shape) {
+			header.putInt(s);
+		}
+		header.flip();
+		long total = writeFully(header, channel);
+
+		final Object array = d.getBuffer();
+		final int n = d.getSize() * d.getElementsPerItem();
+		if (array instanceof byte[]) {
+			return total + writeFully(ByteBuffer.wrap((byte[]) array, 0, n), channel);
+		}
+
+		final int esize = getElementSize(array);
+		final int chunk = BUFFER_SIZE / esize;
+		ByteBuffer buffer = allocate(chunk * esize, direct).order(order);
+		for (int i = 0; i < n; i += chunk) {
+			final int m = Math.min(chunk, n - i);
+			buffer.clear();
+			if (array instanceof double[]) {
+				buffer.asDoubleBuffer().put((double[]) array, i, m);
+			} else if (array instanceof float[]) {
+				buffer.asFloatBuffer().put((float[]) array, i, m);
+			} else if (array instanceof long[]) {
+				buffer.asLongBuffer().put((long[]) array, i, m);
+			} else if (array instanceof int[]) {
+				buffer.asIntBuffer().put((int[]) array, i, m);
+			} else if (array instanceof short[]) {
+				buffer.asShortBuffer().put((short[]) array, i, m);
+			} else {
+				boolean[] b = (boolean[]) array;
+				for (int j = 0; j < m; j++) {
+					buffer.put(j, b[i + j] ? (byte) 1 : (byte) 0);
+				}
+			}
+			buffer.limit(m * esize);
+			total += writeFully(buffer, channel);
+		}
+		return total;
+	}
+
+	/**
+	 * Read frame
+	 * @param channel
+	 * @return dataset
+	 * @throws IOException if frame is not valid or channel ends before frame
+	 */
+	public static Dataset read(ReadableByteChannel channel) throws IOException {
+		return read(channel, true);
+	}
+
+	/**
+	 * Read frame
+	 * @param in
+	 * @return dataset
+	 * @throws IOException if frame is not valid or stream ends before frame
+	 */
+	public static Dataset read(InputStream in) throws IOException {
+		return read(new StreamChannel(in, null), false);
+	}
+
+	private static Dataset read(ReadableByteChannel channel, boolean direct) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		readFully(header, channel);
+		header.flip();
+		if (header.getInt() != MAGIC) {
+			throw new IOException("Stream does not contain a binary frame");
+		}
+		byte version = header.get();
+		if (version != VERSION) {
+			throw new IOException("Binary frame version " + version + " is not supported");
+		}
+		final ByteOrder order = header.get() == 0 ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+		final int dtype = header.getInt();
+		final int isize = header.getInt();
+		final int rank = header.getInt();
+		if (isize < 1 || rank < 0 || rank > 64) {
+			throw new IOException("Binary frame header is corrupt");
+		}
+		final int[] shape = new int[rank];
+		if (rank > 0) {
+			ByteBuffer sbuffer = ByteBuffer.allocate(4 * rank);
+			readFully(sbuffer, channel);
+			sbuffer.flip();
+			sbuffer.asIntBuffer().get(shape);
+		}
+
+		final Dataset d;
+		try {
+			d = DatasetFactory.zeros(isize, shape, dtype);
+			check(d);
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Binary frame header is corrupt", e);
+		}
+		final Object array = d.getBuffer();
+		final int n = d.getSize() * isize;
+		if (array instanceof byte[]) {
+			readFully(ByteBuffer.wrap((byte[]) array, 0, n), channel);
+			return d;
+		}
+
+		final int esize = getElementSize(array);
+		final int chunk = BUFFER_SIZE / esize;
+		ByteBuffer buffer = allocate(chunk * esize, direct).order(order);
+		for (int i = 0; i < n; i += chunk) {
+			final int m = Math.min(chunk, n - i);
+			buffer.clear();
+			buffer.limit(m * esize);
+			readFully(buffer, channel);
+			buffer.flip();
+			if (array instanceof double[]) {
+				buffer.asDoubleBuffer().get((double[]) array, i, m);
+			} else if (array instanceof float[]) {
+				buffer.asFloatBuffer().get((float[]) array, i, m);
+			} else if (array instanceof long[]) {
+				buffer.asLongBuffer().get((long[]) array, i, m);
+			} else if (array instanceof int[]) {
+				buffer.asIntBuffer().get((int[]) array, i, m);
+			} else if (array instanceof short[]) {
+				buffer.asShortBuffer().get((short[]) array, i, m);
+			} else {
+				boolean[] b = (boolean[]) array;
+				for (int j = 0; j < m; j++) {
+					b[i + j] = buffer.get(j) != 0;
+				}
+			}
+		}
+		return d;
+	}
+
+	private static void check(Dataset d) {
+		if (!isSupported(d)) {
+			throw new IllegalArgumentException("Binary frames cannot hold datasets of strings or objects");
+		}
+	}
+
+	private static ByteBuffer allocate(int capacity, boolean direct) {
+		return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+	}
+
+	private static int getElementSize(Object array) {
+		if (array instanceof double[] || array instanceof long[]) {
+			return 8;
+		} else if (array instanceof float[] || array instanceof int[]) {
+			return 4;
+		} else if (array instanceof short[]) {
+			return 2;
+		}
+		return 1;
+	}
+
+	private static long writeFully(ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+		long n = 0;
+		while (buffer.hasRemaining()) {
+			n += channel.write(buffer);
+		}
+		return n;
+	}
+
+	private static void readFully(ByteBuffer buffer, ReadableByteChannel channel) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer) < 0) {
+				throw new EOFException("Binary frame ended early");
+			}
+		}
+	}
+
+	/**
+	 * Channel that passes the arrays of heap buffers straight to a stream
+	 */
+	private static class StreamChannel implements ReadableByteChannel, WritableByteChannel {
+		private final InputStream in;
+		private final OutputStream out;
+		private boolean open = true;
+
+		StreamChannel(InputStream in, OutputStream out) {
+			this.in = in;
+			this.out = out;
+		}
+
+		@Override
+		public int read(ByteBuffer dst) throws IOException {
+			if (!dst.hasArray()) {
+				return Channels.newChannel(in).read(dst);
+			}
+			int n = in.read(dst.array(), dst.arrayOffset() + dst.position(), dst.remaining());
+			if (n > 0) {
+				dst.position(dst.position() + n);
+			}
+			return n;
+		}
+
+		@Override
+		public int write(ByteBuffer src) throws IOException {
+			if (!src.hasArray()) {
+				return Channels.newChannel(out).write(src);
+			}
+			int n = src.remaining();
+			out.write(src.array(), src.arrayOffset() + src.position(), n);
+			src.position(src.limit());
+			return n;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return open;
+		}
+
+		@Override
+		public void close() {
+			open = false; // leave stream for caller to close
+		}
+	}
+}
@@ -18,4 +18,17 @@ public class Constants {
     public static final String MCONTENT_TYPE = "multipart/x-mixed-replace";
     public static final String JPG_TYPE      = "image/jpeg";
 	public static final String OBJECT_TYPE   = "java/object";
+	public static final String BINARY_TYPE   = "application/x-dawn-frame";
+	
+	/**
+	 * Text message by which a client of a frame stream socket grants the server
+	 * permission to send more frames, for example "credit:2"
+	 */
+	public static final String CREDIT        = "credit:";
+	
+	/**
+	 * Bytes before each frame in a frame stream socket message, the frame's index, the
+	 * number of frames dropped by the server so far and the time in ms when the frame was read
+	 */
+	public static final int    STREAM_HEADER_SIZE = 24;
 }
@@ -23,6 +23,16 @@ public enum Format {
 	 */
 	MDATA(0), 
 	
+	/**
+	 * Single data shot as a BinaryFrame
+	 */
+	BDATA,
+	
+	/**
+	 * Stream of IDataset as BinaryFrames
+	 */
+	MBDATA(0),
+	
 	/**
 	 * Single Image
 	 */
@@ -49,6 +59,17 @@ public enum Format {
 		return this==JPG || this==PNG;
 	}
 	
+	public boolean isBinary() {
+		return this==BDATA || this==MBDATA;
+	}
+	
+	/**
+	 * @return true if format is a stream of slices
+	 */
+	public boolean isMultipart() {
+		return this==MDATA || this==MBDATA || this==MJPG;
+	}
+	
 	Format() {
 		this(0);
 	}
@@ -56,17 +77,33 @@ public enum Format {
 		this.dimension=dimension;
 	}
 	
+	/**
+	 * Get format from a value such as "DATA" or "MJPG:0". The dimension of a value is not
+	 * set on the format as formats are shared by concurrent requests, use {@link #getDimension(String)}
+	 * @param value
+	 * @return format
+	 */
 	public static Format getFormat(String value) {
 		if (value == null) return DATA;
 		
 		if (value.indexOf(':')>-1) {
-			String[] sa = value.split("\\:");
-			Format f = valueOf(sa[0]);
-			f.setDimension(Integer.parseInt(sa[1]));
-			return f;
+			return valueOf(value.split("\\:")[0]);
 		}
 		return valueOf(value);
 	}
+	
+	/**
+	 * @param value such as "MJPG:1"
+	 * @return dimension given in value or else the dimension of its format
+	 */
+	public static int getDimension(String value) {
+		if (value == null) return DATA.getDimension();
+		
+		if (value.indexOf(':')>-1) {
+			return Integer.parseInt(value.split("\\:")[1]);
+		}
+		return valueOf(value).getDimension();
+	}
 
 	public String getImageIOString() {
 		switch(this) {
@@ -0,0 +1,206 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.remotedataset;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Layout of the tiles of a multi-resolution pyramid of an image, in the manner of a map
+ * tile server. Level 0 is the image itself and each level above is binned 2x2 from the
+ * one below (so has ceil(n/2) rows and columns), up to the first level which fits in
+ * one tile. Each level is cut into square tiles from its top left corner, so tiles on
+ * the bottom and right edges may be smaller.
+ * <p>
+ * Viewports are given in the pixel coordinates of the image, i.e. of level 0.
+ */
+public class TileLayout {
+
+	/**
+	 * Default length of side of tile
+	 */
+	public static final int DEFAULT_TILE_SIZE = 256;
+
+	private final int[] shape;
+	private final int   tileSize;
+	private final int   levels;
+
+	/**
+	 * @param shape of image (rows, columns)
+	 * @param tileSize length of side of tile
+	 */
+	public TileLayout(int[] shape, int tileSize) {
+		if (shape == null || shape.length != 2) {
+			throw new IllegalArgumentException("Tiles can only be made of two dimensional images");
+		}
+		if (shape[0] < 1 || shape[1] < 1) {
+			throw new IllegalArgumentException("Image must not be empty");
+		}
+		if (tileSize < 1) {
+			throw new IllegalArgumentException("Tile size must be positive");
+		}
+		this.shape    = shape.clone();
+		this.tileSize = tileSize;
+
+		int l = 1;
+		int[] s = this.shape;
+		while (s[0] > tileSize || s[1] > tileSize) {
+			s = reduce(s);
+			l++;
+		}
+		this.levels = l;
+	}
+
+	/**
+	 * @param shape
+	 * @return shape of level binned from level of given shape
+	 */
+	public static int[] reduce(int[] shape) {
+		return new int[] {(shape[0] + 1) / 2, (shape[1] + 1) / 2};
+	}
+
+	/**
+	 * @return shape of image
+	 */
+	public int[] getShape() {
+		return shape.clone();
+	}
+
+	public int getTileSize() {
+		return tileSize;
+	}
+
+	/**
+	 * @return number of levels, the last of which fits in one tile
+	 */
+	public int getLevels() {
+		return levels;
+	}
+
+	/**
+	 * @param level
+	 * @return shape of level
+	 */
+	public int[] getShape(int level) {
+		checkLevel(level);
+		int[] s = shape;
+		for (int l = 0; l < level; l++) {
+			s = reduce(s);
+		}
+		return s.clone();
+	}
+
+	/**
+	 * @param level
+	 * @return number of rows and columns of tiles in level
+	 */
+	public int[] getTileCounts(int level) {
+		final int[] s = getShape(level);
+		return new int[] {(s[0] + tileSize - 1) / tileSize, (s[1] + tileSize - 1) / tileSize};
+	}
+
+	/**
+	 * @param level
+	 * @param row
+	 * @param col
+	 * @return start and stop of tile in pixels of level, {ystart, xstart, ystop, xstop}
+	 */
+	public int[] getTileRegion(int level, int row, int col) {
+		final int[] s = getShape(level);
+		final int[] n = getTileCounts(level);
+		if (row < 0 || row >= n[0] || col < 0 || col >= n[1]) {
+			throw new IllegalArgumentException("Tile " + row + "," + col + " is outside level " + level + " of " + n[0] + "x" + n[1] + " tiles");
+		}
+		return new int[] {row * tileSize, col * tileSize, Math.min(s[0], (row + 1) * tileSize), Math.min(s[1], (col + 1) * tileSize)};
+	}
+
+	/**
+	 * Get level which has at least one pixel per pixel of display
+	 * @param scale pixels of display per pixel of image
+	 * @return level
+	 */
+	public int getLevel(double scale) {
+		if (scale <= 0) {
+			throw new IllegalArgumentException("Scale must be positive");
+		}
+		int level = 0;
+		while (level < levels - 1 && scale * (1 << (level + 1)) <= 1) {
+			level++;
+		}
+		return level;
+	}
+
+	/**
+	 * @param level
+	 * @param y of viewport in image
+	 * @param x of viewport in image
+	 * @param h of viewport in image
+	 * @param w of viewport in image
+	 * @return region of viewport in pixels of level, {ystart, xstart, ystop, xstop}, clipped to level
+	 */
+	public int[] getRegion(int level, int y, int x, int h, int w) {
+		if (h < 1 || w < 1) {
+			throw new IllegalArgumentException("Viewport must not be empty");
+		}
+		final int[] s = getShape(level);
+		final int   f = 1 << level;
+		final int[] r = new int[] {
+				clip(floorDiv(y, f), s[0]),
+				clip(floorDiv(x, f), s[1]),
+				clip(ceilDiv(y + h, f), s[0]),
+				clip(ceilDiv(x + w, f), s[1])};
+		return r;
+	}
+
+	/**
+	 * @param level
+	 * @param y of viewport in image
+	 * @param x of viewport in image
+	 * @param h of viewport in image
+	 * @param w of viewport in image
+	 * @return row and column of each tile which overlaps viewport
+	 */
+	public List<int[]> getTiles(int level, int y, int x, int h, int w) {
+		final int[] r = getRegion(level, y, x, h, w);
+		final List<int[]> tiles = new ArrayList<int[]>();
+		if (r[0] >= r[2] || r[1] >= r[3]) return tiles; // outside image
+
+		for (int row = r[0] / tileSize; row <= (r[2] - 1) / tileSize; row++) {
+			for (int col = r[1] / tileSize; col <= (r[3] - 1) / tileSize; col++) {
+				tiles.add(new int[] {row, col});
+			}
+		}
+		return tiles;
+	}
+
+	private void checkLevel(int level) {
+		if (level < 0 || level >= levels) {
+			throw new IllegalArgumentException("Level " + level + " is not in pyramid of " + levels + " levels");
+		}
+	}
+
+	private static int clip(int v, int max) {
+		return Math.max(0, Math.min(v, max));
+	}
+
+	private static int floorDiv(int a, int b) {
+		return a >= 0 ? a / b : -((-a + b - 1) / b);
+	}
+
+	private static int ceilDiv(int a, int b) {
+		return -floorDiv(-a, b);
+	}
+
+	@Override
+	public String toString() {
+		return "TileLayout " + Arrays.toString(shape) + " in " + levels + " levels of " + tileSize + " pixel tiles";
+	}
+}
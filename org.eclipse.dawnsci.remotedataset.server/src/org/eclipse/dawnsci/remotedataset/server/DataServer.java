@@ -19,12 +19,16 @@ import org.eclipse.dawnsci.remotedataset.server.event.EventServlet;
 import org.eclipse.dawnsci.remotedataset.server.event.FileMonitorSocket;
 import org.eclipse.dawnsci.remotedataset.server.info.InfoServlet;
 import org.eclipse.dawnsci.remotedataset.server.slice.SliceServlet;
+import org.eclipse.dawnsci.remotedataset.server.slice.SliceStreamSocket;
 import org.eclipse.equinox.app.IApplicationContext;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.ServerConnector;
 import org.eclipse.jetty.servlet.ServletContextHandler;
 import org.eclipse.jetty.servlet.ServletHolder;
 import org.eclipse.jetty.websocket.server.WebSocketHandler;
+import org.eclipse.jetty.websocket.servlet.ServletUpgradeRequest;
+import org.eclipse.jetty.websocket.servlet.ServletUpgradeResponse;
+import org.eclipse.jetty.websocket.servlet.WebSocketCreator;
 import org.eclipse.jetty.websocket.servlet.WebSocketServletFactory;
 
 /**
@@ -102,6 +106,7 @@ public class DataServer extends PortServer {
         // Make individual servlets
         // Slicing (large data in binary http)
 		ServletHolder holderSlice = new ServletHolder("slice", SliceServlet.class);
+		holderSlice.setAsyncSupported(true); // Slices run on the session's SliceExecutor
 		context.addServlet(holderSlice, "/slice/*");
 		
 		// Doing events, like data changing shape.
@@ -109,7 +114,15 @@ public class DataServer extends PortServer {
 		WebSocketHandler wsHandler = new WebSocketHandler() {
 			@Override
 			public void configure(WebSocketServletFactory factory) {
-				factory.register(FileMonitorSocket.class);
+				// Frames are pushed on /stream/, otherwise events are sent for file changes
+				factory.setCreator(new WebSocketCreator() {
+					@Override
+					public Object createWebSocket(ServletUpgradeRequest req, ServletUpgradeResponse resp) {
+						final String path = req.getRequestURI().getPath();
+						if (path!=null && path.startsWith("/stream")) return new SliceStreamSocket();
+						return new FileMonitorSocket();
+					}
+				});
 			}
 		};
 		context.setHandler(wsHandler);
@@ -137,6 +150,25 @@ public class DataServer extends PortServer {
 		}
 	}
 
+	/**
+	 * Set maximum number of lazy datasets held open for slicing
+	 * @param size
+	 */
+	public void setCacheSize(int size) {
+		LazyDatasetCache.getDefault().setMaxSize(size);
+	}
+
+	public int getCacheSize() {
+		return LazyDatasetCache.getDefault().getMaxSize();
+	}
+
+	@Override
+	public void stop() {
+		super.stop();
+		LazyDatasetCache.getDefault().clear();
+		TileCache.getDefault().clear();
+	}
+
 	public DiagnosticInfo getDiagnosticInfo() {
 		DiagnosticInfo ret = new DiagnosticInfo();
 		ret.merge(FileMonitorSocket.getDiagnosticInfo());
@@ -0,0 +1,228 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.remotedataset.server;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.dawnsci.analysis.api.dataset.IDynamicDataset;
+import org.eclipse.dawnsci.analysis.api.dataset.ILazyDataset;
+import org.eclipse.dawnsci.analysis.api.io.IDataHolder;
+import org.eclipse.dawnsci.analysis.api.io.ILoaderService;
+import org.eclipse.dawnsci.analysis.api.monitor.IMonitor;
+import org.eclipse.dawnsci.remotedataset.ServiceHolder;
+
+/**
+ * Server-wide cache of lazy datasets keyed by file path and dataset name so that slices,
+ * info requests and file events do not load the file's data holder each time.
+ * <p>
+ * The least recently used handle is evicted when the cache is full. When a handle is got,
+ * a dynamic dataset has its shape refreshed and any other dataset is loaded again if its
+ * file has been modified since it was loaded.
+ * <p>
+ * Handles are shared by all sessions. The shape of a dynamic dataset is refreshed while
+ * holding the lock of its handle so concurrent gets do not refresh it at the same time.
+ */
+public class LazyDatasetCache {
+
+	/**
+	 * Default maximum number of handles, which can be set with the system property
+	 * org.eclipse.dawnsci.remotedataset.server.cacheSize
+	 */
+	public static final int DEFAULT_SIZE = Integer.getInteger("org.eclipse.dawnsci.remotedataset.server.cacheSize", 64);
+
+	private static LazyDatasetCache instance;
+
+	/**
+	 * @return cache shared by servlets and sockets of the server
+	 */
+	public static synchronized LazyDatasetCache getDefault() {
+		if (instance == null) {
+			instance = new LazyDatasetCache(DEFAULT_SIZE);
+		}
+		return instance;
+	}
+
+	private static class Entry {
+		final ILazyDataset lz;
+		final long modified;
+		final long length;
+
+		Entry(ILazyDataset lz, long modified, long length) {
+			this.lz = lz;
+			this.modified = modified;
+			this.length = length;
+		}
+	}
+
+	private static final char SEPARATOR = '\0';
+
+	private final Map<String, Entry> entries;
+	private int maxSize;
+	private long hits;
+	private long misses;
+
+	/**
+	 * @param maxSize maximum number of handles
+	 */
+	public LazyDatasetCache(int maxSize) {
+		setMaxSize(maxSize);
+		entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 5286406146338203232L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+				return size() > LazyDatasetCache.this.maxSize;
+			}
+		};
+	}
+
+	/**
+	 * Get lazy dataset, loading it if it is not cached or its file has changed
+	 * @param path of file or directory
+	 * @param dataset name of dataset (null or empty for first dataset)
+	 * @return lazy dataset or null if loader found no data holder or dataset
+	 * @throws Exception if path does not exist or cannot be loaded
+	 */
+	public ILazyDataset get(String path, String dataset) throws Exception {
+		final String key = getKey(path, dataset);
+		final File file = new File(path);
+
+		Entry e;
+		synchronized (this) {
+			e = entries.get(key);
+		}
+		if (e != null) {
+			if (e.lz instanceof IDynamicDataset) {
+				synchronized (e.lz) {
+					((IDynamicDataset) e.lz).refreshShape();
+				}
+				hit();
+				return e.lz;
+			}
+			if (e.modified == file.lastModified() && e.length == file.length()) {
+				hit();
+				return e.lz;
+			}
+			invalidate(path);
+		}
+
+		synchronized (this) {
+			misses++;
+		}
+		if (!file.exists()) throw new IOException("Path '"+path+"' does not exist!");
+
+		// Read before loading so that any change during loading is seen on next get
+		final long modified = file.lastModified();
+		final long length   = file.length();
+		final IDataHolder holder = ServiceHolder.getLoaderService().getData(path, new IMonitor.Stub()); // TODO Make it cancellable?
+		if (holder == null) return null;
+
+		final ILazyDataset lz = dataset!=null && !"".equals(dataset)
+				              ? holder.getLazyDataset(dataset)
+				              : holder.getLazyDataset(0);
+		if (lz == null) return null;
+
+		// In order to pass RemoteDataset.testRemoteSlicingUsingSliceND() this is required.
+		if (lz instanceof IDynamicDataset) {
+			((IDynamicDataset) lz).refreshShape();
+		}
+		synchronized (this) {
+			entries.put(key, new Entry(lz, modified, length));
+		}
+		return lz;
+	}
+
+	private synchronized void hit() {
+		hits++;
+	}
+
+	/**
+	 * Remove all handles to datasets in file and clear the loader's reference to it
+	 * so it will be read again
+	 * @param path
+	 */
+	public void invalidate(String path) {
+		final String prefix = path + SEPARATOR;
+		synchronized (this) {
+			Iterator<String> it = entries.keySet().iterator();
+			while (it.hasNext()) {
+				if (it.next().startsWith(prefix)) {
+					it.remove();
+				}
+			}
+		}
+		ILoaderService service = ServiceHolder.getLoaderService();
+		if (service != null) {
+			service.clearSoftReferenceCache(path);
+		}
+	}
+
+	/**
+	 * Remove all handles
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * @return number of handles
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * @return maximum number of handles
+	 */
+	public synchronized int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Set maximum number of handles. Handles are evicted when next one is added
+	 * @param maxSize
+	 */
+	public synchronized void setMaxSize(int maxSize) {
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("Cache size must be positive");
+		}
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * @return number of gets that found a current handle
+	 */
+	public synchronized long getHitCount() {
+		return hits;
+	}
+
+	/**
+	 * @return number of gets that loaded the dataset
+	 */
+	public synchronized long getMissCount() {
+		return misses;
+	}
+
+	/**
+	 * Reset hit and miss counts
+	 */
+	public synchronized void resetMetrics() {
+		hits = 0;
+		misses = 0;
+	}
+
+	private static String getKey(String path, String dataset) {
+		return path + SEPARATOR + (dataset == null ? "" : dataset);
+	}
+}
@@ -0,0 +1,244 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.remotedataset.server;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.eclipse.dawnsci.analysis.api.dataset.IDataset;
+import org.eclipse.dawnsci.analysis.api.dataset.ILazyDataset;
+import org.eclipse.dawnsci.analysis.api.dataset.Slice;
+import org.eclipse.dawnsci.analysis.api.downsample.DownsampleMode;
+
+/**
+ * Server-wide cache of tile pyramids keyed by file path, dataset name, slice and binning
+ * mode, so a pyramid is made once per frame (or once per dataset for an image) however many
+ * tiles are requested from it.
+ * <p>
+ * A pyramid is made again when its dataset is given by a different handle, as happens when
+ * {@link LazyDatasetCache} loads a modified file, or when the shape of the dataset has changed,
+ * as happens when a dynamic dataset is refreshed. Pyramids of data that is rewritten in place
+ * must be removed with {@link #invalidate(String)}, as the file monitor does when a file changes.
+ * The least recently used pyramids are evicted when their levels hold more than the maximum
+ * number of bytes. Requests for a pyramid while it is being made wait for it rather than making
+ * it again.
+ */
+public class TileCache {
+
+	/**
+	 * Default maximum size in MB, which can be set with the system property
+	 * org.eclipse.dawnsci.remotedataset.server.tileCacheSize
+	 */
+	public static final int DEFAULT_SIZE = Integer.getInteger("org.eclipse.dawnsci.remotedataset.server.tileCacheSize", 512);
+
+	private static TileCache instance;
+
+	/**
+	 * @return cache shared by slice requests of the server
+	 */
+	public static synchronized TileCache getDefault() {
+		if (instance == null) {
+			instance = new TileCache(DEFAULT_SIZE * 1024L * 1024L);
+		}
+		return instance;
+	}
+
+	private static class Entry {
+		final ILazyDataset              lz;
+		final int[]                     shape; // of dataset when pyramid was made
+		final FutureTask<TilePyramid> pyramid;
+
+		Entry(ILazyDataset lz, int[] shape, FutureTask<TilePyramid> pyramid) {
+			this.lz      = lz;
+			this.shape   = shape;
+			this.pyramid = pyramid;
+		}
+
+		long getNbytes() {
+			if (!pyramid.isDone()) return 0;
+			try {
+				return pyramid.get().getNbytes();
+			} catch (Exception ne) {
+				return 0;
+			}
+		}
+	}
+
+	private static final char SEPARATOR = '\0';
+
+	private final Map<String, Entry> entries;
+	private long maxBytes;
+	private long hits;
+	private long misses;
+
+	/**
+	 * @param maxBytes maximum number of bytes held by pyramids
+	 */
+	public TileCache(long maxBytes) {
+		setMaxBytes(maxBytes);
+		entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+	}
+
+	/**
+	 * Get pyramid of a two dimensional slice of a dataset, making it if it is not cached
+	 * @param path of file, used with other parameters to identify pyramid
+	 * @param dataset name of dataset
+	 * @param lz lazy dataset currently given by path and dataset
+	 * @param slice to get image from lazy dataset, may be null if its rank is less than 3
+	 * @param mode of binning
+	 * @return pyramid
+	 * @throws Exception if image cannot be read or is not two dimensional
+	 */
+	public TilePyramid get(String path, String dataset, final ILazyDataset lz, final String slice, final DownsampleMode mode) throws Exception {
+		final String key = getKey(path, dataset, slice, mode);
+
+		final int[] shape = lz.getShape();
+		final Entry e;
+		boolean make = false;
+		synchronized (this) {
+			Entry c = entries.get(key);
+			if (c != null && c.lz == lz && Arrays.equals(c.shape, shape)) {
+				hits++;
+				e = c;
+			} else {
+				misses++;
+				e = new Entry(lz, shape, new FutureTask<TilePyramid>(new Callable<TilePyramid>() {
+					@Override
+					public TilePyramid call() throws Exception {
+						return new TilePyramid(getImage(lz, slice), mode);
+					}
+				}));
+				entries.put(key, e);
+				make = true;
+			}
+		}
+
+		if (make) {
+			e.pyramid.run();
+			evict(key);
+		}
+		try {
+			return e.pyramid.get();
+		} catch (ExecutionException ne) {
+			synchronized (this) {
+				if (entries.get(key) == e) entries.remove(key); // So a later request tries again
+			}
+			final Throwable cause = ne.getCause();
+			if (cause instanceof Exception) throw (Exception) cause;
+			throw ne;
+		}
+	}
+
+	private static IDataset getImage(ILazyDataset lz, String slice) throws Exception {
+		IDataset image = slice != null ? lz.getSlice(Slice.convertFromString(slice)) : null;
+		if (image == null && lz.getRank() < 3) image = lz.getSlice();
+		if (image == null) throw new IllegalArgumentException("A slice of one image must be given for tiles of '" + lz + "'");
+		return image.squeeze();
+	}
+
+	private synchronized void evict(String keep) {
+		long total = 0;
+		for (Entry e : entries.values()) {
+			total += e.getNbytes();
+		}
+		final Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+		while (total > maxBytes && it.hasNext()) {
+			final Map.Entry<String, Entry> e = it.next();
+			if (e.getKey().equals(keep) || !e.getValue().pyramid.isDone()) continue;
+			total -= e.getValue().getNbytes();
+			it.remove();
+		}
+	}
+
+	/**
+	 * Remove all pyramids of file
+	 * @param path
+	 */
+	public synchronized void invalidate(String path) {
+		final String prefix = path + SEPARATOR;
+		final Iterator<String> it = entries.keySet().iterator();
+		while (it.hasNext()) {
+			if (it.next().startsWith(prefix)) {
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * Remove all pyramids
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * @return number of pyramids
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * @return number of bytes held by pyramids
+	 */
+	public synchronized long getNbytes() {
+		long total = 0;
+		for (Entry e : entries.values()) {
+			total += e.getNbytes();
+		}
+		return total;
+	}
+
+	public synchronized long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * Set maximum number of bytes held by pyramids. Pyramids are evicted when next one is made
+	 * @param maxBytes
+	 */
+	public synchronized void setMaxBytes(long maxBytes) {
+		if (maxBytes < 1) {
+			throw new IllegalArgumentException("Cache size must be positive");
+		}
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * @return number of gets that found a pyramid
+	 */
+	public synchronized long getHitCount() {
+		return hits;
+	}
+
+	/**
+	 * @return number of gets that made a pyramid
+	 */
+	public synchronized long getMissCount() {
+		return misses;
+	}
+
+	/**
+	 * Reset hit and miss counts
+	 */
+	public synchronized void resetMetrics() {
+		hits = 0;
+		misses = 0;
+	}
+
+	private static String getKey(String path, String dataset, String slice, DownsampleMode mode) {
+		return path + SEPARATOR + (dataset == null ? "" : dataset) + SEPARATOR + (slice == null ? "" : slice) + SEPARATOR + mode;
+	}
+}
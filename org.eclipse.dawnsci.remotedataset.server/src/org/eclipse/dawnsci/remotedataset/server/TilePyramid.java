@@ -0,0 +1,108 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.remotedataset.server;
+
+import org.eclipse.dawnsci.analysis.api.dataset.IDataset;
+import org.eclipse.dawnsci.analysis.api.downsample.DownsampleMode;
+import org.eclipse.dawnsci.analysis.dataset.function.Downsample;
+import org.eclipse.dawnsci.analysis.dataset.impl.Dataset;
+import org.eclipse.dawnsci.analysis.dataset.impl.DatasetUtils;
+import org.eclipse.dawnsci.remotedataset.TileLayout;
+
+/**
+ * Multi-resolution pyramid of an image. Each level is binned 2x2 from the one below
+ * it when the pyramid is made, so that a tile of any level is cut without reading or
+ * downsampling the image again. Levels are binned down to a single pixel so one pyramid
+ * serves tiles of any size.
+ *
+ * @see TileLayout
+ */
+public class TilePyramid {
+
+	private final Dataset[]      levels;
+	private final DownsampleMode mode;
+	private final long           nbytes;
+
+	/**
+	 * @param image two dimensional, after squeezing
+	 * @param mode of binning
+	 */
+	public TilePyramid(IDataset image, DownsampleMode mode) {
+		Dataset d = DatasetUtils.convertToDataset(image).squeeze();
+		final TileLayout layout = new TileLayout(d.getShapeRef(), 1); // checks image
+		this.mode   = mode;
+		this.levels = new Dataset[layout.getLevels()];
+
+		final Downsample binner = new Downsample(mode, 2, 2);
+		long n = 0;
+		for (int l = 0; l < levels.length; l++) {
+			levels[l] = d;
+			n += (long) d.getSize() * d.getItemsize();
+			if (l < levels.length - 1) d = binner.value(d).get(0);
+		}
+		this.nbytes = n;
+	}
+
+	/**
+	 * @return number of levels
+	 */
+	public int getLevels() {
+		return levels.length;
+	}
+
+	/**
+	 * @param level
+	 * @return image binned to level, which must not be modified
+	 */
+	public Dataset getLevel(int level) {
+		if (level < 0 || level >= levels.length) {
+			throw new IllegalArgumentException("Level " + level + " is not in pyramid of " + levels.length + " levels");
+		}
+		return levels[level];
+	}
+
+	/**
+	 * @return shape of image
+	 */
+	public int[] getShape() {
+		return levels[0].getShape();
+	}
+
+	public DownsampleMode getMode() {
+		return mode;
+	}
+
+	/**
+	 * @return number of bytes held by levels
+	 */
+	public long getNbytes() {
+		return nbytes;
+	}
+
+	/**
+	 * @param tileSize
+	 * @return layout of tiles of given size
+	 */
+	public TileLayout getLayout(int tileSize) {
+		return new TileLayout(levels[0].getShapeRef(), tileSize);
+	}
+
+	/**
+	 * @param layout of this pyramid's image
+	 * @param level
+	 * @param row
+	 * @param col
+	 * @return copy of tile
+	 */
+	public Dataset getTile(TileLayout layout, int level, int row, int col) {
+		final int[] r = layout.getTileRegion(level, row, col);
+		return getLevel(level).getSlice(new int[] {r[0], r[1]}, new int[] {r[2], r[3]}, null);
+	}
+}
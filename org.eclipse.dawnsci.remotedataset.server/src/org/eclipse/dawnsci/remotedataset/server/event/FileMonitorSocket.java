@@ -16,10 +16,9 @@ import java.util.List;
 import org.eclipse.dawnsci.analysis.api.dataset.DataEvent;
 import org.eclipse.dawnsci.analysis.api.dataset.IDynamicDataset;
 import org.eclipse.dawnsci.analysis.api.dataset.ILazyDataset;
-import org.eclipse.dawnsci.analysis.api.io.IDataHolder;
-import org.eclipse.dawnsci.analysis.api.monitor.IMonitor;
-import org.eclipse.dawnsci.remotedataset.ServiceHolder;
 import org.eclipse.dawnsci.remotedataset.server.DiagnosticInfo;
+import org.eclipse.dawnsci.remotedataset.server.LazyDatasetCache;
+import org.eclipse.dawnsci.remotedataset.server.TileCache;
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.WebSocketAdapter;
 import org.slf4j.Logger;
@@ -129,19 +128,15 @@ public class FileMonitorSocket extends WebSocketAdapter {
 	 	             		try {
 
 	 	             			// Data has changed, read its shape and publish the event using a web socket.
-			             		final IDataHolder  holder = ServiceHolder.getLoaderService().getData(spath, new IMonitor.Stub());
-						        if (holder == null) continue; // We do not stop if the loader got nothing.
-			        			
-						        final ILazyDataset lz = sdataset!=null && !"".equals(sdataset)
-						                              ? holder.getLazyDataset(sdataset)
-						                              : holder.getLazyDataset(0);
+	 	             			// The cached handle is refreshed if dynamic or reloaded if the file was modified.
+			             		final LazyDatasetCache cache = LazyDatasetCache.getDefault();
+						        final ILazyDataset lz = cache.get(spath, sdataset);
 						        if (lz == null) continue; // We do not stop if the loader got nothing.		             		
 						        
-						        if (lz instanceof IDynamicDataset) { 
-						            ((IDynamicDataset)lz).refreshShape();	
-						        } else if (writing) {
-						        	ServiceHolder.getLoaderService().clearSoftReferenceCache(spath);
+						        if (!(lz instanceof IDynamicDataset) && writing) {
+						        	cache.invalidate(spath); // The file may change again without its modification time doing so
 						        }
+						        TileCache.getDefault().invalidate(spath); // Images may have changed without the shape doing so
 						        
 			                	final DataEvent evt = new DataEvent(lz.getName(), lz.getShape());
 			                	evt.setFilePath(spath);
@@ -21,12 +21,9 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.eclipse.dawnsci.analysis.api.dataset.ILazyDataset;
-import org.eclipse.dawnsci.analysis.api.io.IDataHolder;
-import org.eclipse.dawnsci.analysis.api.io.ILoaderService;
 import org.eclipse.dawnsci.analysis.api.metadata.DimensionMetadata;
-import org.eclipse.dawnsci.analysis.api.monitor.IMonitor;
 import org.eclipse.dawnsci.analysis.dataset.impl.AbstractDataset;
-import org.eclipse.dawnsci.remotedataset.ServiceHolder;
+import org.eclipse.dawnsci.remotedataset.server.LazyDatasetCache;
 
 /**
  * The handler for incoming requests. No work should be done here
@@ -91,11 +88,8 @@ public class InfoServlet extends HttpServlet {
 		final String dataset = request.getParameter("dataset");
 		
 		try {
-			final ILoaderService lservice = ServiceHolder.getLoaderService();
-			final IDataHolder holder = lservice.getData(path, true, new IMonitor.Stub());
-			final ILazyDataset lz    = dataset!=null && !"".equals(dataset)
-					                 ? holder.getLazyDataset(dataset)
-					                 : holder.getLazyDataset(0);
+			final ILazyDataset lz = LazyDatasetCache.getDefault().get(path, dataset);
+			if (lz == null) throw new Exception("Dataset '"+dataset+"' not found in "+path);
 					                 
 			response.getWriter().println(lz.getName());
 			response.getWriter().println(Arrays.toString(lz.getShape()));
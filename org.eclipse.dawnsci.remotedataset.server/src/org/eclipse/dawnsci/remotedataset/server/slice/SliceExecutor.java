@@ -0,0 +1,156 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.remotedataset.server.slice;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the slices of one session on a bounded pool shared by all sessions.
+ * <p>
+ * A session has at most a limited number of slices on the pool at once and queues any
+ * others itself, so that a session sending many requests cannot take every thread and
+ * slices from all sessions are run in the order they reach the pool. A session's queue
+ * is bounded too and further slices are rejected when it is full.
+ */
+class SliceExecutor implements Executor {
+
+	/**
+	 * Number of threads shared by all sessions, which can be set with the system property
+	 * org.eclipse.dawnsci.remotedataset.server.sliceThreads
+	 */
+	static final int THREADS = Integer.getInteger("org.eclipse.dawnsci.remotedataset.server.sliceThreads",
+			Math.max(4, 2 * Runtime.getRuntime().availableProcessors()));
+
+	/**
+	 * Number of slices of a session which may run at once, which can be set with the system
+	 * property org.eclipse.dawnsci.remotedataset.server.sessionSlices
+	 */
+	static final int SESSION_LIMIT = Integer.getInteger("org.eclipse.dawnsci.remotedataset.server.sessionSlices", 4);
+
+	/**
+	 * Number of slices a session may have waiting
+	 */
+	static final int SESSION_CAPACITY = 64;
+
+	private static ThreadPoolExecutor pool;
+
+	private static synchronized ThreadPoolExecutor getPool() {
+		if (pool == null) {
+			pool = new ThreadPoolExecutor(THREADS, THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+				private final AtomicInteger count = new AtomicInteger();
+
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "Slice " + count.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			pool.allowCoreThreadTimeOut(true);
+		}
+		return pool;
+	}
+
+	private final int limit;
+	private final int capacity;
+	private final Queue<Runnable> waiting;
+	private int running;
+
+	SliceExecutor() {
+		this(SESSION_LIMIT, SESSION_CAPACITY);
+	}
+
+	/**
+	 * @param limit number of slices which may run at once
+	 * @param capacity number of slices which may wait
+	 */
+	SliceExecutor(int limit, int capacity) {
+		if (limit < 1 || capacity < 0) {
+			throw new IllegalArgumentException("Session limit must be positive and capacity not negative");
+		}
+		this.limit = limit;
+		this.capacity = capacity;
+		this.waiting = new ArrayDeque<Runnable>();
+	}
+
+	/**
+	 * Run slice on the pool now or when one of the session's slices finishes
+	 * @throws RejectedExecutionException if the session has too many slices waiting
+	 */
+	@Override
+	public void execute(final Runnable slice) {
+		final Runnable task = new Runnable() {
+			@Override
+			public void run() {
+				try {
+					slice.run();
+				} finally {
+					next();
+				}
+			}
+		};
+		synchronized (this) {
+			if (running >= limit) {
+				if (waiting.size() >= capacity) {
+					throw new RejectedExecutionException("Too many slices requested in session");
+				}
+				waiting.add(task);
+				return;
+			}
+			running++;
+		}
+		submit(task);
+	}
+
+	private void next() {
+		Runnable task;
+		synchronized (this) {
+			task = waiting.poll();
+			if (task == null) {
+				running--;
+				return;
+			}
+		}
+		submit(task);
+	}
+
+	private void submit(Runnable task) {
+		try {
+			getPool().execute(task);
+		} catch (RejectedExecutionException e) {
+			synchronized (this) {
+				running--;
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * @return number of slices of session on the pool
+	 */
+	synchronized int getRunning() {
+		return running;
+	}
+
+	/**
+	 * @return number of slices of session waiting
+	 */
+	synchronized int getWaiting() {
+		return waiting.size();
+	}
+}
@@ -14,14 +14,13 @@ package org.eclipse.dawnsci.remotedataset.server.slice;
 import java.awt.image.BufferedImage;
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
-import java.io.File;
-import java.io.IOException;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -32,29 +31,37 @@ import javax.servlet.http.HttpSessionBindingEvent;
 import javax.servlet.http.HttpSessionBindingListener;
 
 import org.eclipse.dawnsci.analysis.api.dataset.IDataset;
-import org.eclipse.dawnsci.analysis.api.dataset.IDynamicDataset;
 import org.eclipse.dawnsci.analysis.api.dataset.ILazyDataset;
 import org.eclipse.dawnsci.analysis.api.dataset.Slice;
-import org.eclipse.dawnsci.analysis.api.io.IDataHolder;
+import org.eclipse.dawnsci.analysis.api.dataset.SliceND;
+import org.eclipse.dawnsci.analysis.api.downsample.DownsampleMode;
 import org.eclipse.dawnsci.analysis.api.metadata.OriginMetadata;
-import org.eclipse.dawnsci.analysis.api.monitor.IMonitor;
+import org.eclipse.dawnsci.analysis.dataset.impl.LazyDataset;
+import org.eclipse.dawnsci.analysis.dataset.impl.PrefetchingLazyLoader;
 import org.eclipse.dawnsci.analysis.dataset.impl.Random;
 import org.eclipse.dawnsci.plotting.api.histogram.HistogramBound;
 import org.eclipse.dawnsci.plotting.api.histogram.IImageService;
 import org.eclipse.dawnsci.plotting.api.histogram.ImageServiceBean;
 import org.eclipse.dawnsci.plotting.api.histogram.ImageServiceBean.HistoType;
 import org.eclipse.dawnsci.plotting.api.histogram.ImageServiceBean.ImageOrigin;
+import org.eclipse.dawnsci.remotedataset.BinaryFrame;
 import org.eclipse.dawnsci.remotedataset.Constants;
 import org.eclipse.dawnsci.remotedataset.Format;
 import org.eclipse.dawnsci.remotedataset.ServiceHolder;
+import org.eclipse.dawnsci.remotedataset.TileLayout;
+import org.eclipse.dawnsci.remotedataset.server.LazyDatasetCache;
+import org.eclipse.dawnsci.remotedataset.server.TileCache;
+import org.eclipse.dawnsci.remotedataset.server.TilePyramid;
 import org.eclipse.swt.graphics.ImageData;
 import org.eclipse.swt.graphics.PaletteData;
 import org.eclipse.swt.graphics.RGB;
 /**
  * There are one of these objects per session.
  * 
- * So a user only blocks their own session if they
- * do an unfriendly slice.
+ * Slices of a session run concurrently, at most SliceExecutor.SESSION_LIMIT
+ * at a time, on threads shared by all sessions. So a user only blocks their
+ * own session if they do many unfriendly slices. Streams run on the request's
+ * thread as they may last indefinitely.
  * 
  * Parameters which may be set in the request:
  *    Essential
@@ -77,12 +84,24 @@ import org.eclipse.swt.graphics.RGB;
  *              PNG  - PNG made using IImageService to make the image
  *              MJPG:<dim> e.g. MJPG:0 to send the first dimension as slices in a series. NOTE slice mist be set in this case.
  *              MDATA:<dim> e.g. MDATA:0 to send the first dimension as slices in a series as IDatasets. NOTE slice mist be set in this case.
+ *              BDATA - Slice as a BinaryFrame, header and raw buffer written straight to the response stream
+ *              MBDATA:<dim> e.g. MBDATA:0 as MDATA but each slice is sent as a BinaryFrame.
  *              
  *    histo`  - Encoding of histo to the rules of ImageServiceBean.encode(...) / ImageServiceBean.decode(...)
  *              Example: "MEAN", "OUTLIER_VALUES:5-95"
  *              Only used when an actual image is requested.
  *    
  *    sleep   - Time to sleep between sending images, default 100ms.
+ *              SliceStreamSocket pushes streams without sleeping, limited instead by credits from the client.
+ *    
+ *    tile    - <level>,<row>,<col> e.g. 2,0,3 to send one tile of the multi-resolution pyramid of the image
+ *              given by slice, as in TileLayout. The pyramid is made once and cached by TileCache. The
+ *              response headers 'shape' and 'levels' give the shape of the image and number of levels.
+ *              Bin is not used and tiles may not be streamed.
+ *    
+ *    tileSize - Length of side of tile, default 256.
+ *    
+ *    mode    - One of DownsampleMode.values() used to bin levels of pyramid, default MEAN.
  * 
  *    `URL encoded.
  *    
@@ -100,23 +119,47 @@ import org.eclipse.swt.graphics.RGB;
  */
 class SliceRequest implements HttpSessionBindingListener {	
 	
-	private ReentrantLock lock;
+	private SliceExecutor executor;
 	private String sessionId;
 
 
 	// Actually the SliceRequest
 	SliceRequest(String sessionId) {
-    	this.lock = new ReentrantLock();
+    	this.executor  = new SliceExecutor();
     	this.sessionId = sessionId;
 	}
 	
+	/**
+	 * Slice, this may be called concurrently. Requests share the dataset handles of
+	 * LazyDatasetCache, which refreshes the shape of a handle one request at a time,
+	 * and the pyramids of TileCache. Streams read ahead on their own view of the handle.
+	 * @param request
+	 * @param response
+	 * @throws Exception
+	 */
 	public void slice(HttpServletRequest  request,
 					  HttpServletResponse response) throws Exception {
+		doSlice(request, response);
+	}
+	
+	/**
+	 * @return executor which limits the number of slices of this session running at once
+	 */
+	Executor getExecutor() {
+		return executor;
+	}
+	
+	/**
+	 * @param request
+	 * @return true if request is for a stream of slices
+	 * @throws UnsupportedEncodingException
+	 */
+	boolean isStream(HttpServletRequest request) throws UnsupportedEncodingException {
+		final String value = decode(request.getParameter("format"));
 		try {
-		    lock.lock(); // Blocks so that one thread at a time does the slice for a given session.
-		    doSlice(request, response);
-		} finally {
-			lock.unlock();
+			return Format.getFormat(value).isMultipart();
+		} catch (IllegalArgumentException ne) {
+			return false; // Reported when sliced
 		}
 	}
 
@@ -130,23 +173,37 @@ class SliceRequest implements HttpSessionBindingListener {
 		final String slice  = decode(request.getParameter("slice"));		
 		final Slice[] slices    = slice!=null ? Slice.convertFromString(slice) : null;
 		
-		Format format = Format.getFormat(decode(request.getParameter("format")));
+		final String value  = decode(request.getParameter("format"));
+		Format format = Format.getFormat(value);
 		String bin    = decode(request.getParameter("bin"));
+		String tile   = decode(request.getParameter("tile"));
+		
+		IDataset data = null;
+		if (!format.isMultipart()) {
+			data = tile!=null ? getTile(path, dataset, lz, slice, tile, request, response) : getData(lz, slices, bin);
+		} else if (tile!=null) {
+			throw new Exception("Tiles cannot be streamed, use "+Format.BDATA+", "+Format.DATA+" or an image format");
+		}
 				
 		// We set the meta data as header an
 		switch(format) {
 		case DATA:
-			sendObject(getData(lz, slices, bin), response);
+			sendObject(data, response);
+			break;
+			
+		case BDATA:
+			sendFrame(data, response);
 			break;
 		
 		case JPG:
 		case PNG:
-			sendImage(getData(lz, slices, bin), request, response, format);
+			sendImage(data, request, response, format);
 			break;
 			
 		case MJPG:  // In the case of MJPG, we loop over doSlice(...)
 		case MDATA: // In the case of MDATA, we loop over doSlice(...)
-			sendImages(lz, slices, request, response, format);
+		case MBDATA:
+			sendImages(lz, slices, request, response, format, Format.getDimension(value));
 			break;
 			
 	    default:
@@ -155,9 +212,9 @@ class SliceRequest implements HttpSessionBindingListener {
 
 	}
 	
-	private final static Pattern RANDOM = Pattern.compile("RANDOM\\:(\\d)+x(\\d)+");
+	final static Pattern RANDOM = Pattern.compile("RANDOM\\:(\\d)+x(\\d)+");
 	
-	private ILazyDataset getLazyDataset(String path, String dataset) throws Exception {
+	static ILazyDataset getLazyDataset(String path, String dataset) throws Exception {
 		
 		Matcher m = RANDOM.matcher(path);
 		if (m.matches()) {
@@ -167,26 +224,15 @@ class SliceRequest implements HttpSessionBindingListener {
 			return Random.lazyRand("Test random data", shape);
 		}
 		
-		final File   file = new File(path); // Can we see the file using the local file system?
-		if (!file.exists()) throw new IOException("Path '"+path+"' does not exist!");
-		
-		final IDataHolder holder = ServiceHolder.getLoaderService().getData(path, new IMonitor.Stub()); // TOOD Make it cancellable?
-		
-		final ILazyDataset lz = dataset!=null 
-				              ? holder.getLazyDataset(dataset)
-				              : holder.getLazyDataset(0);
-		
-	    // In order to pass RemoteDataset.testRemoteSlicingUsingSliceND() this is required.
-	    if (lz instanceof IDynamicDataset) {
-	    	((IDynamicDataset)lz).refreshShape();
-	    }
+		// Handles are shared by sessions, dynamic datasets have their shape refreshed
+		final ILazyDataset lz = LazyDatasetCache.getDefault().get(path, dataset);
 
 	    if (dataset!=null && lz==null) throw new Exception("Dataset '"+dataset+"' not found in data holder!");
 	    
 	    return lz;
 	}
 
-	private IDataset getData(ILazyDataset lz, Slice[] slices, String bin) throws Exception {
+	static IDataset getData(ILazyDataset lz, Slice[] slices, String bin) throws Exception {
 		
 		IDataset data = slices!=null ? lz.getSlice(slices) : null;
 
@@ -204,12 +250,39 @@ class SliceRequest implements HttpSessionBindingListener {
         return data;
 	}
 
+	private IDataset getTile(String              path,
+			                 String              dataset,
+			                 ILazyDataset        lz,
+			                 String              slice,
+			                 String              tile,
+			                 HttpServletRequest  request,
+			                 HttpServletResponse response) throws Exception {
+		
+		final String[] sa = tile.split(",");
+		if (sa.length != 3) throw new Exception("Tile must be given as <level>,<row>,<col> not '"+tile+"'");
+		final int level = Integer.parseInt(sa[0].trim());
+		final int row   = Integer.parseInt(sa[1].trim());
+		final int col   = Integer.parseInt(sa[2].trim());
+		
+		final String size = decode(request.getParameter("tileSize"));
+		final int tileSize = size!=null ? Integer.parseInt(size) : TileLayout.DEFAULT_TILE_SIZE;
+		final String smode = decode(request.getParameter("mode"));
+		final DownsampleMode mode = smode!=null ? DownsampleMode.valueOf(smode) : DownsampleMode.MEAN;
+		
+		// The pyramid is shared by sessions and made again if the file changes
+		final TilePyramid pyramid = TileCache.getDefault().get(path, dataset, lz, slice, mode);
+		final TileLayout  layout  = pyramid.getLayout(tileSize);
+		response.setHeader("shape",  Arrays.toString(pyramid.getShape()));
+		response.setHeader("levels", String.valueOf(layout.getLevels()));
+		return pyramid.getTile(layout, level, row, col);
+	}
     
 	private void sendImages(ILazyDataset        lz, 
 			                Slice[]             slices,
 							HttpServletRequest  request,
 							HttpServletResponse response, 
-							Format              format) throws Exception {
+							Format              format,
+							int                 dimension) throws Exception {
 
 
 		response.setStatus(HttpServletResponse.SC_OK);
@@ -232,8 +305,9 @@ class SliceRequest implements HttpSessionBindingListener {
 
         byte[] mcontent_type  = ("Content-Type: "+Constants.MCONTENT_TYPE+";boundary="+delemeter_str).getBytes("UTF-8");
 		byte[] delimiter      = ("--"+delemeter_str).getBytes("UTF-8");
-		final String mimeType = format==Format.MJPG ? Constants.JPG_TYPE : Constants.OBJECT_TYPE;
+		final String mimeType = format==Format.MJPG ? Constants.JPG_TYPE : format==Format.MBDATA ? Constants.BINARY_TYPE : Constants.OBJECT_TYPE;
 		byte[] content_type   = ("Content-Type: "+mimeType).getBytes("UTF-8");
+		LazyDataset view = null;
 		try {
 
 			if (isIE(request)) {
@@ -243,12 +317,21 @@ class SliceRequest implements HttpSessionBindingListener {
 	            out.write(Constants.CRLF);
 			}
 
-			final int size = slices!=null ? lz.getShape()[format.getDimension()] : Integer.MAX_VALUE;
-			final int from = slices!=null ? slices[format.getDimension()].getStart() : 0; // If no slice, stream forever.
+			final int size = slices!=null ? lz.getShape()[dimension] : Integer.MAX_VALUE;
+			final int from = slices!=null ? slices[dimension].getStart() : 0; // If no slice, stream forever.
+			if (slices!=null && lz instanceof LazyDataset) {
+				// Read frames ahead on a view so other sessions are unaffected
+				view = ((LazyDataset)lz).getSliceView();
+				view.setPrefetching(PrefetchingLazyLoader.DEFAULT_AHEAD, PrefetchingLazyLoader.DEFAULT_BUDGET);
+				SliceND region = new SliceND(lz.getShape(), slices);
+				region.setSlice(dimension, from, size, 1);
+				view.setAccessPattern(region, getFrameAxes(lz.getRank(), dimension));
+				lz = view;
+			}
 			for (int i = from; i < size; i++) {
 				if (slices!=null){
-					slices[format.getDimension()].setStart(i);
-					slices[format.getDimension()].setStop(i+1);
+					slices[dimension].setStart(i);
+					slices[dimension].setStop(i+1);
 				}
 				IDataset data = getData(lz, slices, bin);
 						
@@ -256,8 +339,10 @@ class SliceRequest implements HttpSessionBindingListener {
 					throw new Exception("The data used to make an image must either be 1D or 2D!"); 
 				}
 				
-				final byte[]       frame  = getFrame(data, bean, format);
-				byte[] content_length = ("Content-Length: " + frame.length).getBytes("UTF-8");
+				final boolean      binary = format==Format.MBDATA;
+				final byte[]       frame  = binary ? null : getFrame(data, bean, format);
+				final long         length = binary ? BinaryFrame.getLength(data) : frame.length;
+				byte[] content_length = ("Content-Length: " + length).getBytes("UTF-8");
 				
 				out.write(delimiter);
                 out.write(Constants.CRLF);
@@ -266,7 +351,11 @@ class SliceRequest implements HttpSessionBindingListener {
                 out.write(content_length);
                 out.write(Constants.CRLF);
                 out.write(Constants.CRLF);
-                out.write(frame);
+                if (binary) {
+                	BinaryFrame.write(data, out); // No intermediate frame array
+                } else {
+                	out.write(frame);
+                }
                 out.write(Constants.CRLF);
                 out.write(Constants.CRLF);
                 out.flush();
@@ -280,7 +369,16 @@ class SliceRequest implements HttpSessionBindingListener {
 			
 		} finally {
 			if (out!=null)    out.close();
+			if (view!=null)   view.setPrefetching(0, 0);
+		}
+	}
+
+	private static int[] getFrameAxes(int rank, int dimension) {
+		final int[] axes = new int[rank-1];
+		for (int i = 0, j = 0; i < rank; i++) {
+			if (i != dimension) axes[j++] = i;
 		}
+		return axes;
 	}
 
 	private boolean isIE(HttpServletRequest request) {
@@ -289,7 +387,7 @@ class SliceRequest implements HttpSessionBindingListener {
 			   !userAgent.toLowerCase().contains("chrome");
 	}
 
-	private byte[] getFrame(IDataset data, ImageServiceBean bean, Format format) throws Exception {
+	static byte[] getFrame(IDataset data, ImageServiceBean bean, Format format) throws Exception {
 		
 		ByteArrayOutputStream stream = null;
 		if (format == Format.MJPG) {
@@ -376,7 +474,25 @@ class SliceRequest implements HttpSessionBindingListener {
 		}
 	}
 	
-	private ImageServiceBean createImageServiceBean() {
+	private void sendFrame(IDataset            data, 
+						   HttpServletResponse response) throws Exception {
+
+		if (!BinaryFrame.isSupported(data)) {
+			throw new Exception("Cannot send "+data.elementClass().getSimpleName()+" data as a binary frame, use "+Format.DATA+" instead");
+		}
+		response.setContentType(Constants.BINARY_TYPE);
+		response.setStatus(HttpServletResponse.SC_OK);
+
+		response.setHeader("elementClass", data.elementClass().toString());
+		final long length = BinaryFrame.getLength(data);
+		if (length <= Integer.MAX_VALUE) response.setContentLength((int)length);
+
+		final OutputStream out = response.getOutputStream();
+		BinaryFrame.write(data, out);
+		out.flush();
+	}
+	
+	static ImageServiceBean createImageServiceBean() {
 		ImageServiceBean imageServiceBean = new ImageServiceBean();
 		imageServiceBean.setPalette(makeGrayScalePalette());
 		imageServiceBean.setOrigin(ImageOrigin.TOP_LEFT);
@@ -12,7 +12,9 @@
 package org.eclipse.dawnsci.remotedataset.server.slice;
 
 import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
 
+import javax.servlet.AsyncContext;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
@@ -27,6 +29,10 @@ import javax.servlet.http.HttpSession;
  * In this way if someone does a slice which is time consuming, another request coming
  * in will not be blocked while it is done.
  * 
+ * Slices are done asynchronously on the session's SliceExecutor so that the
+ * number running at once is bounded across the server and for each session.
+ * Streams are done on the request thread as they may last indefinitely.
+ * 
  * 
  * @author Matthew Gerring
  *
@@ -57,8 +63,8 @@ public class SliceServlet extends HttpServlet {
 	 * TODO User should be able to cancel slice...
 	 * 
 	 */
-	private void doHandle(HttpServletRequest  request,
-						  HttpServletResponse response)  throws IOException, ServletException {
+	private void doHandle(final HttpServletRequest  request,
+						  final HttpServletResponse response)  throws IOException, ServletException {
 		
 		HttpSession sess = request.getSession();
 		
@@ -73,6 +79,39 @@ public class SliceServlet extends HttpServlet {
 			}
 		}
 		
+		if (slicer.isStream(request) || !request.isAsyncSupported()) {
+			slice(slicer, request, response);
+			return;
+		}
+		
+		final AsyncContext context = request.startAsync();
+		context.setTimeout(0); // Slices of large datasets may take a while
+		final SliceRequest fslicer = slicer;
+		try {
+			slicer.getExecutor().execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						slice(fslicer, request, response);
+					} catch (IOException ne) {
+						ne.printStackTrace();
+					} finally {
+						context.complete();
+					}
+				}
+			});
+		} catch (RejectedExecutionException ne) {
+			try {
+				response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, ne.getMessage());
+			} finally {
+				context.complete();
+			}
+		}
+	}
+	
+	private static void slice(SliceRequest        slicer,
+			                  HttpServletRequest  request,
+			                  HttpServletResponse response) throws IOException {
 		try {
 		    slicer.slice(request, response);
 		    
@@ -0,0 +1,342 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.remotedataset.server.slice;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+
+import org.eclipse.dawnsci.analysis.api.dataset.IDataset;
+import org.eclipse.dawnsci.analysis.api.dataset.IDynamicDataset;
+import org.eclipse.dawnsci.analysis.api.dataset.ILazyDataset;
+import org.eclipse.dawnsci.analysis.api.dataset.Slice;
+import org.eclipse.dawnsci.plotting.api.histogram.ImageServiceBean;
+import org.eclipse.dawnsci.remotedataset.BinaryFrame;
+import org.eclipse.dawnsci.remotedataset.Constants;
+import org.eclipse.dawnsci.remotedataset.Format;
+import org.eclipse.dawnsci.remotedataset.server.LazyDatasetCache;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.StatusCode;
+import org.eclipse.jetty.websocket.api.WebSocketAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pushes the latest frame of a dataset to a client as soon as it appears and the
+ * client has credit for it. Connect to ws://server:port/stream/ with the parameters
+ * of a slice request, path, dataset, slice, bin, histo and format, where format is
+ * one of MJPG:dim, MDATA:dim or MBDATA:dim. The sleep parameter is ignored.
+ * <p>
+ * The client sends "credit:n" text messages to allow n more frames to be sent and
+ * usually grants one credit for each frame it takes. Each frame is sent in a binary
+ * message of {@link Constants#STREAM_HEADER_SIZE} bytes, holding the frame index,
+ * the number of frames dropped so far and when the frame was read, followed by the
+ * JPG, serialized dataset or BinaryFrame. When frames appear faster than they can be
+ * sent, only the latest is sent and the others are counted as dropped, so the rate is
+ * limited by the bandwidth and the client rather than by a fixed sleep.
+ * <p>
+ * New frames are found when the file is modified; for RANDOM test data every frame is new.
+ */
+public class SliceStreamSocket extends WebSocketAdapter {
+
+	private static final Logger logger = LoggerFactory.getLogger(SliceStreamSocket.class);
+
+	private ILazyDataset     lz;
+	private String           path;
+	private String           dataset;
+	private Slice[]          slices;
+	private String           bin;
+	private Format           format;
+	private int              dimension;
+	private ImageServiceBean bean;
+	private boolean          random;
+	private WatchService     watcher;
+
+	// Guarded by this
+	private boolean open;
+	private boolean changed;
+	private int     credits;
+
+	private volatile long sent    = -1; // Index of last frame sent
+	private volatile long count;
+	private volatile long dropped;
+	private volatile long sendTime;     // ns spent sending frames
+
+	@Override
+	public void onWebSocketConnect(Session sess) {
+		super.onWebSocketConnect(sess);
+		try {
+			path    = getFirstValue(sess, "path");
+			dataset = getFirstValue(sess, "dataset");
+			bin     = getFirstValue(sess, "bin");
+
+			final String value = getFirstValue(sess, "format");
+			format    = value!=null ? Format.getFormat(value) : Format.MBDATA;
+			dimension = Format.getDimension(value!=null ? value : Format.MBDATA.toString());
+			if (!format.isMultipart()) throw new IllegalArgumentException("Cannot stream format "+format+", use one of "+Format.MJPG+", "+Format.MDATA+" or "+Format.MBDATA);
+
+			random = SliceRequest.RANDOM.matcher(path).matches();
+			lz     = SliceRequest.getLazyDataset(path, dataset);
+			if (lz == null) throw new IOException("No data found in '"+path+"'");
+			if (!random && (dimension < 0 || dimension >= lz.getRank())) throw new IllegalArgumentException("Cannot stream over dimension "+dimension+" of "+lz.getRank());
+
+			final String slice = getFirstValue(sess, "slice");
+			slices = slice!=null ? Slice.convertFromString(slice) : null;
+
+			if (format == Format.MJPG) {
+				bean = SliceRequest.createImageServiceBean();
+				final String histo = getFirstValue(sess, "histo");
+				if (histo!=null) bean.decode(histo);
+			}
+
+			synchronized (this) {
+				open    = true;
+				changed = true;
+			}
+			if (!random) watch();
+
+			Thread th = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					send();
+				}
+			}, "Frame Streamer");
+			th.setDaemon(true);
+			th.start();
+
+		} catch (Exception ne) {
+			logger.error("Cannot stream "+path, ne);
+			sess.close(StatusCode.SERVER_ERROR, ne.getMessage());
+		}
+	}
+
+	private static String getFirstValue(Session sess, String name) {
+		final List<String> vals = sess.getUpgradeRequest().getParameterMap().get(name);
+		return vals!=null?vals.get(0):null;
+	}
+
+	@Override
+	public void onWebSocketText(String message) {
+		if (message==null || !message.startsWith(Constants.CREDIT)) return;
+		try {
+			final int n = Integer.parseInt(message.substring(Constants.CREDIT.length()).trim());
+			if (n < 1) return;
+			synchronized (this) {
+				credits += n;
+				notifyAll();
+			}
+		} catch (NumberFormatException ne) {
+			logger.warn("Ignoring invalid credit '"+message+"'");
+		}
+	}
+
+	@Override
+	public void onWebSocketClose(int statusCode, String reason) {
+		super.onWebSocketClose(statusCode, reason);
+		close();
+	}
+
+	@Override
+	public void onWebSocketError(Throwable cause) {
+		super.onWebSocketError(cause);
+		close();
+	}
+
+	private void close() {
+		synchronized (this) {
+			if (!open) return;
+			open = false;
+			notifyAll();
+		}
+		if (watcher!=null) {
+			try {
+				watcher.close();
+			} catch (IOException e) {
+				logger.error("Error closing watcher", e);
+			}
+		}
+		logger.debug("Stream of "+path+" closed: "+count+" frames sent, "+dropped+" dropped, "+getSendTime()+"ms mean send time");
+	}
+
+	/**
+	 * Tell the sender that there may be a new frame when the file changes.
+	 */
+	private void watch() throws IOException {
+		final Path file = Paths.get(path);
+		final Path dir  = Files.isDirectory(file) ? file : file.getParent();
+		watcher = file.getFileSystem().newWatchService();
+		dir.register(watcher, ENTRY_CREATE, ENTRY_MODIFY);
+
+		Thread th = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					WatchKey key;
+					while (isOpen() && (key = watcher.take()) != null) {
+						key.pollEvents();
+						key.reset();
+						synchronized (SliceStreamSocket.this) {
+							changed = true;
+							SliceStreamSocket.this.notifyAll();
+						}
+					}
+				} catch (ClosedWatchServiceException | InterruptedException ne) {
+					// Stream closed
+				}
+			}
+		}, file.getFileName()+" Stream Watcher");
+		th.setDaemon(true);
+		th.start();
+	}
+
+	private synchronized boolean isOpen() {
+		return open;
+	}
+
+	/**
+	 * Sends the latest frame whenever there is a credit and a new frame.
+	 * Frames which appear while a frame is sent are coalesced into the latest.
+	 */
+	private void send() {
+		final Session session = getSession();
+		try {
+			while (true) {
+				synchronized (this) {
+					while (open && (credits < 1 || !(changed || random))) {
+						wait();
+					}
+					if (!open) return;
+					changed = false;
+				}
+
+				final long latest = getLatest();
+				if (latest <= sent) continue;
+				if (sent > -1) dropped += latest - sent - 1;
+
+				final long time = System.currentTimeMillis();
+				final IDataset data = getFrame(latest);
+				final ByteBuffer message = encode(latest, time, data);
+
+				synchronized (this) {
+					credits--;
+				}
+				final long start = System.nanoTime();
+				session.getRemote().sendBytes(message); // Blocks until written so rate follows bandwidth
+				sendTime += System.nanoTime() - start;
+				sent = latest;
+				count++;
+			}
+		} catch (Exception ne) {
+			if (isOpen()) {
+				logger.error("Cannot stream "+path, ne);
+				if (session.isOpen()) session.close(StatusCode.SERVER_ERROR, ne.getMessage());
+			}
+		} finally {
+			close();
+		}
+	}
+
+	/**
+	 * @return index of latest frame or -1 if there are none yet
+	 * @throws Exception
+	 */
+	private long getLatest() throws Exception {
+		if (random) return sent + 1;
+
+		if (lz instanceof IDynamicDataset) {
+			((IDynamicDataset) lz).refreshShape();
+		} else {
+			lz = LazyDatasetCache.getDefault().get(path, dataset); // Reloaded if file was modified
+		}
+		final int[] shape = lz.getShape();
+		final int   stop  = slices!=null && slices[dimension].getStop()!=null
+				          ? Math.min(slices[dimension].getStop(), shape[dimension])
+				          : shape[dimension];
+		return stop - 1;
+	}
+
+	private IDataset getFrame(long index) throws Exception {
+		if (random) return SliceRequest.getData(lz, null, bin);
+
+		final Slice[] frame = new Slice[lz.getRank()];
+		for (int i = 0; i < frame.length; i++) {
+			frame[i] = slices!=null && i < slices.length ? slices[i].clone() : new Slice();
+		}
+		frame[dimension] = new Slice((int) index, (int) index + 1);
+		return SliceRequest.getData(lz, frame, bin);
+	}
+
+	private ByteBuffer encode(long index, long time, IDataset data) throws Exception {
+		final FrameOutputStream out;
+		if (format == Format.MBDATA) {
+			out = new FrameOutputStream((int) (Constants.STREAM_HEADER_SIZE + BinaryFrame.getLength(data)));
+			writeHeader(out, index, time);
+			BinaryFrame.write(data, out);
+		} else {
+			final byte[] frame = SliceRequest.getFrame(data, bean, format);
+			out = new FrameOutputStream(Constants.STREAM_HEADER_SIZE + frame.length);
+			writeHeader(out, index, time);
+			out.write(frame);
+		}
+		return out.toByteBuffer();
+	}
+
+	private void writeHeader(FrameOutputStream out, long index, long time) throws IOException {
+		final ByteBuffer header = ByteBuffer.allocate(Constants.STREAM_HEADER_SIZE);
+		header.putLong(index);
+		header.putLong(dropped);
+		header.putLong(time);
+		out.write(header.array());
+	}
+
+	/**
+	 * @return number of frames sent
+	 */
+	public long getFrameCount() {
+		return count;
+	}
+
+	/**
+	 * @return number of frames dropped as later ones appeared before they were sent
+	 */
+	public long getDroppedCount() {
+		return dropped;
+	}
+
+	/**
+	 * @return mean time in ms to send a frame
+	 */
+	public double getSendTime() {
+		return count > 0 ? sendTime * 1e-6 / count : 0;
+	}
+
+	/**
+	 * Stream that gives its bytes as a buffer without copying
+	 */
+	private static class FrameOutputStream extends ByteArrayOutputStream {
+		FrameOutputStream(int size) {
+			super(size);
+		}
+
+		ByteBuffer toByteBuffer() {
+			return ByteBuffer.wrap(buf, 0, count);
+		}
+	}
+}
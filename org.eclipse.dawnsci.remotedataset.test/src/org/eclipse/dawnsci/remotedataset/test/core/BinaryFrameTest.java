@@ -0,0 +1,162 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.remotedataset.test.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.channels.Channels;
+
+import org.eclipse.dawnsci.analysis.api.dataset.IDataset;
+import org.eclipse.dawnsci.analysis.dataset.impl.Dataset;
+import org.eclipse.dawnsci.analysis.dataset.impl.DatasetFactory;
+import org.eclipse.dawnsci.analysis.dataset.impl.DatasetUtils;
+import org.eclipse.dawnsci.analysis.dataset.impl.Random;
+import org.eclipse.dawnsci.remotedataset.BinaryFrame;
+import org.junit.Test;
+
+public class BinaryFrameTest {
+
+	private static byte[] write(IDataset data) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		long n = BinaryFrame.write(data, out);
+		assertEquals(n, out.size());
+		assertEquals(BinaryFrame.getLength(data), n);
+		return out.toByteArray();
+	}
+
+	private static Dataset read(byte[] frame) throws IOException {
+		return BinaryFrame.read(new ByteArrayInputStream(frame));
+	}
+
+	private static void check(Dataset expected) throws IOException {
+		byte[] frame = write(expected);
+		Dataset actual = read(frame);
+		assertEquals(expected.getDtype(), actual.getDtype());
+		assertEquals(expected.getElementsPerItem(), actual.getElementsPerItem());
+		assertArrayEquals(expected.getShapeRef(), actual.getShapeRef());
+		assertEquals(expected, actual);
+
+		// through channels with direct buffers
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		BinaryFrame.write(expected, Channels.newChannel(out));
+		assertArrayEquals(frame, out.toByteArray());
+		assertEquals(expected, BinaryFrame.read(Channels.newChannel(new ByteArrayInputStream(frame))));
+	}
+
+	@Test
+	public void testTypes() throws IOException {
+		int[] types = {Dataset.INT8, Dataset.INT16, Dataset.INT32, Dataset.INT64, Dataset.FLOAT32, Dataset.FLOAT64};
+		for (int t : types) {
+			check(DatasetFactory.createRange(3 * 4 * 5, t).reshape(3, 4, 5));
+		}
+		check(DatasetFactory.createRange(3 * 4 * 5, Dataset.INT16).reshape(3, 4, 5).cast(Dataset.BOOL));
+		check(DatasetFactory.createRange(20, Dataset.COMPLEX128));
+		check(DatasetUtils.createCompoundDatasetFromLastAxis(DatasetFactory.createRange(3 * 30, Dataset.FLOAT32).reshape(30, 3), true));
+		check(DatasetFactory.zeros(new int[] {3, 0}, Dataset.FLOAT64));
+		check(DatasetFactory.createFromObject(2.5));
+	}
+
+	@Test
+	public void testLarge() throws IOException {
+		// spans several channel buffers
+		check(Random.rand(300, 500));
+		check(DatasetFactory.createRange(100000, Dataset.INT8));
+	}
+
+	@Test
+	public void testView() throws IOException {
+		Dataset data = DatasetFactory.createRange(10 * 12, Dataset.INT32).reshape(10, 12);
+		Dataset view = data.getSliceView(new int[] {1, 2}, new int[] {9, 12}, new int[] {2, 3});
+		Dataset actual = read(write(view));
+		assertArrayEquals(new int[] {4, 4}, actual.getShapeRef());
+		assertEquals(view, actual);
+	}
+
+	@Test
+	public void testUnsupported() throws IOException {
+		assertFalse(BinaryFrame.isSupported(DatasetFactory.createFromObject(new String[] {"a", "b"})));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testStrings() throws IOException {
+		write(DatasetFactory.createFromObject(new String[] {"a", "b"}));
+	}
+
+	@Test(expected = IOException.class)
+	public void testTruncated() throws IOException {
+		byte[] frame = write(DatasetFactory.createRange(100, Dataset.FLOAT64));
+		byte[] shorter = new byte[frame.length - 8];
+		System.arraycopy(frame, 0, shorter, 0, shorter.length);
+		read(shorter);
+	}
+
+	@Test(expected = IOException.class)
+	public void testNotFrame() throws IOException {
+		read(new byte[100]);
+	}
+
+	/**
+	 * Compare with serialization used by DATA format. Streams are sized up front so
+	 * their growth is not timed and the best of several repeats is reported
+	 */
+	@Test
+	public void testSpeed() throws Exception {
+		int[] types = {Dataset.INT16, Dataset.INT32, Dataset.FLOAT64};
+		for (int t : types) {
+			Dataset data = Random.rand(2048, 2048).imultiply(1000).cast(t);
+			int capacity = (int) BinaryFrame.getLength(data) + 1024;
+			long[] best = {Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE};
+			int slength = 0;
+			int blength = 0;
+
+			for (int i = 0; i < 6; i++) {
+				long t0 = System.nanoTime();
+				ByteArrayOutputStream bout = new ByteArrayOutputStream(capacity);
+				ObjectOutputStream oout = new ObjectOutputStream(bout);
+				oout.writeObject(data);
+				oout.close();
+				byte[] object = bout.toByteArray();
+				long t1 = System.nanoTime();
+				ObjectInputStream oin = new ObjectInputStream(new ByteArrayInputStream(object));
+				IDataset s = (IDataset) oin.readObject();
+				oin.close();
+				long t2 = System.nanoTime();
+				assertEquals(data, s);
+				slength = object.length;
+				best[0] = Math.min(best[0], t1 - t0);
+				best[1] = Math.min(best[1], t2 - t1);
+				object = null;
+				s = null;
+
+				t0 = System.nanoTime();
+				ByteArrayOutputStream fout = new ByteArrayOutputStream(capacity);
+				BinaryFrame.write(data, fout);
+				byte[] frame = fout.toByteArray();
+				t1 = System.nanoTime();
+				Dataset b = read(frame);
+				t2 = System.nanoTime();
+				assertEquals(data, b);
+				blength = frame.length;
+				best[2] = Math.min(best[2], t1 - t0);
+				best[3] = Math.min(best[3], t2 - t1);
+			}
+			System.err.println(data.elementClass().getSimpleName() + " 2048x2048:");
+			System.err.printf("\tserialized %d bytes, write %.1fms, read %.1fms\n", slength, best[0] * 1e-6, best[1] * 1e-6);
+			System.err.printf("\tbinary frame %d bytes, write %.1fms, read %.1fms\n", blength, best[2] * 1e-6, best[3] * 1e-6);
+		}
+	}
+}
@@ -0,0 +1,88 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.remotedataset.test.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.eclipse.dawnsci.remotedataset.TileLayout;
+import org.junit.Test;
+
+public class TileLayoutTest {
+
+	@Test
+	public void testLevels() {
+		TileLayout layout = new TileLayout(new int[] {4096, 3000}, 256);
+		assertEquals(5, layout.getLevels());
+		assertArrayEquals(new int[] {4096, 3000}, layout.getShape(0));
+		assertArrayEquals(new int[] {2048, 1500}, layout.getShape(1));
+		assertArrayEquals(new int[] {256, 188}, layout.getShape(4));
+		assertArrayEquals(new int[] {16, 12}, layout.getTileCounts(0));
+		assertArrayEquals(new int[] {1, 1}, layout.getTileCounts(4));
+
+		// odd sides round up
+		layout = new TileLayout(new int[] {5, 7}, 2);
+		assertEquals(3, layout.getLevels());
+		assertArrayEquals(new int[] {3, 4}, layout.getShape(1));
+		assertArrayEquals(new int[] {2, 2}, layout.getShape(2));
+
+		assertEquals(1, new TileLayout(new int[] {100, 200}, 256).getLevels());
+	}
+
+	@Test
+	public void testTileRegion() {
+		TileLayout layout = new TileLayout(new int[] {1000, 600}, 256);
+		assertArrayEquals(new int[] {0, 0, 256, 256}, layout.getTileRegion(0, 0, 0));
+		assertArrayEquals(new int[] {768, 512, 1000, 600}, layout.getTileRegion(0, 3, 2));
+		assertArrayEquals(new int[] {256, 256, 500, 300}, layout.getTileRegion(1, 1, 1));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTileOutside() {
+		new TileLayout(new int[] {1000, 600}, 256).getTileRegion(0, 4, 0);
+	}
+
+	@Test
+	public void testViewport() {
+		TileLayout layout = new TileLayout(new int[] {4096, 4096}, 256);
+		List<int[]> tiles = layout.getTiles(0, 300, 300, 300, 100);
+		assertEquals(2, tiles.size()); // rows 1 to 2, column 1
+		assertArrayEquals(new int[] {1, 1}, tiles.get(0));
+		assertArrayEquals(new int[] {2, 1}, tiles.get(1));
+
+		// whole image at level 4 is one tile
+		assertEquals(1, layout.getTiles(4, 0, 0, 4096, 4096).size());
+		assertArrayEquals(new int[] {0, 0, 256, 256}, layout.getRegion(4, 0, 0, 4096, 4096));
+
+		// clipped to image
+		assertArrayEquals(new int[] {2048, 0, 2048, 10}, layout.getRegion(1, 5000, -20, 100, 40));
+		assertTrue(layout.getTiles(1, 5000, -20, 100, 40).isEmpty());
+		assertArrayEquals(new int[] {0, 0, 1, 1}, layout.getRegion(2, -3, -3, 4, 4));
+	}
+
+	@Test
+	public void testScale() {
+		TileLayout layout = new TileLayout(new int[] {4096, 4096}, 256);
+		assertEquals(0, layout.getLevel(2));
+		assertEquals(0, layout.getLevel(1));
+		assertEquals(0, layout.getLevel(0.6));
+		assertEquals(1, layout.getLevel(0.5));
+		assertEquals(2, layout.getLevel(0.25));
+		assertEquals(4, layout.getLevel(0.001)); // top level
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNotImage() {
+		new TileLayout(new int[] {10, 10, 10}, 256);
+	}
+}
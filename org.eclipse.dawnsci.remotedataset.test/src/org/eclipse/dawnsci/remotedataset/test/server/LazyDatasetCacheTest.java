@@ -0,0 +1,218 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.remotedataset.test.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.dawnsci.analysis.api.dataset.ILazyDataset;
+import org.eclipse.dawnsci.analysis.api.io.IDataHolder;
+import org.eclipse.dawnsci.analysis.api.io.ILoaderService;
+import org.eclipse.dawnsci.analysis.api.monitor.IMonitor;
+import org.eclipse.dawnsci.analysis.dataset.impl.Dataset;
+import org.eclipse.dawnsci.analysis.dataset.impl.LazyDynamicDataset;
+import org.eclipse.dawnsci.analysis.dataset.impl.Random;
+import org.eclipse.dawnsci.remotedataset.ServiceHolder;
+import org.eclipse.dawnsci.remotedataset.server.LazyDatasetCache;
+import org.eclipse.dawnsci.remotedataset.test.mock.LoaderServiceMock;
+import org.eclipse.dawnsci.remotedataset.test.mock.MockDataHolder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LazyDatasetCacheTest {
+
+	/**
+	 * Records the most refreshes of its shape that overlap
+	 */
+	private static class RefreshingDataset extends LazyDynamicDataset {
+		private static final long serialVersionUID = 1L;
+
+		private final AtomicInteger active = new AtomicInteger();
+		private final AtomicInteger overlap = new AtomicInteger();
+		private final AtomicInteger refreshes = new AtomicInteger();
+
+		RefreshingDataset() {
+			super("dynamic", Dataset.FLOAT64, 1, new int[] {4, 5}, null, null);
+		}
+
+		@Override
+		public void refreshShape() {
+			int n = active.incrementAndGet();
+			int m = overlap.get();
+			while (n > m && !overlap.compareAndSet(m, n)) {
+				m = overlap.get();
+			}
+			try {
+				Thread.sleep(2);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				active.decrementAndGet();
+				refreshes.incrementAndGet();
+			}
+		}
+	}
+
+	private static class CountingLoaderService extends LoaderServiceMock {
+		private int loads;
+		private int clears;
+
+		@Override
+		public IDataHolder getData(String filePath, boolean lazily, IMonitor monitor) throws Exception {
+			loads++;
+			MockDataHolder holder = new MockDataHolder();
+			holder.addDataset("data", Random.lazyRand("data", 4, 5));
+			holder.addDataset("other", Random.lazyRand("other", 3));
+			holder.addDataset("dynamic", new RefreshingDataset());
+			return holder;
+		}
+
+		@Override
+		public void clearSoftReferenceCache(String filePath) {
+			clears++;
+		}
+	}
+
+	private ILoaderService previous;
+	private CountingLoaderService loader;
+	private File[] files;
+
+	@Before
+	public void setUp() throws IOException {
+		previous = ServiceHolder.getLoaderService();
+		loader = new CountingLoaderService();
+		ServiceHolder.setLoaderService(loader);
+		files = new File[3];
+		for (int i = 0; i < files.length; i++) {
+			files[i] = File.createTempFile("cache" + i, ".h5");
+			files[i].deleteOnExit();
+		}
+	}
+
+	@After
+	public void tearDown() {
+		ServiceHolder.setLoaderService(previous);
+		for (File f : files) {
+			f.delete();
+		}
+	}
+
+	@Test
+	public void testHits() throws Exception {
+		LazyDatasetCache cache = new LazyDatasetCache(4);
+		String path = files[0].getAbsolutePath();
+		ILazyDataset a = cache.get(path, "data");
+		for (int i = 0; i < 10; i++) {
+			assertSame(a, cache.get(path, "data"));
+		}
+		assertEquals(1, loader.loads);
+		assertEquals(10, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+
+		assertEquals("other", cache.get(path, "other").getName());
+		assertEquals("data", cache.get(path, null).getName());
+		assertEquals(3, loader.loads);
+		assertEquals(3, cache.size());
+		assertNull(cache.get(path, "missing"));
+	}
+
+	@Test
+	public void testModified() throws Exception {
+		LazyDatasetCache cache = new LazyDatasetCache(4);
+		String path = files[0].getAbsolutePath();
+		ILazyDataset a = cache.get(path, "data");
+		files[0].setLastModified(files[0].lastModified() + 2000);
+		ILazyDataset b = cache.get(path, "data");
+		assertNotSame(a, b);
+		assertEquals(2, loader.loads);
+		assertEquals(1, loader.clears);
+		assertSame(b, cache.get(path, "data"));
+	}
+
+	@Test
+	public void testEviction() throws Exception {
+		LazyDatasetCache cache = new LazyDatasetCache(2);
+		String[] paths = new String[files.length];
+		for (int i = 0; i < files.length; i++) {
+			paths[i] = files[i].getAbsolutePath();
+		}
+		ILazyDataset a = cache.get(paths[0], "data");
+		cache.get(paths[1], "data");
+		assertSame(a, cache.get(paths[0], "data")); // now most recently used
+		cache.get(paths[2], "data");
+		assertEquals(2, cache.size());
+		assertEquals(3, loader.loads);
+
+		assertSame(a, cache.get(paths[0], "data"));
+		cache.get(paths[1], "data");
+		assertEquals(4, loader.loads);
+	}
+
+	@Test
+	public void testInvalidate() throws Exception {
+		LazyDatasetCache cache = new LazyDatasetCache(4);
+		String path = files[0].getAbsolutePath();
+		ILazyDataset a = cache.get(path, "data");
+		cache.get(path, "other");
+		cache.get(files[1].getAbsolutePath(), "data");
+		cache.invalidate(path);
+		assertEquals(1, cache.size());
+		assertEquals(1, loader.clears);
+		assertNotSame(a, cache.get(path, "data"));
+		assertEquals(4, loader.loads);
+	}
+
+	@Test(expected = IOException.class)
+	public void testMissingFile() throws Exception {
+		new LazyDatasetCache(4).get(new File(files[0].getParentFile(), "not-there.h5").getAbsolutePath(), "data");
+	}
+
+	@Test
+	public void testConcurrentRefresh() throws Exception {
+		final LazyDatasetCache cache = new LazyDatasetCache(4);
+		final String path = files[0].getAbsolutePath();
+		final RefreshingDataset lz = (RefreshingDataset) cache.get(path, "dynamic");
+
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<ILazyDataset>> gets = new ArrayList<>();
+			for (int i = 0; i < 40; i++) {
+				gets.add(pool.submit(new Callable<ILazyDataset>() {
+					@Override
+					public ILazyDataset call() throws Exception {
+						return cache.get(path, "dynamic");
+					}
+				}));
+			}
+			for (Future<ILazyDataset> f : gets) {
+				assertSame(lz, f.get());
+			}
+		} finally {
+			pool.shutdown();
+		}
+		assertEquals(41, lz.refreshes.get());
+		assertTrue("Shape of shared handle was refreshed concurrently", lz.overlap.get() == 1);
+		assertEquals(1, loader.loads);
+	}
+}
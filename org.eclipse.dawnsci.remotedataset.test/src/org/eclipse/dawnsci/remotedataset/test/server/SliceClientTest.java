@@ -15,9 +15,12 @@ import java.awt.image.BufferedImage;
 import java.util.Arrays;
 
 import org.eclipse.dawnsci.analysis.api.dataset.IDataset;
+import org.eclipse.dawnsci.analysis.dataset.impl.Dataset;
 import org.eclipse.dawnsci.remotedataset.Format;
 import org.eclipse.dawnsci.remotedataset.ServiceHolder;
+import org.eclipse.dawnsci.remotedataset.TileLayout;
 import org.eclipse.dawnsci.remotedataset.client.slice.SliceClient;
+import org.eclipse.dawnsci.remotedataset.client.slice.TileClient;
 import org.eclipse.dawnsci.remotedataset.test.mock.LoaderServiceMock;
 import org.junit.Before;
 import org.junit.Test;
@@ -59,6 +62,29 @@ public class SliceClientTest extends DataServerTest {
 		System.out.println("> testFullData ok");
 	}
 
+	@Test
+	public void testFullBinaryData() throws Exception {
+		System.out.println("> testFullBinaryData start");
+		System.out.flush();
+		final SliceClient<IDataset> client = new SliceClient<IDataset>("localhost", port);
+		client.setPath(testDir+"/export.h5");
+		client.setDataset("/entry/edf/data");
+		client.setSlice("[0,:2048,:2048]");
+		client.setFormat(Format.BDATA);
+
+		final IDataset data = client.get();
+		if (!Arrays.equals(data.getShape(), new int[]{2048, 2048})) {
+			throw new Exception("Unexpected shape "+Arrays.toString(data.getShape()));
+		}
+		
+		client.setFormat(Format.DATA);
+		final IDataset object = client.get();
+		if (!data.equals(object)) {
+			throw new Exception("Binary frame differs from serialized data");
+		}
+		System.out.println("> testFullBinaryData ok");
+	}
+
 	@Test
 	public void testDownsampledData() throws Exception {
 		System.out.println("> testDownsampledData start");
@@ -188,4 +214,69 @@ public class SliceClientTest extends DataServerTest {
 		System.out.println("Dropped images = "+client.getDroppedImageCount());
 		System.out.println("> testFastMDATA ok");
 	}
+
+	@Test
+	public void testPushMBDATA() throws Exception {
+		System.out.println("> testPushMBDATA start");
+		System.out.flush();
+		final SliceClient<IDataset> client = new SliceClient<IDataset>("localhost", port);
+		client.setPath("RANDOM:512x512");
+		client.setFormat(Format.MBDATA);
+		client.setPush(true); // No sleep, frames come as fast as we take them
+		
+		int i = 0;
+		long start = System.currentTimeMillis();
+		while(!client.isFinished()) {
+			
+			final IDataset image = client.take();
+			if (image ==null) break; // Last image in stream is null.
+			if (image.getShape()[0]!=512) throw new Exception("Unexpected image height '"+image.getShape()[0]+"'");
+			if (image.getShape()[1]!=512)  throw new Exception("Unexpected image height '"+image.getShape()[1]+"'");
+			++i;
+			if (i>100) {
+				client.setFinished(true);
+				break; // That's enough of that
+			}
+		}
+		long time = System.currentTimeMillis()-start;
+		
+		if (i<=100) throw new Exception("Stream ended after "+i+" images");
+		System.out.println("Received images = "+i+" in "+time+"ms");
+		System.out.println("Dropped images = "+client.getDroppedImageCount());
+		System.out.println("Mean latency = "+client.getLatency()+"ms");
+		System.out.println("> testPushMBDATA ok");
+	}
+
+	@Test
+	public void testTiles() throws Exception {
+		System.out.println("> testTiles start");
+		System.out.flush();
+		final TileClient client = new TileClient("localhost", port);
+		client.setPath("RANDOM:2048x2048");
+		
+		final TileLayout layout = client.getLayout();
+		if (layout.getLevels()!=4) throw new Exception("Unexpected number of levels "+layout.getLevels());
+		
+		// Whole image zoomed out to fit 512 pixels
+		Dataset view = client.getViewport(0.25, 0, 0, 2048, 2048);
+		if (!Arrays.equals(view.getShape(), new int[]{512, 512})) {
+			throw new Exception("Unexpected shape "+Arrays.toString(view.getShape()));
+		}
+		long requests = client.getRequestCount();
+		
+		// Pan within the same tiles
+		view = client.getViewport(0.25, 100, 100, 1000, 1000);
+		if (!Arrays.equals(view.getShape(), new int[]{250, 250})) {
+			throw new Exception("Unexpected shape "+Arrays.toString(view.getShape()));
+		}
+		if (client.getRequestCount()!=requests) throw new Exception("Tiles should have been cached");
+		
+		// Full resolution corner
+		view = client.getViewport(1, 1900, 1900, 300, 300);
+		if (!Arrays.equals(view.getShape(), new int[]{148, 148})) {
+			throw new Exception("Unexpected shape "+Arrays.toString(view.getShape()));
+		}
+		System.out.println("Tiles requested = "+client.getRequestCount());
+		System.out.println("> testTiles ok");
+	}
 }
@@ -0,0 +1,110 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.remotedataset.test.server;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.net.CookieHandler;
+import java.net.CookieManager;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.dawnsci.analysis.api.dataset.IDataset;
+import org.eclipse.dawnsci.remotedataset.Format;
+import org.eclipse.dawnsci.remotedataset.client.slice.SliceClient;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Load test measuring the throughput of slices with N concurrent clients, either
+ * all in one HTTP session or each in their own session.
+ */
+public class SliceLoadTest extends DataServerTest {
+
+	private static final int[] CLIENTS = {1, 2, 4, 8};
+	private static final int SLICES = 50; // per client
+
+	private CookieHandler previous = CookieHandler.getDefault();
+
+	@After
+	public void resetCookies() {
+		CookieHandler.setDefault(previous);
+	}
+
+	@Test
+	public void testOneSession() throws Exception {
+		// Clients in one JVM share the default cookie handler and so the session
+		CookieHandler.setDefault(new CookieManager());
+		load("one session");
+	}
+
+	@Test
+	public void testManySessions() throws Exception {
+		CookieHandler.setDefault(null); // each request is in a new session
+		load("many sessions");
+	}
+
+	private void load(String name) throws Exception {
+		slices(1, 5); // warm up server and make session
+		for (int n : CLIENTS) {
+			long start = System.nanoTime();
+			int count = slices(n, SLICES);
+			double seconds = (System.nanoTime() - start) * 1e-9;
+			assertEquals(n * SLICES, count);
+			System.err.printf("%s, %d clients: %d slices in %.2fs, %.1f slices/s\n", name, n, count, seconds, count / seconds);
+		}
+	}
+
+	/**
+	 * @param clients
+	 * @param slices per client
+	 * @return number of correct slices received
+	 * @throws Exception if any client fails
+	 */
+	private int slices(int clients, final int slices) throws Exception {
+		final CountDownLatch go = new CountDownLatch(1);
+		final AtomicInteger count = new AtomicInteger();
+		ExecutorService clientPool = Executors.newFixedThreadPool(clients);
+		try {
+			Future<?>[] futures = new Future<?>[clients];
+			for (int i = 0; i < clients; i++) {
+				futures[i] = clientPool.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						final SliceClient<IDataset> client = new SliceClient<IDataset>("localhost", port);
+						client.setPath("RANDOM:512x512");
+						client.setFormat(Format.BDATA);
+						go.await();
+						for (int j = 0; j < slices; j++) {
+							IDataset data = client.get();
+							assertArrayEquals(new int[] {512, 512}, data.getShape());
+							count.incrementAndGet();
+						}
+						return null;
+					}
+				});
+			}
+			go.countDown();
+			for (Future<?> f : futures) {
+				f.get(); // rethrows any failure
+			}
+		} finally {
+			clientPool.shutdownNow();
+			clientPool.awaitTermination(10, TimeUnit.SECONDS);
+		}
+		return count.get();
+	}
+}
@@ -0,0 +1,179 @@
+/*-
+ * Copyright 2016 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.dawnsci.remotedataset.test.server;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.dawnsci.analysis.api.dataset.IDataset;
+import org.eclipse.dawnsci.analysis.api.dataset.ILazyDataset;
+import org.eclipse.dawnsci.analysis.api.dataset.SliceND;
+import org.eclipse.dawnsci.analysis.api.downsample.DownsampleMode;
+import org.eclipse.dawnsci.analysis.api.io.ILazyLoader;
+import org.eclipse.dawnsci.analysis.api.monitor.IMonitor;
+import org.eclipse.dawnsci.analysis.dataset.impl.Dataset;
+import org.eclipse.dawnsci.analysis.dataset.impl.DatasetFactory;
+import org.eclipse.dawnsci.analysis.dataset.impl.LazyDynamicDataset;
+import org.eclipse.dawnsci.analysis.dataset.impl.Random;
+import org.eclipse.dawnsci.remotedataset.TileLayout;
+import org.eclipse.dawnsci.remotedataset.server.TileCache;
+import org.eclipse.dawnsci.remotedataset.server.TilePyramid;
+import org.junit.Test;
+
+public class TilePyramidTest {
+
+	@Test
+	public void testLevels() {
+		Dataset image = DatasetFactory.createRange(5 * 7, Dataset.FLOAT64).reshape(5, 7);
+		TilePyramid pyramid = new TilePyramid(image, DownsampleMode.MEAN);
+		assertEquals(4, pyramid.getLevels()); // 5x7, 3x4, 2x2, 1x1
+		assertArrayEquals(new int[] {3, 4}, pyramid.getLevel(1).getShapeRef());
+		assertArrayEquals(new int[] {1, 1}, pyramid.getLevel(3).getShapeRef());
+		assertEquals((0 + 1 + 7 + 8) / 4., pyramid.getLevel(1).getDouble(0, 0), 1e-12);
+		assertEquals(8 * (35 + 12 + 4 + 1), pyramid.getNbytes());
+
+		pyramid = new TilePyramid(image, DownsampleMode.MAXIMUM);
+		assertEquals(34, pyramid.getLevel(3).getDouble(0, 0), 0);
+	}
+
+	@Test
+	public void testTiles() {
+		Dataset image = Random.rand(1000, 600);
+		TilePyramid pyramid = new TilePyramid(image, DownsampleMode.MEAN);
+		TileLayout layout = pyramid.getLayout(256);
+		assertEquals(3, layout.getLevels());
+
+		// tiles of level 0 put back together are the image
+		Dataset copy = DatasetFactory.zeros(image);
+		int[] n = layout.getTileCounts(0);
+		for (int row = 0; row < n[0]; row++) {
+			for (int col = 0; col < n[1]; col++) {
+				int[] r = layout.getTileRegion(0, row, col);
+				copy.setSlice(pyramid.getTile(layout, 0, row, col), new int[] {r[0], r[1]}, new int[] {r[2], r[3]}, null);
+			}
+		}
+		assertEquals(image, copy);
+
+		assertArrayEquals(new int[] {250, 150}, pyramid.getTile(layout, 2, 0, 0).getShapeRef());
+		assertEquals(pyramid.getLevel(2), pyramid.getTile(layout, 2, 0, 0));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNotImage() {
+		new TilePyramid(Random.rand(3, 4, 5), DownsampleMode.MEAN);
+	}
+
+	@Test
+	public void testCache() throws Exception {
+		TileCache cache = new TileCache(1024 * 1024);
+		ILazyDataset lz = Random.lazyRand("data", 10, 64, 64);
+		TilePyramid a = cache.get("/a.h5", "data", lz, "[0,:,:]", DownsampleMode.MEAN);
+		assertSame(a, cache.get("/a.h5", "data", lz, "[0,:,:]", DownsampleMode.MEAN));
+		assertEquals(1, cache.getHitCount());
+
+		TilePyramid b = cache.get("/a.h5", "data", lz, "[1,:,:]", DownsampleMode.MEAN);
+		assertNotSame(a, b);
+		assertNotSame(a, cache.get("/a.h5", "data", lz, "[0,:,:]", DownsampleMode.MAXIMUM));
+		assertEquals(3, cache.size());
+		assertEquals(3 * a.getNbytes(), cache.getNbytes());
+
+		// new handle after file changed
+		ILazyDataset changed = Random.lazyRand("data", 10, 64, 64);
+		assertNotSame(a, cache.get("/a.h5", "data", changed, "[0,:,:]", DownsampleMode.MEAN));
+		assertEquals(3, cache.size());
+
+		cache.invalidate("/a.h5");
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void testDynamic() throws Exception {
+		final Dataset live = DatasetFactory.createRange(64 * 64, Dataset.FLOAT64).reshape(64, 64);
+		LazyDynamicDataset lz = new LazyDynamicDataset("image", Dataset.FLOAT64, 1, new int[] {32, 64}, new int[] {64, 64}, new ILazyLoader() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public boolean isFileReadable() {
+				return true;
+			}
+
+			@Override
+			public IDataset getDataset(IMonitor mon, SliceND slice) throws Exception {
+				return live.getSlice(slice);
+			}
+		});
+
+		TileCache cache = new TileCache(1024 * 1024);
+		TilePyramid a = cache.get("/live.h5", "image", lz, null, DownsampleMode.MEAN);
+		assertArrayEquals(new int[] {32, 64}, a.getShape());
+		assertSame(a, cache.get("/live.h5", "image", lz, null, DownsampleMode.MEAN));
+
+		// same handle after refresh
+		lz.resize(48, 64);
+		TilePyramid b = cache.get("/live.h5", "image", lz, null, DownsampleMode.MEAN);
+		assertNotSame(a, b);
+		assertArrayEquals(new int[] {48, 64}, b.getShape());
+		assertEquals(1, cache.size());
+
+		// rewritten in place
+		live.iadd(1);
+		cache.invalidate("/live.h5");
+		TilePyramid c = cache.get("/live.h5", "image", lz, null, DownsampleMode.MEAN);
+		assertNotSame(b, c);
+		assertEquals(1, c.getLevel(0).getDouble(0, 0), 1e-12);
+		assertEquals(3, cache.getMissCount());
+	}
+
+	@Test
+	public void testEviction() throws Exception {
+		ILazyDataset lz = Random.lazyRand("data", 10, 64, 64);
+		long size = new TilePyramid(Random.rand(64, 64), DownsampleMode.MEAN).getNbytes();
+		TileCache cache = new TileCache(2 * size);
+		TilePyramid a = cache.get("/a.h5", "data", lz, "[0,:,:]", DownsampleMode.MEAN);
+		cache.get("/a.h5", "data", lz, "[1,:,:]", DownsampleMode.MEAN);
+		assertSame(a, cache.get("/a.h5", "data", lz, "[0,:,:]", DownsampleMode.MEAN)); // now most recently used
+		cache.get("/a.h5", "data", lz, "[2,:,:]", DownsampleMode.MEAN);
+		assertEquals(2, cache.size());
+		assertSame(a, cache.get("/a.h5", "data", lz, "[0,:,:]", DownsampleMode.MEAN));
+		assertEquals(2 * size, cache.getNbytes());
+	}
+
+	@Test
+	public void testConcurrent() throws Exception {
+		final TileCache cache = new TileCache(64 * 1024 * 1024);
+		final ILazyDataset lz = Random.lazyRand("data", 2, 1024, 1024);
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			@SuppressWarnings("unchecked")
+			Future<TilePyramid>[] futures = new Future[8];
+			for (int i = 0; i < futures.length; i++) {
+				futures[i] = pool.submit(new Callable<TilePyramid>() {
+					@Override
+					public TilePyramid call() throws Exception {
+						return cache.get("/a.h5", "data", lz, "[0,:,:]", DownsampleMode.MEAN);
+					}
+				});
+			}
+			for (Future<TilePyramid> f : futures) {
+				assertSame(futures[0].get(), f.get());
+			}
+			assertEquals(1, cache.getMissCount()); // made once
+		} finally {
+			pool.shutdown();
+		}
+	}
+}